@@ -0,0 +1,80 @@
+package com.adakalgroup.bdqm.config;
+
+import com.adakalgroup.bdqm.service.CbsLoadThrottle;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteListener;
+
+/**
+ * Routes every query of the Informix DSLContext through the CBS load throttle: one permit from the
+ * start of the query until it ends (for a lazy cursor, until it is closed, so max-concurrent caps the
+ * cursors open on the CBS), the execution time as a latency signal, fetched rows against the row budget
+ * and errors for lock detection.
+ */
+public class CbsThrottleExecuteListener implements ExecuteListener {
+
+    private static final String PERMIT = "cbs-throttle-permit";
+    private static final String EXECUTE_START = "cbs-throttle-execute-start";
+    private static final String PENDING_ROWS = "cbs-throttle-pending-rows";
+
+    /** Rows are charged to the budget in chunks, not one by one. */
+    private static final int ROW_CHUNK = 100;
+
+    private final CbsLoadThrottle throttle;
+
+    public CbsThrottleExecuteListener(CbsLoadThrottle throttle) {
+        this.throttle = throttle;
+    }
+
+    @Override
+    public void start(ExecuteContext ctx) {
+        ctx.data(PERMIT, throttle.acquireQuery());
+    }
+
+    @Override
+    public void executeStart(ExecuteContext ctx) {
+        ctx.data(EXECUTE_START, System.currentTimeMillis());
+    }
+
+    @Override
+    public void executeEnd(ExecuteContext ctx) {
+        if (ctx.data(EXECUTE_START) instanceof Long start) {
+            throttle.onQueryExecuted(System.currentTimeMillis() - start);
+        }
+    }
+
+    @Override
+    public void recordEnd(ExecuteContext ctx) {
+        int pending = ctx.data(PENDING_ROWS) instanceof Integer n ? n + 1 : 1;
+        if (pending >= ROW_CHUNK) {
+            throttle.acquireRows(pending, permit(ctx));
+            pending = 0;
+        }
+        ctx.data(PENDING_ROWS, pending);
+    }
+
+    @Override
+    public void exception(ExecuteContext ctx) {
+        throttle.onQueryFailed(ctx.exception());
+        release(ctx);
+    }
+
+    @Override
+    public void end(ExecuteContext ctx) {
+        if (ctx.data(PENDING_ROWS) instanceof Integer pending && pending > 0) {
+            throttle.acquireRows(pending, permit(ctx));
+            ctx.data(PENDING_ROWS, 0);
+        }
+        release(ctx);
+    }
+
+    private static CbsLoadThrottle.Permit permit(ExecuteContext ctx) {
+        return ctx.data(PERMIT) instanceof CbsLoadThrottle.Permit permit ? permit : null;
+    }
+
+    private void release(ExecuteContext ctx) {
+        CbsLoadThrottle.Permit permit = permit(ctx);
+        if (permit != null) {
+            permit.close();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.adakalgroup.bdqm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Load limits applied to every query sent to the Informix CBS (see CbsLoadThrottle).
+ * The top-level limits apply outside of any profile; a rate of 0 means unlimited.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "app.cbs-throttle")
+public class CbsThrottleProperties {
+
+    /**
+     * Whether CBS queries are throttled at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Rows read from the CBS per second, all consumers together.
+     */
+    private int rowsPerSecond = 0;
+
+    /**
+     * Queries started on the CBS per second.
+     */
+    private int queriesPerSecond = 0;
+
+    /**
+     * Queries (including open streaming cursors) running on the CBS at the same time.
+     */
+    private int maxConcurrent = 4;
+
+    /**
+     * Execution time above which a query counts as a sign of CBS contention and slows the throttle down.
+     */
+    private long latencyThresholdMs = 5000;
+
+    /**
+     * Highest factor the limits can be divided by after lock waits or slow queries.
+     */
+    private double maxBackoff = 16;
+
+    /**
+     * Time-of-day profiles, first match wins.
+     */
+    private List<Profile> profiles = new ArrayList<>();
+
+    @Data
+    public static class Profile {
+
+        private String name;
+
+        /**
+         * Days the profile applies to, every day when empty.
+         */
+        private Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+
+        /**
+         * Start (inclusive) and end (exclusive) of the window; a window ending before it starts spans midnight.
+         */
+        private LocalTime start;
+        private LocalTime end;
+
+        private int rowsPerSecond = 0;
+        private int queriesPerSecond = 0;
+        private int maxConcurrent = 1;
+    }
+}
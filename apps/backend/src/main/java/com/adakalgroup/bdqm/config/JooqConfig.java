@@ -1,8 +1,12 @@
 package com.adakalgroup.bdqm.config;
 
+import com.adakalgroup.bdqm.service.CbsLoadThrottle;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
 import org.jooq.impl.DSL;
+import org.jooq.impl.DataSourceConnectionProvider;
+import org.jooq.impl.DefaultConfiguration;
+import org.jooq.impl.DefaultExecuteListenerProvider;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -14,6 +18,7 @@ import javax.sql.DataSource;
 /**
  * jOOQ configuration for dynamic SQL queries driven by CBS data dictionary.
  * Provides DSLContext beans for both primary (PostgreSQL) and Informix datasources.
+ * Informix queries go through the CBS load throttle.
  */
 @Configuration
 public class JooqConfig {
@@ -26,7 +31,11 @@ public class JooqConfig {
 
     @Bean(name = "informixDsl")
     @ConditionalOnProperty(name = "app.features.informix-integration", havingValue = "true", matchIfMissing = false)
-    public DSLContext informixDsl(@Qualifier("informixDataSource") DataSource dataSource) {
-        return DSL.using(dataSource, SQLDialect.DEFAULT);
+    public DSLContext informixDsl(@Qualifier("informixDataSource") DataSource dataSource,
+                                  CbsLoadThrottle cbsLoadThrottle) {
+        return DSL.using(new DefaultConfiguration()
+                .set(new DataSourceConnectionProvider(dataSource))
+                .set(SQLDialect.DEFAULT)
+                .set(new DefaultExecuteListenerProvider(new CbsThrottleExecuteListener(cbsLoadThrottle))));
     }
 }
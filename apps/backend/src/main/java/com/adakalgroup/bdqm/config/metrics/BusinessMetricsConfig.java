@@ -7,7 +7,10 @@ import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 /**
  * Business metrics configuration for Data Quality Monitor.
@@ -34,6 +37,7 @@ public class BusinessMetricsConfig {
     private final AtomicLong pendingTicketsGauge = new AtomicLong(0);
     private final AtomicLong pendingAnomaliesGauge = new AtomicLong(0);
     private final AtomicLong lastSyncTimestamp = new AtomicLong(0);
+    private final Map<String, AtomicLong> syncBatchSizeGauges = new ConcurrentHashMap<>();
 
     // Timers
     private final Timer anomalyDetectionTimer;
@@ -254,4 +258,136 @@ public class BusinessMetricsConfig {
                     .register(registry);
         }
     }
+
+    public void recordSyncStage(String tableName, String stage, int recordCount, long durationMs) {
+        Counter.builder("bdqm_sync_stage_records_total")
+                .description("Records processed per sync pipeline stage")
+                .tag("application", "bdqm")
+                .tag("table", tableName)
+                .tag("stage", stage)
+                .register(registry)
+                .increment(recordCount);
+
+        Timer.builder("bdqm_sync_stage_duration")
+                .description("Time spent processing a batch per sync pipeline stage")
+                .tag("application", "bdqm")
+                .tag("table", tableName)
+                .tag("stage", stage)
+                .register(registry)
+                .record(java.time.Duration.ofMillis(durationMs));
+    }
+
+    public void recordSyncStageBlocked(String tableName, String stage, long blockedMs) {
+        Timer.builder("bdqm_sync_stage_blocked_duration")
+                .description("Time a sync pipeline stage waited on a full downstream queue (backpressure)")
+                .tag("application", "bdqm")
+                .tag("table", tableName)
+                .tag("stage", stage)
+                .register(registry)
+                .record(java.time.Duration.ofMillis(blockedMs));
+    }
+
+    public void recordSyncBatchSize(String tableName, int batchSize) {
+        syncBatchSizeGauges.computeIfAbsent(tableName, table -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("bdqm_sync_batch_size", value, AtomicLong::get)
+                    .description("Current adaptive sync batch size (rows per batch)")
+                    .tag("application", "bdqm")
+                    .tag("table", table)
+                    .register(registry);
+            return value;
+        }).set(batchSize);
+    }
+
+    // =============================================
+    // CBS Load Throttle
+    // =============================================
+
+    public void registerCbsThrottle(Supplier<Number> backoff, Supplier<Number> running) {
+        Gauge.builder("bdqm_cbs_throttle_backoff", backoff)
+                .description("Factor the CBS load limits are currently divided by")
+                .tag("application", "bdqm")
+                .register(registry);
+
+        Gauge.builder("bdqm_cbs_throttle_running_queries", running)
+                .description("Queries or cursors currently open on the CBS")
+                .tag("application", "bdqm")
+                .register(registry);
+    }
+
+    public void recordCbsThrottleWait(String kind, long waitedMs) {
+        Timer.builder("bdqm_cbs_throttle_wait")
+                .description("Time spent waiting for the CBS load throttle")
+                .tag("application", "bdqm")
+                .tag("kind", kind)
+                .register(registry)
+                .record(java.time.Duration.ofMillis(waitedMs));
+    }
+
+    public void recordSyncDeletes(String tableName, int deleted, int anomaliesClosed, long durationMs) {
+        Counter.builder("bdqm_sync_deleted_rows_total")
+                .description("Mirror rows found deleted in the CBS by delete reconciliation")
+                .tag("application", "bdqm")
+                .tag("table", tableName)
+                .register(registry)
+                .increment(deleted);
+
+        Counter.builder("bdqm_sync_deleted_anomalies_closed_total")
+                .description("Open anomalies closed because their CBS row was deleted")
+                .tag("application", "bdqm")
+                .tag("table", tableName)
+                .register(registry)
+                .increment(anomaliesClosed);
+
+        Timer.builder("bdqm_sync_delete_reconciliation_duration")
+                .description("Time to reconcile deleted rows between the CBS and the mirror")
+                .tag("application", "bdqm")
+                .tag("table", tableName)
+                .register(registry)
+                .record(java.time.Duration.ofMillis(durationMs));
+    }
+
+    public void recordRowHashLookupFailure(String tableName) {
+        Counter.builder("bdqm_sync_row_hash_lookup_failures_total")
+                .description("Sync batches whose row hash lookup failed and were fully rewritten and re-validated")
+                .tag("application", "bdqm")
+                .tag("table", tableName)
+                .register(registry)
+                .increment();
+    }
+
+    public void registerValidationQueue(Supplier<Number> depth, Supplier<Number> lagSeconds, Supplier<Number> failed) {
+        Gauge.builder("bdqm_validation_queue_depth", depth)
+                .description("Changed rows waiting for validation (pending or being validated)")
+                .tag("application", "bdqm")
+                .register(registry);
+
+        Gauge.builder("bdqm_validation_queue_lag_seconds", lagSeconds)
+                .description("Age of the oldest row waiting for validation")
+                .tag("application", "bdqm")
+                .register(registry);
+
+        Gauge.builder("bdqm_validation_queue_failed", failed)
+                .description("Queued rows whose validation failed after every retry")
+                .tag("application", "bdqm")
+                .register(registry);
+    }
+
+    public void recordValidationQueueBatch(String tableName, String outcome, int records, long durationMs) {
+        Counter.builder("bdqm_validation_queue_records_total")
+                .description("Queued rows processed by the validation workers, by outcome")
+                .tag("application", "bdqm")
+                .tag("table", tableName)
+                .tag("outcome", outcome)
+                .register(registry)
+                .increment(records);
+
+        Timer.builder("bdqm_validation_queue_batch_duration")
+                .description("Time for a validation worker to process one batch of queued rows")
+                .tag("application", "bdqm")
+                .tag("table", tableName)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(java.time.Duration.ofMillis(durationMs));
+    }
 }
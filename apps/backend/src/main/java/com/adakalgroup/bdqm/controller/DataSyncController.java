@@ -1,8 +1,19 @@
 package com.adakalgroup.bdqm.controller;
 
-import com.adakalgroup.bdqm.scheduler.DataSyncScheduler;
+import com.adakalgroup.bdqm.dto.SyncDeadLetterDto;
+import com.adakalgroup.bdqm.dto.SyncJobDto;
+import com.adakalgroup.bdqm.dto.SyncRunDto;
+import com.adakalgroup.bdqm.dto.ValidationQueueStatsDto;
+import com.adakalgroup.bdqm.model.enums.DeadLetterStatus;
+import com.adakalgroup.bdqm.model.enums.SyncJobStatus;
+import com.adakalgroup.bdqm.model.enums.SyncJobType;
+import com.adakalgroup.bdqm.service.CbsValidationService;
 import com.adakalgroup.bdqm.service.DataSyncService;
+import com.adakalgroup.bdqm.service.SyncCheckpointService;
+import com.adakalgroup.bdqm.service.SyncDeadLetterService;
+import com.adakalgroup.bdqm.service.SyncJobService;
 import com.adakalgroup.bdqm.service.SyncProgressService;
+import com.adakalgroup.bdqm.service.ValidationQueueService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -15,11 +26,13 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
  * REST controller for dictionary-driven CBS data sync.
- * Supports syncing all enabled tables or a specific table by name.
+ * Supports syncing all enabled tables or a specific table by name. Syncs run as asynchronous
+ * jobs (see SyncJobService): submitting returns a job id to follow, cancel or fetch results for.
  */
 @RestController
 @RequestMapping("/api/sync")
@@ -29,50 +42,120 @@ import java.util.stream.Collectors;
 @PreAuthorize("hasRole('ADMIN')")
 public class DataSyncController {
 
-    private final DataSyncScheduler dataSyncScheduler;
     private final SyncProgressService syncProgressService;
+    private final SyncCheckpointService syncCheckpointService;
+    private final SyncDeadLetterService syncDeadLetterService;
+    private final SyncJobService syncJobService;
+    private final ValidationQueueService validationQueueService;
 
     /**
-     * Sync ALL enabled CBS tables (dictionary-driven).
+     * Sync ALL enabled CBS tables (dictionary-driven), as an asynchronous job.
      * Tables are determined by cbs_tables where sync_enabled=true.
+     * Returns the job id at once; follow it with GET /jobs/{id} or GET /jobs/{id}/progress.
      */
     @PostMapping("/all")
     public ResponseEntity<Map<String, Object>> syncAll(Authentication auth) {
         String user = auth != null ? auth.getName() : "unknown";
         log.info("Manual full CBS sync requested by user '{}'", user);
-        try {
-            List<DataSyncService.SyncResult> results = dataSyncScheduler.triggerSyncAll();
-            List<Map<String, Object>> tableResults = results.stream()
-                    .map(this::buildResponse)
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "tablesProcessed", results.size(),
-                    "results", tableResults
-            ));
-        } catch (Exception e) {
-            log.error("Full sync failed: {}", e.getMessage());
-            return ResponseEntity.internalServerError()
-                    .body(Map.of("success", false, "error", e.getMessage()));
-        }
+        return accepted(syncJobService.submitAll(user));
     }
 
     /**
-     * Sync a specific CBS table by name (e.g., bkcli, bkage, bkcom...).
+     * Sync a specific CBS table by name (e.g., bkcli, bkage, bkcom...), as an asynchronous job.
      */
     @PostMapping("/table/{tableName}")
     public ResponseEntity<Map<String, Object>> syncTable(@PathVariable String tableName, Authentication auth) {
         String user = auth != null ? auth.getName() : "unknown";
         log.info("Manual sync requested for table '{}' by user '{}'", tableName, user);
-        try {
-            DataSyncService.SyncResult result = dataSyncScheduler.triggerSyncTable(tableName);
-            return ResponseEntity.ok(buildResponse(result));
-        } catch (Exception e) {
-            log.error("Sync failed for table '{}': {}", tableName, e.getMessage());
-            return ResponseEntity.internalServerError()
-                    .body(Map.of("success", false, "error", e.getMessage()));
+        return accepted(syncJobService.submitTable(tableName, user));
+    }
+
+    /**
+     * Sync jobs, most recent first.
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<SyncJobDto>> getJobs(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(syncJobService.getJobs(limit));
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<SyncJobDto> getJob(@PathVariable String id) {
+        return syncJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Per-table results of a finished job; 202 with the job status while it is queued or running.
+     */
+    @GetMapping("/jobs/{id}/result")
+    public ResponseEntity<Map<String, Object>> getJobResult(@PathVariable String id) {
+        SyncJobDto job = syncJobService.getJob(id)
+                .orElseThrow(() -> new IllegalArgumentException("Sync job not found: " + id));
+        if (job.getType() == SyncJobType.RECONCILE_DELETES || job.getType() == SyncJobType.VALIDATE) {
+            if (job.getStatus() == SyncJobStatus.QUEUED || job.getStatus() == SyncJobStatus.RUNNING) {
+                return ResponseEntity.accepted().body(Map.of("jobId", id, "status", job.getStatus()));
+            }
+            Optional<Map<String, Object>> outcome = job.getType() == SyncJobType.VALIDATE
+                    ? syncJobService.getOutcome(id, CbsValidationService.ValidationResult.class)
+                            .map(result -> buildResponse(id, job, result))
+                    : syncJobService.getOutcome(id, DataSyncService.DeleteResult.class)
+                            .map(result -> buildResponse(id, job, result));
+            return ResponseEntity.ok(outcome.orElseGet(() -> failedResponse(id, job)));
         }
+        return syncJobService.getResults(id)
+                .map(results -> ResponseEntity.ok(Map.<String, Object>of(
+                        "success", job.getStatus() == SyncJobStatus.COMPLETED,
+                        "jobId", id,
+                        "status", job.getStatus(),
+                        "tablesProcessed", results.size(),
+                        "results", results.stream().map(this::buildResponse).collect(Collectors.toList())
+                )))
+                .orElse(ResponseEntity.accepted().body(Map.of("jobId", id, "status", job.getStatus())));
+    }
+
+    /**
+     * Cancel a job: a queued job is dropped, a running one stops after its current batches and
+     * resumes from its checkpoints on the next sync.
+     */
+    @PostMapping("/jobs/{id}/cancel")
+    public ResponseEntity<SyncJobDto> cancelJob(@PathVariable String id, Authentication auth) {
+        String user = auth != null ? auth.getName() : "unknown";
+        log.info("Cancellation of sync job {} requested by user '{}'", id, user);
+        return ResponseEntity.ok(syncJobService.cancel(id));
+    }
+
+    /**
+     * SSE stream of one job's progress, completed when the job finishes.
+     */
+    @GetMapping(value = "/jobs/{id}/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamJobProgress(@PathVariable String id) {
+        if (syncJobService.getJob(id).isEmpty()) {
+            throw new IllegalArgumentException("Sync job not found: " + id);
+        }
+        return syncProgressService.subscribe(id);
+    }
+
+    /**
+     * Remove mirror rows of a table that no longer exist in the CBS and close their open anomalies, as an
+     * asynchronous job. Returns the job id at once; GET /jobs/{id}/result gives the outcome.
+     */
+    @PostMapping("/table/{tableName}/reconcile-deletes")
+    public ResponseEntity<Map<String, Object>> reconcileDeletes(@PathVariable String tableName, Authentication auth) {
+        String user = auth != null ? auth.getName() : "unknown";
+        log.info("Manual delete reconciliation requested for table '{}' by user '{}'", tableName, user);
+        return accepted(syncJobService.submitReconcileDeletes(tableName, user));
+    }
+
+    /**
+     * Validate every live mirror row of a table against its active rules, as an asynchronous job.
+     * Returns the job id at once; GET /jobs/{id}/result gives the outcome.
+     */
+    @PostMapping("/table/{tableName}/validate")
+    public ResponseEntity<Map<String, Object>> validateTable(@PathVariable String tableName, Authentication auth) {
+        String user = auth != null ? auth.getName() : "unknown";
+        log.info("Manual validation requested for table '{}' by user '{}'", tableName, user);
+        return accepted(syncJobService.submitValidate(tableName, user));
     }
 
     /**
@@ -80,21 +163,169 @@ public class DataSyncController {
      * Frontend subscribes: const es = new EventSource('/api/sync/progress');
      */
     @GetMapping(value = "/progress", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamProgress() {
-        return syncProgressService.subscribe();
+    public SseEmitter streamProgress(@RequestParam(required = false) String jobId) {
+        return syncProgressService.subscribe(jobId);
     }
 
-    private Map<String, Object> buildResponse(DataSyncService.SyncResult result) {
+    /**
+     * Sync run history, most recent first, optionally for one table.
+     */
+    @GetMapping("/runs")
+    public ResponseEntity<List<SyncRunDto>> getRuns(@RequestParam(required = false) String table,
+                                                    @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(syncCheckpointService.getRecentRuns(table, limit));
+    }
+
+    /**
+     * One sync run with its per-partition checkpoints.
+     */
+    @GetMapping("/runs/{id}")
+    public ResponseEntity<SyncRunDto> getRun(@PathVariable Long id) {
+        return syncCheckpointService.getRun(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Rows isolated from failed sync batches, most recent first, optionally filtered by table and status.
+     */
+    @GetMapping("/dead-letters")
+    public ResponseEntity<List<SyncDeadLetterDto>> getDeadLetters(@RequestParam(required = false) String table,
+                                                                  @RequestParam(required = false) DeadLetterStatus status,
+                                                                  @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(syncDeadLetterService.getDeadLetters(table, status, limit));
+    }
+
+    @GetMapping("/dead-letters/{id}")
+    public ResponseEntity<SyncDeadLetterDto> getDeadLetter(@PathVariable Long id) {
+        return syncDeadLetterService.getDeadLetter(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Replay one dead-lettered row: upsert it into the mirror and validate it again.
+     */
+    @PostMapping("/dead-letters/{id}/replay")
+    public ResponseEntity<SyncDeadLetterDto> replayDeadLetter(@PathVariable Long id, Authentication auth) {
+        String user = auth != null ? auth.getName() : "unknown";
+        log.info("Dead letter {} replay requested by user '{}'", id, user);
+        return ResponseEntity.ok(syncDeadLetterService.replay(id));
+    }
+
+    /**
+     * Replay the pending dead-lettered rows of a table, oldest first.
+     */
+    @PostMapping("/dead-letters/replay")
+    public ResponseEntity<Map<String, Object>> replayDeadLetters(@RequestParam String table,
+                                                                 @RequestParam(defaultValue = "1000") int limit,
+                                                                 Authentication auth) {
+        String user = auth != null ? auth.getName() : "unknown";
+        log.info("Dead letter replay requested for table '{}' by user '{}'", table, user);
+        SyncDeadLetterService.ReplaySummary summary = syncDeadLetterService.replayTable(table, limit);
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "table", table,
+                "attempted", summary.attempted(),
+                "replayed", summary.replayed(),
+                "failed", summary.failed(),
+                "remaining", summary.remaining()
+        ));
+    }
+
+    /**
+     * Discard a dead-lettered row: it stays in the table for audit but is no longer pending.
+     */
+    @DeleteMapping("/dead-letters/{id}")
+    public ResponseEntity<SyncDeadLetterDto> discardDeadLetter(@PathVariable Long id, Authentication auth) {
+        String user = auth != null ? auth.getName() : "unknown";
+        log.info("Dead letter {} discarded by user '{}'", id, user);
+        return ResponseEntity.ok(syncDeadLetterService.discard(id));
+    }
+
+    /**
+     * Rows waiting for validation per table (pending, held until a COPY merge, being validated, failed).
+     */
+    @GetMapping("/validation-queue")
+    public ResponseEntity<List<ValidationQueueStatsDto>> getValidationQueue() {
+        return ResponseEntity.ok(validationQueueService.getStats());
+    }
+
+    /**
+     * Queue rows whose validation failed after every retry again, for one table or all of them.
+     */
+    @PostMapping("/validation-queue/retry")
+    public ResponseEntity<Map<String, Object>> retryFailedValidations(@RequestParam(required = false) String table,
+                                                                      Authentication auth) {
+        String user = auth != null ? auth.getName() : "unknown";
+        log.info("Failed validations retry requested for table '{}' by user '{}'", table, user);
+        int requeued = validationQueueService.retryFailed(table);
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "requeued", requeued
+        ));
+    }
+
+    private ResponseEntity<Map<String, Object>> accepted(SyncJobService.Submission submission) {
+        SyncJobDto job = submission.job();
+        return ResponseEntity.accepted().body(Map.of(
+                "success", true,
+                "jobId", job.getId(),
+                "status", job.getStatus(),
+                "deduplicated", submission.deduplicated()
+        ));
+    }
+
+    private Map<String, Object> buildResponse(String jobId, SyncJobDto job, DataSyncService.DeleteResult result) {
+        return Map.of(
+                "success", true,
+                "jobId", jobId,
+                "status", job.getStatus(),
+                "table", result.table(),
+                "mirrorRows", result.mirrorRows(),
+                "removed", result.removed(),
+                "anomaliesClosed", result.anomaliesClosed(),
+                "bloom", result.bloom(),
+                "durationMs", result.durationMs()
+        );
+    }
+
+    private Map<String, Object> buildResponse(String jobId, SyncJobDto job, CbsValidationService.ValidationResult result) {
         return Map.of(
                 "success", true,
-                "table", result.entity(),
-                "upserted", result.upserted(),
-                "validated", result.validated(),
+                "jobId", jobId,
+                "status", job.getStatus(),
+                "table", job.getTableName(),
+                "recordsValidated", result.recordsValidated(),
                 "anomaliesCreated", result.anomaliesCreated(),
-                "errors", result.errors(),
-                "durationSeconds", result.durationSeconds(),
-                "startTime", result.startTime().toString(),
-                "endTime", result.endTime().toString()
+                "autoResolved", result.autoResolved(),
+                "errors", result.errors()
+        );
+    }
+
+    private Map<String, Object> failedResponse(String jobId, SyncJobDto job) {
+        return Map.of(
+                "success", false,
+                "jobId", jobId,
+                "status", job.getStatus(),
+                "error", job.getError() != null ? job.getError() : ""
+        );
+    }
+
+    private Map<String, Object> buildResponse(DataSyncService.SyncResult result) {
+        return Map.ofEntries(
+                Map.entry("success", true),
+                Map.entry("table", result.entity()),
+                Map.entry("upserted", result.upserted()),
+                Map.entry("validated", result.validated()),
+                Map.entry("anomaliesCreated", result.anomaliesCreated()),
+                Map.entry("errors", result.errors()),
+                Map.entry("inserted", result.inserted()),
+                Map.entry("changed", result.changed()),
+                Map.entry("unchanged", result.unchanged()),
+                Map.entry("durationSeconds", result.durationSeconds()),
+                Map.entry("startTime", result.startTime().toString()),
+                Map.entry("endTime", result.endTime().toString())
         );
     }
 }
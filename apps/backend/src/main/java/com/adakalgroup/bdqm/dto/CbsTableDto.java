@@ -1,5 +1,6 @@
 package com.adakalgroup.bdqm.dto;
 
+import com.adakalgroup.bdqm.model.enums.SyncMode;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -29,6 +30,14 @@ public class CbsTableDto {
     private String typeField;
     private String cdcField;
     private LocalDateTime lastSyncAt;
+    private LocalDateTime cdcWatermark;
+    private SyncMode syncMode;
+    private Integer maxPartitions;
+    private String dependsOn;
+    private Long lastSyncDurationMs;
+    private Integer lastBatchSize;
+    private Boolean detectDeletes;
+    private LocalDateTime lastDeleteCheckAt;
     private String dataFilters;
     private Boolean active;
     private Integer fieldCount;
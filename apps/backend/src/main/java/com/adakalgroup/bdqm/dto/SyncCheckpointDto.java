@@ -0,0 +1,24 @@
+package com.adakalgroup.bdqm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncCheckpointDto {
+    private Long id;
+    private Integer partitionNo;
+    private String rangeColumn;
+    private String rangeLower;
+    private String rangeUpper;
+    private String lastKey;
+    private Long nextOffset;
+    private Boolean completed;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,29 @@
+package com.adakalgroup.bdqm.dto;
+
+import com.adakalgroup.bdqm.model.enums.DeadLetterStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncDeadLetterDto {
+    private Long id;
+    private String tableName;
+    private Long syncRunId;
+    private String stage;
+    private String pkValue;
+    private Map<String, Object> record;
+    private String errorMessage;
+    private DeadLetterStatus status;
+    private Integer attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime replayedAt;
+}
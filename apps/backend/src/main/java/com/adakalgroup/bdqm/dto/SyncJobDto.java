@@ -0,0 +1,33 @@
+package com.adakalgroup.bdqm.dto;
+
+import com.adakalgroup.bdqm.model.enums.SyncJobStatus;
+import com.adakalgroup.bdqm.model.enums.SyncJobType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncJobDto {
+    private String id;
+    private SyncJobType type;
+    private String tableName;
+    private SyncJobStatus status;
+    private String submittedBy;
+    private LocalDateTime submittedAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Boolean cancelRequested;
+    private String error;
+    // Totals over the synced tables, once the job has finished
+    private Integer tablesProcessed;
+    private Long upserted;
+    private Long validated;
+    private Long anomaliesCreated;
+    private Long errors;
+}
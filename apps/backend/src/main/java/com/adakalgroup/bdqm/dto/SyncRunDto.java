@@ -0,0 +1,34 @@
+package com.adakalgroup.bdqm.dto;
+
+import com.adakalgroup.bdqm.model.enums.LoadStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncRunDto {
+    private Long id;
+    private String tableName;
+    private LoadStatus status;
+    private Boolean cdc;
+    private LocalDateTime cdcSince;
+    private LocalDateTime cdcWatermark;
+    private Long totalCount;
+    private Long recordsFetched;
+    private Long recordsUpserted;
+    private Long recordsValidated;
+    private Long anomaliesCreated;
+    private Long errors;
+    private Integer resumeCount;
+    private String errorMessage;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private List<SyncCheckpointDto> checkpoints;
+}
@@ -0,0 +1,21 @@
+package com.adakalgroup.bdqm.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ValidationQueueStatsDto {
+    private String tableName;
+    private Long pending;
+    private Long held;
+    private Long processing;
+    private Long failed;
+    private LocalDateTime oldestPendingAt;
+}
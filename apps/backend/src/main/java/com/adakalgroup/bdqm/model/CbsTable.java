@@ -1,5 +1,6 @@
 package com.adakalgroup.bdqm.model;
 
+import com.adakalgroup.bdqm.model.enums.SyncMode;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -78,6 +79,34 @@ public class CbsTable {
     @Column(name = "last_sync_at")
     private LocalDateTime lastSyncAt;
 
+    @Column(name = "cdc_watermark")
+    private LocalDateTime cdcWatermark;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "sync_mode", nullable = false, length = 20)
+    @Builder.Default
+    private SyncMode syncMode = SyncMode.UPSERT;
+
+    @Column(name = "max_partitions", nullable = false)
+    @Builder.Default
+    private Integer maxPartitions = 1;
+
+    @Column(name = "depends_on", length = 255)
+    private String dependsOn;
+
+    @Column(name = "last_sync_duration_ms")
+    private Long lastSyncDurationMs;
+
+    @Column(name = "last_batch_size")
+    private Integer lastBatchSize;
+
+    @Column(name = "detect_deletes", nullable = false)
+    @Builder.Default
+    private Boolean detectDeletes = false;
+
+    @Column(name = "last_delete_check_at")
+    private LocalDateTime lastDeleteCheckAt;
+
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(name = "data_filters", columnDefinition = "JSONB")
     private String dataFilters;
@@ -0,0 +1,61 @@
+package com.adakalgroup.bdqm.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resume point of one key range (partition) of a sync run: the last key whose batch was fully
+ * written and validated, or the next SKIP offset for tables without a primary key.
+ * Key values are stored as JSON.
+ */
+@Entity
+@Table(schema = "public", name = "sync_checkpoints", indexes = {
+    @Index(name = "idx_sync_checkpoint_run", columnList = "sync_run_id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "sync_run_id", nullable = false)
+    private Long syncRunId;
+
+    @Column(name = "partition_no", nullable = false)
+    @Builder.Default
+    private Integer partitionNo = 0;
+
+    @Column(name = "range_column", length = 30)
+    private String rangeColumn;
+
+    @Column(name = "range_lower", columnDefinition = "TEXT")
+    private String rangeLower;
+
+    @Column(name = "range_upper", columnDefinition = "TEXT")
+    private String rangeUpper;
+
+    @Column(name = "last_key", columnDefinition = "TEXT")
+    private String lastKey;
+
+    @Column(name = "next_offset", nullable = false)
+    @Builder.Default
+    private Long nextOffset = 0L;
+
+    @Column(name = "completed", nullable = false)
+    @Builder.Default
+    private Boolean completed = false;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
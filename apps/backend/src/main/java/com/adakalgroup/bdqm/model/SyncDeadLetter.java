@@ -0,0 +1,75 @@
+package com.adakalgroup.bdqm.model;
+
+import com.adakalgroup.bdqm.model.enums.DeadLetterStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * CBS row isolated from a failed sync batch, kept with its raw values so it can be replayed
+ * once the cause (bad value, missing reference, rule bug) is fixed.
+ */
+@Entity
+@Table(schema = "public", name = "sync_dead_letters", indexes = {
+    @Index(name = "idx_sync_dead_letter_table_status", columnList = "table_name, status")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncDeadLetter {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "table_name", nullable = false, length = 50)
+    private String tableName;
+
+    @Column(name = "sync_run_id")
+    private Long syncRunId;
+
+    /**
+     * Pipeline stage the row failed in: load or validate.
+     */
+    @Column(name = "stage", nullable = false, length = 20)
+    private String stage;
+
+    @Column(name = "pk_value", length = 500)
+    private String pkValue;
+
+    /**
+     * Row values as typed JSON, see TypedValueCodec.
+     */
+    @Column(name = "record_data", nullable = false, columnDefinition = "TEXT")
+    private String recordData;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private DeadLetterStatus status = DeadLetterStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private Integer attempts = 1;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @Column(name = "replayed_at")
+    private LocalDateTime replayedAt;
+}
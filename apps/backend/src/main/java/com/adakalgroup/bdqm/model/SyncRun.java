@@ -0,0 +1,89 @@
+package com.adakalgroup.bdqm.model;
+
+import com.adakalgroup.bdqm.model.enums.LoadStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * One sync of one CBS table. Counters are cumulative across resumes.
+ */
+@Entity
+@Table(schema = "public", name = "sync_runs", indexes = {
+    @Index(name = "idx_sync_run_table_started", columnList = "table_name, started_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "table_name", nullable = false, length = 50)
+    private String tableName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 30)
+    @Builder.Default
+    private LoadStatus status = LoadStatus.IN_PROGRESS;
+
+    @Column(name = "cdc", nullable = false)
+    @Builder.Default
+    private Boolean cdc = false;
+
+    @Column(name = "cdc_since")
+    private LocalDateTime cdcSince;
+
+    @Column(name = "cdc_watermark")
+    private LocalDateTime cdcWatermark;
+
+    @Column(name = "total_count")
+    private Long totalCount;
+
+    @Column(name = "records_fetched", nullable = false)
+    @Builder.Default
+    private Long recordsFetched = 0L;
+
+    @Column(name = "records_upserted", nullable = false)
+    @Builder.Default
+    private Long recordsUpserted = 0L;
+
+    @Column(name = "records_validated", nullable = false)
+    @Builder.Default
+    private Long recordsValidated = 0L;
+
+    @Column(name = "anomalies_created", nullable = false)
+    @Builder.Default
+    private Long anomaliesCreated = 0L;
+
+    @Column(name = "errors", nullable = false)
+    @Builder.Default
+    private Long errors = 0L;
+
+    @Column(name = "resume_count", nullable = false)
+    @Builder.Default
+    private Integer resumeCount = 0;
+
+    @Column(name = "error_message", columnDefinition = "TEXT")
+    private String errorMessage;
+
+    @CreationTimestamp
+    @Column(name = "started_at", nullable = false, updatable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
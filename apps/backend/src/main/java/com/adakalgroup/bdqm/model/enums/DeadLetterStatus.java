@@ -0,0 +1,7 @@
+package com.adakalgroup.bdqm.model.enums;
+
+public enum DeadLetterStatus {
+    PENDING,
+    REPLAYED,
+    DISCARDED
+}
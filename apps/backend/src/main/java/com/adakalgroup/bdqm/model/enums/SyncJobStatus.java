@@ -0,0 +1,9 @@
+package com.adakalgroup.bdqm.model.enums;
+
+public enum SyncJobStatus {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED
+}
@@ -0,0 +1,8 @@
+package com.adakalgroup.bdqm.model.enums;
+
+public enum SyncJobType {
+    ALL,
+    TABLE,
+    RECONCILE_DELETES,
+    VALIDATE
+}
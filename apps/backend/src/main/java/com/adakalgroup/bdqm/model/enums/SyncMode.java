@@ -0,0 +1,12 @@
+package com.adakalgroup.bdqm.model.enums;
+
+/**
+ * How full (non-CDC) syncs write a CBS table into its PostgreSQL mirror.
+ * CDC deltas always use UPSERT.
+ */
+public enum SyncMode {
+    /** Batched INSERT ... ON CONFLICT DO UPDATE straight into the mirror */
+    UPSERT,
+    /** COPY FROM STDIN into an unlogged staging table, merged into the mirror at the end */
+    COPY
+}
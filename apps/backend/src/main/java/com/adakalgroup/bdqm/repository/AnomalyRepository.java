@@ -211,6 +211,20 @@ public interface AnomalyRepository extends JpaRepository<Anomaly, Long> {
 
     long countByStatusIn(List<AnomalyStatus> statuses);
 
+    /**
+     * Close the open anomalies of records deleted from the CBS, restricted to the fields of their table.
+     */
+    @Modifying
+    @Query("UPDATE Anomaly a SET a.status = com.adakalgroup.bdqm.model.enums.AnomalyStatus.CLOSED, " +
+           "a.dataSource = :dataSource, a.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE a.clientNumber IN :clientNumbers AND a.fieldName IN :fieldNames " +
+           "AND a.status NOT IN (com.adakalgroup.bdqm.model.enums.AnomalyStatus.CORRECTED, " +
+           "com.adakalgroup.bdqm.model.enums.AnomalyStatus.CLOSED, " +
+           "com.adakalgroup.bdqm.model.enums.AnomalyStatus.VALIDATED)")
+    int closeOpenAnomalies(@Param("clientNumbers") Collection<String> clientNumbers,
+                           @Param("fieldNames") Collection<String> fieldNames,
+                           @Param("dataSource") String dataSource);
+
     /**
      * Find open anomalies matching a specific field name and error type.
      * Used to re-evaluate anomalies when a validation rule changes.
@@ -1,5 +1,6 @@
 package com.adakalgroup.bdqm.repository;
 
+import com.adakalgroup.bdqm.service.CbsLoadThrottle;
 import com.adakalgroup.bdqm.service.DynamicCbsQueryService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -24,17 +25,20 @@ public class InformixRepository {
 
     private final JdbcTemplate informixJdbcTemplate;
     private final DynamicCbsQueryService dynamicCbsQueryService;
+    private final CbsLoadThrottle cbsLoadThrottle;
 
     public InformixRepository(@Qualifier("informixJdbcTemplate") JdbcTemplate informixJdbcTemplate,
-                              DynamicCbsQueryService dynamicCbsQueryService) {
+                              DynamicCbsQueryService dynamicCbsQueryService,
+                              CbsLoadThrottle cbsLoadThrottle) {
         this.informixJdbcTemplate = informixJdbcTemplate;
         this.dynamicCbsQueryService = dynamicCbsQueryService;
+        this.cbsLoadThrottle = cbsLoadThrottle;
     }
 
     public boolean testConnection() {
         try {
-            Integer result = informixJdbcTemplate.queryForObject(
-                    "SELECT FIRST 1 1 FROM systables", Integer.class);
+            Integer result = cbsLoadThrottle.call(() -> informixJdbcTemplate.queryForObject(
+                    "SELECT FIRST 1 1 FROM systables", Integer.class));
             log.info("Informix connection test successful");
             return result != null;
         } catch (Exception e) {
@@ -77,7 +81,9 @@ public class InformixRepository {
 
     public List<Map<String, Object>> executeCustomQueryList(String sql, Object... params) {
         try {
-            return informixJdbcTemplate.queryForList(sql, params);
+            List<Map<String, Object>> rows = cbsLoadThrottle.call(() -> informixJdbcTemplate.queryForList(sql, params));
+            cbsLoadThrottle.acquireRows(rows.size());
+            return rows;
         } catch (Exception e) {
             log.error("Error executing custom query: {}", e.getMessage());
             throw new RuntimeException("Query execution failed", e);
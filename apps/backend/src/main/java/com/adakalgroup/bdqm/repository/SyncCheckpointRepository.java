@@ -0,0 +1,27 @@
+package com.adakalgroup.bdqm.repository;
+
+import com.adakalgroup.bdqm.model.SyncCheckpoint;
+import com.adakalgroup.bdqm.service.ClusterLockService;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SyncCheckpointRepository extends JpaRepository<SyncCheckpoint, Long> {
+
+    List<SyncCheckpoint> findBySyncRunIdOrderByPartitionNoAsc(Long syncRunId);
+
+    /**
+     * Mark a checkpoint completed, fenced by a cluster lease (see ClusterLockService#FENCE_CONDITION):
+     * 0 rows when the lease is no longer the current one.
+     */
+    @Modifying
+    @Query(value = "UPDATE public.sync_checkpoints SET completed = TRUE, updated_at = LOCALTIMESTAMP " +
+           "WHERE id = :id AND " + ClusterLockService.FENCE_CONDITION, nativeQuery = true)
+    int completeFenced(@Param("id") Long id, @Param("lockName") String lockName,
+                       @Param("lockOwner") String lockOwner, @Param("lockToken") long lockToken);
+}
@@ -0,0 +1,27 @@
+package com.adakalgroup.bdqm.repository;
+
+import com.adakalgroup.bdqm.model.SyncDeadLetter;
+import com.adakalgroup.bdqm.model.enums.DeadLetterStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SyncDeadLetterRepository extends JpaRepository<SyncDeadLetter, Long> {
+
+    List<SyncDeadLetter> findByTableNameAndStatusOrderByIdDesc(String tableName, DeadLetterStatus status,
+                                                               Pageable pageable);
+
+    List<SyncDeadLetter> findByTableNameOrderByIdDesc(String tableName, Pageable pageable);
+
+    List<SyncDeadLetter> findByStatusOrderByIdDesc(DeadLetterStatus status, Pageable pageable);
+
+    List<SyncDeadLetter> findAllByOrderByIdDesc(Pageable pageable);
+
+    List<SyncDeadLetter> findByTableNameAndStatusOrderById(String tableName, DeadLetterStatus status,
+                                                           Pageable pageable);
+
+    long countByTableNameAndStatus(String tableName, DeadLetterStatus status);
+}
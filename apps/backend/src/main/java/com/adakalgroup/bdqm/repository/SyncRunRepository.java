@@ -0,0 +1,40 @@
+package com.adakalgroup.bdqm.repository;
+
+import com.adakalgroup.bdqm.model.SyncRun;
+import com.adakalgroup.bdqm.service.ClusterLockService;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SyncRunRepository extends JpaRepository<SyncRun, Long> {
+
+    List<SyncRun> findByTableNameOrderByStartedAtDesc(String tableName, Pageable pageable);
+
+    List<SyncRun> findAllByOrderByStartedAtDesc(Pageable pageable);
+
+    Optional<SyncRun> findFirstByTableNameOrderByIdDesc(String tableName);
+
+    /**
+     * Atomic counter increment (partitions of the same run report batches concurrently), fenced by the
+     * table's cluster lease (see ClusterLockService#FENCE_CONDITION): 0 rows when the lease is no
+     * longer the current one.
+     */
+    @Modifying
+    @Query(value = "UPDATE public.sync_runs SET records_fetched = records_fetched + :fetched, " +
+           "records_upserted = records_upserted + :upserted, " +
+           "records_validated = records_validated + :validated, " +
+           "anomalies_created = anomalies_created + :anomalies, " +
+           "errors = errors + :errors, updated_at = LOCALTIMESTAMP " +
+           "WHERE id = :id AND " + ClusterLockService.FENCE_CONDITION, nativeQuery = true)
+    int addCountersFenced(@Param("id") Long id, @Param("fetched") long fetched, @Param("upserted") long upserted,
+                          @Param("validated") long validated, @Param("anomalies") long anomalies,
+                          @Param("errors") long errors, @Param("lockName") String lockName,
+                          @Param("lockOwner") String lockOwner, @Param("lockToken") long lockToken);
+}
@@ -6,6 +6,7 @@ import com.adakalgroup.bdqm.model.enums.RuleType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -35,5 +36,9 @@ public interface ValidationRuleRepository extends JpaRepository<ValidationRule,
      */
     List<ValidationRule> findByActiveAndClientTypeIsNullOrderByPriorityDesc(Boolean active);
 
+    List<ValidationRule> findByTableName(String tableName);
+
     List<ValidationRule> findByActiveAndTableNameOrderByPriorityDesc(Boolean active, String tableName);
+
+    boolean existsByTableNameAndUpdatedAtAfter(String tableName, LocalDateTime since);
 }
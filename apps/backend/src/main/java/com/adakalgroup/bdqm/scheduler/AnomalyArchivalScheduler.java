@@ -1,6 +1,7 @@
 package com.adakalgroup.bdqm.scheduler;
 
 import com.adakalgroup.bdqm.repository.AnomalyRepository;
+import com.adakalgroup.bdqm.service.ClusterLockService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,7 +13,7 @@ import java.time.LocalDateTime;
 
 /**
  * Purges old resolved anomalies (CORRECTED, CLOSED, VALIDATED) to keep the table lean.
- * Runs daily at 4:00 AM by default.
+ * Runs daily at 4:00 AM by default, on one replica only (cluster lease "scheduler.anomaly-archival").
  */
 @Slf4j
 @Component
@@ -20,6 +21,7 @@ import java.time.LocalDateTime;
 public class AnomalyArchivalScheduler {
 
     private final AnomalyRepository anomalyRepository;
+    private final ClusterLockService clusterLockService;
 
     @Value("${app.archival.retention-days:90}")
     private int retentionDays;
@@ -32,8 +34,10 @@ public class AnomalyArchivalScheduler {
                 cutoff, retentionDays);
 
         try {
-            int deleted = anomalyRepository.purgeResolvedBefore(cutoff);
-            log.info("Anomaly archival completed: {} resolved anomalies purged", deleted);
+            clusterLockService.runExclusive("scheduler.anomaly-archival", () -> {
+                int deleted = anomalyRepository.purgeResolvedBefore(cutoff);
+                log.info("Anomaly archival completed: {} resolved anomalies purged", deleted);
+            });
         } catch (Exception e) {
             log.error("Anomaly archival failed: {}", e.getMessage(), e);
         }
@@ -1,14 +1,15 @@
 package com.adakalgroup.bdqm.scheduler;
 
+import com.adakalgroup.bdqm.service.ClusterLockService;
 import com.adakalgroup.bdqm.service.DataSyncService;
+import com.adakalgroup.bdqm.service.SyncJobService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import java.util.List;
-
 /**
  * Scheduler for dictionary-driven CBS data sync.
  * Syncs all enabled tables from cbs_tables (sync_enabled=true, ordered by sync_order).
@@ -19,11 +20,20 @@ import java.util.List;
 public class DataSyncScheduler {
 
     private final DataSyncService dataSyncService;
+    private final SyncJobService syncJobService;
+    private final ClusterLockService clusterLockService;
+
+    @Value("${app.cluster.sync-work-sharing:false}")
+    private boolean workSharing;
 
     @Autowired
-    public DataSyncScheduler(@Autowired(required = false) DataSyncService dataSyncService) {
+    public DataSyncScheduler(@Autowired(required = false) DataSyncService dataSyncService,
+                             @Autowired(required = false) SyncJobService syncJobService,
+                             ClusterLockService clusterLockService) {
         this.dataSyncService = dataSyncService;
-        if (dataSyncService == null) {
+        this.syncJobService = syncJobService;
+        this.clusterLockService = clusterLockService;
+        if (dataSyncService == null || syncJobService == null) {
             log.warn("DataSyncService not available - sync jobs will be skipped");
         } else {
             log.info("DataSyncScheduler initialized successfully");
@@ -31,52 +41,37 @@ public class DataSyncScheduler {
     }
 
     /**
-     * Scheduled sync of all enabled CBS tables.
+     * Scheduled sync of all enabled CBS tables, queued as a sync job (see SyncJobService):
+     * skipped if a manual sync of all tables is already queued or running.
+     * By default it is queued on one replica only (cluster lease "scheduler.cbs-sync"). With
+     * app.cluster.sync-work-sharing every replica queues it and the tables are split between them:
+     * each table is synced under its own lease, so no table is synced twice.
      * Default: Daily at 2:00 AM. Configurable via app.scheduling.cbs-sync-cron.
      */
     @Scheduled(cron = "${app.scheduling.cbs-sync-cron:0 0 2 * * ?}")
     public void syncAll() {
         log.info("=== Starting scheduled CBS sync (dictionary-driven) ===");
 
-        if (dataSyncService == null) {
+        if (syncJobService == null) {
             log.warn("DataSyncService not available - skipping sync");
             return;
         }
 
-        try {
-            List<DataSyncService.SyncResult> results = dataSyncService.syncAll();
-
-            for (DataSyncService.SyncResult r : results) {
-                log.info("  Table '{}': upserted={}, validated={}, anomalies={}, errors={}, duration={}s",
-                        r.entity(), r.upserted(), r.validated(), r.anomaliesCreated(), r.errors(), r.durationSeconds());
-            }
-
-            log.info("=== CBS sync completed: {} tables synced ===", results.size());
-        } catch (Exception e) {
-            log.error("=== CBS sync FAILED ===: {}", e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Manual trigger: sync all enabled tables.
-     */
-    public List<DataSyncService.SyncResult> triggerSyncAll() {
-        if (dataSyncService == null) {
-            throw new IllegalStateException("DataSyncService not available");
+        if (workSharing) {
+            submit();
+        } else {
+            clusterLockService.runExclusive("scheduler.cbs-sync", this::submit);
         }
-        log.info("Manual full CBS sync triggered");
-        return dataSyncService.syncAll();
     }
 
-    /**
-     * Manual trigger: sync a specific table.
-     */
-    public DataSyncService.SyncResult triggerSyncTable(String tableName) {
-        if (dataSyncService == null) {
-            throw new IllegalStateException("DataSyncService not available");
+    private void submit() {
+        SyncJobService.Submission submission = syncJobService.submitAll("scheduler");
+        if (submission.deduplicated()) {
+            log.info("=== Scheduled CBS sync skipped: job {} already {} ===",
+                    submission.job().getId(), submission.job().getStatus());
+        } else {
+            log.info("=== Scheduled CBS sync queued as job {} ===", submission.job().getId());
         }
-        log.info("Manual sync triggered for table '{}'", tableName);
-        return dataSyncService.syncTable(tableName);
     }
 
 }
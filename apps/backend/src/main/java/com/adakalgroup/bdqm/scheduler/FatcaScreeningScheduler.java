@@ -1,5 +1,6 @@
 package com.adakalgroup.bdqm.scheduler;
 
+import com.adakalgroup.bdqm.service.ClusterLockService;
 import com.adakalgroup.bdqm.service.FatcaScreeningService;
 import com.adakalgroup.bdqm.service.FatcaScreeningService.ScreeningResult;
 import lombok.extern.slf4j.Slf4j;
@@ -21,12 +22,15 @@ import org.springframework.stereotype.Component;
 public class FatcaScreeningScheduler {
 
     private final FatcaScreeningService fatcaScreeningService;
+    private final ClusterLockService clusterLockService;
     private volatile ScreeningResult lastResult;
     private volatile long lastRunTimestamp;
 
     @Autowired
-    public FatcaScreeningScheduler(@Autowired(required = false) FatcaScreeningService fatcaScreeningService) {
+    public FatcaScreeningScheduler(@Autowired(required = false) FatcaScreeningService fatcaScreeningService,
+                                   ClusterLockService clusterLockService) {
         this.fatcaScreeningService = fatcaScreeningService;
+        this.clusterLockService = clusterLockService;
         if (fatcaScreeningService == null) {
             log.warn("FatcaScreeningService not available - screening jobs will be skipped");
         } else {
@@ -38,6 +42,7 @@ public class FatcaScreeningScheduler {
      * Run FATCA US indicia screening on all clients.
      * Default schedule: Daily at 3:30 AM (after CBS sync at 2:00 AM).
      * Configurable via app.scheduling.fatca-screening-cron property.
+     * Runs on one replica only (cluster lease "scheduler.fatca-screening").
      */
     @Scheduled(cron = "${app.scheduling.fatca-screening-cron:0 30 3 * * ?}")
     public void screenClients() {
@@ -49,14 +54,16 @@ public class FatcaScreeningScheduler {
         }
 
         try {
-            ScreeningResult result = fatcaScreeningService.screenAllClients();
-            lastResult = result;
-            lastRunTimestamp = System.currentTimeMillis();
+            clusterLockService.runExclusive("scheduler.fatca-screening", () -> {
+                ScreeningResult result = fatcaScreeningService.screenAllClients();
+                lastResult = result;
+                lastRunTimestamp = System.currentTimeMillis();
 
-            log.info("=== FATCA screening job completed ===");
-            log.info("Results: Scanned={}, NewDetections={}, Updated={}, Errors={}",
-                result.totalScanned(), result.newDetections(),
-                result.updated(), result.errors());
+                log.info("=== FATCA screening job completed ===");
+                log.info("Results: Scanned={}, NewDetections={}, Updated={}, Errors={}",
+                    result.totalScanned(), result.newDetections(),
+                    result.updated(), result.errors());
+            });
 
         } catch (Exception e) {
             log.error("=== FATCA screening job FAILED ===");
@@ -1,5 +1,6 @@
 package com.adakalgroup.bdqm.scheduler;
 
+import com.adakalgroup.bdqm.service.ClusterLockService;
 import com.adakalgroup.bdqm.service.KpiService;
 import com.adakalgroup.bdqm.service.TicketService;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +10,9 @@ import org.springframework.stereotype.Component;
 
 import java.time.LocalDate;
 
+/**
+ * Daily KPI calculation and SLA breach checks, each run on one replica only (cluster leases).
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -16,16 +20,19 @@ public class KpiScheduler {
 
     private final KpiService kpiService;
     private final TicketService ticketService;
+    private final ClusterLockService clusterLockService;
 
     @Scheduled(cron = "0 0 1 * * ?")
     public void calculateDailyKpis() {
         log.info("Running daily KPI calculation job...");
 
         try {
-            LocalDate yesterday = LocalDate.now().minusDays(1);
-            kpiService.calculateDailyKpis(yesterday);
+            clusterLockService.runExclusive("scheduler.kpi-daily", () -> {
+                LocalDate yesterday = LocalDate.now().minusDays(1);
+                kpiService.calculateDailyKpis(yesterday);
 
-            log.info("Daily KPI calculation completed successfully");
+                log.info("Daily KPI calculation completed successfully");
+            });
 
         } catch (Exception e) {
             log.error("Error calculating daily KPIs: {}", e.getMessage(), e);
@@ -37,8 +44,10 @@ public class KpiScheduler {
         log.info("Running SLA breach check...");
 
         try {
-            ticketService.checkAndUpdateSlaBreaches();
-            log.info("SLA breach check completed");
+            clusterLockService.runExclusive("scheduler.sla-breach-check", () -> {
+                ticketService.checkAndUpdateSlaBreaches();
+                log.info("SLA breach check completed");
+            });
 
         } catch (Exception e) {
             log.error("Error checking SLA breaches: {}", e.getMessage(), e);
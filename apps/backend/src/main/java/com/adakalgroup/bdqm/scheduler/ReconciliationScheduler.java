@@ -1,5 +1,6 @@
 package com.adakalgroup.bdqm.scheduler;
 
+import com.adakalgroup.bdqm.service.ClusterLockService;
 import com.adakalgroup.bdqm.service.ReconciliationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -25,12 +26,15 @@ import java.util.Map;
 public class ReconciliationScheduler {
 
     private final ReconciliationService reconciliationService;
+    private final ClusterLockService clusterLockService;
     private final int maxTasks;
 
     public ReconciliationScheduler(
             ReconciliationService reconciliationService,
+            ClusterLockService clusterLockService,
             @Value("${app.scheduling.reconciliation-max-tasks:100}") int maxTasks) {
         this.reconciliationService = reconciliationService;
+        this.clusterLockService = clusterLockService;
         this.maxTasks = maxTasks;
         log.info("ReconciliationScheduler initialized — batch reconciliation enabled (max {} tasks per run)", maxTasks);
     }
@@ -39,20 +43,23 @@ public class ReconciliationScheduler {
      * Batch reconciliation of all pending tasks.
      * Default schedule: Daily at 3:00 AM.
      * Configurable via app.scheduling.reconciliation-cron property.
+     * Runs on one replica only (cluster lease "scheduler.reconciliation").
      */
     @Scheduled(cron = "${app.scheduling.reconciliation-cron:0 0 3 * * ?}")
     public void reconcilePendingTasks() {
         log.info("=== Starting scheduled batch reconciliation ===");
 
         try {
-            Map<String, Object> result = reconciliationService.reconcileAll(null, maxTasks);
+            clusterLockService.runExclusive("scheduler.reconciliation", () -> {
+                Map<String, Object> result = reconciliationService.reconcileAll(null, maxTasks);
 
-            log.info("=== Batch reconciliation completed ===");
-            log.info("Results: Success={}, Failed={}, Abandoned={}, Total={}",
-                    result.get("success"),
-                    result.get("failed"),
-                    result.get("abandoned"),
-                    result.get("total"));
+                log.info("=== Batch reconciliation completed ===");
+                log.info("Results: Success={}, Failed={}, Abandoned={}, Total={}",
+                        result.get("success"),
+                        result.get("failed"),
+                        result.get("abandoned"),
+                        result.get("total"));
+            });
 
         } catch (Exception e) {
             log.error("=== Batch reconciliation FAILED ===");
@@ -0,0 +1,133 @@
+package com.adakalgroup.bdqm.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Batch size of one table sync, shared by all its partitions and adjusted after every batch.
+ * <ul>
+ *   <li>latency: the slower of fetch and load is turned into a per-row time, and the size moves
+ *   towards the number of rows that fit in the target batch time, at most doubling or halving at once.
+ *   Small tables with narrow rows ramp up quickly; Informix lock waits or PostgreSQL write stalls
+ *   show up as slower rows and shrink the next batches.</li>
+ *   <li>memory: the size never exceeds the memory budget divided by the observed row width.</li>
+ *   <li>failures: a failed fetch or load halves the size.</li>
+ * </ul>
+ * Batches already in the pipeline queues keep the size they were fetched with.
+ */
+@Slf4j
+class AdaptiveBatchSizer {
+
+    /** Records sampled per batch to estimate the row width. */
+    private static final int ROW_SAMPLE = 16;
+
+    private final String tableName;
+    private final int minSize;
+    private final int maxSize;
+    private final long targetMillis;
+    private final long maxBatchBytes;
+    private int size;
+    private double rowBytes;
+
+    AdaptiveBatchSizer(String tableName, int initialSize, int minSize, int maxSize,
+                       long targetMillis, long maxBatchBytes) {
+        this.tableName = tableName;
+        this.minSize = Math.max(1, minSize);
+        this.maxSize = Math.max(this.minSize, maxSize);
+        this.targetMillis = Math.max(1, targetMillis);
+        this.maxBatchBytes = maxBatchBytes;
+        this.size = clamp(initialSize);
+    }
+
+    /**
+     * Fixed size, for when adaptive sizing is disabled.
+     */
+    static AdaptiveBatchSizer fixed(String tableName, int size) {
+        return new AdaptiveBatchSizer(tableName, size, size, size, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    synchronized int current() {
+        return size;
+    }
+
+    /**
+     * Adjust after a completed batch. Batches much smaller than the current size (end of a range)
+     * are dominated by fixed costs and do not change the size.
+     */
+    synchronized void onBatch(SyncPipeline.Batch batch) {
+        if (batch.isFailed()) {
+            onFailure();
+            return;
+        }
+        int rows = batch.getFetched();
+        if (rows == 0 || rows < size / 4) return;
+
+        long sampledBytes = estimateRowBytes(batch.getRecords());
+        rowBytes = rowBytes == 0 ? sampledBytes : 0.8 * rowBytes + 0.2 * sampledBytes;
+
+        long slowest = Math.max(1, Math.max(batch.getStageMillis("extract"), batch.getStageMillis("load")));
+        double rowsInTarget = (double) targetMillis * rows / slowest;
+        int next = (int) Math.max(size / 2.0, Math.min(size * 2.0, rowsInTarget));
+        if (rowBytes > 0) {
+            next = (int) Math.min(next, maxBatchBytes / rowBytes);
+        }
+        resize(next, slowest);
+    }
+
+    /**
+     * Halve after a failed fetch or load attempt.
+     */
+    synchronized void onFailure() {
+        int previous = size;
+        size = clamp(size / 2);
+        if (size != previous) {
+            log.info("Table '{}': batch failed, batch size {} -> {}", tableName, previous, size);
+        }
+    }
+
+    private void resize(int next, long slowestMillis) {
+        int previous = size;
+        size = clamp(next);
+        if (size != previous) {
+            log.debug("Table '{}': batch size {} -> {} (slowest stage {}ms, ~{} bytes/row)",
+                    tableName, previous, size, slowestMillis, (long) rowBytes);
+        }
+    }
+
+    private int clamp(int value) {
+        return Math.max(minSize, Math.min(maxSize, value));
+    }
+
+    /**
+     * Rough heap size of one record, averaged over a sample of the batch.
+     */
+    static long estimateRowBytes(List<Map<String, Object>> records) {
+        if (records.isEmpty()) return 0;
+        int step = Math.max(1, records.size() / ROW_SAMPLE);
+        long total = 0;
+        int sampled = 0;
+        for (int i = 0; i < records.size(); i += step) {
+            total += rowBytes(records.get(i));
+            sampled++;
+        }
+        return total / sampled;
+    }
+
+    private static long rowBytes(Map<String, Object> record) {
+        long bytes = 64;
+        for (Object value : record.values()) {
+            bytes += 32;
+            if (value instanceof String s) {
+                bytes += 40 + s.length();
+            } else if (value instanceof BigDecimal) {
+                bytes += 64;
+            } else if (value != null) {
+                bytes += 24;
+            }
+        }
+        return bytes;
+    }
+}
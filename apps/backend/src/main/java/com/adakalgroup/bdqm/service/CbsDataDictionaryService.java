@@ -4,6 +4,7 @@ import com.adakalgroup.bdqm.dto.CbsFieldDto;
 import com.adakalgroup.bdqm.dto.CbsTableDto;
 import com.adakalgroup.bdqm.model.CbsField;
 import com.adakalgroup.bdqm.model.CbsTable;
+import com.adakalgroup.bdqm.model.enums.SyncMode;
 import com.adakalgroup.bdqm.repository.CbsFieldRepository;
 import com.adakalgroup.bdqm.repository.CbsTableRepository;
 import lombok.RequiredArgsConstructor;
@@ -69,6 +70,10 @@ public class CbsDataDictionaryService {
                 .labelFieldCorporate(dto.getLabelFieldCorporate())
                 .structureField(dto.getStructureField())
                 .typeField(dto.getTypeField())
+                .syncMode(dto.getSyncMode() != null ? dto.getSyncMode() : SyncMode.UPSERT)
+                .maxPartitions(dto.getMaxPartitions() != null ? dto.getMaxPartitions() : 1)
+                .dependsOn(dto.getDependsOn())
+                .detectDeletes(Boolean.TRUE.equals(dto.getDetectDeletes()))
                 .dataFilters(dto.getDataFilters())
                 .active(dto.getActive() != null ? dto.getActive() : true)
                 .build();
@@ -97,6 +102,12 @@ public class CbsDataDictionaryService {
         table.setLabelFieldCorporate(dto.getLabelFieldCorporate());
         table.setStructureField(dto.getStructureField());
         table.setTypeField(dto.getTypeField());
+        if (dto.getSyncMode() != null) table.setSyncMode(dto.getSyncMode());
+        if (dto.getMaxPartitions() != null) table.setMaxPartitions(dto.getMaxPartitions());
+        if (dto.getDetectDeletes() != null) table.setDetectDeletes(dto.getDetectDeletes());
+        if (dto.getDependsOn() != null) {
+            table.setDependsOn(dto.getDependsOn().isBlank() ? null : dto.getDependsOn());
+        }
         table.setDataFilters(dto.getDataFilters());
         if (dto.getActive() != null) table.setActive(dto.getActive());
 
@@ -290,6 +301,14 @@ public class CbsDataDictionaryService {
                 .typeField(entity.getTypeField())
                 .cdcField(entity.getCdcField())
                 .lastSyncAt(entity.getLastSyncAt())
+                .cdcWatermark(entity.getCdcWatermark())
+                .syncMode(entity.getSyncMode())
+                .maxPartitions(entity.getMaxPartitions())
+                .dependsOn(entity.getDependsOn())
+                .detectDeletes(entity.getDetectDeletes())
+                .lastDeleteCheckAt(entity.getLastDeleteCheckAt())
+                .lastSyncDurationMs(entity.getLastSyncDurationMs())
+                .lastBatchSize(entity.getLastBatchSize())
                 .dataFilters(entity.getDataFilters())
                 .active(entity.getActive())
                 .fieldCount(fieldCount)
@@ -0,0 +1,340 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.config.CbsThrottleProperties;
+import com.adakalgroup.bdqm.config.metrics.BusinessMetricsConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Shared throttle in front of the Informix CBS, a production core banking system.
+ * Every informixDsl query goes through it (jOOQ execute listener), as do raw JDBC reads:
+ * <ul>
+ *   <li>at most max-concurrent queries open at a time: a streaming cursor holds its slot from the query
+ *   until it is closed, so max-concurrent caps the cursors open on the CBS (one per sync partition),</li>
+ *   <li>token buckets on queries per second and rows per second (one second of burst); a cursor waiting
+ *   for the row budget lends its slot to other queries meanwhile,</li>
+ *   <li>limits taken from the first matching time-of-day profile, re-read once a second, e.g. a trickle
+ *   during branch opening hours and full speed at night,</li>
+ *   <li>a backoff factor dividing all limits: doubled on a lock error, raised when a query runs
+ *   longer than latency-threshold-ms, and decaying back to 1 while queries are fast.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.features.informix-integration", havingValue = "true", matchIfMissing = false)
+public class CbsLoadThrottle {
+
+    /**
+     * Informix lock errors (SQLCODE / ISAM code): record / file / key locked, deadlock, lock timeout,
+     * and the read errors they are reported under. The only errors that raise the backoff.
+     */
+    private static final Set<Integer> LOCK_ERROR_CODES = Set.of(-107, -113, -143, -144, -154, -244, -245, -246);
+
+    /** Interval between two reads of the time-of-day profiles. */
+    private static final long PROFILE_CHECK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final CbsThrottleProperties properties;
+    private final BusinessMetricsConfig metricsConfig;
+    private final Clock clock;
+    private final LongSupplier nanoTime;
+
+    private final Object lock = new Object();
+    private int running;
+    private double backoff = 1.0;
+    private double queryTokens;
+    private double rowTokens;
+    private long lastRefillNanos;
+    /** Limits of the active profile before backoff, and when they were read. */
+    private Limits profileLimits;
+    private long profileCheckedNanos;
+
+    record Limits(String profile, double rowsPerSecond, double queriesPerSecond, int maxConcurrent) {}
+
+    @Autowired
+    public CbsLoadThrottle(CbsThrottleProperties properties, BusinessMetricsConfig metricsConfig) {
+        this(properties, metricsConfig, Clock.systemDefaultZone(), System::nanoTime);
+    }
+
+    CbsLoadThrottle(CbsThrottleProperties properties, BusinessMetricsConfig metricsConfig, Clock clock,
+                    LongSupplier nanoTime) {
+        this.properties = properties;
+        this.metricsConfig = metricsConfig;
+        this.clock = clock;
+        this.nanoTime = nanoTime;
+        this.lastRefillNanos = nanoTime.getAsLong();
+        metricsConfig.registerCbsThrottle(this::backoff, this::running);
+    }
+
+    /**
+     * Concurrency slot, held while a query executes and, for a cursor, until it is closed.
+     */
+    public final class Permit implements AutoCloseable {
+        private final boolean counted;
+        /** Guarded by lock. */
+        private boolean released;
+        /** Slot lent to other queries while the holder waits for the row budget. Guarded by lock. */
+        private boolean lent;
+
+        private Permit(boolean counted) {
+            this.counted = counted;
+        }
+
+        @Override
+        public void close() {
+            if (!counted) return;
+            synchronized (lock) {
+                if (released) return;
+                released = true;
+                if (!lent) {
+                    running--;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Wait for a concurrency slot and a query token. The slot is held until the permit is closed.
+     */
+    public Permit acquireQuery() {
+        if (!properties.isEnabled()) return new Permit(false);
+        long start = System.currentTimeMillis();
+        synchronized (lock) {
+            while (true) {
+                Limits limits = currentLimits();
+                refill(limits);
+                boolean slot = running < limits.maxConcurrent();
+                boolean token = limits.queriesPerSecond() <= 0 || queryTokens >= 1;
+                if (slot && token) {
+                    running++;
+                    if (limits.queriesPerSecond() > 0) queryTokens -= 1;
+                    break;
+                }
+                waitOnLock(!slot ? 100 : (long) Math.ceil((1 - queryTokens) * 1000 / limits.queriesPerSecond()));
+            }
+        }
+        recordWait("query", System.currentTimeMillis() - start);
+        return new Permit(true);
+    }
+
+    /**
+     * Account for rows read from the CBS, sleeping when the row budget is exhausted.
+     */
+    public void acquireRows(int rows) {
+        acquireRows(rows, null);
+    }
+
+    /**
+     * Account for rows read from the CBS by the holder of a permit (an open cursor). When the row budget
+     * is exhausted the slot is lent to other queries during the sleep and taken back before returning.
+     */
+    public void acquireRows(int rows, Permit held) {
+        if (!properties.isEnabled() || rows <= 0) return;
+        long sleepMs;
+        boolean lend;
+        synchronized (lock) {
+            Limits limits = currentLimits();
+            refill(limits);
+            if (limits.rowsPerSecond() <= 0) return;
+            rowTokens -= rows;
+            sleepMs = rowTokens < 0 ? (long) Math.ceil(-rowTokens * 1000 / limits.rowsPerSecond()) : 0;
+            lend = sleepMs > 0 && held != null && held.counted && !held.released && !held.lent;
+            if (lend) {
+                held.lent = true;
+                running--;
+                lock.notifyAll();
+            }
+        }
+        if (sleepMs <= 0) return;
+        long start = System.currentTimeMillis();
+        try {
+            Thread.sleep(sleepMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the CBS throttle", e);
+        } finally {
+            if (lend) reclaim(held);
+        }
+        recordWait("rows", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Take back the slot of a permit lent during a row budget sleep, waiting for one to free up.
+     */
+    private void reclaim(Permit held) {
+        synchronized (lock) {
+            try {
+                while (!held.released && running >= currentLimits().maxConcurrent()) {
+                    waitOnLock(100);
+                }
+            } finally {
+                held.lent = false;
+                if (!held.released) running++;
+            }
+        }
+    }
+
+    private void waitOnLock(long waitMs) {
+        try {
+            lock.wait(Math.max(1, waitMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the CBS throttle", e);
+        }
+    }
+
+    /**
+     * Feed the execution time of a query: slow queries raise the backoff, fast ones let it decay.
+     */
+    public void onQueryExecuted(long executionMillis) {
+        if (!properties.isEnabled()) return;
+        synchronized (lock) {
+            if (executionMillis > properties.getLatencyThresholdMs()) {
+                raiseBackoff(1.5, "query took " + executionMillis + "ms");
+            } else if (backoff > 1 && executionMillis < properties.getLatencyThresholdMs() / 2) {
+                backoff = Math.max(1.0, backoff * 0.95);
+            }
+        }
+    }
+
+    /**
+     * Feed a failed query: lock errors double the backoff.
+     */
+    public void onQueryFailed(Throwable error) {
+        if (!properties.isEnabled() || !isLockError(error)) return;
+        synchronized (lock) {
+            raiseBackoff(2, "lock error: " + error.getMessage());
+        }
+    }
+
+    /**
+     * Run a raw JDBC read under the throttle.
+     */
+    public <T> T call(Supplier<T> query) {
+        try (Permit ignored = acquireQuery()) {
+            long start = System.currentTimeMillis();
+            T result = query.get();
+            onQueryExecuted(System.currentTimeMillis() - start);
+            return result;
+        } catch (RuntimeException e) {
+            onQueryFailed(e);
+            throw e;
+        }
+    }
+
+    double backoff() {
+        synchronized (lock) {
+            return backoff;
+        }
+    }
+
+    int running() {
+        synchronized (lock) {
+            return running;
+        }
+    }
+
+    /**
+     * True if the error or one of its causes (or chained SQLExceptions, where Informix reports the
+     * ISAM code) carries an Informix lock error code. Messages are not looked at.
+     */
+    static boolean isLockError(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof SQLException sql) {
+                for (SQLException e = sql; e != null; e = e.getNextException()) {
+                    if (LOCK_ERROR_CODES.contains(e.getErrorCode())) return true;
+                    if (e.getNextException() == e) break;
+                }
+            }
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+
+    private void raiseBackoff(double factor, String reason) {
+        double previous = backoff;
+        backoff = Math.min(Math.max(1.0, properties.getMaxBackoff()), backoff * factor);
+        if (backoff != previous) {
+            log.warn("CBS throttle backoff {} -> {} ({})", String.format("%.2f", previous),
+                    String.format("%.2f", backoff), reason);
+        }
+    }
+
+    /**
+     * Limits of the active profile (or the defaults) divided by the backoff factor.
+     */
+    private Limits currentLimits() {
+        long now = nanoTime.getAsLong();
+        if (profileLimits == null || now - profileCheckedNanos >= PROFILE_CHECK_NANOS) {
+            Limits limits = profileLimits(LocalDateTime.now(clock));
+            if (profileLimits == null || !limits.profile().equals(profileLimits.profile())) {
+                log.info("CBS throttle profile '{}': rows/s={}, queries/s={}, maxConcurrent={}", limits.profile(),
+                        limits.rowsPerSecond(), limits.queriesPerSecond(), limits.maxConcurrent());
+            }
+            profileLimits = limits;
+            profileCheckedNanos = now;
+        }
+        if (backoff == 1.0) return profileLimits;
+        return new Limits(profileLimits.profile(), profileLimits.rowsPerSecond() / backoff,
+                profileLimits.queriesPerSecond() / backoff,
+                Math.max(1, (int) Math.floor(profileLimits.maxConcurrent() / backoff)));
+    }
+
+    /**
+     * Current limits, for tests and diagnostics.
+     */
+    Limits limits() {
+        synchronized (lock) {
+            return currentLimits();
+        }
+    }
+
+    private Limits profileLimits(LocalDateTime now) {
+        for (CbsThrottleProperties.Profile p : properties.getProfiles()) {
+            if (isActive(p, now)) {
+                return new Limits(p.getName(), p.getRowsPerSecond(), p.getQueriesPerSecond(),
+                        Math.max(1, p.getMaxConcurrent()));
+            }
+        }
+        return new Limits("default", properties.getRowsPerSecond(), properties.getQueriesPerSecond(),
+                Math.max(1, properties.getMaxConcurrent()));
+    }
+
+    private static boolean isActive(CbsThrottleProperties.Profile profile, LocalDateTime now) {
+        if (!profile.getDays().isEmpty() && !profile.getDays().contains(now.getDayOfWeek())) return false;
+        LocalTime start = profile.getStart();
+        LocalTime end = profile.getEnd();
+        if (start == null || end == null) return true;
+        LocalTime time = now.toLocalTime();
+        return start.isBefore(end)
+                ? !time.isBefore(start) && time.isBefore(end)
+                : !time.isBefore(start) || time.isBefore(end);
+    }
+
+    private void refill(Limits limits) {
+        long now = nanoTime.getAsLong();
+        double seconds = (now - lastRefillNanos) / 1e9;
+        lastRefillNanos = now;
+        queryTokens = limits.queriesPerSecond() > 0
+                ? Math.min(limits.queriesPerSecond(), queryTokens + seconds * limits.queriesPerSecond()) : 0;
+        rowTokens = limits.rowsPerSecond() > 0
+                ? Math.min(limits.rowsPerSecond(), rowTokens + seconds * limits.rowsPerSecond()) : 0;
+    }
+
+    private void recordWait(String kind, long waitedMs) {
+        if (waitedMs > 0) {
+            metricsConfig.recordCbsThrottleWait(kind, waitedMs);
+        }
+    }
+}
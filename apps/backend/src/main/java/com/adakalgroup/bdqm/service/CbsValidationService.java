@@ -8,12 +8,20 @@ import com.adakalgroup.bdqm.model.enums.AnomalyStatus;
 import com.adakalgroup.bdqm.model.enums.ClientType;
 import com.adakalgroup.bdqm.repository.AnomalyRepository;
 import com.adakalgroup.bdqm.repository.ValidationRuleRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Table-agnostic CBS validation service.
@@ -25,24 +33,75 @@ import java.util.*;
 @RequiredArgsConstructor
 public class CbsValidationService {
 
+    /** Smallest run of records handed to an evaluation thread, and runs per thread for load balancing. */
+    private static final int MIN_RUN_SIZE = 50;
+    private static final int RUNS_PER_THREAD = 4;
+
     private final ValidationRuleRepository validationRuleRepository;
     private final AnomalyRepository anomalyRepository;
     private final StructureService structureService;
-    private final NaturalLanguageRuleParser naturalLanguageRuleParser;
+    private final RulePlanCache rulePlanCache;
     private final CbsDataDictionaryService dataDictionaryService;
     private final NomenclatureService nomenclatureService;
     private final com.adakalgroup.bdqm.config.metrics.BusinessMetricsConfig metricsConfig;
 
+    /** Threads evaluating the records of a batch; 0 means one per available core. */
+    @Value("${app.validation.parallelism:0}")
+    private int parallelism;
+
+    /** Batches smaller than this are evaluated on the calling thread. */
+    @Value("${app.validation.parallel-threshold:200}")
+    private int parallelThreshold;
+
+    private ExecutorService evaluationPool;
+    private int evaluationThreads;
+
+    @PostConstruct
+    public void startEvaluationPool() {
+        evaluationThreads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        if (evaluationThreads <= 1) {
+            log.info("Validation evaluates records on the calling thread");
+            return;
+        }
+        AtomicInteger threads = new AtomicInteger();
+        evaluationPool = Executors.newFixedThreadPool(evaluationThreads, r -> {
+            Thread thread = new Thread(r, "validation-eval-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Validation evaluates records on {} threads (batches of {}+ records)", evaluationThreads,
+                parallelThreshold);
+    }
+
+    @PreDestroy
+    public void stopEvaluationPool() {
+        if (evaluationPool != null) {
+            evaluationPool.shutdownNow();
+        }
+    }
+
     /**
      * Validate records from any CBS table and create/auto-resolve anomalies.
      * Table metadata (PK, label, structure, type fields) comes from cbs_tables.
      *
      * @param tableName CBS table name (e.g., "bkcli", "bkcom")
-     * @param records   List of records as Map
+     * @param records   Records to validate, read by column index
      * @return ValidationResult with statistics
      */
     @Transactional
-    public ValidationResult validateRecords(String tableName, List<Map<String, Object>> records) {
+    public ValidationResult validateRecords(String tableName, RowBatch records) {
+        return validateRecords(tableName, records, null);
+    }
+
+    /**
+     * Same as {@link #validateRecords(String, RowBatch)}, restricted to some fields: only their rules are
+     * applied and only their open anomalies are auto-resolved (the other fields are validated in SQL,
+     * see SqlValidationService).
+     *
+     * @param fields lower-case field names, null for all fields
+     */
+    @Transactional
+    public ValidationResult validateRecords(String tableName, RowBatch records, Set<String> fields) {
         log.info("Starting validation for {} records from table '{}'", records.size(), tableName);
 
         // Load table metadata
@@ -51,7 +110,7 @@ public class CbsValidationService {
         String typeField = tableConfig.getTypeField() != null ? tableConfig.getTypeField().toLowerCase() : null;
         String structureField = tableConfig.getStructureField() != null ? tableConfig.getStructureField().toLowerCase() : null;
 
-        log.info("Table '{}' config: pkField={}, typeField={}, structureField={}", tableName, pkField, typeField, structureField);
+        log.debug("Table '{}' config: pkField={}, typeField={}, structureField={}", tableName, pkField, typeField, structureField);
 
         if (pkField == null || pkField.isBlank()) {
             log.warn("Table '{}' has no pkField configured, skipping validation", tableName);
@@ -60,33 +119,46 @@ public class CbsValidationService {
 
         // Load field labels from dictionary
         Map<String, String> fieldLabels = loadFieldLabels(tableName);
-        log.info("Table '{}': loaded {} field labels", tableName, fieldLabels.size());
+        log.debug("Table '{}': loaded {} field labels", tableName, fieldLabels.size());
 
         // Load active rules for this table
         List<ValidationRule> allActiveRules = validationRuleRepository
                 .findByActiveAndTableNameOrderByPriorityDesc(true, tableName);
         log.info("Loaded {} active validation rules for table '{}'", allActiveRules.size(), tableName);
-        allActiveRules.forEach(r -> log.info("  Rule: name={}, field={}, type={}, definition={}",
+        allActiveRules.forEach(r -> log.debug("  Rule: name={}, field={}, type={}, definition={}",
                 r.getRuleName(), r.getFieldName(), r.getRuleType(), r.getRuleDefinition()));
 
-        int totalAnomalies = 0;
-        int skippedDuplicates = 0;
-        int autoResolved = 0;
-        int errors = 0;
+        // Conditions compiled once per rule version
+        List<CompiledRule> compiledRules = allActiveRules.stream()
+                .filter(ValidationRule::hasValidRuleDefinition)
+                .map(r -> new CompiledRule(r, rulePlanCache.get(r)))
+                .filter(r -> !r.plan().isEmpty())
+                .filter(r -> fields == null || fields.contains(r.plan().fieldKey()))
+                .toList();
 
-        Map<String, String> structureNames = new HashMap<>();
+        // Rules filtered once per client type; read-only from here on, shared by the evaluation threads
+        Map<ClientType, List<CompiledRule>> rulesByClientType = new HashMap<>();
+        rulesByClientType.put(null, compiledRules);
+        for (ClientType type : ClientType.values()) {
+            rulesByClientType.put(type, getApplicableRules(compiledRules, type));
+        }
 
-        // Batch collections for bulk save
-        List<Anomaly> anomaliesToCreate = new ArrayList<>();
-        List<Anomaly> anomaliesToResolve = new ArrayList<>();
+        // Key columns resolved once per batch
+        RowBatch.Schema schema = records.schema();
+        int pkColumn = schema.indexOf(pkField);
+        int typeColumn = typeField != null && !typeField.isBlank() ? schema.indexOf(typeField) : -1;
+        int structureColumn = structureField != null ? schema.indexOf(structureField) : -1;
 
         // Bulk load all open anomalies for this batch (eliminates N+1 queries)
         Set<String> allPks = new HashSet<>();
-        for (Map<String, Object> record : records) {
-            String pk = getString(record, pkField);
+        Set<String> structureCodes = new HashSet<>();
+        for (int row = 0; row < records.size(); row++) {
+            String pk = getString(records, row, pkColumn);
             if (pk != null) allPks.add(pk);
+            String structureCode = getString(records, row, structureColumn);
+            if (structureCode != null) structureCodes.add(structureCode);
         }
-        log.info("Table '{}': bulk loading open anomalies for {} records", tableName, allPks.size());
+        log.debug("Table '{}': bulk loading open anomalies for {} records", tableName, allPks.size());
 
         Map<String, Set<String>> existingAnomalyMap = new HashMap<>();
         Map<String, List<Anomaly>> openAnomalyMap = new HashMap<>();
@@ -101,80 +173,28 @@ public class CbsValidationService {
                         .computeIfAbsent(a.getClientNumber(), k -> new ArrayList<>())
                         .add(a);
             }
-            log.info("Table '{}': loaded {} existing open anomalies in bulk", tableName, allOpenAnomalies.size());
+            log.debug("Table '{}': loaded {} existing open anomalies in bulk", tableName, allOpenAnomalies.size());
         }
 
-        for (Map<String, Object> record : records) {
-            try {
-                String pk = getString(record, pkField);
-                if (pk == null) {
-                    log.info("Record skipped: pkField '{}' is null. Record keys: {}", pkField, record.keySet());
-                    continue;
-                }
-
-                ClientType clientType = null;
-                if (typeField != null && !typeField.isBlank()) {
-                    clientType = getClientType(getString(record, typeField));
-                }
-                log.info("Record pk={}: clientType={}, typeField={}, typeValue={}",
-                        pk, clientType, typeField, getString(record, typeField));
-
-                String structureCode = structureField != null ? getString(record, structureField) : null;
-                String structureName = getStructureName(structureCode, structureNames);
-
-                Set<String> failedFields = new HashSet<>();
-                List<ValidationRule> applicableRules = getApplicableRules(allActiveRules, clientType);
-                log.info("Record pk={}: {} applicable rules out of {}", pk, applicableRules.size(), allActiveRules.size());
-
-                Set<String> existingFields = existingAnomalyMap.getOrDefault(pk, Collections.emptySet());
-
-                for (ValidationRule rule : applicableRules) {
-                    try {
-                        ValidationFailure failure = validateRecordAgainstRule(record, rule, fieldLabels);
-
-                        if (failure != null) {
-                            log.info("Record pk={}: FAILED rule '{}' on field '{}' — value='{}', expected='{}'",
-                                    pk, rule.getRuleName(), failure.fieldName(), failure.currentValue(), failure.expectedValue());
-                            failedFields.add(rule.getFieldName());
-
-                            if (existingFields.contains(rule.getFieldName())) {
-                                log.info("Record pk={}: anomaly already exists for field '{}', skipping", pk, rule.getFieldName());
-                                skippedDuplicates++;
-                                continue;
-                            }
-
-                            Anomaly anomaly = createAnomaly(
-                                    pk, record, tableConfig, rule, failure, clientType, structureName);
-                            anomaliesToCreate.add(anomaly);
-                            totalAnomalies++;
-                            log.info("Record pk={}: anomaly CREATED for field '{}'", pk, rule.getFieldName());
-                        } else {
-                            log.info("Record pk={}: PASSED rule '{}' on field '{}'", pk, rule.getRuleName(), rule.getFieldName());
-                        }
-                    } catch (Exception e) {
-                        log.error("Error validating rule {} for record {}: {}",
-                                rule.getRuleName(), pk, e.getMessage());
-                        errors++;
-                    }
-                }
-
-                // Auto-resolve: mark open anomalies for fields that now PASS
-                List<Anomaly> openAnomalies = openAnomalyMap.getOrDefault(pk, Collections.emptyList());
-                for (Anomaly openAnomaly : openAnomalies) {
-                    if (!failedFields.contains(openAnomaly.getFieldName())) {
-                        openAnomaly.setStatus(AnomalyStatus.CORRECTED);
-                        openAnomaly.setDataSource("CBS_AUTO_RESOLVED");
-                        anomaliesToResolve.add(openAnomaly);
-                        autoResolved++;
-                        log.info("Auto-resolved anomaly for record {}, field {}", pk, openAnomaly.getFieldName());
-                    }
-                }
-
-            } catch (Exception e) {
-                log.error("Error validating record from '{}': {}", tableName, e.getMessage());
-                errors++;
-            }
+        // Structure names resolved up front: they may touch the database, evaluation does not
+        Map<String, String> structureNames = new HashMap<>();
+        structureCodes.forEach(code -> getStructureName(code, structureNames));
+
+        BatchContext context = new BatchContext(tableConfig, pkField, pkColumn, typeColumn, structureColumn, fields,
+                fieldLabels, rulesByClientType, structureNames, existingAnomalyMap, openAnomalyMap);
+        Evaluation evaluation = evaluate(context, records);
+
+        // Single writer: resolved anomalies are changed and both lists saved on the calling thread
+        List<Anomaly> anomaliesToCreate = evaluation.toCreate;
+        List<Anomaly> anomaliesToResolve = evaluation.toResolve;
+        for (Anomaly anomaly : anomaliesToResolve) {
+            anomaly.setStatus(AnomalyStatus.CORRECTED);
+            anomaly.setDataSource("CBS_AUTO_RESOLVED");
         }
+        int totalAnomalies = anomaliesToCreate.size();
+        int autoResolved = anomaliesToResolve.size();
+        int skippedDuplicates = evaluation.skippedDuplicates;
+        int errors = evaluation.errors;
 
         // Batch save: one flush for new anomalies, one for resolved
         if (!anomaliesToCreate.isEmpty()) {
@@ -194,49 +214,178 @@ public class CbsValidationService {
         return new ValidationResult(records.size(), totalAnomalies, autoResolved, skippedDuplicates, errors);
     }
 
-    // ===== Rule evaluation =====
+    // ===== Record evaluation =====
 
-    private ValidationFailure validateRecordAgainstRule(Map<String, Object> record,
-                                                        ValidationRule rule,
-                                                        Map<String, String> fieldLabels) {
-        if (!rule.hasValidRuleDefinition()) {
-            log.info("Rule '{}': no valid definition, skipping", rule.getRuleName());
-            return null;
+    /**
+     * Everything the evaluation of a record reads; immutable once built, so shared by the evaluation threads.
+     */
+    private record BatchContext(CbsTableDto tableConfig, String pkField, int pkColumn, int typeColumn,
+                                int structureColumn, Set<String> fields, Map<String, String> fieldLabels,
+                                Map<ClientType, List<CompiledRule>> rulesByClientType,
+                                Map<String, String> structureNames,
+                                Map<String, Set<String>> existingAnomalyMap,
+                                Map<String, List<Anomaly>> openAnomalyMap) {}
+
+    /**
+     * Anomalies to create and to auto-resolve found over a run of records. Confined to the thread
+     * evaluating the run; runs are merged in record order.
+     */
+    private static final class Evaluation {
+        private final List<Anomaly> toCreate = new ArrayList<>();
+        private final List<Anomaly> toResolve = new ArrayList<>();
+        private int skippedDuplicates;
+        private int errors;
+
+        private void add(Evaluation other) {
+            toCreate.addAll(other.toCreate);
+            toResolve.addAll(other.toResolve);
+            skippedDuplicates += other.skippedDuplicates;
+            errors += other.errors;
         }
+    }
 
-        String fieldName = rule.getFieldName().toLowerCase();
-        Object fieldValue = record.get(fieldName);
-        String stringValue = fieldValue != null ? fieldValue.toString().trim() : null;
-        log.info("Rule '{}': field='{}', value='{}'", rule.getRuleName(), fieldName, stringValue);
+    /**
+     * Evaluate the records, split into runs evaluated in parallel on the evaluation pool when the batch
+     * has at least parallel-threshold records. Evaluation is CPU-bound and touches no shared mutable state.
+     */
+    private Evaluation evaluate(BatchContext context, RowBatch records) {
+        int threads = evaluationPool != null ? evaluationThreads : 1;
+        if (threads <= 1 || records.size() < parallelThreshold) {
+            return evaluate(context, records, 0, records.size());
+        }
+        int runSize = Math.max(MIN_RUN_SIZE, (records.size() + threads * RUNS_PER_THREAD - 1) / (threads * RUNS_PER_THREAD));
+        List<Future<Evaluation>> runs = new ArrayList<>();
+        for (int from = 0; from < records.size(); from += runSize) {
+            int start = from;
+            int end = Math.min(from + runSize, records.size());
+            runs.add(evaluationPool.submit(() -> evaluate(context, records, start, end)));
+        }
+        Evaluation evaluation = new Evaluation();
+        try {
+            for (Future<Evaluation> run : runs) {
+                evaluation.add(run.get());
+            }
+        } catch (InterruptedException e) {
+            runs.forEach(run -> run.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Validation interrupted", e);
+        } catch (ExecutionException e) {
+            runs.forEach(run -> run.cancel(true));
+            throw new IllegalStateException("Validation failed: " + e.getCause().getMessage(), e.getCause());
+        }
+        return evaluation;
+    }
 
-        List<RuleCondition> conditions = rule.parseRuleConditions();
-        if (conditions.isEmpty()) {
-            log.info("Rule '{}': no conditions parsed from definition, skipping", rule.getRuleName());
-            return null;
+    private Evaluation evaluate(BatchContext context, RowBatch records, int from, int to) {
+        Evaluation evaluation = new Evaluation();
+        for (int row = from; row < to; row++) {
+            try {
+                evaluateRecord(context, records, row, evaluation);
+            } catch (Exception e) {
+                log.error("Error validating record from '{}': {}", context.tableConfig().getTableName(), e.getMessage());
+                evaluation.errors++;
+            }
         }
-        log.info("Rule '{}': {} conditions to evaluate", rule.getRuleName(), conditions.size());
-
-        NaturalLanguageRuleParser.ValidationResult result =
-                naturalLanguageRuleParser.validateAll(fieldValue, conditions);
-        log.info("Rule '{}': valid={}, message={}", rule.getRuleName(), result.isValid(), result.message());
-
-        if (!result.isValid()) {
-            String fieldLabel = rule.getFieldLabel() != null ?
-                    rule.getFieldLabel() :
-                    fieldLabels.getOrDefault(rule.getFieldName(), rule.getFieldName());
-
-            return new ValidationFailure(
-                    rule.getFieldName(), fieldLabel, stringValue,
-                    buildExpectedValueDescription(conditions),
-                    rule.getRuleType() != null ? rule.getRuleType().name() : "VALIDATION",
-                    result.message() != null ? result.message() : rule.getErrorMessage(),
-                    rule.getSeverity()
-            );
+        return evaluation;
+    }
+
+    private void evaluateRecord(BatchContext context, RowBatch records, int row, Evaluation evaluation) {
+        String pk = getString(records, row, context.pkColumn());
+        if (pk == null) {
+            log.debug("Record skipped: pkField '{}' is null. Record keys: {}", context.pkField(),
+                    records.schema().columns());
+            return;
         }
 
-        return null;
+        String typeValue = getString(records, row, context.typeColumn());
+        ClientType clientType = getClientType(typeValue);
+        log.debug("Record pk={}: clientType={}, typeValue={}", pk, clientType, typeValue);
+
+        String structureCode = getString(records, row, context.structureColumn());
+        String structureName = structureCode != null ? context.structureNames().get(structureCode) : "Unknown";
+
+        Set<String> failedFields = new HashSet<>();
+        List<CompiledRule> applicableRules = context.rulesByClientType().get(clientType);
+        log.debug("Record pk={}: {} applicable rules", pk, applicableRules.size());
+
+        Set<String> existingFields = context.existingAnomalyMap().getOrDefault(pk, Collections.emptySet());
+
+        for (CompiledRule compiled : applicableRules) {
+            ValidationRule rule = compiled.rule();
+            try {
+                ValidationFailure failure = validateRecordAgainstRule(records, row, compiled, context.fieldLabels());
+
+                if (failure != null) {
+                    log.debug("Record pk={}: FAILED rule '{}' on field '{}' — value='{}', expected='{}'",
+                            pk, rule.getRuleName(), failure.fieldName(), failure.currentValue(), failure.expectedValue());
+                    failedFields.add(rule.getFieldName());
+
+                    if (existingFields.contains(rule.getFieldName())) {
+                        log.debug("Record pk={}: anomaly already exists for field '{}', skipping", pk, rule.getFieldName());
+                        evaluation.skippedDuplicates++;
+                        continue;
+                    }
+
+                    evaluation.toCreate.add(createAnomaly(
+                            pk, records.row(row), context.tableConfig(), rule, failure, clientType, structureName));
+                    log.debug("Record pk={}: anomaly CREATED for field '{}'", pk, rule.getFieldName());
+                } else {
+                    log.debug("Record pk={}: PASSED rule '{}' on field '{}'", pk, rule.getRuleName(), rule.getFieldName());
+                }
+            } catch (Exception e) {
+                log.error("Error validating rule {} for record {}: {}",
+                        rule.getRuleName(), pk, e.getMessage());
+                evaluation.errors++;
+            }
+        }
+
+        // Auto-resolve: open anomalies for fields that now PASS, changed by the single writer
+        Set<String> fields = context.fields();
+        for (Anomaly openAnomaly : context.openAnomalyMap().getOrDefault(pk, Collections.emptyList())) {
+            if (!failedFields.contains(openAnomaly.getFieldName()) && (fields == null
+                    || fields.contains(openAnomaly.getFieldName().toLowerCase()))) {
+                evaluation.toResolve.add(openAnomaly);
+                log.debug("Auto-resolved anomaly for record {}, field {}", pk, openAnomaly.getFieldName());
+            }
+        }
+    }
+
+    // ===== Rule evaluation =====
+
+    private ValidationFailure validateRecordAgainstRule(RowBatch records, int row,
+                                                        CompiledRule compiled,
+                                                        Map<String, String> fieldLabels) {
+        ValidationRule rule = compiled.rule();
+        RulePlanCache.RulePlan plan = compiled.plan();
+        int column = plan.columnIndex(records.schema());
+        Object fieldValue = column >= 0 ? records.value(row, column) : null;
+
+        NaturalLanguageRuleParser.ValidationResult result = plan.validate(fieldValue);
+        if (result.isValid()) {
+            return null;
+        }
+
+        String stringValue = fieldValue != null ? fieldValue.toString().trim() : null;
+        log.debug("Rule '{}': field='{}', value='{}', message={}",
+                rule.getRuleName(), plan.fieldKey(), stringValue, result.message());
+        String fieldLabel = rule.getFieldLabel() != null ?
+                rule.getFieldLabel() :
+                fieldLabels.getOrDefault(rule.getFieldName(), rule.getFieldName());
+
+        return new ValidationFailure(
+                rule.getFieldName(), fieldLabel, stringValue,
+                buildExpectedValueDescription(plan.conditions().conditions()),
+                rule.getRuleType() != null ? rule.getRuleType().name() : "VALIDATION",
+                result.message() != null ? result.message() : rule.getErrorMessage(),
+                rule.getSeverity()
+        );
     }
 
+    /**
+     * An active rule with its compiled conditions.
+     */
+    private record CompiledRule(ValidationRule rule, RulePlanCache.RulePlan plan) {}
+
     // ===== Anomaly creation =====
 
     private Anomaly createAnomaly(String pk, Map<String, Object> record, CbsTableDto tableConfig,
@@ -294,7 +443,7 @@ public class CbsValidationService {
 
     // ===== Helpers =====
 
-    private Map<String, String> loadFieldLabels(String tableName) {
+    Map<String, String> loadFieldLabels(String tableName) {
         try {
             Map<String, String> labels = dataDictionaryService.getFieldLabels(tableName);
             return labels.isEmpty() ? Collections.emptyMap() : labels;
@@ -313,14 +462,14 @@ public class CbsValidationService {
         }
     }
 
-    private List<ValidationRule> getApplicableRules(List<ValidationRule> allRules, ClientType clientType) {
+    private List<CompiledRule> getApplicableRules(List<CompiledRule> allRules, ClientType clientType) {
         if (clientType == null) return allRules;
         return allRules.stream()
-                .filter(rule -> rule.getClientType() == null || rule.getClientType() == clientType)
+                .filter(r -> r.rule().getClientType() == null || r.rule().getClientType() == clientType)
                 .toList();
     }
 
-    private String getStructureName(String structureCode, Map<String, String> cache) {
+    String getStructureName(String structureCode, Map<String, String> cache) {
         if (structureCode == null || structureCode.isBlank()) return "Unknown";
         return cache.computeIfAbsent(structureCode, code -> {
             // Ensure structure exists in the structure table (own transaction)
@@ -335,13 +484,20 @@ public class CbsValidationService {
     }
 
     private String getString(Map<String, Object> record, String key) {
-        Object val = record.get(key);
+        return toText(record.get(key));
+    }
+
+    private static String getString(RowBatch records, int row, int column) {
+        return column >= 0 ? toText(records.value(row, column)) : null;
+    }
+
+    private static String toText(Object val) {
         if (val == null) return null;
         String s = val.toString().trim();
         return s.isEmpty() ? null : s;
     }
 
-    private String buildExpectedValueDescription(List<RuleCondition> conditions) {
+    String buildExpectedValueDescription(List<RuleCondition> conditions) {
         List<String> descriptions = new ArrayList<>();
         for (RuleCondition condition : conditions) {
             String desc = switch (condition.getType().toLowerCase()) {
@@ -0,0 +1,260 @@
+package com.adakalgroup.bdqm.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cluster-wide leases on PostgreSQL (public.cluster_locks), so that a job runs on one backend
+ * replica at a time.
+ * <ul>
+ *   <li>a lease is taken with a conditional update that only succeeds when the previous lease has expired,</li>
+ *   <li>a heartbeat extends it every ttl/3 while it is held; a replica that stops (crash, long GC pause)
+ *   loses it after ttl and another replica can take over,</li>
+ *   <li>every acquisition increments the lock's fencing token: a write that must not be made by a stale
+ *   holder carries {@link #FENCE_CONDITION} in its WHERE clause and is checked with {@link Lease#checkFenced},
+ *   so a replica that lost its lease without noticing cannot overwrite the work of the new holder,</li>
+ *   <li>a released lease can be kept for a minimum time, so the same cron firing a few seconds later
+ *   on a replica with a skewed clock does not run the job a second time.</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class ClusterLockService {
+
+    /**
+     * Guard of a fenced write, with named parameters lockName, lockOwner and lockToken: true while the
+     * lease with that token is the lock's current one. The lock row stays locked until the write's
+     * transaction ends, so the lease cannot be taken over between the check and the commit.
+     */
+    public static final String FENCE_CONDITION = "EXISTS (SELECT 1 FROM public.cluster_locks " +
+            "WHERE name = :lockName AND owner = :lockOwner AND token = :lockToken FOR UPDATE)";
+
+    private final DSLContext primaryDsl;
+    private final String nodeId;
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "cluster-lock-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${app.cluster.lock-ttl-seconds:60}")
+    private long defaultTtlSeconds;
+
+    @Value("${app.cluster.scheduler-min-hold-seconds:30}")
+    private long schedulerMinHoldSeconds;
+
+    public ClusterLockService(@Qualifier("primaryDsl") DSLContext primaryDsl,
+                              @Value("${app.cluster.node-id:}") String nodeId) {
+        this.primaryDsl = primaryDsl;
+        this.nodeId = nodeId != null && !nodeId.isBlank() ? nodeId : defaultNodeId();
+        log.info("Cluster node id: {}", this.nodeId);
+    }
+
+    /**
+     * A held lease. Closing it releases the lock (kept until minHold after acquisition, if set).
+     */
+    public final class Lease implements AutoCloseable {
+        private final String name;
+        private final long token;
+        private final Duration ttl;
+        private final Duration minHold;
+        private final ScheduledFuture<?> heartbeat;
+        private volatile boolean lost;
+        private volatile boolean released;
+
+        private Lease(String name, long token, Duration ttl, Duration minHold) {
+            this.name = name;
+            this.token = token;
+            this.ttl = ttl;
+            this.minHold = minHold;
+            long period = Math.max(1, ttl.toMillis() / 3);
+            this.heartbeat = heartbeats.scheduleAtFixedRate(this::renew, period, period, TimeUnit.MILLISECONDS);
+        }
+
+        public String name() {
+            return name;
+        }
+
+        /**
+         * Fencing token: strictly increasing across all acquisitions of this lock.
+         */
+        public long token() {
+            return token;
+        }
+
+        /**
+         * Node holding the lease, the lockOwner of {@link #FENCE_CONDITION}.
+         */
+        public String owner() {
+            return nodeId;
+        }
+
+        /**
+         * False once a heartbeat found the lease taken over or expired.
+         */
+        public boolean isHeld() {
+            return !lost && !released;
+        }
+
+        /**
+         * Check the row count of a write guarded by {@link #FENCE_CONDITION} with this lease: no row
+         * written means the lease was taken over, and this holder must stop.
+         *
+         * @throws IllegalStateException if nothing was written or the lease was already lost
+         */
+        public void checkFenced(int rowsWritten) {
+            if (rowsWritten == 0) markLost("fenced write rejected, not the current holder anymore");
+            if (!isHeld()) {
+                throw new IllegalStateException("Cluster lease '" + name + "' (token " + token + ") is no longer held");
+            }
+        }
+
+        private void renew() {
+            if (!isHeld()) return;
+            try {
+                int updated = primaryDsl.execute(
+                        "UPDATE public.cluster_locks SET heartbeat_at = LOCALTIMESTAMP, " +
+                        "expires_at = LOCALTIMESTAMP + CAST(? AS integer) * INTERVAL '0.001' SECOND " +
+                        "WHERE name = ? AND owner = ? AND token = ?",
+                        (int) ttl.toMillis(), name, nodeId, token);
+                if (updated == 0) markLost("taken over by another node");
+            } catch (Exception e) {
+                // The lease stays valid until it expires; the next heartbeat retries
+                log.warn("Cluster lease '{}': heartbeat failed: {}", name, e.getMessage());
+            }
+        }
+
+        private void markLost(String reason) {
+            if (!lost) {
+                lost = true;
+                heartbeat.cancel(false);
+                log.error("Cluster lease '{}' (token {}) lost: {}", name, token, reason);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (released) return;
+            released = true;
+            heartbeat.cancel(false);
+            if (lost) return;
+            try {
+                primaryDsl.execute(
+                        "UPDATE public.cluster_locks SET owner = NULL, heartbeat_at = LOCALTIMESTAMP, " +
+                        "expires_at = GREATEST(LOCALTIMESTAMP, acquired_at + CAST(? AS integer) * INTERVAL '0.001' SECOND) " +
+                        "WHERE name = ? AND owner = ? AND token = ?",
+                        (int) minHold.toMillis(), name, nodeId, token);
+            } catch (Exception e) {
+                log.warn("Cluster lease '{}': release failed, it will expire on its own: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Take the lease if nobody holds it, with the default ttl and no minimum hold.
+     */
+    public Optional<Lease> tryAcquire(String name) {
+        return tryAcquire(name, Duration.ofSeconds(defaultTtlSeconds), Duration.ZERO);
+    }
+
+    /**
+     * Take the lease if nobody holds it (no holder, or the holder's lease expired).
+     *
+     * @param ttl     how long the lease survives without heartbeat
+     * @param minHold minimum time from acquisition before the lock can be taken again, even once released
+     */
+    public Optional<Lease> tryAcquire(String name, Duration ttl, Duration minHold) {
+        // The lock row is created once, free; taking it is the conditional update
+        primaryDsl.execute("INSERT INTO public.cluster_locks (name, token, expires_at) " +
+                "VALUES (?, 0, LOCALTIMESTAMP) ON CONFLICT DO NOTHING", name);
+        int taken = primaryDsl.execute(
+                "UPDATE public.cluster_locks SET owner = ?, token = token + 1, acquired_at = LOCALTIMESTAMP, " +
+                "heartbeat_at = LOCALTIMESTAMP, expires_at = LOCALTIMESTAMP + CAST(? AS integer) * INTERVAL '0.001' SECOND " +
+                "WHERE name = ? AND expires_at <= LOCALTIMESTAMP",
+                nodeId, (int) ttl.toMillis(), name);
+        if (taken == 0) return Optional.empty();
+        return primaryDsl.fetchOptional(
+                        "SELECT token FROM public.cluster_locks WHERE name = ? AND owner = ?", name, nodeId)
+                .map(r -> {
+                    long token = r.get(0, Long.class);
+                    log.debug("Cluster lease '{}' acquired by {} (token {})", name, nodeId, token);
+                    return new Lease(name, token, ttl, minHold);
+                });
+    }
+
+    /**
+     * Current holder of a lock, empty if it is free.
+     */
+    public Optional<String> holder(String name) {
+        return primaryDsl.fetchOptional(
+                        "SELECT owner FROM public.cluster_locks WHERE name = ? AND owner IS NOT NULL " +
+                        "AND expires_at > LOCALTIMESTAMP", name)
+                .map(r -> r.get(0, String.class));
+    }
+
+    /**
+     * Run a scheduled job on this node only if no other node is running it, or ran it less than
+     * scheduler-min-hold-seconds ago.
+     *
+     * @return false if the job was skipped
+     */
+    public boolean runExclusive(String name, Runnable job) {
+        return callExclusive(name, () -> {
+            job.run();
+            return Boolean.TRUE;
+        }).isPresent();
+    }
+
+    /**
+     * Same as {@link #runExclusive(String, Runnable)}, returning the job's result, empty if skipped.
+     */
+    public <T> Optional<T> callExclusive(String name, Supplier<T> job) {
+        Optional<Lease> lease;
+        try {
+            lease = tryAcquire(name, Duration.ofSeconds(defaultTtlSeconds), Duration.ofSeconds(schedulerMinHoldSeconds));
+        } catch (Exception e) {
+            log.error("Cluster lease '{}': cannot reach the lock table, job skipped: {}", name, e.getMessage());
+            return Optional.empty();
+        }
+        if (lease.isEmpty()) {
+            log.info("Job '{}' skipped: running or just run on {}", name, holder(name).orElse("another node"));
+            return Optional.empty();
+        }
+        try (Lease ignored = lease.get()) {
+            return Optional.ofNullable(job.get());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + ":" + ProcessHandle.current().pid() + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -2,8 +2,15 @@ package com.adakalgroup.bdqm.service;
 
 import com.adakalgroup.bdqm.config.metrics.BusinessMetricsConfig;
 import com.adakalgroup.bdqm.model.CbsTable;
+import com.adakalgroup.bdqm.model.SyncCheckpoint;
+import com.adakalgroup.bdqm.model.SyncRun;
+import com.adakalgroup.bdqm.model.ValidationRule;
+import com.adakalgroup.bdqm.model.enums.LoadStatus;
+import com.adakalgroup.bdqm.model.enums.SyncMode;
 
+import com.adakalgroup.bdqm.repository.AnomalyRepository;
 import com.adakalgroup.bdqm.repository.CbsTableRepository;
+import com.adakalgroup.bdqm.repository.ValidationRuleRepository;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,12 +19,31 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Dictionary-driven data sync service.
@@ -29,6 +55,9 @@ import java.util.concurrent.Executors;
 @ConditionalOnProperty(name = "app.features.informix-integration", havingValue = "true", matchIfMissing = false)
 public class DataSyncService {
 
+    /** Interval between two attempts at a table whose lease another node holds. */
+    private static final long TABLE_LEASE_POLL_MS = 5000;
+
     private final DynamicCbsQueryService dynamicCbsQueryService;
     private final CbsTableRepository cbsTableRepository;
     private final CbsDataDictionaryService dataDictionaryService;
@@ -36,8 +65,13 @@ public class DataSyncService {
     private final BusinessMetricsConfig metricsConfig;
     private final TransactionTemplate transactionTemplate;
     private final SyncProgressService syncProgressService;
-
-    private static final int BATCH_SIZE = 1000;
+    private final ValidationRuleRepository validationRuleRepository;
+    private final SyncCheckpointService syncCheckpointService;
+    private final AnomalyRepository anomalyRepository;
+    private final SyncDeadLetterService syncDeadLetterService;
+    private final ClusterLockService clusterLockService;
+    private final ValidationQueueService validationQueueService;
+    private final SqlValidationService sqlValidationService;
 
     @Value("${app.max-records:0}")
     private int maxRecords;
@@ -48,13 +82,68 @@ public class DataSyncService {
     @Value("${app.sync.batch-retry:2}")
     private int batchRetry;
 
+    @Value("${app.sync.pipeline-queue-capacity:2}")
+    private int pipelineQueueCapacity;
+
+    @Value("${app.sync.dead-letter.max-per-batch:10}")
+    private int maxDeadLettersPerBatch;
+
+    @Value("${app.sync.streaming:false}")
+    private boolean streaming;
+
+    @Value("${app.sync.stream-fetch-size:1000}")
+    private int streamFetchSize;
+
+    @Value("${app.sync.cdc-overlap-minutes:5}")
+    private int cdcOverlapMinutes;
+
+    @Value("${app.sync.adaptive-batch.enabled:true}")
+    private boolean adaptiveBatch;
+
+    @Value("${app.sync.adaptive-batch.initial-size:1000}")
+    private int initialBatchSize;
+
+    @Value("${app.sync.adaptive-batch.min-size:100}")
+    private int minBatchSize;
+
+    @Value("${app.sync.adaptive-batch.max-size:20000}")
+    private int maxBatchSize;
+
+    @Value("${app.sync.adaptive-batch.target-batch-ms:2000}")
+    private long targetBatchMs;
+
+    @Value("${app.sync.adaptive-batch.max-batch-mb:64}")
+    private long maxBatchMb;
+
+    @Value("${app.sync.delete-detection.mode:TOMBSTONE}")
+    private String deleteMode;
+
+    @Value("${app.sync.delete-detection.interval-hours:24}")
+    private int deleteCheckIntervalHours;
+
+    @Value("${app.sync.delete-detection.bloom-threshold:5000000}")
+    private long bloomThreshold;
+
+    @Value("${app.sync.delete-detection.bloom-fpp:0.01}")
+    private double bloomFpp;
+
+    @Value("${app.sync.delete-detection.max-delete-ratio:0.2}")
+    private double maxDeleteRatio;
+
     public DataSyncService(DynamicCbsQueryService dynamicCbsQueryService,
                            CbsTableRepository cbsTableRepository,
                            CbsDataDictionaryService dataDictionaryService,
                            CbsValidationService cbsValidationService,
                            BusinessMetricsConfig metricsConfig,
                            TransactionTemplate transactionTemplate,
-                           SyncProgressService syncProgressService) {
+                           SyncProgressService syncProgressService,
+                           ValidationRuleRepository validationRuleRepository,
+                           SyncCheckpointService syncCheckpointService,
+                           AnomalyRepository anomalyRepository,
+                           SyncDeadLetterService syncDeadLetterService,
+                           ClusterLockService clusterLockService,
+                           ValidationQueueService validationQueueService,
+                           SqlValidationService sqlValidationService) {
         this.dynamicCbsQueryService = dynamicCbsQueryService;
         this.cbsTableRepository = cbsTableRepository;
         this.dataDictionaryService = dataDictionaryService;
@@ -62,74 +151,249 @@ public class DataSyncService {
         this.metricsConfig = metricsConfig;
         this.transactionTemplate = transactionTemplate;
         this.syncProgressService = syncProgressService;
+        this.validationRuleRepository = validationRuleRepository;
+        this.syncCheckpointService = syncCheckpointService;
+        this.anomalyRepository = anomalyRepository;
+        this.syncDeadLetterService = syncDeadLetterService;
+        this.clusterLockService = clusterLockService;
+        this.validationQueueService = validationQueueService;
+        this.sqlValidationService = sqlValidationService;
     }
 
     /**
      * Sync ALL enabled CBS tables from Informix to PostgreSQL mirror.
-     * Tables are determined by cbs_tables where sync_enabled=true, ordered by sync_order.
+     * Tables are determined by cbs_tables where sync_enabled=true. A table starts only after the
+     * tables in its depends_on; independent tables run concurrently (see SyncDag), longest chains first.
      *
      * @return list of SyncResult, one per table
      */
     public List<SyncResult> syncAll() {
+        return syncAll(SyncJobContext.NONE);
+    }
+
+    /**
+     * Sync all enabled tables for a sync job. Once the job is cancelled no further table starts;
+     * the results cover the tables that ran.
+     */
+    public List<SyncResult> syncAll(SyncJobContext job) {
         List<CbsTable> tables = cbsTableRepository.findBySyncEnabledTrueAndActiveTrueOrderBySyncOrderAsc();
         log.info("Starting dictionary-driven sync for {} enabled tables (parallelism={})", tables.size(), parallelism);
 
         long syncStart = System.currentTimeMillis();
+        SyncDag dag = new SyncDag(tables);
         List<SyncResult> results;
-        if (parallelism <= 1) {
-            results = syncAllSequential(tables);
+        if (dag.hasCycle()) {
+            log.error("Cycle in cbs_tables.depends_on, ignoring dependencies and syncing sequentially by sync_order");
+            results = syncAllSequential(tables, job);
+        } else if (parallelism <= 1) {
+            results = syncAllSequential(dag.topologicalOrder(), job);
         } else {
-            results = syncAllParallel(tables);
+            results = syncAllParallel(dag, tables, job);
         }
 
         long totalDuration = System.currentTimeMillis() - syncStart;
-        syncProgressService.emitSyncComplete(results.size(), totalDuration);
+        syncProgressService.emitSyncComplete(job.jobId(), results.size(), totalDuration);
         metricsConfig.recordDataSyncSuccess();
         return results;
     }
 
-    private List<SyncResult> syncAllSequential(List<CbsTable> tables) {
+    private List<SyncResult> syncAllSequential(List<CbsTable> tables, SyncJobContext job) {
         List<SyncResult> results = new ArrayList<>();
         for (CbsTable table : tables) {
-            results.add(syncTableSafe(table.getTableName()));
+            if (job.isCancelled()) {
+                log.info("Sync job {} cancelled, {} tables not started", job.jobId(), tables.size() - results.size());
+                break;
+            }
+            results.add(syncTableSafe(table.getTableName(), job));
         }
         log.info("Full sync completed: {} tables processed (sequential)", results.size());
         return results;
     }
 
-    private List<SyncResult> syncAllParallel(List<CbsTable> tables) {
-        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, tables.size()));
+    /**
+     * Runs ready tables (all dependencies synced) on up to `parallelism` threads,
+     * highest SyncDag priority first, releasing dependents as tables complete.
+     * A table whose lease another node holds is not waited for on a worker: it is retried every
+     * TABLE_LEASE_POLL_MS behind the other ready tables, and its dependents stay pending until it has
+     * run. The coordinator only sleeps when such tables are all that is left.
+     */
+    private List<SyncResult> syncAllParallel(SyncDag dag, List<CbsTable> tables, SyncJobContext job) {
+        int threads = Math.min(parallelism, tables.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CompletionService<TableAttempt> completion = new ExecutorCompletionService<>(executor);
         try {
-            List<CompletableFuture<SyncResult>> futures = tables.stream()
-                    .map(table -> CompletableFuture.supplyAsync(
-                            () -> syncTableSafe(table.getTableName()), executor))
-                    .toList();
+            Map<String, Integer> pending = new HashMap<>();
+            PriorityQueue<CbsTable> ready = new PriorityQueue<>(dag.priority());
+            for (CbsTable table : tables) {
+                int count = dag.dependenciesOf(table.getTableName()).size();
+                pending.put(table.getTableName(), count);
+                if (count == 0) ready.add(table);
+            }
+            // Tables held by another node, in retry order
+            Deque<BusyTable> busy = new ArrayDeque<>();
 
-            List<SyncResult> results = futures.stream()
-                    .map(CompletableFuture::join)
-                    .toList();
+            List<SyncResult> results = new ArrayList<>();
+            int running = 0;
+            while (!ready.isEmpty() || !busy.isEmpty() || running > 0) {
+                if (job.isCancelled() && (!ready.isEmpty() || !busy.isEmpty())) {
+                    log.info("Sync job {} cancelled, remaining tables not started", job.jobId());
+                    ready.clear();
+                    busy.clear();
+                }
+                long now = System.currentTimeMillis();
+                while (running < threads) {
+                    if (!ready.isEmpty()) {
+                        String tableName = ready.poll().getTableName();
+                        completion.submit(() -> attemptTable(tableName, job, null));
+                    } else if (!busy.isEmpty() && busy.peek().retryAt() <= now) {
+                        BusyTable retry = busy.poll();
+                        completion.submit(() -> attemptTable(retry.tableName(), job, retry));
+                    } else {
+                        break;
+                    }
+                    running++;
+                }
+                Future<TableAttempt> done;
+                if (running == 0) {
+                    if (busy.isEmpty()) break;
+                    // Nothing else is ready: wait for the next retry
+                    Thread.sleep(Math.max(0, busy.peek().retryAt() - now));
+                    continue;
+                } else if (busy.isEmpty()) {
+                    done = completion.take();
+                } else {
+                    done = completion.poll(Math.max(0, busy.peek().retryAt() - now), TimeUnit.MILLISECONDS);
+                    if (done == null) continue;
+                }
+                TableAttempt attempt = done.get();
+                running--;
+                if (attempt.result() == null) {
+                    busy.add(new BusyTable(attempt.tableName(), attempt.syncedBefore(),
+                            System.currentTimeMillis() + TABLE_LEASE_POLL_MS));
+                    continue;
+                }
+                SyncResult result = attempt.result();
+                results.add(result);
+                for (String dependent : dag.dependentsOf(result.entity())) {
+                    if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                        ready.add(dag.table(dependent));
+                    }
+                }
+            }
 
-            log.info("Full sync completed: {} tables processed (parallel, threads={})", results.size(), parallelism);
+            log.info("Full sync completed: {} tables processed (parallel, threads={})", results.size(), threads);
             return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sync interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sync failed", e.getCause());
         } finally {
             executor.shutdown();
         }
     }
 
-    private SyncResult syncTableSafe(String tableName) {
+    /**
+     * One attempt at a table of a parallel syncAll.
+     *
+     * @param result       the table's result, null if another node holds its lease
+     * @param syncedBefore last sync of the table when it was first attempted
+     */
+    private record TableAttempt(String tableName, SyncResult result, LocalDateTime syncedBefore) {}
+
+    /**
+     * A table of a parallel syncAll whose lease another node held, to retry at retryAt.
+     */
+    private record BusyTable(String tableName, LocalDateTime syncedBefore, long retryAt) {}
+
+    /**
+     * Sync one table of a parallel syncAll if its lease is free, without waiting for it.
+     *
+     * @param retry the earlier attempt if the table was busy, null on the first attempt
+     */
+    private TableAttempt attemptTable(String tableName, SyncJobContext job, BusyTable retry) {
         try {
-            return syncTable(tableName);
+            LocalDateTime syncedBefore = retry != null ? retry.syncedBefore() : lastSyncAt(tableName);
+            Optional<ClusterLockService.Lease> lease = clusterLockService.tryAcquire(tableLeaseName(tableName));
+            if (lease.isEmpty()) {
+                if (retry == null) {
+                    log.info("Table '{}' is being synced by {}, retrying after the other ready tables", tableName,
+                            clusterLockService.holder(tableLeaseName(tableName)).orElse("another node"));
+                }
+                return new TableAttempt(tableName, null, syncedBefore);
+            }
+            try (ClusterLockService.Lease held = lease.get()) {
+                return new TableAttempt(tableName, syncLeased(tableName, job, held, syncedBefore), syncedBefore);
+            }
         } catch (Exception e) {
             log.error("Sync failed for table {}: {}", tableName, e.getMessage(), e);
-            return new SyncResult(tableName, 0, 0, 0, 0, LocalDateTime.now(), LocalDateTime.now());
+            return new TableAttempt(tableName, emptyResult(tableName), null);
         }
     }
 
     /**
-     * Sync a single CBS table: fetch batch → upsert mirror → validate batch → next.
-     * Each batch runs in its own transaction — failure is isolated, no full rollback.
+     * Sync one table of a sequential syncAll. When another node holds the table's lease (nodes sharing the
+     * scheduled sync, or an overlapping manual sync), wait for it instead of releasing dependents
+     * early; if the table was synced meanwhile, it is not synced again.
+     */
+    private SyncResult syncTableSafe(String tableName, SyncJobContext job) {
+        try {
+            LocalDateTime syncedBefore = lastSyncAt(tableName);
+            ClusterLockService.Lease lease = awaitTableLease(tableName, job);
+            if (lease == null) {
+                return emptyResult(tableName);
+            }
+            try (lease) {
+                return syncLeased(tableName, job, lease, syncedBefore);
+            }
+        } catch (Exception e) {
+            log.error("Sync failed for table {}: {}", tableName, e.getMessage(), e);
+            return emptyResult(tableName);
+        }
+    }
+
+    /**
+     * Sync a table of a syncAll under its lease, unless another node synced it since syncedBefore.
+     */
+    private SyncResult syncLeased(String tableName, SyncJobContext job, ClusterLockService.Lease lease,
+                                  LocalDateTime syncedBefore) {
+        if (!Objects.equals(syncedBefore, lastSyncAt(tableName))) {
+            log.info("Table '{}' was synced by another node meanwhile, skipping", tableName);
+            return emptyResult(tableName);
+        }
+        return syncTable(tableName, job, lease);
+    }
+
+    private static SyncResult emptyResult(String tableName) {
+        return new SyncResult(tableName, 0, 0, 0, 0, 0, 0, 0, LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    /**
+     * Sync a single CBS table through the extract → load → validate pipeline (see SyncPipeline).
+     * Each batch is written and validated independently — failure is isolated, no full rollback.
+     * Progress is checkpointed per batch (see SyncCheckpointService): an interrupted sync resumes
+     * from its last completed batch on the next call.
      */
     public SyncResult syncTable(String tableName) {
+        return syncTable(tableName, SyncJobContext.NONE);
+    }
+
+    /**
+     * Sync a single table for a sync job. A cancelled job stops the table at its next batch and
+     * leaves the run resumable, like any interrupted run.
+     * Fails at once if another node is syncing the table.
+     */
+    public SyncResult syncTable(String tableName, SyncJobContext job) {
+        try (ClusterLockService.Lease lease = acquireTableLease(tableName)) {
+            return syncTable(tableName, job, lease);
+        }
+    }
+
+    /**
+     * Sync a table under its cluster lease. Every checkpoint write is fenced by the lease's token,
+     * so a node that lost it stops instead of advancing checkpoints another node now owns.
+     */
+    private SyncResult syncTable(String tableName, SyncJobContext job, ClusterLockService.Lease lease) {
         log.info("Starting sync for table '{}' from Informix to PostgreSQL...", tableName);
         LocalDateTime startTime = LocalDateTime.now();
 
@@ -137,7 +401,10 @@ public class DataSyncService {
         int validated = 0;
         int anomaliesCreated = 0;
         int errors = 0;
-        int offset = 0;
+        int inserted = 0;
+        int changed = 0;
+        int unchanged = 0;
+        SyncRun run = null;
 
         try {
             // Schema + config reads need a transaction (lazy-loaded JPA fields)
@@ -154,127 +421,745 @@ public class DataSyncService {
                     cbsTableRepository.findByTableName(tableName).orElse(null));
             String cdcField = tableEntity != null ? tableEntity.getCdcField() : null;
             LocalDateTime lastSyncAt = tableEntity != null ? tableEntity.getLastSyncAt() : null;
+            LocalDateTime cdcSince = cdcField != null
+                    ? cdcLowerBound(tableName, cdcField, tableEntity.getCdcWatermark(), lastSyncAt)
+                    : null;
 
-            boolean cdcMode = cdcField != null && lastSyncAt != null;
+            boolean cdcMode = cdcSince != null;
             if (cdcMode) {
-                log.info("Table '{}': CDC mode (field={}, since={})", tableName, cdcField, lastSyncAt);
+                log.info("Table '{}': CDC mode (field={}, since={})", tableName, cdcField, cdcSince);
             } else if (cdcField != null) {
-                log.info("Table '{}': CDC field '{}' configured but no lastSyncAt, full sync", tableName, cdcField);
+                log.info("Table '{}': CDC field '{}' configured but no watermark yet, full sync", tableName, cdcField);
             }
 
-            long totalCount = cdcMode
-                    ? dynamicCbsQueryService.countCbsRecordsSince(tableName, cdcField, lastSyncAt)
-                    : dynamicCbsQueryService.countCbsRecords(tableName);
+            // With a CDC field, the same scan also reads the highest CDC value: the next watermark
+            LocalDateTime cdcHighWatermark = null;
+            long totalCount;
+            if (cdcField != null) {
+                DynamicCbsQueryService.CdcSnapshot snapshot = transactionTemplate.execute(status ->
+                        dynamicCbsQueryService.cdcSnapshot(tableName, cdcField, cdcSince));
+                totalCount = snapshot.count();
+                cdcHighWatermark = snapshot.maxChange();
+            } else {
+                totalCount = dynamicCbsQueryService.countCbsRecords(tableName);
+            }
             if (maxRecords > 0) {
                 totalCount = Math.min(totalCount, maxRecords);
             }
             log.info("Table '{}': {} records to process", tableName, totalCount);
 
-            // Streaming: fetch + upsert + validate all inside one transaction per batch
-            final boolean isCdc = cdcMode;
-            final String cdcFieldFinal = cdcField;
-            final LocalDateTime lastSyncAtFinal = lastSyncAt;
-            while (offset < totalCount) {
-                long batchStart = System.currentTimeMillis();
-                final int currentOffset = offset;
-                final boolean doValidate = validationEnabled;
+            // Keyset pagination (WHERE pk > :lastKey) when a PK is declared, SKIP/FIRST otherwise
+            boolean keyset = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                    dynamicCbsQueryService.supportsKeysetPagination(tableName)));
+            if (!keyset) {
+                log.warn("Table '{}': no primary key declared, falling back to SKIP/FIRST pagination", tableName);
+            }
+
+            // Bulk COPY mode applies to full syncs only; CDC deltas keep the upsert path
+            boolean copyMode = !cdcMode && keyset && tableEntity != null
+                    && tableEntity.getSyncMode() == SyncMode.COPY;
 
-                BatchResult br = executeBatchWithRetry(tableName, currentOffset, cdcFieldFinal, lastSyncAtFinal, isCdc, doValidate);
+            // Resume an interrupted run over the same CDC window. A COPY run can only resume while its
+            // staging table, holding the batches loaded so far, still exists.
+            SyncCheckpointService.RunStart runStart = syncCheckpointService.startOrResume(tableName,
+                    cdcSince, cdcHighWatermark, totalCount,
+                    !copyMode || dynamicCbsQueryService.stagingTableExists(tableName));
+            run = runStart.run();
+
+            if (copyMode) {
+                log.info("Table '{}': COPY bulk load mode", tableName);
+                if (!runStart.resumed()) {
+                    dynamicCbsQueryService.prepareStagingTable(tableName);
+                    if (validationEnabled && validationQueueService.isEnabled()) {
+                        validationQueueService.discardHeld(tableName);
+                    }
+                }
+            }
 
-                long batchDuration = System.currentTimeMillis() - batchStart;
+            // Unchanged rows (same row hash) are skipped; they are only re-validated when the table's
+            // rules changed since the last sync
+            boolean revalidateAll = validationEnabled && (lastSyncAt == null
+                    || validationRuleRepository.existsByTableNameAndUpdatedAtAfter(tableName, lastSyncAt));
+            if (revalidateAll && lastSyncAt != null) {
+                log.info("Table '{}': rules changed since last sync, re-validating unchanged rows", tableName);
+            }
+            // Re-validating every row is done once over the mirror after the load, in SQL where rules translate
+            boolean validateInSql = revalidateAll && sqlValidationService.isEnabled();
 
-                if (br != null && br.fetched > 0) {
-                    metricsConfig.recordSyncBatch(tableName, br.fetched, batchDuration, isCdc);
-                    upserted += br.upserted;
-                    validated += br.validated;
-                    anomaliesCreated += br.anomalies;
-                    errors += br.errors;
+            // Batch size starts where the last run ended and adapts to the observed latency and row width
+            AdaptiveBatchSizer batchSizer = createBatchSizer(tableName, tableEntity);
 
-                    syncProgressService.emitBatchProgress(tableName, offset, br.fetched, totalCount,
-                            br.upserted, br.anomalies, batchDuration);
+            TableSyncPlan plan = new TableSyncPlan(tableName, keyset, cdcMode ? cdcField : null,
+                    cdcSince, copyMode, validationEnabled && !validateInSql, revalidateAll, batchSizer, job, lease);
 
-                    offset += BATCH_SIZE;
-                    if (br.fetched < BATCH_SIZE) break;
-                } else {
-                    break;
+            // Large keyset tables can be split into key ranges synced concurrently; a resumed run keeps its ranges
+            List<SyncCheckpoint> checkpoints = runStart.resumed()
+                    ? runStart.checkpoints()
+                    : createCheckpoints(run.getId(),
+                            planKeyRanges(tableName, tableEntity, keyset, totalCount, batchSizer.current()));
+            List<PartitionCheckpoint> partitions = checkpoints.stream()
+                    .map(c -> new PartitionCheckpoint(c, keyset))
+                    .toList();
+
+            final boolean isCdc = cdcMode;
+            final long total = totalCount;
+            AtomicLong processed = new AtomicLong(partitions.stream().mapToLong(p -> p.nextOffset).sum());
+            Consumer<SyncPipeline.Batch> onBatch = batch -> {
+                long batchDuration = System.currentTimeMillis() - batch.getCreatedAt();
+                long batchOffset = processed.getAndAdd(batch.getFetched());
+                batchSizer.onBatch(batch);
+                metricsConfig.recordSyncBatch(tableName, batch.getFetched(), batchDuration, isCdc);
+                metricsConfig.recordSyncBatchSize(tableName, batchSizer.current());
+                syncProgressService.emitBatchProgress(job.jobId(), tableName, (int) batchOffset, batch.getFetched(),
+                        total, batch.getUpserted(), batch.getAnomalies(), batchDuration,
+                        batch.getInserted(), batch.getUpdated(), batch.getUnchanged());
+            };
+            List<PartitionCheckpoint> pending = partitions.stream().filter(p -> !p.completed).toList();
+            SyncPipeline.Result result;
+            if (pending.isEmpty()) {
+                result = SyncPipeline.Result.EMPTY;
+            } else if (partitions.size() == 1) {
+                result = runPipeline(plan, pending.get(0), totalCount, onBatch);
+            } else {
+                result = runPartitions(plan, pending, onBatch);
+            }
+            if (job.isCancelled()) {
+                throw new CancellationException("Sync job " + job.jobId() + " cancelled, run " + run.getId()
+                        + " will resume from its checkpoint");
+            }
+            if (partitions.stream().anyMatch(p -> p.aborted)) {
+                throw new IllegalStateException("Table scan aborted on a fetch failure, run " + run.getId()
+                        + " will resume from its checkpoint");
+            }
+            upserted = result.upserted();
+            validated = result.validated();
+            anomaliesCreated = result.anomalies();
+            errors = result.errors();
+            inserted = result.inserted();
+            changed = result.updated();
+            unchanged = result.unchanged();
+
+            if (copyMode) {
+                upserted = dynamicCbsQueryService.mergeStagingIntoMirror(tableName);
+                if (validationEnabled && validationQueueService.isEnabled()) {
+                    validationQueueService.release(run.getId());
                 }
             }
 
-            // Update last_sync_at for CDC (own transaction)
-            if (tableEntity != null && cdcField != null) {
+            if (validateInSql) {
+                CbsValidationService.ValidationResult vr = sqlValidationService.validateTable(tableName);
+                validated = vr.recordsValidated();
+                anomaliesCreated = vr.anomaliesCreated();
+                errors += vr.errors();
+            }
+
+            long totalDuration = System.currentTimeMillis() - startTime.atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+            // Update last_sync_at (own transaction): CDC watermark, and rule-change check for row hashes.
+            // A resumed run read part of the table before this attempt, so its watermark is the run start.
+            // last_sync_duration_ms feeds the scheduling priority of the next syncAll.
+            // The CDC watermark only moves forward, to the highest CDC value seen when the run started.
+            LocalDateTime syncedAt = runStart.resumed() ? run.getStartedAt() : startTime;
+            LocalDateTime watermark = runStart.resumed() ? run.getCdcWatermark() : cdcHighWatermark;
+            if (tableEntity != null) {
                 transactionTemplate.executeWithoutResult(status -> {
-                    tableEntity.setLastSyncAt(startTime);
+                    tableEntity.setLastSyncAt(syncedAt);
+                    if (watermark != null && (tableEntity.getCdcWatermark() == null
+                            || watermark.isAfter(tableEntity.getCdcWatermark()))) {
+                        tableEntity.setCdcWatermark(watermark);
+                    }
+                    tableEntity.setLastSyncDurationMs(totalDuration);
+                    if (adaptiveBatch) tableEntity.setLastBatchSize(batchSizer.current());
                     cbsTableRepository.save(tableEntity);
                 });
-                log.info("Table '{}': updated lastSyncAt to {}", tableName, startTime);
+                log.info("Table '{}': updated lastSyncAt to {}, CDC watermark {}", tableName, syncedAt,
+                        tableEntity.getCdcWatermark());
+            }
+            syncCheckpointService.finishRun(run.getId(),
+                    errors > 0 ? LoadStatus.PARTIALLY_COMPLETED : LoadStatus.COMPLETED, null);
+
+            // Deletes are invisible to upserts and CDC: reconcile keys periodically, after a clean full read
+            if (isDeleteCheckDue(tableEntity) && errors == 0 && maxRecords == 0) {
+                try {
+                    reconcileDeletesLeased(tableName);
+                } catch (Exception e) {
+                    log.warn("Table '{}': delete reconciliation failed: {}", tableName, e.getMessage());
+                }
             }
 
-            long totalDuration = System.currentTimeMillis() - startTime.atZone(java.time.ZoneId.systemDefault()).toInstant().toEpochMilli();
             metricsConfig.recordSyncTableComplete(tableName, upserted, totalDuration, isCdc);
 
-            log.info("Sync completed for '{}': upserted={}, validated={}, anomalies={}, errors={}, CDC={}, duration={}ms",
-                    tableName, upserted, validated, anomaliesCreated, errors, isCdc, totalDuration);
+            log.info("Sync completed for '{}': upserted={}, validated={}, anomalies={}, errors={}, new={}, changed={}, unchanged={}, CDC={}, duration={}ms",
+                    tableName, upserted, validated, anomaliesCreated, errors, inserted, changed, unchanged, isCdc, totalDuration);
 
             // SSE: emit table complete
-            syncProgressService.emitTableComplete(tableName, upserted, anomaliesCreated, errors, totalDuration, isCdc);
+            syncProgressService.emitTableComplete(job.jobId(), tableName, upserted, anomaliesCreated, errors,
+                    totalDuration, isCdc, inserted, changed, unchanged);
 
-            return new SyncResult(tableName, upserted, validated, anomaliesCreated, errors, startTime, LocalDateTime.now());
+            return new SyncResult(tableName, upserted, validated, anomaliesCreated, errors, inserted, changed, unchanged,
+                    startTime, LocalDateTime.now());
 
         } catch (Exception e) {
-            log.error("Failed to sync table '{}': {}", tableName, e.getMessage(), e);
-            metricsConfig.recordDataSyncFailure();
+            if (e instanceof CancellationException) {
+                log.warn("Sync of table '{}' cancelled: {}", tableName, e.getMessage());
+            } else {
+                log.error("Failed to sync table '{}': {}", tableName, e.getMessage(), e);
+                metricsConfig.recordDataSyncFailure();
+            }
+            if (run != null) {
+                try {
+                    syncCheckpointService.finishRun(run.getId(), LoadStatus.FAILED, e.getMessage());
+                } catch (Exception ex) {
+                    log.warn("Table '{}': could not mark sync run {} as failed: {}", tableName, run.getId(), ex.getMessage());
+                }
+            }
             throw new RuntimeException("Sync failed for table " + tableName, e);
         }
     }
 
-    private BatchResult executeBatchWithRetry(String tableName, int offset,
-                                               String cdcField, LocalDateTime lastSyncAt,
-                                               boolean cdc, boolean validate) {
-        for (int attempt = 1; attempt <= batchRetry; attempt++) {
-            try {
-                return transactionTemplate.execute(status -> {
+    private static String tableLeaseName(String tableName) {
+        return "sync.table." + tableName;
+    }
+
+    private ClusterLockService.Lease acquireTableLease(String tableName) {
+        return clusterLockService.tryAcquire(tableLeaseName(tableName))
+                .orElseThrow(() -> new IllegalStateException("Table " + tableName + " is being synced by "
+                        + clusterLockService.holder(tableLeaseName(tableName)).orElse("another node")));
+    }
+
+    /**
+     * Wait until the table's lease is free and take it; null if the job is cancelled meanwhile.
+     */
+    private ClusterLockService.Lease awaitTableLease(String tableName, SyncJobContext job) throws InterruptedException {
+        boolean waiting = false;
+        while (!job.isCancelled()) {
+            Optional<ClusterLockService.Lease> lease = clusterLockService.tryAcquire(tableLeaseName(tableName));
+            if (lease.isPresent()) return lease.get();
+            if (!waiting) {
+                log.info("Table '{}' is being synced by {}, waiting", tableName,
+                        clusterLockService.holder(tableLeaseName(tableName)).orElse("another node"));
+                waiting = true;
+            }
+            Thread.sleep(TABLE_LEASE_POLL_MS);
+        }
+        return null;
+    }
+
+    private LocalDateTime lastSyncAt(String tableName) {
+        return transactionTemplate.execute(status -> cbsTableRepository.findByTableName(tableName)
+                .map(CbsTable::getLastSyncAt)
+                .orElse(null));
+    }
+
+    private boolean isDeleteCheckDue(CbsTable tableEntity) {
+        return tableEntity != null && Boolean.TRUE.equals(tableEntity.getDetectDeletes())
+                && (tableEntity.getLastDeleteCheckAt() == null
+                    || tableEntity.getLastDeleteCheckAt().isBefore(LocalDateTime.now().minusHours(deleteCheckIntervalHours)));
+    }
+
+    /**
+     * Delete reconciliation: find the mirror rows whose primary key is no longer in the CBS from key-only
+     * scans of both sides (see KeyDiff), tombstone or delete them, and close their open anomalies.
+     * Tables above bloom-threshold mirror rows use the Bloom variant, which needs no ORDER BY on either side.
+     * Nothing is removed if a scan fails or more than max-delete-ratio of the mirror is missing.
+     */
+    public DeleteResult reconcileDeletes(String tableName) {
+        try (ClusterLockService.Lease ignored = acquireTableLease(tableName)) {
+            return reconcileDeletesLeased(tableName);
+        }
+    }
+
+    /**
+     * Validate every live mirror row of the table (see SqlValidationService), e.g. after a rule change
+     * on a table whose next sync is far away.
+     */
+    public CbsValidationService.ValidationResult validateTable(String tableName) {
+        try (ClusterLockService.Lease ignored = acquireTableLease(tableName)) {
+            return sqlValidationService.validateTable(tableName);
+        }
+    }
+
+    private DeleteResult reconcileDeletesLeased(String tableName) {
+        long start = System.currentTimeMillis();
+        var tableConfig = transactionTemplate.execute(status -> dataDictionaryService.getTableByName(tableName));
+        int pkCount = transactionTemplate.execute(status ->
+                dynamicCbsQueryService.getPrimaryKeyColumns(tableName).size());
+        if (pkCount == 0) {
+            throw new IllegalStateException("Table " + tableName + " has no primary key, cannot detect deleted rows");
+        }
+        String pkField = tableConfig.getPkField() != null && !tableConfig.getPkField().isBlank()
+                ? tableConfig.getPkField() : null;
+
+        long mirrorRows = dynamicCbsQueryService.countLiveMirrorRows(tableName);
+        int maxMissing = (int) Math.min(Integer.MAX_VALUE, Math.max(1L, (long) (mirrorRows * maxDeleteRatio)));
+        boolean bloom = mirrorRows > bloomThreshold;
+        log.info("Table '{}': reconciling deletes over {} mirror rows ({} diff)", tableName, mirrorRows,
+                bloom ? "bloom" : "sorted merge");
+
+        KeyDiff diff = new KeyDiff(maxMissing);
+        try (DynamicCbsQueryService.KeyCursor cbsKeys = transactionTemplate.execute(status ->
+                dynamicCbsQueryService.openCbsKeyCursor(tableName, !bloom, streamFetchSize))) {
+            Consumer<Object[]> mirrorKeys = bloom
+                    ? diff.bloom(cbsKeys::next, key -> dynamicCbsQueryService.keyOf(key, pkCount), mirrorRows, bloomFpp)
+                    : diff.merge(cbsKeys::next, (a, b) -> dynamicCbsQueryService.compareKeys(a, b, pkCount));
+            dynamicCbsQueryService.scanMirrorKeys(tableName, !bloom, pkField, streamFetchSize, mirrorKeys);
+        } catch (KeyDiff.TooManyMissingException e) {
+            throw new IllegalStateException("Table " + tableName + ": " + e.getMessage() + " (max-delete-ratio "
+                    + maxDeleteRatio + "), nothing removed", e);
+        }
+
+        List<Object[]> missing = diff.missing();
+        boolean hardDelete = "DELETE".equalsIgnoreCase(deleteMode);
+        int removed = dynamicCbsQueryService.removeMirrorRows(tableName, missing, hardDelete);
+        int anomaliesClosed = pkField != null ? closeAnomaliesOfDeletedRows(tableName, missing, pkCount) : 0;
+
+        transactionTemplate.executeWithoutResult(status ->
+                cbsTableRepository.findByTableName(tableName).ifPresent(t -> {
+                    t.setLastDeleteCheckAt(LocalDateTime.now());
+                    cbsTableRepository.save(t);
+                }));
+
+        long duration = System.currentTimeMillis() - start;
+        metricsConfig.recordSyncDeletes(tableName, removed, anomaliesClosed, duration);
+        log.info("Table '{}': delete reconciliation {} {} rows, closed {} anomalies in {}ms",
+                tableName, hardDelete ? "deleted" : "tombstoned", removed, anomaliesClosed, duration);
+        return new DeleteResult(tableName, mirrorRows, removed, anomaliesClosed, bloom, duration);
+    }
+
+    /**
+     * Anomalies are keyed by the table's pk_field value (the last element of each mirror key row)
+     * and limited to the fields the table's rules check.
+     */
+    private int closeAnomaliesOfDeletedRows(String tableName, List<Object[]> missing, int pkCount) {
+        if (missing.isEmpty()) return 0;
+        Set<String> fieldNames = validationRuleRepository.findByTableName(tableName).stream()
+                .map(ValidationRule::getFieldName)
+                .collect(Collectors.toSet());
+        if (fieldNames.isEmpty()) return 0;
+
+        List<String> clientNumbers = missing.stream()
+                .map(key -> key[pkCount])
+                .filter(Objects::nonNull)
+                .map(value -> value.toString().trim())
+                .distinct()
+                .toList();
+        int closed = 0;
+        for (int from = 0; from < clientNumbers.size(); from += 1000) {
+            List<String> chunk = clientNumbers.subList(from, Math.min(from + 1000, clientNumbers.size()));
+            closed += transactionTemplate.execute(status ->
+                    anomalyRepository.closeOpenAnomalies(chunk, fieldNames, "CBS_ROW_DELETED"));
+        }
+        return closed;
+    }
+
+    /**
+     * Lower bound of a CDC delta: the watermark minus the safety overlap (late commits, clock skew
+     * between Informix writers) for a DATETIME column, the watermark's day for a DATE column.
+     * Tables synced before the watermark existed restart from the day of their last sync;
+     * null (full sync) when the table has never been synced.
+     */
+    private LocalDateTime cdcLowerBound(String tableName, String cdcField, LocalDateTime watermark,
+                                        LocalDateTime lastSyncAt) {
+        if (watermark == null) {
+            return lastSyncAt != null ? lastSyncAt.toLocalDate().atStartOfDay() : null;
+        }
+        boolean hasTime = Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                dynamicCbsQueryService.cdcFieldHasTime(tableName, cdcField)));
+        return hasTime ? watermark.minusMinutes(cdcOverlapMinutes) : watermark.toLocalDate().atStartOfDay();
+    }
+
+    /**
+     * Per-run settings of a table sync, shared by all its partitions.
+     *
+     * @param cdcField CDC column, null for a full sync
+     * @param cdcSince CDC lower bound, null for a full sync
+     */
+    private record TableSyncPlan(String tableName, boolean keyset, String cdcField, LocalDateTime cdcSince,
+                                 boolean copyMode, boolean validate, boolean revalidateAll,
+                                 AdaptiveBatchSizer batchSizer, SyncJobContext job,
+                                 ClusterLockService.Lease lease) {}
+
+    private AdaptiveBatchSizer createBatchSizer(String tableName, CbsTable tableEntity) {
+        if (!adaptiveBatch) {
+            return AdaptiveBatchSizer.fixed(tableName, initialBatchSize);
+        }
+        int initial = tableEntity != null && tableEntity.getLastBatchSize() != null
+                ? tableEntity.getLastBatchSize() : initialBatchSize;
+        return new AdaptiveBatchSizer(tableName, initial, minBatchSize, maxBatchSize, targetBatchMs,
+                maxBatchMb * 1024 * 1024);
+    }
+
+    /**
+     * Key ranges for a partitioned sync, or an empty list to sync the table as a single range.
+     * Only keyset tables with max_partitions &gt; 1 and at least one full batch per partition are split.
+     */
+    private List<DynamicCbsQueryService.KeyRange> planKeyRanges(String tableName, CbsTable tableEntity,
+                                                               boolean keyset, long totalCount, int batchSize) {
+        int maxPartitions = tableEntity != null && tableEntity.getMaxPartitions() != null
+                ? tableEntity.getMaxPartitions() : 1;
+        if (!keyset || maxPartitions <= 1 || maxRecords > 0 || totalCount < (long) maxPartitions * batchSize) {
+            return List.of();
+        }
+        return transactionTemplate.execute(status ->
+                dynamicCbsQueryService.splitKeyRanges(tableName, maxPartitions, totalCount));
+    }
+
+    /**
+     * Checkpoints of a new run: one per key range, or a single one for an unpartitioned sync.
+     */
+    private List<SyncCheckpoint> createCheckpoints(Long runId, List<DynamicCbsQueryService.KeyRange> ranges) {
+        return syncCheckpointService.createCheckpoints(runId, ranges.size() <= 1 ? List.of() : ranges);
+    }
+
+    /**
+     * Run the extract → load → validate pipeline over one key range (whole table if the partition has no range),
+     * starting from the partition's checkpoint.
+     * A streaming cursor cannot skip rows, so a table without a primary key resumes with SKIP/FIRST paging.
+     */
+    private SyncPipeline.Result runPipeline(TableSyncPlan plan, PartitionCheckpoint partition, long limit,
+                                            Consumer<SyncPipeline.Batch> onBatch) {
+        SyncPipeline.Extractor extractor = streaming && (plan.keyset() || partition.nextOffset == 0)
+                ? new StreamingBatchExtractor(plan, partition, limit)
+                : new BatchExtractor(plan, partition, limit);
+        SyncPipeline.DeadLetterSink deadLetters = (stage, record, error) -> syncDeadLetterService.record(
+                plan.tableName(), partition.runId, stage, record, error.getMessage());
+        SyncPipeline pipeline = new SyncPipeline(plan.tableName(), pipelineQueueCapacity, batchRetry, metricsConfig,
+                deadLetters, maxDeadLettersPerBatch);
+        SyncPipeline.Result result = pipeline.run(
+                extractor,
+                loadStage(plan, partition.runId),
+                plan.validate() && !validationQueueService.isEnabled()
+                        ? validateStage(plan.tableName(), plan.revalidateAll()) : null,
+                batch -> {
+                    partition.record(batch, plan.lease());
+                    onBatch.accept(batch);
+                });
+        partition.aborted = extractor.aborted();
+        if (!partition.aborted) {
+            syncCheckpointService.completeCheckpoint(partition.id, plan.lease());
+        }
+        return result;
+    }
+
+    /**
+     * Sync every key range concurrently, each with its own pipeline (and so its own Informix and
+     * PostgreSQL connections), then sum the results. A failed range fails the table once all ranges end.
+     */
+    private SyncPipeline.Result runPartitions(TableSyncPlan plan, List<PartitionCheckpoint> partitions,
+                                              Consumer<SyncPipeline.Batch> onBatch) {
+        String tableName = plan.tableName();
+        log.info("Table '{}': partitioned sync over {} key ranges", tableName, partitions.size());
+        ExecutorService executor = Executors.newFixedThreadPool(partitions.size());
+        try {
+            List<CompletableFuture<SyncPipeline.Result>> futures = partitions.stream()
+                    .map(partition -> CompletableFuture.supplyAsync(() -> {
+                        SyncPipeline.Result r = runPipeline(plan, partition, Long.MAX_VALUE, onBatch);
+                        log.info("Table '{}': partition {} done — fetched={}, upserted={}, anomalies={}, errors={}",
+                                tableName, partition.range, r.fetched(), r.upserted(), r.anomalies(), r.errors());
+                        return r;
+                    }, executor))
+                    .toList();
+
+            SyncPipeline.Result total = SyncPipeline.Result.EMPTY;
+            RuntimeException failure = null;
+            for (CompletableFuture<SyncPipeline.Result> future : futures) {
+                try {
+                    total = total.plus(future.join());
+                } catch (CompletionException e) {
+                    log.error("Table '{}': partition failed: {}", tableName, e.getMessage());
+                    if (failure == null) failure = e;
+                }
+            }
+            if (failure != null) throw failure;
+            return total;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Resume position of one key range, persisted after every completed batch. Batches complete in
+     * extraction order, so the stored key or offset never moves past an unfinished batch.
+     */
+    private final class PartitionCheckpoint {
+        private final Long id;
+        private final Long runId;
+        private final DynamicCbsQueryService.KeyRange range;
+        private final boolean keyset;
+        private final boolean completed;
+        private Map<String, Object> lastKey;
+        private long nextOffset;
+        private volatile boolean aborted;
+
+        PartitionCheckpoint(SyncCheckpoint checkpoint, boolean keyset) {
+            this.id = checkpoint.getId();
+            this.runId = checkpoint.getSyncRunId();
+            this.range = syncCheckpointService.rangeOf(checkpoint);
+            this.keyset = keyset;
+            this.completed = Boolean.TRUE.equals(checkpoint.getCompleted());
+            this.lastKey = syncCheckpointService.lastKeyOf(checkpoint);
+            this.nextOffset = checkpoint.getNextOffset() != null ? checkpoint.getNextOffset() : 0L;
+        }
+
+        void record(SyncPipeline.Batch batch, ClusterLockService.Lease lease) {
+            // A keyset batch that could not be fetched has no key: the position stays on the previous batch
+            if (!keyset || batch.getLastKey() != null) {
+                if (batch.getLastKey() != null) lastKey = batch.getLastKey();
+                nextOffset = batch.getOffset() + batch.getFetched();
+            }
+            syncCheckpointService.recordBatch(id, runId, lease, batch.getLastKey(), nextOffset, batch.getFetched(),
+                    batch.getUpserted(), batch.getValidated(), batch.getAnomalies(), batch.getErrors());
+        }
+    }
+
+    /**
+     * Sequential batch source over one key range: keyset (WHERE pk &gt; :lastKey) or SKIP/FIRST, full or CDC.
+     * Fetch is retried; a batch that still cannot be fetched is passed on as failed,
+     * and ends the scan in keyset mode since the next key is unknown.
+     */
+    private class BatchExtractor implements SyncPipeline.Extractor {
+        private final TableSyncPlan plan;
+        private final DynamicCbsQueryService.KeyRange range;
+        private final long limit;
+        private int offset;
+        private Map<String, Object> lastKey;
+        private boolean exhausted;
+        private boolean aborted;
+
+        BatchExtractor(TableSyncPlan plan, PartitionCheckpoint start, long limit) {
+            this.plan = plan;
+            this.range = start.range;
+            this.limit = limit;
+            this.offset = (int) start.nextOffset;
+            this.lastKey = start.lastKey;
+        }
+
+        @Override
+        public boolean aborted() {
+            return aborted;
+        }
+
+        @Override
+        public SyncPipeline.Batch next() {
+            String tableName = plan.tableName();
+            if (exhausted || offset >= limit) return null;
+            if (plan.job().isCancelled()) {
+                aborted = true;
+                return null;
+            }
+
+            int batchOffset = offset;
+            int batchSize = plan.batchSizer().current();
+            offset += batchSize;
+            List<Map<String, Object>> records = fetchWithRetry(batchOffset, batchSize);
+            if (records == null) {
+                if (plan.keyset()) {
+                    log.error("Table '{}': batch after key {} failed, aborting table scan", tableName, lastKey);
+                    exhausted = true;
+                    aborted = true;
+                }
+                return SyncPipeline.Batch.failed(batchOffset, batchSize);
+            }
+            if (records.isEmpty()) return null;
+
+            log.info("Table '{}': batch offset={}, size={}", tableName, batchOffset, records.size());
+            SyncPipeline.Batch batch = new SyncPipeline.Batch(batchOffset, records);
+            if (plan.keyset()) {
+                lastKey = dynamicCbsQueryService.extractKey(tableName, records.get(records.size() - 1));
+                batch.setLastKey(lastKey);
+            }
+            if (records.size() < batchSize) exhausted = true;
+            return batch;
+        }
+
+        /**
+         * The size stays the same across attempts: in SKIP/FIRST mode the next offset is already fixed.
+         */
+        private List<Map<String, Object>> fetchWithRetry(int skip, int batchSize) {
+            String tableName = plan.tableName();
+            String cdcField = plan.cdcField();
+            LocalDateTime since = plan.cdcSince();
+            for (int attempt = 1; attempt <= batchRetry; attempt++) {
+                try {
                     // Fetch inside transaction (Hibernate session available for lazy loading)
-                    List<Map<String, Object>> batch = cdc
-                            ? dynamicCbsQueryService.fetchFromCbsSince(tableName, cdcField, lastSyncAt, offset, BATCH_SIZE)
-                            : dynamicCbsQueryService.fetchFromCbs(tableName, offset, BATCH_SIZE);
+                    return transactionTemplate.execute(status -> {
+                        if (plan.keyset()) {
+                            return dynamicCbsQueryService.fetchFromCbsSinceAfterKey(tableName, cdcField, since,
+                                    lastKey, range, batchSize);
+                        }
+                        return cdcField != null
+                                ? dynamicCbsQueryService.fetchFromCbsSince(tableName, cdcField, since, skip, batchSize)
+                                : dynamicCbsQueryService.fetchFromCbs(tableName, skip, batchSize);
+                    });
+                } catch (Exception e) {
+                    log.warn("Table '{}': fetch failed (attempt {}/{}): {}", tableName, attempt, batchRetry, e.getMessage());
+                    plan.batchSizer().onFailure();
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Single-pass batch source over one key range: one server-side Informix cursor, read in batch-size chunks.
+     * If the stream breaks, it is reopened after the last key read (keyset tables only); a table
+     * without a primary key cannot be resumed and ends with a failed batch.
+     */
+    private class StreamingBatchExtractor implements SyncPipeline.Extractor {
+        private final TableSyncPlan plan;
+        private final DynamicCbsQueryService.KeyRange range;
+        private final long limit;
+        private int offset;
+        private Map<String, Object> lastKey;
+        private boolean exhausted;
+        private DynamicCbsQueryService.CbsCursor cursor;
 
-                    if (batch.isEmpty()) {
-                        return new BatchResult(0, 0, 0, 0, 0);
+        StreamingBatchExtractor(TableSyncPlan plan, PartitionCheckpoint start, long limit) {
+            this.plan = plan;
+            this.range = start.range;
+            this.limit = limit;
+            this.offset = (int) start.nextOffset;
+            this.lastKey = start.lastKey;
+        }
+
+        @Override
+        public boolean aborted() {
+            return exhausted;
+        }
+
+        @Override
+        public SyncPipeline.Batch next() {
+            String tableName = plan.tableName();
+            if (exhausted || offset >= limit) return null;
+            if (plan.job().isCancelled()) {
+                exhausted = true;
+                return null;
+            }
+
+            int batchOffset = offset;
+            for (int attempt = 1; attempt <= batchRetry; attempt++) {
+                try {
+                    if (cursor == null) {
+                        cursor = transactionTemplate.execute(status -> dynamicCbsQueryService.openCbsCursor(
+                                tableName, plan.cdcField(), plan.cdcSince(), lastKey, range, streamFetchSize));
                     }
+                    List<Map<String, Object>> records = cursor.next(plan.batchSizer().current());
+                    if (records.isEmpty()) return null;
 
-                    log.info("Table '{}': batch offset={}, size={}", tableName, offset, batch.size());
-
-                    int batchUpserted = dynamicCbsQueryService.upsertToMirror(tableName, batch);
-
-                    int batchValidated = 0;
-                    int batchAnomalies = 0;
-                    int batchErrors = 0;
-                    if (validate) {
-                        long valStart = System.currentTimeMillis();
-                        CbsValidationService.ValidationResult vr =
-                                cbsValidationService.validateRecords(tableName, batch);
-                        batchValidated = vr.recordsValidated();
-                        batchAnomalies = vr.anomaliesCreated();
-                        batchErrors = vr.errors();
-                        metricsConfig.recordValidationBatch(tableName, batchAnomalies, vr.autoResolved(),
-                                System.currentTimeMillis() - valStart);
-                        log.info("Table '{}': batch validated — anomalies={}, autoResolved={}, skipped={}",
-                                tableName, vr.anomaliesCreated(), vr.autoResolved(), vr.duplicatesSkipped());
+                    log.info("Table '{}': streamed batch offset={}, size={}", tableName, batchOffset, records.size());
+                    offset += records.size();
+                    SyncPipeline.Batch batch = new SyncPipeline.Batch(batchOffset, records);
+                    if (plan.keyset()) {
+                        lastKey = dynamicCbsQueryService.extractKey(tableName, records.get(records.size() - 1));
+                        batch.setLastKey(lastKey);
                     }
-                    return new BatchResult(batch.size(), batchUpserted, batchValidated, batchAnomalies, batchErrors);
-                });
-            } catch (Exception e) {
-                log.warn("Table '{}': batch failed (attempt {}/{}): {}", tableName, attempt, batchRetry, e.getMessage());
-                if (attempt == batchRetry) {
-                    log.error("Table '{}': batch failed after {} retries, skipping", tableName, batchRetry);
-                    return new BatchResult(BATCH_SIZE, 0, 0, 0, BATCH_SIZE);
+                    return batch;
+                } catch (Exception e) {
+                    log.warn("Table '{}': stream read failed (attempt {}/{}): {}", tableName, attempt, batchRetry, e.getMessage());
+                    plan.batchSizer().onFailure();
+                    close();
+                    if (!plan.keyset()) break;
                 }
             }
+            log.error("Table '{}': stream failed at offset {}, aborting table scan", tableName, batchOffset);
+            exhausted = true;
+            return SyncPipeline.Batch.failed(batchOffset, plan.batchSizer().current());
         }
-        return new BatchResult(BATCH_SIZE, 0, 0, 0, BATCH_SIZE);
+
+        @Override
+        public void close() {
+            if (cursor != null) {
+                try {
+                    cursor.close();
+                } catch (Exception e) {
+                    log.debug("Table '{}': error closing cursor: {}", plan.tableName(), e.getMessage());
+                }
+                cursor = null;
+            }
+        }
+    }
+
+    /**
+     * Compare row hashes with the mirror, then write only new and changed rows.
+     * Rows rejected by the mirror are dead-lettered, counted as errors and left out of validation.
+     * With the validation queue, the rows to validate are queued here and the pipeline has no validate stage:
+     * <ul>
+     *   <li>written rows are queued in the transaction of their upsert, so a row is never stored
+     *   (and its hash seen as unchanged by a retry) without its queue entry,</li>
+     *   <li>COPY rows are queued held until the merge; a retry copies them again, since the mirror
+     *   hashes only change at the merge,</li>
+     *   <li>unchanged rows re-validated after a rule change are queued on their own: a failed sync does not
+     *   advance last_sync_at, so the next one queues them again.</li>
+     * </ul>
+     */
+    private SyncPipeline.Stage loadStage(TableSyncPlan plan, Long runId) {
+        String tableName = plan.tableName();
+        boolean copy = plan.copyMode();
+        boolean queue = plan.validate() && validationQueueService.isEnabled();
+        DynamicCbsQueryService.WriteListener onWritten = queue
+                ? (connection, written) -> validationQueueService.enqueue(connection, tableName, runId, written)
+                : null;
+        return batch -> {
+            DynamicCbsQueryService.ChangeSet changes = transactionTemplate.execute(status ->
+                    dynamicCbsQueryService.detectChanges(tableName, batch.getRecords()));
+            batch.setChangedRecords(changes.changed());
+            batch.setInserted(changes.inserted());
+            batch.setUpdated(changes.updated());
+            batch.setUnchanged(changes.unchanged());
+            if (copy) {
+                batch.setUpserted(transactionTemplate.execute(status ->
+                        dynamicCbsQueryService.copyToStaging(tableName, changes.changed())));
+                if (queue) {
+                    validationQueueService.enqueue(tableName, runId,
+                            plan.revalidateAll() ? batch.getRecords() : changes.changed(), true);
+                }
+                return;
+            }
+            Map<Map<String, Object>, String> rejected = new IdentityHashMap<>();
+            batch.setUpserted(transactionTemplate.execute(status ->
+                    dynamicCbsQueryService.upsertToMirror(tableName, changes.changed(), rejected::put, onWritten)));
+            if (!rejected.isEmpty()) {
+                rejected.forEach((record, error) ->
+                        syncDeadLetterService.record(tableName, runId, "load", record, error));
+                batch.setChangedRecords(changes.changed().stream().filter(r -> !rejected.containsKey(r)).toList());
+                batch.setErrors(batch.getErrors() + rejected.size());
+            }
+            if (queue && plan.revalidateAll()) {
+                Set<Map<String, Object>> written = Collections.newSetFromMap(new IdentityHashMap<>());
+                written.addAll(changes.changed());
+                validationQueueService.enqueue(tableName, runId,
+                        batch.getRecords().stream().filter(r -> !written.contains(r)).toList(), false);
+            }
+        };
     }
 
-    private record BatchResult(int fetched, int upserted, int validated, int anomalies, int errors) {}
+    /**
+     * Validate new and changed rows (or every row when revalidateAll). If validation fails, the row
+     * hashes are cleared so those rows are picked up again by the next sync instead of looking unchanged.
+     */
+    private SyncPipeline.Stage validateStage(String tableName, boolean revalidateAll) {
+        return batch -> {
+            List<Map<String, Object>> records = revalidateAll ? batch.getRecords() : batch.getChangedRecords();
+            if (records.isEmpty()) return;
+
+            long valStart = System.currentTimeMillis();
+            CbsValidationService.ValidationResult vr;
+            try {
+                vr = cbsValidationService.validateRecords(tableName, RowBatch.of(records));
+            } catch (RuntimeException e) {
+                transactionTemplate.executeWithoutResult(status ->
+                        dynamicCbsQueryService.invalidateRowHashes(tableName, records));
+                throw e;
+            }
+            batch.setValidated(vr.recordsValidated());
+            batch.setAnomalies(vr.anomaliesCreated());
+            batch.setErrors(batch.getErrors() + vr.errors());
+            metricsConfig.recordValidationBatch(tableName, vr.anomaliesCreated(), vr.autoResolved(),
+                    System.currentTimeMillis() - valStart);
+            log.info("Table '{}': batch validated — anomalies={}, autoResolved={}, skipped={}",
+                    tableName, vr.anomaliesCreated(), vr.autoResolved(), vr.duplicatesSkipped());
+        };
+    }
 
     // ===== Helpers =====
 
@@ -285,8 +1170,22 @@ public class DataSyncService {
         return strValue.isEmpty() ? null : strValue;
     }
 
+    /**
+     * @param mirrorRows live mirror rows before reconciliation
+     * @param removed    rows tombstoned or deleted
+     * @param bloom      true if the Bloom variant was used (may miss a few deleted rows, never removes live ones)
+     */
+    public record DeleteResult(String table, long mirrorRows, int removed, int anomaliesClosed,
+                               boolean bloom, long durationMs) {}
+
+    /**
+     * @param inserted  rows not yet in the mirror
+     * @param changed   rows whose content hash differed from the mirror
+     * @param unchanged rows skipped because their content hash matched the mirror
+     */
     public record SyncResult(
             String entity, int upserted, int validated, int anomaliesCreated, int errors,
+            int inserted, int changed, int unchanged,
             LocalDateTime startTime, LocalDateTime endTime
     ) {
         public long durationSeconds() {
@@ -1,25 +1,40 @@
 package com.adakalgroup.bdqm.service;
 
+import com.adakalgroup.bdqm.config.metrics.BusinessMetricsConfig;
 import com.adakalgroup.bdqm.dto.CbsFieldDto;
 import com.adakalgroup.bdqm.dto.CbsTableDto;
 import com.adakalgroup.bdqm.model.enums.CbsDataType;
 import lombok.extern.slf4j.Slf4j;
 import org.jooq.Condition;
+import org.jooq.Cursor;
 import org.jooq.DSLContext;
 import org.jooq.DataType;
 import org.jooq.Field;
 import org.jooq.impl.DSL;
 import org.jooq.impl.SQLDataType;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.io.StringReader;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Dynamic CBS query service powered by jOOQ.
@@ -37,20 +52,54 @@ public class DynamicCbsQueryService {
      */
     private static final String MIRROR_SCHEMA = "cbs";
 
+    /**
+     * Per-row content hash (MD5 hex of the dictionary fields) stored on every mirror table,
+     * used to skip rows that did not change since the last sync.
+     */
+    private static final String ROW_HASH_COLUMN = "row_hash";
+
+    /**
+     * Tombstone set by delete reconciliation on mirror rows no longer present in the CBS;
+     * cleared when the row comes back.
+     */
+    static final String DELETED_AT_COLUMN = "deleted_at";
+
+    /** Keys per WHERE (pk...) IN (...) statement, far below the 32767 bind parameters PostgreSQL accepts. */
+    private static final int KEY_CHUNK_SIZE = 500;
+
     private final DSLContext informixDsl;
     private final DSLContext primaryDsl;
     private final CbsDataDictionaryService dictionaryService;
     private final CbsFilterService cbsFilterService;
+    private final BusinessMetricsConfig metricsConfig;
+
+    /**
+     * Compiled dictionary snapshot per table. Built on first use and replaced as a whole on
+     * DataDictionaryChangedEvent, so reads and syncs never query cbs_tables / cbs_fields.
+     */
+    private final Map<String, TableSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong snapshotVersion = new AtomicLong();
+
+    /**
+     * Mirror columns last applied per table and the snapshot version they were applied for.
+     * ensureMirrorSchema is a no-op while the version matches; a dictionary change or a failed
+     * DDL statement forces the next call to look at the catalog again.
+     */
+    private final Map<String, MirrorSchemaState> mirrorSchemas = new ConcurrentHashMap<>();
+
+    private record MirrorSchemaState(long snapshotVersion, Set<String> columns) {}
 
     public DynamicCbsQueryService(
             @Qualifier("informixDsl") DSLContext informixDsl,
             @Qualifier("primaryDsl") DSLContext primaryDsl,
             CbsDataDictionaryService dictionaryService,
-            CbsFilterService cbsFilterService) {
+            CbsFilterService cbsFilterService,
+            BusinessMetricsConfig metricsConfig) {
         this.informixDsl = informixDsl;
         this.primaryDsl = primaryDsl;
         this.dictionaryService = dictionaryService;
         this.cbsFilterService = cbsFilterService;
+        this.metricsConfig = metricsConfig;
     }
 
     /**
@@ -64,7 +113,7 @@ public class DynamicCbsQueryService {
     /**
      * Returns schema.table string for raw SQL statements.
      */
-    private String mirrorTableRaw(String tableName) {
+    String mirrorTableRaw(String tableName) {
         return MIRROR_SCHEMA + "." + tableName;
     }
 
@@ -73,31 +122,53 @@ public class DynamicCbsQueryService {
     /**
      * Ensures the PostgreSQL mirror table exists and has all columns from the dictionary.
      * Creates the table if missing, adds columns if they don't exist.
+     * Skipped when the current dictionary snapshot has already been applied.
      */
     public void ensureMirrorSchema(String tableName) {
-        // Ensure the cbs schema exists
-        primaryDsl.execute("CREATE SCHEMA IF NOT EXISTS " + MIRROR_SCHEMA);
+        TableSnapshot snapshot = snapshot(tableName);
+        MirrorSchemaState applied = mirrorSchemas.get(tableName);
+        if (applied != null && applied.snapshotVersion() == snapshot.version()) {
+            return;
+        }
 
-        CbsTableDto table = dictionaryService.getTableByName(tableName);
-        List<CbsFieldDto> fields = dictionaryService.getFieldsByTableName(tableName);
+        CbsTableDto table = snapshot.table();
+        List<CbsFieldDto> fields = snapshot.fields();
 
         if (fields.isEmpty()) {
             log.warn("No fields defined for table {} in dictionary, skipping schema sync", tableName);
             return;
         }
 
-        // Check if table exists in PostgreSQL public schema
-        boolean tableExists = primaryDsl.meta().getTables().stream()
-                .anyMatch(t -> t.getName().equalsIgnoreCase(tableName)
-                        && (t.getSchema() == null || t.getSchema().getName().equalsIgnoreCase(MIRROR_SCHEMA)));
-
-        if (!tableExists) {
-            createMirrorTable(tableName, table, fields);
-        } else {
-            syncMirrorColumns(tableName, fields);
+        try {
+            // Ensure the cbs schema exists
+            primaryDsl.execute("CREATE SCHEMA IF NOT EXISTS " + MIRROR_SCHEMA);
+
+            Set<String> existingColumns = fetchMirrorColumns(tableName);
+            if (existingColumns.isEmpty()) {
+                createMirrorTable(tableName, table, fields);
+            } else {
+                syncMirrorColumns(tableName, fields, existingColumns);
+            }
+            mirrorSchemas.put(tableName, new MirrorSchemaState(snapshot.version(), fetchMirrorColumns(tableName)));
+        } catch (RuntimeException e) {
+            mirrorSchemas.remove(tableName);
+            throw e;
         }
     }
 
+    /**
+     * Lower-cased column names of a mirror table, read from information_schema for that one table
+     * only. Empty when the table does not exist.
+     */
+    private Set<String> fetchMirrorColumns(String tableName) {
+        return primaryDsl.fetch(
+                        "SELECT column_name FROM information_schema.columns WHERE table_schema = ? AND table_name = ?",
+                        MIRROR_SCHEMA, tableName.toLowerCase())
+                .stream()
+                .map(r -> r.get(0, String.class).toLowerCase())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
     private void createMirrorTable(String tableName, CbsTableDto table, List<CbsFieldDto> fields) {
         log.info("Creating mirror table: {}", tableName);
 
@@ -108,6 +179,8 @@ public class DynamicCbsQueryService {
         for (CbsFieldDto field : fields) {
             columnDefs.add("\"" + field.getColumnName() + "\" " + toPostgresTypeDdl(field));
         }
+        columnDefs.add("\"" + ROW_HASH_COLUMN + "\" CHAR(32)");
+        columnDefs.add("\"" + DELETED_AT_COLUMN + "\" TIMESTAMP");
         columnDefs.add("\"created_at\" TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
         columnDefs.add("\"updated_at\" TIMESTAMP DEFAULT CURRENT_TIMESTAMP");
 
@@ -141,15 +214,7 @@ public class DynamicCbsQueryService {
         };
     }
 
-    private void syncMirrorColumns(String tableName, List<CbsFieldDto> fields) {
-        Set<String> existingColumns = primaryDsl.meta()
-                .getTables().stream()
-                .filter(t -> t.getName().equalsIgnoreCase(tableName)
-                        && (t.getSchema() == null || t.getSchema().getName().equalsIgnoreCase(MIRROR_SCHEMA)))
-                .flatMap(t -> Arrays.stream(t.fields()))
-                .map(f -> f.getName().toLowerCase())
-                .collect(Collectors.toSet());
-
+    private void syncMirrorColumns(String tableName, List<CbsFieldDto> fields, Set<String> existingColumns) {
         int added = 0;
         for (CbsFieldDto field : fields) {
             if (!existingColumns.contains(field.getColumnName().toLowerCase())) {
@@ -161,6 +226,17 @@ public class DynamicCbsQueryService {
             }
         }
 
+        if (!existingColumns.contains(ROW_HASH_COLUMN)) {
+            log.info("Adding column {}.{}", tableName, ROW_HASH_COLUMN);
+            primaryDsl.execute("ALTER TABLE " + mirrorTableRaw(tableName) + " ADD COLUMN IF NOT EXISTS "
+                    + ROW_HASH_COLUMN + " CHAR(32)");
+        }
+        if (!existingColumns.contains(DELETED_AT_COLUMN)) {
+            log.info("Adding column {}.{}", tableName, DELETED_AT_COLUMN);
+            primaryDsl.execute("ALTER TABLE " + mirrorTableRaw(tableName) + " ADD COLUMN IF NOT EXISTS "
+                    + DELETED_AT_COLUMN + " TIMESTAMP");
+        }
+
         if (added > 0) {
             log.info("Added {} new columns to mirror table {}", added, tableName);
         }
@@ -175,6 +251,17 @@ public class DynamicCbsQueryService {
         String tableName = event.getTableName();
         if (tableName == null) return;
 
+        mirrorSchemas.remove(tableName);
+
+        try {
+            TableSnapshot snapshot = buildSnapshot(tableName);
+            snapshots.put(tableName, snapshot);
+            log.info("Dictionary snapshot v{} compiled for table '{}'", snapshot.version(), tableName);
+        } catch (Exception e) {
+            snapshots.remove(tableName);
+            log.warn("Could not compile dictionary snapshot for table '{}': {}", tableName, e.getMessage());
+        }
+
         try {
             // Handle column rename
             if (event.isColumnRename()) {
@@ -211,12 +298,111 @@ public class DynamicCbsQueryService {
      * If not configured, uses bare table name (JDBC URL targets the database).
      */
     private String cbsTableRef(String tableName) {
+        return snapshot(tableName).cbsTableRef();
+    }
+
+    // ===== Dictionary Snapshot =====
+
+    /**
+     * Immutable, compiled view of one table's dictionary entry: the fields in dictionary order,
+     * the primary key, the jOOQ select list, the columnar row schema of fetched batches, the
+     * data_filters WHERE clause and the mirror upsert statements (null when the table has no
+     * primary key). A new version replaces the whole record, so a batch always sees one
+     * consistent dictionary state.
+     */
+    private record TableSnapshot(long version, CbsTableDto table, String cbsTableRef, List<CbsFieldDto> fields,
+                                 Map<String, CbsFieldDto> fieldsByColumn, List<String> pkColumns,
+                                 List<Field<?>> selectFields, RowBatch.Schema rowSchema, String filterWhere,
+                                 UpsertPlan upsertPlan) {}
+
+    private TableSnapshot snapshot(String tableName) {
+        return snapshots.computeIfAbsent(tableName, this::buildSnapshot);
+    }
+
+    private TableSnapshot buildSnapshot(String tableName) {
         CbsTableDto table = dictionaryService.getTableByName(tableName);
+        List<CbsFieldDto> fields = List.copyOf(dictionaryService.getFieldsByTableName(tableName));
+
         String schema = table.getSchemaName();
-        if (schema != null && !schema.isBlank()) {
-            return schema + "." + tableName;
+        String cbsRef = schema != null && !schema.isBlank() ? schema + "." + tableName : tableName;
+
+        Map<String, CbsFieldDto> fieldsByColumn = new HashMap<>();
+        for (CbsFieldDto f : fields) {
+            fieldsByColumn.putIfAbsent(f.getColumnName().toLowerCase(), f);
+        }
+        List<String> pkColumns = List.copyOf(parseColumnList(table.getPrimaryKeyColumns()));
+        List<Field<?>> selectFields = fields.stream()
+                .<Field<?>>map(f -> DSL.field(DSL.unquotedName(f.getColumnName()), mapToJavaType(f.getDataType().name())))
+                .toList();
+        RowBatch.Schema rowSchema = new RowBatch.Schema(
+                fields.stream().map(f -> f.getColumnName().toLowerCase()).toList(),
+                fields.stream().map(f -> storageKind(f.getDataType())).toList());
+        String filterWhere = cbsFilterService.buildWhereClause(tableName, table.getDataFilters());
+        UpsertPlan upsertPlan = null;
+        if (!pkColumns.isEmpty() && !fields.isEmpty()) {
+            try {
+                upsertPlan = buildUpsertPlan(tableName, fields, pkColumns, rowSchema);
+            } catch (IllegalStateException e) {
+                log.warn("Table '{}' cannot be upserted into the mirror: {}", tableName, e.getMessage());
+            }
+        }
+
+        return new TableSnapshot(snapshotVersion.incrementAndGet(), table, cbsRef, fields,
+                Map.copyOf(fieldsByColumn), pkColumns, selectFields, rowSchema, filterWhere, upsertPlan);
+    }
+
+    static RowBatch.Kind storageKind(CbsDataType dataType) {
+        if (dataType == null) return RowBatch.Kind.OBJECT;
+        return switch (dataType) {
+            case CHAR, VARCHAR -> RowBatch.Kind.STRING;
+            case INTEGER, SMALLINT -> RowBatch.Kind.INT;
+            default -> RowBatch.Kind.OBJECT;
+        };
+    }
+
+    // ===== Columnar batches =====
+
+    /**
+     * Row schema of a fetched result: the table's dictionary schema when the result has exactly its
+     * select columns, an untyped one otherwise.
+     */
+    private RowBatch.Schema rowSchemaOf(String tableName, Field<?>[] resultFields) {
+        return rowSchemaOf(tableName, Arrays.stream(resultFields).map(f -> f.getName().toLowerCase()).toList());
+    }
+
+    private RowBatch.Schema rowSchemaOf(String tableName, List<String> names) {
+        RowBatch.Schema schema = snapshot(tableName).rowSchema();
+        return schema.matches(names) ? schema : RowBatch.Schema.untyped(names);
+    }
+
+    /**
+     * Append a jOOQ record by position, trimming strings (CBS often has padded CHAR fields).
+     */
+    private void appendRecord(RowBatch batch, org.jooq.Record record) {
+        int row = batch.addRow();
+        for (int c = 0; c < record.size(); c++) {
+            Object value = record.get(c);
+            if (value instanceof String s) {
+                value = s.trim();
+            }
+            batch.set(row, c, value);
         }
-        return tableName;
+    }
+
+    private List<Map<String, Object>> toRows(String tableName, org.jooq.Result<org.jooq.Record> result) {
+        RowBatch batch = new RowBatch(rowSchemaOf(tableName, result.fields()), result.size());
+        for (org.jooq.Record record : result) {
+            appendRecord(batch, record);
+        }
+        return batch.rows();
+    }
+
+    private UpsertPlan upsertPlan(String tableName) {
+        UpsertPlan plan = snapshot(tableName).upsertPlan();
+        if (plan == null) {
+            throw new IllegalStateException("Table " + tableName + " has no usable primary key, cannot upsert into mirror");
+        }
+        return plan;
     }
 
     // ===== CBS Read Operations =====
@@ -225,10 +411,7 @@ public class DynamicCbsQueryService {
      * Build jOOQ Field list from dictionary metadata for a table.
      */
     public List<Field<?>> buildSelectFields(String tableName) {
-        List<CbsFieldDto> fields = dictionaryService.getFieldsByTableName(tableName);
-        return fields.stream()
-                .map(f -> DSL.field(DSL.unquotedName(f.getColumnName()), mapToJavaType(f.getDataType().name())))
-                .collect(Collectors.toList());
+        return snapshot(tableName).selectFields();
     }
 
     /**
@@ -249,10 +432,7 @@ public class DynamicCbsQueryService {
         String sql = buildInformixPaginatedSelect(cbsTableRef(tableName), selectFields, offset, limit, filterWhere);
 
         try {
-            org.jooq.Result<org.jooq.Record> result = informixDsl.fetch(sql);
-            return result.stream()
-                    .map(this::recordToMap)
-                    .collect(Collectors.toList());
+            return toRows(tableName, informixDsl.fetch(sql));
         } catch (Exception e) {
             log.error("Error fetching from CBS {}: {}", tableName, e.getMessage());
             throw new RuntimeException("Failed to fetch from CBS table " + tableName, e);
@@ -260,7 +440,7 @@ public class DynamicCbsQueryService {
     }
 
     /**
-     * Fetch records changed since a given date (CDC mode).
+     * Fetch records changed since a given point in time (CDC mode, see cdcCondition).
      * Falls back to full fetch if cdcField is null.
      * Applies configurable data_filters as additional WHERE clauses.
      */
@@ -277,7 +457,8 @@ public class DynamicCbsQueryService {
         String columns = selectFields.stream().map(Field::getName).collect(Collectors.joining(", "));
         String cbsRef = cbsTableRef(tableName);
 
-        String whereClause = cdcField + " >= '" + since.toLocalDate().toString() + "'";
+        List<Object> params = new ArrayList<>();
+        String whereClause = cdcCondition(tableName, cdcField, since, params);
         String filterWhere = getFilterWhereClause(tableName);
         if (!filterWhere.isEmpty()) {
             whereClause += " AND " + filterWhere;
@@ -288,8 +469,7 @@ public class DynamicCbsQueryService {
                 selectFields.get(0).getName());
 
         try {
-            org.jooq.Result<org.jooq.Record> result = informixDsl.fetch(sql);
-            return result.stream().map(this::recordToMap).collect(Collectors.toList());
+            return toRows(tableName, informixDsl.fetch(sql, params.toArray()));
         } catch (Exception e) {
             log.error("Error fetching CDC from CBS {}: {}", tableName, e.getMessage());
             throw new RuntimeException("Failed to fetch CDC from CBS table " + tableName, e);
@@ -297,7 +477,7 @@ public class DynamicCbsQueryService {
     }
 
     /**
-     * Count records changed since a given date.
+     * Count records changed since a given point in time.
      * Applies configurable data_filters as additional WHERE clauses.
      */
     public long countCbsRecordsSince(String tableName, String cdcField, LocalDateTime since) {
@@ -306,7 +486,8 @@ public class DynamicCbsQueryService {
         }
 
         String cbsRef = cbsTableRef(tableName);
-        String whereClause = cdcField + " >= '" + since.toLocalDate().toString() + "'";
+        List<Object> params = new ArrayList<>();
+        String whereClause = cdcCondition(tableName, cdcField, since, params);
         String filterWhere = getFilterWhereClause(tableName);
         if (!filterWhere.isEmpty()) {
             whereClause += " AND " + filterWhere;
@@ -314,13 +495,318 @@ public class DynamicCbsQueryService {
 
         String sql = String.format("SELECT COUNT(*) FROM %s WHERE %s", cbsRef, whereClause);
         try {
-            return informixDsl.fetchOne(sql).into(Long.class);
+            return informixDsl.fetchOne(sql, params.toArray()).into(Long.class);
         } catch (Exception e) {
             log.error("Error counting CDC records for {}: {}", tableName, e.getMessage());
             return countCbsRecords(tableName);
         }
     }
 
+    /**
+     * Rows in a CDC window and the highest CDC value among them.
+     *
+     * @param maxChange null when no row matches
+     */
+    public record CdcSnapshot(long count, LocalDateTime maxChange) {}
+
+    /**
+     * Count the rows changed since `since` (all rows when null) and read their highest CDC value in the
+     * same scan. Taken before the sync reads any row, that maximum is the next watermark: a row changed
+     * while the sync runs gets a later value and falls in the next delta.
+     */
+    public CdcSnapshot cdcSnapshot(String tableName, String cdcField, LocalDateTime since) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> params = new ArrayList<>();
+        if (since != null) {
+            conditions.add(cdcCondition(tableName, cdcField, since, params));
+        }
+        String filterWhere = getFilterWhereClause(tableName);
+        if (!filterWhere.isEmpty()) {
+            conditions.add(filterWhere);
+        }
+
+        String sql = "SELECT COUNT(*), MAX(" + cdcField + ") FROM " + cbsTableRef(tableName) +
+                (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions));
+        try {
+            org.jooq.Record record = informixDsl.fetchOne(sql, params.toArray());
+            return new CdcSnapshot(((Number) record.get(0)).longValue(), toLocalDateTime(record.get(1)));
+        } catch (Exception e) {
+            log.error("Error reading CDC snapshot for {}: {}", tableName, e.getMessage());
+            throw new RuntimeException("Failed to read CDC snapshot of CBS table " + tableName, e);
+        }
+    }
+
+    /**
+     * True when the CDC column is declared DATETIME in the dictionary. Other columns (DATE, or not
+     * declared) are compared by day only.
+     */
+    public boolean cdcFieldHasTime(String tableName, String cdcField) {
+        CbsFieldDto field = snapshot(tableName).fieldsByColumn().get(cdcField.toLowerCase());
+        return field != null && field.getDataType() == CbsDataType.DATETIME;
+    }
+
+    /**
+     * cdcField &gt;= ?, bound with the column's own precision: the exact timestamp for a DATETIME
+     * column, the day of `since` otherwise.
+     */
+    private String cdcCondition(String tableName, String cdcField, LocalDateTime since, List<Object> params) {
+        params.add(cdcFieldHasTime(tableName, cdcField)
+                ? java.sql.Timestamp.valueOf(since)
+                : java.sql.Date.valueOf(since.toLocalDate()));
+        return cdcField + " >= ?";
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value == null) return null;
+        if (value instanceof java.sql.Timestamp ts) return ts.toLocalDateTime();
+        if (value instanceof java.sql.Date d) return d.toLocalDate().atStartOfDay();
+        if (value instanceof LocalDateTime ldt) return ldt;
+        if (value instanceof LocalDate ld) return ld.atStartOfDay();
+        throw new IllegalStateException("Unsupported CDC value type " + value.getClass().getName());
+    }
+
+    // ===== Keyset (seek) pagination =====
+
+    /**
+     * Returns the declared primary key columns of a table (cbs_tables.primary_key_columns), in key order.
+     * Empty list when the table has no declared key.
+     */
+    public List<String> getPrimaryKeyColumns(String tableName) {
+        return snapshot(tableName).pkColumns();
+    }
+
+    /**
+     * True when the table declares a primary key, i.e. it can be paged with WHERE pk &gt; :lastKey
+     * instead of SKIP/FIRST.
+     */
+    public boolean supportsKeysetPagination(String tableName) {
+        return !getPrimaryKeyColumns(tableName).isEmpty();
+    }
+
+    /**
+     * Fetch the next batch of records whose primary key is strictly greater than afterKey.
+     * Pass a null afterKey for the first batch. Unlike SKIP/FIRST, Informix seeks directly
+     * on the key index, so every batch costs the same regardless of its position in the table.
+     */
+    public List<Map<String, Object>> fetchFromCbsAfterKey(String tableName, Map<String, Object> afterKey, int limit) {
+        return fetchFromCbsSinceAfterKey(tableName, null, null, afterKey, limit);
+    }
+
+    /**
+     * Keyset variant of fetchFromCbsSince (CDC mode).
+     * Falls back to a plain keyset scan if cdcField is null.
+     */
+    public List<Map<String, Object>> fetchFromCbsSinceAfterKey(String tableName, String cdcField, LocalDateTime since,
+                                                              Map<String, Object> afterKey, int limit) {
+        return fetchFromCbsSinceAfterKey(tableName, cdcField, since, afterKey, null, limit);
+    }
+
+    /**
+     * Keyset fetch restricted to one partition of the leading key column (null range = whole table).
+     */
+    public List<Map<String, Object>> fetchFromCbsSinceAfterKey(String tableName, String cdcField, LocalDateTime since,
+                                                              Map<String, Object> afterKey, KeyRange range, int limit) {
+        List<String> pkColumns = getPrimaryKeyColumns(tableName);
+        if (pkColumns.isEmpty()) {
+            throw new IllegalStateException("Table " + tableName + " has no primary key, keyset pagination not possible");
+        }
+
+        List<Field<?>> selectFields = buildSelectFields(tableName);
+        if (selectFields.isEmpty()) {
+            log.warn("No fields defined for table {}", tableName);
+            return Collections.emptyList();
+        }
+
+        List<Object> params = new ArrayList<>();
+        String sql = buildScanSql(tableName, selectFields, pkColumns, cdcField, since, afterKey, range, limit, params);
+
+        try {
+            return toRows(tableName, informixDsl.fetch(sql, params.toArray()));
+        } catch (Exception e) {
+            log.error("Error fetching keyset batch from CBS {} after {}: {}", tableName, afterKey, e.getMessage());
+            throw new RuntimeException("Failed to fetch from CBS table " + tableName, e);
+        }
+    }
+
+    /**
+     * Open one server-side cursor over the whole table (optionally CDC-filtered and starting after a key),
+     * ordered by primary key when one is declared so a broken stream can be resumed from the last key.
+     * Rows are read one at a time with the given JDBC fetch size, no jOOQ Result is materialized.
+     * The caller must close the cursor.
+     */
+    public CbsCursor openCbsCursor(String tableName, String cdcField, LocalDateTime since,
+                                   Map<String, Object> afterKey, KeyRange range, int fetchSize) {
+        List<String> pkColumns = getPrimaryKeyColumns(tableName);
+        List<Field<?>> selectFields = buildSelectFields(tableName);
+        if (selectFields.isEmpty()) {
+            throw new IllegalStateException("No fields defined for table " + tableName);
+        }
+
+        List<Object> params = new ArrayList<>();
+        String sql = buildScanSql(tableName, selectFields, pkColumns, cdcField, since, afterKey, range, 0, params);
+
+        try {
+            Cursor<org.jooq.Record> cursor = informixDsl.resultQuery(sql, params.toArray())
+                    .fetchSize(fetchSize)
+                    .fetchLazy();
+            log.info("Table '{}': opened streaming cursor (fetchSize={}, after={})", tableName, fetchSize, afterKey);
+            return new CbsCursor(tableName, cursor);
+        } catch (Exception e) {
+            log.error("Error opening cursor on CBS {}: {}", tableName, e.getMessage());
+            throw new RuntimeException("Failed to open cursor on CBS table " + tableName, e);
+        }
+    }
+
+    /**
+     * Forward-only stream of CBS records, read in chunks from an open Informix cursor.
+     */
+    public final class CbsCursor implements AutoCloseable {
+        private final String tableName;
+        private final Cursor<org.jooq.Record> cursor;
+        private RowBatch.Schema schema;
+
+        private CbsCursor(String tableName, Cursor<org.jooq.Record> cursor) {
+            this.tableName = tableName;
+            this.cursor = cursor;
+        }
+
+        /**
+         * Read up to maxRows records into one columnar batch; an empty list means the cursor is exhausted.
+         */
+        public List<Map<String, Object>> next(int maxRows) {
+            if (schema == null) {
+                schema = rowSchemaOf(tableName, cursor.fields());
+            }
+            RowBatch batch = new RowBatch(schema, maxRows);
+            org.jooq.Record record;
+            while (batch.size() < maxRows && (record = cursor.fetchNext()) != null) {
+                appendRecord(batch, record);
+            }
+            return batch.rows();
+        }
+
+        @Override
+        public void close() {
+            cursor.close();
+        }
+    }
+
+    /**
+     * SELECT [FIRST n] over the table with CDC, data filter and keyset conditions,
+     * ordered by primary key when one is declared. limit &lt;= 0 means no FIRST clause.
+     */
+    private String buildScanSql(String tableName, List<Field<?>> selectFields, List<String> pkColumns,
+                                String cdcField, LocalDateTime since, Map<String, Object> afterKey,
+                                KeyRange range, int limit, List<Object> params) {
+        List<String> conditions = new ArrayList<>();
+        if (range != null) {
+            if (range.lowerInclusive() != null) {
+                conditions.add(range.column() + " >= ?");
+                params.add(range.lowerInclusive());
+            }
+            if (range.upperExclusive() != null) {
+                conditions.add(range.column() + " < ?");
+                params.add(range.upperExclusive());
+            }
+        }
+        if (cdcField != null && since != null) {
+            conditions.add(cdcCondition(tableName, cdcField, since, params));
+        }
+        String filterWhere = getFilterWhereClause(tableName);
+        if (!filterWhere.isEmpty()) {
+            if (afterKey == null) {
+                log.info("Table '{}': applying data filters: {}", tableName, filterWhere);
+            }
+            conditions.add(filterWhere);
+        }
+        if (afterKey != null) {
+            conditions.add(buildKeysetPredicate(pkColumns, afterKey, params));
+        }
+
+        String columns = selectFields.stream().map(Field::getName).collect(Collectors.joining(", "));
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (limit > 0) {
+            sql.append("FIRST ").append(limit).append(' ');
+        }
+        sql.append(columns).append(" FROM ").append(cbsTableRef(tableName));
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        if (!pkColumns.isEmpty()) {
+            sql.append(" ORDER BY ").append(String.join(", ", pkColumns));
+        }
+        return sql.toString();
+    }
+
+    // ===== Key range partitioning =====
+
+    /**
+     * Half-open range [lowerInclusive, upperExclusive) on the leading primary key column.
+     * A null bound is open-ended.
+     */
+    public record KeyRange(String column, Object lowerInclusive, Object upperExclusive) {
+        @Override
+        public String toString() {
+            return column + " in [" + (lowerInclusive != null ? lowerInclusive : "-inf") + ", "
+                    + (upperExclusive != null ? upperExclusive : "+inf") + ")";
+        }
+    }
+
+    /**
+     * Split the table into at most `partitions` ranges of roughly equal row count on the leading
+     * primary key column. Boundaries are sampled with SKIP n FIRST 1 over the key index (partitions - 1
+     * index probes), so they work for character keys as well as numeric ones. Duplicate boundaries
+     * (skewed keys) are merged, so fewer ranges may be returned.
+     */
+    public List<KeyRange> splitKeyRanges(String tableName, int partitions, long totalCount) {
+        List<String> pkColumns = getPrimaryKeyColumns(tableName);
+        if (pkColumns.isEmpty() || partitions <= 1 || totalCount < partitions) {
+            return List.of(new KeyRange(pkColumns.isEmpty() ? null : pkColumns.get(0), null, null));
+        }
+
+        String lead = pkColumns.get(0);
+        String filterWhere = getFilterWhereClause(tableName);
+        List<Object> boundaries = new ArrayList<>();
+        for (int i = 1; i < partitions; i++) {
+            long skip = i * totalCount / partitions;
+            String sql = "SELECT SKIP " + skip + " FIRST 1 " + lead + " FROM " + cbsTableRef(tableName) +
+                    (filterWhere.isEmpty() ? "" : " WHERE " + filterWhere) +
+                    " ORDER BY " + lead;
+            org.jooq.Result<org.jooq.Record> result = informixDsl.fetch(sql);
+            if (result.isEmpty()) break;
+            Object boundary = recordToMap(result.get(0)).get(lead.toLowerCase());
+            if (boundary != null && (boundaries.isEmpty() || !boundary.equals(boundaries.get(boundaries.size() - 1)))) {
+                boundaries.add(boundary);
+            }
+        }
+
+        List<KeyRange> ranges = new ArrayList<>();
+        Object lower = null;
+        for (Object boundary : boundaries) {
+            ranges.add(new KeyRange(lead, lower, boundary));
+            lower = boundary;
+        }
+        ranges.add(new KeyRange(lead, lower, null));
+        log.info("Table '{}': split into {} key ranges on {}", tableName, ranges.size(), lead);
+        return ranges;
+    }
+
+    /**
+     * Extract the primary key values (in key order) of a fetched record.
+     * The result is the afterKey to pass to the next keyset fetch.
+     */
+    public Map<String, Object> extractKey(String tableName, Map<String, Object> record) {
+        Map<String, Object> key = new LinkedHashMap<>();
+        for (String column : getPrimaryKeyColumns(tableName)) {
+            Object value = record.get(column.toLowerCase());
+            if (value == null) {
+                throw new IllegalStateException("Null primary key column " + column + " in table " + tableName);
+            }
+            key.put(column.toLowerCase(), value);
+        }
+        return key;
+    }
+
     /**
      * Fetch a single record by primary key from CBS.
      */
@@ -391,62 +877,665 @@ public class DynamicCbsQueryService {
 
     /**
      * Upsert records into the PostgreSQL mirror table.
-     * Uses INSERT ... ON CONFLICT DO UPDATE for efficiency.
+     * Uses a cached INSERT ... ON CONFLICT DO UPDATE statement, prepared once and executed
+     * as a single JDBC batch. Returns the number of rows written; failing rows are skipped.
      */
     public int upsertToMirror(String tableName, List<Map<String, Object>> records) {
+        return upsertToMirror(tableName, records, null);
+    }
+
+    /**
+     * Same as {@link #upsertToMirror(String, List)}, reporting every skipped row and its error to onRejected.
+     */
+    public int upsertToMirror(String tableName, List<Map<String, Object>> records,
+                              BiConsumer<Map<String, Object>, String> onRejected) {
+        return upsertToMirror(tableName, records, onRejected, null);
+    }
+
+    /**
+     * Writes of a mirror upsert, seen inside the transaction that commits them.
+     */
+    @FunctionalInterface
+    public interface WriteListener {
+        /**
+         * Called with the records about to be committed on connection; an exception rolls them back
+         * like a failed upsert.
+         */
+        void written(Connection connection, List<Map<String, Object>> records) throws SQLException;
+    }
+
+    /**
+     * Same as {@link #upsertToMirror(String, List, BiConsumer)}, calling onWritten before each commit
+     * so that rows written on the same connection (e.g. validation queue entries) commit with the mirror rows.
+     */
+    public int upsertToMirror(String tableName, List<Map<String, Object>> records,
+                              BiConsumer<Map<String, Object>, String> onRejected, WriteListener onWritten) {
         if (records.isEmpty()) return 0;
 
-        CbsTableDto table = dictionaryService.getTableByName(tableName);
-        List<CbsFieldDto> fields = dictionaryService.getFieldsByTableName(tableName);
-        Set<String> pkColumns = Arrays.stream(table.getPrimaryKeyColumns().split(","))
-                .map(String::trim)
-                .collect(Collectors.toSet());
+        UpsertPlan plan = upsertPlan(tableName);
 
-        List<Field<?>> allFields = fields.stream()
-                .map(f -> DSL.field(DSL.unquotedName(f.getColumnName())))
-                .collect(Collectors.toList());
-        // Add updated_at
-        allFields.add(DSL.field(DSL.unquotedName("updated_at")));
+        // Normalize once up front, one updated_at for the whole batch
+        LocalDateTime now = LocalDateTime.now();
+        int fieldCount = plan.fields().size();
+        List<Object[]> rows = new ArrayList<>(records.size());
+        for (Map<String, Object> record : records) {
+            Object[] values = Arrays.copyOf(normalizeRow(plan, record), fieldCount + 2);
+            values[fieldCount] = rowHash(values, fieldCount);
+            values[fieldCount + 1] = now;
+            rows.add(values);
+        }
 
-        List<Field<?>> nonPkFields = fields.stream()
-                .filter(f -> !pkColumns.contains(f.getColumnName()))
-                .map(f -> DSL.field(DSL.unquotedName(f.getColumnName())))
+        return primaryDsl.connectionResult(connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(plan.sql())) {
+                return executeUpsertBatch(connection, ps, tableName, records, rows, 0, rows.size(), onRejected,
+                        onWritten);
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    /**
+     * Run rows [from, to) as one JDBC batch in its own transaction. If the batch fails, roll back and
+     * bisect so only the offending rows are dropped (log2(n) extra round trips per bad row).
+     */
+    private int executeUpsertBatch(Connection connection, PreparedStatement ps, String tableName,
+                                   List<Map<String, Object>> records, List<Object[]> rows, int from, int to,
+                                   BiConsumer<Map<String, Object>, String> onRejected,
+                                   WriteListener onWritten) throws SQLException {
+        try {
+            for (Object[] values : rows.subList(from, to)) {
+                for (int i = 0; i < values.length; i++) {
+                    ps.setObject(i + 1, values[i]);
+                }
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            if (onWritten != null) onWritten.written(connection, records.subList(from, to));
+            connection.commit();
+            return to - from;
+        } catch (SQLException e) {
+            ps.clearBatch();
+            connection.rollback();
+            if (to - from == 1) {
+                SQLException cause = e.getNextException() != null ? e.getNextException() : e;
+                log.warn("Failed to upsert record into {}: {}", tableName, cause.getMessage());
+                if (onRejected != null) onRejected.accept(records.get(from), cause.getMessage());
+                return 0;
+            }
+            int mid = (from + to) >>> 1;
+            return executeUpsertBatch(connection, ps, tableName, records, rows, from, mid, onRejected, onWritten)
+                    + executeUpsertBatch(connection, ps, tableName, records, rows, mid, to, onRejected, onWritten);
+        }
+    }
+
+    /**
+     * Primary key of a record as "col=value, ...", for logs and dead letters. Null for a table without a key.
+     */
+    public String describeKey(String tableName, Map<String, Object> record) {
+        List<String> pkColumns = getPrimaryKeyColumns(tableName);
+        if (pkColumns.isEmpty()) return null;
+        return pkColumns.stream()
+                .map(pk -> pk + "=" + record.get(pk))
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Build the INSERT ... ON CONFLICT DO UPDATE statement for a table from its dictionary fields,
+     * and the staging merge statement. Part of the table's dictionary snapshot.
+     */
+    private UpsertPlan buildUpsertPlan(String tableName, List<CbsFieldDto> fields, List<String> pkColumns,
+                                       RowBatch.Schema rowSchema) {
+        List<String> allColumns = fields.stream()
+                .map(CbsFieldDto::getColumnName)
+                .collect(Collectors.toCollection(ArrayList::new));
+        allColumns.add(ROW_HASH_COLUMN);
+        allColumns.add("updated_at");
+
+        List<String> nonPkColumns = allColumns.stream()
+                .filter(c -> !pkColumns.contains(c))
                 .collect(Collectors.toList());
-        nonPkFields.add(DSL.field(DSL.unquotedName("updated_at")));
 
-        // Build PK column list for ON CONFLICT clause
-        String pkColList = pkColumns.stream().collect(Collectors.joining(", "));
+        String sql = "INSERT INTO " + mirrorTableRaw(tableName) + " (" +
+                String.join(", ", allColumns) +
+                ") VALUES (" +
+                allColumns.stream().map(c -> "?").collect(Collectors.joining(", ")) +
+                ") ON CONFLICT (" + String.join(", ", pkColumns) + ") DO UPDATE SET " +
+                nonPkColumns.stream()
+                        .map(c -> c + " = EXCLUDED." + c)
+                        .collect(Collectors.joining(", ")) +
+                ", " + DELETED_AT_COLUMN + " = NULL";
+
+        int[] pkIndexes = pkColumns.stream()
+                .mapToInt(pk -> {
+                    for (int i = 0; i < fields.size(); i++) {
+                        if (fields.get(i).getColumnName().equals(pk)) return i;
+                    }
+                    throw new IllegalStateException("Primary key column " + pk + " of " + tableName + " is not a dictionary field");
+                })
+                .toArray();
+
+        return new UpsertPlan(sql, buildMergeSql(tableName, fields, pkColumns), fields, pkColumns, pkIndexes, rowSchema);
+    }
+
+    /**
+     * Prepared upsert statement and the dictionary fields bound to its parameters, in order.
+     * The last two parameters are always row_hash and updated_at.
+     * rowSchema is the columnar schema built from the same fields: column i is field i.
+     */
+    private record UpsertPlan(String sql, String mergeSql, List<CbsFieldDto> fields, List<String> pkColumns,
+                              int[] pkIndexes, RowBatch.Schema rowSchema) {}
+
+    private Object[] normalizeRow(UpsertPlan plan, Map<String, Object> record) {
+        Object[] values = new Object[plan.fields().size()];
+        if (record instanceof RowBatch.Row row && row.schema() == plan.rowSchema()) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] = normalizeValue(row.get(i), plan.fields().get(i));
+            }
+            return values;
+        }
+        for (int i = 0; i < values.length; i++) {
+            CbsFieldDto f = plan.fields().get(i);
+            values[i] = normalizeValue(record.get(f.getColumnName()), f);
+        }
+        return values;
+    }
 
-        int total = 0;
+    /**
+     * MD5 hex of the first fieldCount normalized values, unit-separated, with a distinct NULL marker.
+     */
+    private String rowHash(Object[] values, int fieldCount) {
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (int i = 0; i < fieldCount; i++) {
+            Object v = values[i];
+            String text = v == null ? "\u0000" : v instanceof BigDecimal bd ? bd.toPlainString() : v.toString();
+            md5.update(text.getBytes(StandardCharsets.UTF_8));
+            md5.update((byte) 0x1F);
+        }
+        return HexFormat.of().formatHex(md5.digest());
+    }
+
+    private String keyString(Object[] pkValues) {
+        StringBuilder key = new StringBuilder();
+        for (Object v : pkValues) {
+            if (v instanceof BigDecimal bd) {
+                key.append(bd.stripTrailingZeros().toPlainString());
+            } else {
+                key.append(v);
+            }
+            key.append('\u001F');
+        }
+        return key.toString();
+    }
+
+    // ===== Change detection =====
+
+    /**
+     * Classification of a fetched batch against the mirror, by row hash.
+     *
+     * @param changed records that are new or whose content differs from the mirror (to upsert and validate)
+     */
+    public record ChangeSet(List<Map<String, Object>> changed, int inserted, int updated, int unchanged) {
+        public static ChangeSet allChanged(List<Map<String, Object>> records) {
+            return new ChangeSet(records, 0, records.size(), 0);
+        }
+    }
+
+    /**
+     * Compare each record's content hash with the row_hash stored in the mirror (one lookup query per batch).
+     * If the lookup fails, every record is treated as changed, so the sync is never wrong, only slower.
+     */
+    public ChangeSet detectChanges(String tableName, List<Map<String, Object>> records) {
+        if (records.isEmpty()) return new ChangeSet(List.of(), 0, 0, 0);
+
+        UpsertPlan plan = upsertPlan(tableName);
+        int pkCount = plan.pkIndexes().length;
+
+        List<String> keys = new ArrayList<>(records.size());
+        List<String> hashes = new ArrayList<>(records.size());
+        List<Object> params = new ArrayList<>(records.size() * pkCount);
         for (Map<String, Object> record : records) {
-            try {
-                // Build values array
-                List<Object> valuesList = new ArrayList<>();
-                for (CbsFieldDto f : fields) {
-                    valuesList.add(normalizeValue(record.get(f.getColumnName()), f));
+            Object[] values = normalizeRow(plan, record);
+            Object[] pkValues = new Object[pkCount];
+            for (int i = 0; i < pkCount; i++) {
+                pkValues[i] = values[plan.pkIndexes()[i]];
+                params.add(pkValues[i]);
+            }
+            keys.add(keyString(pkValues));
+            hashes.add(rowHash(values, values.length));
+        }
+
+        String pkList = String.join(", ", plan.pkColumns());
+        String tuple = "(" + String.join(", ", Collections.nCopies(pkCount, "?")) + ")";
+
+        Map<String, String> stored = new HashMap<>();
+        try {
+            for (int from = 0; from < records.size(); from += KEY_CHUNK_SIZE) {
+                int to = Math.min(from + KEY_CHUNK_SIZE, records.size());
+                String sql = "SELECT " + pkList + ", " + ROW_HASH_COLUMN + " FROM " + mirrorTableRaw(tableName) +
+                        " WHERE (" + pkList + ") IN (" + String.join(", ", Collections.nCopies(to - from, tuple)) + ")";
+                for (org.jooq.Record r : primaryDsl.fetch(sql, params.subList(from * pkCount, to * pkCount).toArray())) {
+                    Object[] pkValues = new Object[pkCount];
+                    for (int i = 0; i < pkCount; i++) {
+                        pkValues[i] = r.get(i);
+                    }
+                    stored.put(keyString(pkValues), r.get(pkCount, String.class));
+                }
+            }
+        } catch (Exception e) {
+            // Every row is rewritten and re-validated: visible, since it silently defeats change detection
+            log.error("Row hash lookup failed for {}, treating batch as changed: {}", tableName, e.getMessage());
+            metricsConfig.recordRowHashLookupFailure(tableName);
+            return ChangeSet.allChanged(records);
+        }
+
+        List<Map<String, Object>> changed = new ArrayList<>();
+        int inserted = 0;
+        int updated = 0;
+        int unchanged = 0;
+        for (int i = 0; i < records.size(); i++) {
+            String key = keys.get(i);
+            if (!stored.containsKey(key)) {
+                inserted++;
+                changed.add(records.get(i));
+            } else if (hashes.get(i).equals(stored.get(key))) {
+                unchanged++;
+            } else {
+                updated++;
+                changed.add(records.get(i));
+            }
+        }
+        return new ChangeSet(changed, inserted, updated, unchanged);
+    }
+
+    /**
+     * Clear the stored row hash of the given records so the next sync processes them again
+     * (e.g. their validation failed after the mirror write).
+     */
+    public void invalidateRowHashes(String tableName, List<Map<String, Object>> records) {
+        if (records.isEmpty()) return;
+
+        UpsertPlan plan = upsertPlan(tableName);
+        int pkCount = plan.pkIndexes().length;
+        List<Object> params = new ArrayList<>(records.size() * pkCount);
+        for (Map<String, Object> record : records) {
+            Object[] values = normalizeRow(plan, record);
+            for (int i = 0; i < pkCount; i++) {
+                params.add(values[plan.pkIndexes()[i]]);
+            }
+        }
+        String tuple = "(" + String.join(", ", Collections.nCopies(pkCount, "?")) + ")";
+        for (int from = 0; from < records.size(); from += KEY_CHUNK_SIZE) {
+            int to = Math.min(from + KEY_CHUNK_SIZE, records.size());
+            String sql = "UPDATE " + mirrorTableRaw(tableName) + " SET " + ROW_HASH_COLUMN + " = NULL WHERE (" +
+                    String.join(", ", plan.pkColumns()) + ") IN (" +
+                    String.join(", ", Collections.nCopies(to - from, tuple)) + ")";
+            primaryDsl.execute(sql, params.subList(from * pkCount, to * pkCount).toArray());
+        }
+    }
+
+    // ===== Validation queue =====
+
+    /**
+     * Primary key of each record (column → value), normalized as written to the mirror, in record order.
+     */
+    public List<Map<String, Object>> mirrorKeys(String tableName, List<Map<String, Object>> records) {
+        UpsertPlan plan = upsertPlan(tableName);
+        List<Map<String, Object>> keys = new ArrayList<>(records.size());
+        for (Map<String, Object> record : records) {
+            Object[] values = normalizeRow(plan, record);
+            Map<String, Object> key = new LinkedHashMap<>();
+            for (int i = 0; i < plan.pkIndexes().length; i++) {
+                key.put(plan.pkColumns().get(i), values[plan.pkIndexes()[i]]);
+            }
+            keys.add(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Live mirror rows (dictionary columns only) for keys produced by {@link #mirrorKeys}, on the
+     * table's row schema.
+     * Keys of rows deleted or tombstoned since have no row in the result.
+     */
+    public RowBatch fetchMirrorRows(String tableName, List<Map<String, Object>> keys) {
+        RowBatch rows = null;
+
+        UpsertPlan plan = upsertPlan(tableName);
+        int pkCount = plan.pkColumns().size();
+        String columns = plan.fields().stream()
+                .map(f -> "\"" + f.getColumnName() + "\"")
+                .collect(Collectors.joining(", "));
+        String tuple = "(" + String.join(", ", Collections.nCopies(pkCount, "?")) + ")";
+        String pkList = String.join(", ", plan.pkColumns());
+        for (int from = 0; from < keys.size(); from += KEY_CHUNK_SIZE) {
+            List<Map<String, Object>> chunk = keys.subList(from, Math.min(from + KEY_CHUNK_SIZE, keys.size()));
+            List<Object> params = new ArrayList<>(chunk.size() * pkCount);
+            for (Map<String, Object> key : chunk) {
+                for (String column : plan.pkColumns()) {
+                    params.add(key.get(column));
                 }
-                valuesList.add(LocalDateTime.now()); // updated_at
+            }
+            String sql = "SELECT " + columns + " FROM " + mirrorTableRaw(tableName) + " WHERE (" + pkList +
+                    ") IN (" + String.join(", ", Collections.nCopies(chunk.size(), tuple)) + ") AND " +
+                    DELETED_AT_COLUMN + " IS NULL";
+            org.jooq.Result<org.jooq.Record> result = primaryDsl.fetch(sql, params.toArray());
+            if (rows == null) {
+                rows = new RowBatch(rowSchemaOf(tableName, result.fields()), keys.size());
+            }
+            for (org.jooq.Record r : result) {
+                appendRecord(rows, r);
+            }
+        }
+        return rows != null ? rows : RowBatch.of(List.of());
+    }
+
+    // ===== Delete detection =====
 
-                // Build INSERT ... ON CONFLICT DO UPDATE using raw SQL for reliability
-                StringBuilder sql = new StringBuilder();
-                sql.append("INSERT INTO ").append(mirrorTableRaw(tableName)).append(" (");
-                sql.append(allFields.stream().map(Field::getName).collect(Collectors.joining(", ")));
-                sql.append(") VALUES (");
-                sql.append(allFields.stream().map(f -> "?").collect(Collectors.joining(", ")));
-                sql.append(") ON CONFLICT (").append(pkColList).append(") DO UPDATE SET ");
-                sql.append(nonPkFields.stream()
-                        .map(f -> f.getName() + " = EXCLUDED." + f.getName())
-                        .collect(Collectors.joining(", ")));
+    /**
+     * Forward-only stream of CBS primary keys, normalized as they are written to the mirror.
+     */
+    public final class KeyCursor implements AutoCloseable {
+        private final Cursor<org.jooq.Record> cursor;
+        private final List<CbsFieldDto> pkFields;
 
-                primaryDsl.execute(sql.toString(), valuesList.toArray());
+        private KeyCursor(Cursor<org.jooq.Record> cursor, List<CbsFieldDto> pkFields) {
+            this.cursor = cursor;
+            this.pkFields = pkFields;
+        }
 
-                total++;
-            } catch (Exception e) {
-                log.warn("Failed to upsert record into {}: {}", tableName, e.getMessage());
+        /**
+         * Next key, or null when the cursor is exhausted.
+         */
+        public Object[] next() {
+            org.jooq.Record record = cursor.fetchNext();
+            if (record == null) return null;
+            Object[] key = new Object[pkFields.size()];
+            for (int i = 0; i < key.length; i++) {
+                Object value = record.get(i);
+                key[i] = normalizeValue(value instanceof String str ? str.trim() : value, pkFields.get(i));
             }
+            return key;
+        }
+
+        @Override
+        public void close() {
+            cursor.close();
         }
+    }
 
-        return total;
+    /**
+     * Open a cursor over the primary keys of the CBS table (data filters applied), reading only the key
+     * columns. sorted=false skips the ORDER BY when the caller does not need key order.
+     */
+    public KeyCursor openCbsKeyCursor(String tableName, boolean sorted, int fetchSize) {
+        UpsertPlan plan = upsertPlan(tableName);
+        List<CbsFieldDto> pkFields = Arrays.stream(plan.pkIndexes()).mapToObj(plan.fields()::get).toList();
+        String pkList = String.join(", ", plan.pkColumns());
+        String filterWhere = getFilterWhereClause(tableName);
+        String sql = "SELECT " + pkList + " FROM " + cbsTableRef(tableName) +
+                (filterWhere.isEmpty() ? "" : " WHERE " + filterWhere) +
+                (sorted ? " ORDER BY " + pkList : "");
+        try {
+            return new KeyCursor(informixDsl.resultQuery(sql).fetchSize(fetchSize).fetchLazy(), pkFields);
+        } catch (Exception e) {
+            log.error("Error opening key cursor on CBS {}: {}", tableName, e.getMessage());
+            throw new RuntimeException("Failed to open key cursor on CBS table " + tableName, e);
+        }
+    }
+
+    /**
+     * Stream the primary keys of the live (not tombstoned) mirror rows, each followed by the value of
+     * extraColumn (null = none). PostgreSQL only streams a result set inside a transaction, so the scan
+     * runs on one connection with autocommit off, calling consumer for every row.
+     * Text keys are ordered by byte value (COLLATE "C"), the order Informix uses for CHAR columns.
+     */
+    public void scanMirrorKeys(String tableName, boolean sorted, String extraColumn, int fetchSize,
+                               java.util.function.Consumer<Object[]> consumer) {
+        UpsertPlan plan = upsertPlan(tableName);
+        int pkCount = plan.pkColumns().size();
+        String orderBy = Arrays.stream(plan.pkIndexes())
+                .mapToObj(plan.fields()::get)
+                .map(f -> f.getDataType() == CbsDataType.CHAR || f.getDataType() == CbsDataType.VARCHAR
+                        ? f.getColumnName() + " COLLATE \"C\""
+                        : f.getColumnName())
+                .collect(Collectors.joining(", "));
+        String sql = "SELECT " + String.join(", ", plan.pkColumns()) + (extraColumn != null ? ", " + extraColumn : "") +
+                " FROM " + mirrorTableRaw(tableName) + " WHERE " + DELETED_AT_COLUMN + " IS NULL" +
+                (sorted ? " ORDER BY " + orderBy : "");
+        int width = pkCount + (extraColumn != null ? 1 : 0);
+
+        primaryDsl.connection(connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setFetchSize(fetchSize);
+                try (java.sql.ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Object[] row = new Object[width];
+                        for (int i = 0; i < width; i++) {
+                            row[i] = rs.getObject(i + 1);
+                        }
+                        consumer.accept(row);
+                    }
+                }
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    /**
+     * Stream the live mirror rows (dictionary columns only) in batches of batchSize, as the records
+     * of a sync batch: the table's row schema, trimmed strings. Runs on one connection with autocommit
+     * off, like {@link #scanMirrorKeys}.
+     */
+    public void scanMirrorRows(String tableName, int batchSize, java.util.function.Consumer<RowBatch> consumer) {
+        UpsertPlan plan = upsertPlan(tableName);
+        String columns = plan.fields().stream()
+                .map(f -> "\"" + f.getColumnName() + "\"")
+                .collect(Collectors.joining(", "));
+        String sql = "SELECT " + columns + " FROM " + mirrorTableRaw(tableName) + " WHERE " + DELETED_AT_COLUMN + " IS NULL";
+
+        primaryDsl.connection(connection -> {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                ps.setFetchSize(batchSize);
+                try (java.sql.ResultSet rs = ps.executeQuery()) {
+                    java.sql.ResultSetMetaData meta = rs.getMetaData();
+                    int width = meta.getColumnCount();
+                    List<String> names = new ArrayList<>(width);
+                    for (int i = 0; i < width; i++) {
+                        names.add(meta.getColumnLabel(i + 1).toLowerCase());
+                    }
+                    RowBatch.Schema schema = rowSchemaOf(tableName, names);
+                    RowBatch batch = new RowBatch(schema, batchSize);
+                    while (rs.next()) {
+                        int row = batch.addRow();
+                        for (int i = 0; i < width; i++) {
+                            Object value = rs.getObject(i + 1);
+                            batch.set(row, i, value instanceof String str ? str.trim() : value);
+                        }
+                        if (batch.size() == batchSize) {
+                            consumer.accept(batch);
+                            batch = new RowBatch(schema, batchSize);
+                        }
+                    }
+                    if (!batch.isEmpty()) consumer.accept(batch);
+                }
+                connection.commit();
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        });
+    }
+
+    public long countLiveMirrorRows(String tableName) {
+        return primaryDsl.fetchOne("SELECT COUNT(*) FROM " + mirrorTableRaw(tableName) +
+                " WHERE " + DELETED_AT_COLUMN + " IS NULL").get(0, Long.class);
+    }
+
+    /**
+     * Key used to match CBS and mirror rows (same normalization as row hash change detection).
+     */
+    public String keyOf(Object[] key, int pkCount) {
+        return keyString(pkCount == key.length ? key : Arrays.copyOf(key, pkCount));
+    }
+
+    /**
+     * Order of two keys as produced by openCbsKeyCursor / scanMirrorKeys with sorted=true:
+     * numbers by value, text by UTF-16 code unit (byte order for the ASCII keys of the CBS).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public int compareKeys(Object[] a, Object[] b, int pkCount) {
+        for (int i = 0; i < pkCount; i++) {
+            Object x = a[i];
+            Object y = b[i];
+            int c;
+            if (x == null || y == null) {
+                c = x == null ? (y == null ? 0 : -1) : 1;
+            } else if (x instanceof Number nx && y instanceof Number ny) {
+                c = new BigDecimal(nx.toString()).compareTo(new BigDecimal(ny.toString()));
+            } else if (x instanceof Comparable cx && x.getClass() == y.getClass()) {
+                c = cx.compareTo(y);
+            } else {
+                c = x.toString().compareTo(y.toString());
+            }
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    /**
+     * Remove mirror rows by primary key: tombstone (deleted_at, row hash cleared so a returning row is
+     * rewritten) or hard delete. Returns the number of rows affected.
+     */
+    public int removeMirrorRows(String tableName, List<Object[]> keys, boolean hardDelete) {
+        if (keys.isEmpty()) return 0;
+
+        UpsertPlan plan = upsertPlan(tableName);
+        int pkCount = plan.pkColumns().size();
+        String tuple = "(" + String.join(", ", Collections.nCopies(pkCount, "?")) + ")";
+        String pkList = String.join(", ", plan.pkColumns());
+        int removed = 0;
+        for (int from = 0; from < keys.size(); from += KEY_CHUNK_SIZE) {
+            List<Object[]> chunk = keys.subList(from, Math.min(from + KEY_CHUNK_SIZE, keys.size()));
+            List<Object> params = new ArrayList<>(chunk.size() * pkCount);
+            for (Object[] key : chunk) {
+                params.addAll(Arrays.asList(key).subList(0, pkCount));
+            }
+            String where = " WHERE (" + pkList + ") IN (" + String.join(", ", Collections.nCopies(chunk.size(), tuple)) + ")";
+            String sql = hardDelete
+                    ? "DELETE FROM " + mirrorTableRaw(tableName) + where
+                    : "UPDATE " + mirrorTableRaw(tableName) + " SET " + DELETED_AT_COLUMN + " = NOW(), " +
+                      ROW_HASH_COLUMN + " = NULL" + where + " AND " + DELETED_AT_COLUMN + " IS NULL";
+            removed += primaryDsl.execute(sql, params.toArray());
+        }
+        return removed;
+    }
+
+    // ===== Bulk COPY load =====
+
+    /**
+     * Staging table for COPY mode: cbs.&lt;table&gt;__stage, unlogged (no WAL), same columns as the mirror.
+     */
+    private String stagingTableRaw(String tableName) {
+        return MIRROR_SCHEMA + "." + tableName + "__stage";
+    }
+
+    /**
+     * (Re)create the empty staging table for a full COPY sync.
+     * Recreated on every run so it always matches the current mirror columns.
+     */
+    public void prepareStagingTable(String tableName) {
+        primaryDsl.execute("DROP TABLE IF EXISTS " + stagingTableRaw(tableName));
+        primaryDsl.execute("CREATE UNLOGGED TABLE " + stagingTableRaw(tableName) +
+                " (LIKE " + mirrorTableRaw(tableName) + " INCLUDING DEFAULTS)");
+        log.info("Prepared staging table {}", stagingTableRaw(tableName));
+    }
+
+    /**
+     * Whether the staging table of an interrupted COPY sync is still there (an unlogged table
+     * does not survive a PostgreSQL crash), so the sync can resume into it.
+     */
+    public boolean stagingTableExists(String tableName) {
+        return Boolean.TRUE.equals(primaryDsl.fetchValue(
+                "SELECT to_regclass(?) IS NOT NULL", stagingTableRaw(tableName)));
+    }
+
+    /**
+     * Stream records into the staging table with COPY FROM STDIN (CSV).
+     * Returns the number of rows copied.
+     */
+    public int copyToStaging(String tableName, List<Map<String, Object>> records) {
+        if (records.isEmpty()) return 0;
+
+        UpsertPlan plan = upsertPlan(tableName);
+
+        StringBuilder csv = new StringBuilder(records.size() * 128);
+        for (Map<String, Object> record : records) {
+            Object[] values = normalizeRow(plan, record);
+            for (Object value : values) {
+                appendCsvValue(csv, value);
+                csv.append(',');
+            }
+            csv.append(rowHash(values, values.length)).append('\n');
+        }
+
+        String columns = plan.fields().stream().map(CbsFieldDto::getColumnName).collect(Collectors.joining(", "))
+                + ", " + ROW_HASH_COLUMN;
+        String copySql = "COPY " + stagingTableRaw(tableName) + " (" + columns + ") FROM STDIN WITH (FORMAT csv)";
+
+        return primaryDsl.connectionResult(connection -> {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            return (int) copyManager.copyIn(copySql, new StringReader(csv.toString()));
+        });
+    }
+
+    /**
+     * Merge the staging table into the mirror with one set-based INSERT ... SELECT ... ON CONFLICT,
+     * then drop the staging table. DISTINCT ON protects against rows staged twice by a retried batch.
+     * Returns the number of mirror rows inserted or updated.
+     */
+    public int mergeStagingIntoMirror(String tableName) {
+        int merged = primaryDsl.execute(upsertPlan(tableName).mergeSql());
+        primaryDsl.execute("DROP TABLE IF EXISTS " + stagingTableRaw(tableName));
+        log.info("Merged {} staged rows into {}", merged, mirrorTableRaw(tableName));
+        return merged;
+    }
+
+    private String buildMergeSql(String tableName, List<CbsFieldDto> fields, List<String> pkColumns) {
+        String pkList = String.join(", ", pkColumns);
+        String columns = fields.stream().map(CbsFieldDto::getColumnName).collect(Collectors.joining(", "))
+                + ", " + ROW_HASH_COLUMN;
+        String updates = Stream.concat(fields.stream().map(CbsFieldDto::getColumnName), Stream.of(ROW_HASH_COLUMN))
+                .filter(c -> !pkColumns.contains(c))
+                .map(c -> c + " = EXCLUDED." + c)
+                .collect(Collectors.joining(", "));
+
+        return "INSERT INTO " + mirrorTableRaw(tableName) + " (" + columns + ", updated_at) " +
+                "SELECT DISTINCT ON (" + pkList + ") " + columns + ", NOW() FROM " + stagingTableRaw(tableName) +
+                " ORDER BY " + pkList +
+                " ON CONFLICT (" + pkList + ") DO UPDATE SET " +
+                updates + ", updated_at = EXCLUDED.updated_at, " + DELETED_AT_COLUMN + " = NULL";
+    }
+
+    /**
+     * CSV encoding for COPY: NULL is an unquoted empty field, every other value is quoted.
+     */
+    private void appendCsvValue(StringBuilder csv, Object value) {
+        if (value == null) return;
+        String text = value instanceof BigDecimal bd ? bd.toPlainString() : value.toString();
+        csv.append('"').append(text.replace("\"", "\"\"")).append('"');
     }
 
     // ===== CBS Write Operations =====
@@ -505,8 +1594,34 @@ public class DynamicCbsQueryService {
      * Returns empty string if no filters are configured.
      */
     private String getFilterWhereClause(String tableName) {
-        CbsTableDto table = dictionaryService.getTableByName(tableName);
-        return cbsFilterService.buildWhereClause(tableName, table.getDataFilters());
+        return snapshot(tableName).filterWhere();
+    }
+
+    /**
+     * Expanded row-value comparison for composite keys, since Informix does not index-seek on tuples:
+     * (a, b, c) &gt; (?, ?, ?) becomes a &gt; ? OR (a = ? AND b &gt; ?) OR (a = ? AND b = ? AND c &gt; ?).
+     */
+    private String buildKeysetPredicate(List<String> pkColumns, Map<String, Object> afterKey, List<Object> params) {
+        List<String> disjuncts = new ArrayList<>();
+        for (int i = 0; i < pkColumns.size(); i++) {
+            List<String> conjuncts = new ArrayList<>();
+            for (int j = 0; j < i; j++) {
+                conjuncts.add(pkColumns.get(j) + " = ?");
+                params.add(afterKey.get(pkColumns.get(j).toLowerCase()));
+            }
+            conjuncts.add(pkColumns.get(i) + " > ?");
+            params.add(afterKey.get(pkColumns.get(i).toLowerCase()));
+            disjuncts.add(conjuncts.size() == 1 ? conjuncts.get(0) : "(" + String.join(" AND ", conjuncts) + ")");
+        }
+        return "(" + String.join(" OR ", disjuncts) + ")";
+    }
+
+    private List<String> parseColumnList(String csv) {
+        if (csv == null || csv.isBlank()) return Collections.emptyList();
+        return Arrays.stream(csv.split(","))
+                .map(String::trim)
+                .filter(c -> !c.isEmpty())
+                .collect(Collectors.toList());
     }
 
     private Condition buildPkCondition(Map<String, Object> pkValues) {
@@ -20,7 +20,7 @@ import java.util.stream.Collectors;
 
 /**
  * FATCA US indicia screening service.
- * Works with Map&lt;String, Object&gt; records (dictionary-driven, no hardcoded entity).
+ * Works with dictionary-driven CBS rows (no hardcoded entity), read by column index.
  */
 @Slf4j
 @Service
@@ -31,6 +31,12 @@ public class FatcaScreeningService {
     private static final String CLIENT_TABLE = "bkcli";
 
     private static final Set<String> US_COUNTRY_CODES = Set.of("US", "USA", "ETU", "400");
+    private static final KeywordMatcher US_BIRTH_PLACE_MARKERS = KeywordMatcher.of(List.of(
+        "NEW YORK", "LOS ANGELES", "CHICAGO", "HOUSTON", "PHOENIX",
+        "PHILADELPHIA", "SAN ANTONIO", "SAN DIEGO", "DALLAS", "WASHINGTON DC",
+        "MIAMI", "ATLANTA", "BOSTON", "SEATTLE", "DETROIT", "DENVER",
+        "UNITED STATES", "USA", "U.S.A.", "ETATS-UNIS", "ETATS UNIS"
+    ));
 
     private final FatcaClientRepository fatcaClientRepository;
     private final StructureService structureService;
@@ -47,6 +53,19 @@ public class FatcaScreeningService {
     @Autowired(required = false)
     private DynamicCbsQueryService dynamicCbsQueryService;
 
+    /** Screened columns of the last client row schema seen. */
+    private volatile ScreenedColumns screenedColumns;
+
+    /**
+     * Indexes of the screened bkcli fields in a row schema (-1 when absent), resolved once per schema.
+     */
+    private record ScreenedColumns(RowBatch.Schema schema, int cli, int payn, int nat, int res, int resd, int viln) {
+        static ScreenedColumns of(RowBatch.Schema schema) {
+            return new ScreenedColumns(schema, schema.indexOf("cli"), schema.indexOf("payn"), schema.indexOf("nat"),
+                schema.indexOf("res"), schema.indexOf("resd"), schema.indexOf("viln"));
+        }
+    }
+
     /**
      * Screens all clients in the bkcli mirror table for US indicia.
      * Uses DynamicCbsQueryService for dictionary-driven pagination.
@@ -74,16 +93,23 @@ public class FatcaScreeningService {
         Map<String, String> agencyNameMap = loadAgencyNameMap();
 
         int offset = 0;
+        boolean keyset = dynamicCbsQueryService.supportsKeysetPagination(CLIENT_TABLE);
+        Map<String, Object> lastKey = null;
         boolean hasLimit = maxRecords > 0;
         while (!hasLimit || totalScanned < maxRecords) {
             int fetchSize = hasLimit ? Math.min(BATCH_SIZE, maxRecords - totalScanned) : BATCH_SIZE;
-            List<Map<String, Object>> batch = dynamicCbsQueryService.fetchFromCbs(CLIENT_TABLE, offset, fetchSize);
+            List<Map<String, Object>> batch = keyset
+                ? dynamicCbsQueryService.fetchFromCbsAfterKey(CLIENT_TABLE, lastKey, fetchSize)
+                : dynamicCbsQueryService.fetchFromCbs(CLIENT_TABLE, offset, fetchSize);
             if (batch.isEmpty()) break;
 
-            Set<String> batchClientIds = batch.stream()
-                .map(r -> getString(r, "cli"))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+            RowBatch rows = RowBatch.of(batch);
+            ScreenedColumns columns = screenedColumns(rows.schema());
+            Set<String> batchClientIds = new HashSet<>();
+            for (int row = 0; row < rows.size(); row++) {
+                String cli = getString(rows, row, columns.cli());
+                if (cli != null) batchClientIds.add(cli);
+            }
 
             Map<String, FatcaClient> existingFatcaMap = batchClientIds.isEmpty()
                 ? Collections.emptyMap()
@@ -92,13 +118,16 @@ public class FatcaScreeningService {
 
 
 
-            for (Map<String, Object> record : batch) {
+            for (int row = 0; row < rows.size(); row++) {
                 try {
-                    List<IndiciaMatch> matches = screenRecord(record);
+                    List<IndiciaMatch> matches = screen(getString(rows, row, columns.payn()),
+                        getString(rows, row, columns.nat()), getString(rows, row, columns.res()),
+                        getString(rows, row, columns.resd()), getString(rows, row, columns.viln()));
                     totalScanned++;
 
-                    String cli = getString(record, "cli");
+                    String cli = getString(rows, row, columns.cli());
                     if (!matches.isEmpty() && cli != null) {
+                        Map<String, Object> record = rows.row(row);
                         FatcaClient existing = existingFatcaMap.get(cli);
                         if (existing != null) {
                             if (self.updateExistingFatcaClient(existing, record, matches, agencyNameMap)) {
@@ -117,6 +146,9 @@ public class FatcaScreeningService {
 
             offset += fetchSize;
             if (batch.size() < fetchSize) break;
+            if (keyset) {
+                lastKey = dynamicCbsQueryService.extractKey(CLIENT_TABLE, batch.get(batch.size() - 1));
+            }
         }
 
         long elapsed = System.currentTimeMillis() - startTime;
@@ -130,33 +162,33 @@ public class FatcaScreeningService {
      * Evaluates a single CBS record against all US indicia rules.
      */
     public List<IndiciaMatch> screenRecord(Map<String, Object> record) {
+        return screen(getString(record, "payn"), getString(record, "nat"), getString(record, "res"),
+            getString(record, "resd"), getString(record, "viln"));
+    }
+
+    private List<IndiciaMatch> screen(String payn, String nat, String res, String resd, String viln) {
         List<IndiciaMatch> matches = new ArrayList<>();
 
-        String payn = getString(record, "payn");
         if (isUsCountryCode(payn)) {
             matches.add(new IndiciaMatch("BIRTH_COUNTRY", "payn", payn,
                 "Pays de naissance: " + payn));
         }
 
-        String nat = getString(record, "nat");
         if (isUsCountryCode(nat)) {
             matches.add(new IndiciaMatch("NATIONALITY", "nat", nat,
                 "Nationalité: " + nat));
         }
 
-        String res = getString(record, "res");
         if (isUsCountryCode(res)) {
             matches.add(new IndiciaMatch("RESIDENCE", "res", res,
                 "Pays de résidence: " + res));
         }
 
-        String resd = getString(record, "resd");
         if (isUsCountryCode(resd)) {
             matches.add(new IndiciaMatch("RESIDENCE_DETAIL", "resd", resd,
                 "Résidence détail: " + resd));
         }
 
-        String viln = getString(record, "viln");
         if (viln != null && isUsBirthPlace(viln)) {
             matches.add(new IndiciaMatch("BIRTH_PLACE", "viln", viln,
                 "Lieu de naissance US: " + viln));
@@ -170,18 +202,7 @@ public class FatcaScreeningService {
     }
 
     private boolean isUsBirthPlace(String birthPlace) {
-        if (birthPlace == null) return false;
-        String upper = birthPlace.trim().toUpperCase();
-        Set<String> usMarkers = Set.of(
-            "NEW YORK", "LOS ANGELES", "CHICAGO", "HOUSTON", "PHOENIX",
-            "PHILADELPHIA", "SAN ANTONIO", "SAN DIEGO", "DALLAS", "WASHINGTON DC",
-            "MIAMI", "ATLANTA", "BOSTON", "SEATTLE", "DETROIT", "DENVER",
-            "UNITED STATES", "USA", "U.S.A.", "ETATS-UNIS", "ETATS UNIS"
-        );
-        for (String marker : usMarkers) {
-            if (upper.contains(marker)) return true;
-        }
-        return false;
+        return birthPlace != null && US_BIRTH_PLACE_MARKERS.matches(birthPlace.trim());
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -292,12 +313,28 @@ public class FatcaScreeningService {
     }
 
     private String getString(Map<String, Object> record, String key) {
-        Object val = record.get(key);
+        return toText(record.get(key));
+    }
+
+    private static String getString(RowBatch rows, int row, int column) {
+        return column >= 0 ? toText(rows.value(row, column)) : null;
+    }
+
+    private static String toText(Object val) {
         if (val == null) return null;
         String s = val.toString().trim();
         return s.isEmpty() ? null : s;
     }
 
+    private ScreenedColumns screenedColumns(RowBatch.Schema schema) {
+        ScreenedColumns columns = screenedColumns;
+        if (columns == null || columns.schema() != schema) {
+            columns = ScreenedColumns.of(schema);
+            screenedColumns = columns;
+        }
+        return columns;
+    }
+
     private Map<String, String> loadAgencyNameMap() {
         return structureService.getAgencyNameMap();
     }
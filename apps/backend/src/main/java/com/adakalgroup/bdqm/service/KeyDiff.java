@@ -0,0 +1,159 @@
+package com.adakalgroup.bdqm.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Finds the mirror keys that are no longer in the CBS, from two key streams, without holding
+ * either key set in memory:
+ * <ul>
+ *   <li>merge: both streams sorted by key, walked side by side (exact).</li>
+ *   <li>bloom: CBS keys are first added to a Bloom filter, then each mirror key is tested. No sort
+ *   on either side; a false positive only means a deleted row is missed, never that a live row is
+ *   removed, and the random seed makes the next pass miss different rows.</li>
+ * </ul>
+ * Missing keys are collected up to a limit; past it the diff stops (see {@link TooManyMissingException}).
+ */
+class KeyDiff {
+
+    interface KeySource {
+        /** Next key, or null when exhausted. */
+        Object[] next();
+    }
+
+    interface KeyOrder {
+        int compare(Object[] a, Object[] b);
+    }
+
+    /**
+     * More missing keys than the configured limit, usually a sign of a wrong filter or an
+     * unreadable CBS table rather than real deletions.
+     */
+    static class TooManyMissingException extends RuntimeException {
+        TooManyMissingException(int limit) {
+            super("More than " + limit + " mirror rows missing from the CBS");
+        }
+    }
+
+    private final int maxMissing;
+    private final List<Object[]> missing = new ArrayList<>();
+
+    KeyDiff(int maxMissing) {
+        this.maxMissing = maxMissing;
+    }
+
+    List<Object[]> missing() {
+        return missing;
+    }
+
+    /**
+     * Sorted merge. Returns a consumer to feed with the mirror keys in order; a key out of order on
+     * either side throws, since the diff would no longer be reliable.
+     */
+    Consumer<Object[]> merge(KeySource cbs, KeyOrder order) {
+        return new Consumer<>() {
+            private Object[] cbsKey = cbs.next();
+            private Object[] previousMirror;
+
+            @Override
+            public void accept(Object[] mirrorKey) {
+                if (previousMirror != null && order.compare(previousMirror, mirrorKey) >= 0) {
+                    throw new IllegalStateException("Mirror keys out of order");
+                }
+                previousMirror = mirrorKey;
+                while (cbsKey != null && order.compare(cbsKey, mirrorKey) < 0) {
+                    Object[] next = cbs.next();
+                    if (next != null && order.compare(cbsKey, next) >= 0) {
+                        throw new IllegalStateException("CBS keys out of order");
+                    }
+                    cbsKey = next;
+                }
+                if (cbsKey == null || order.compare(cbsKey, mirrorKey) > 0) {
+                    addMissing(mirrorKey);
+                }
+            }
+        };
+    }
+
+    /**
+     * Bloom variant: loads every CBS key, then returns a consumer to feed with the mirror keys in any order.
+     *
+     * @param expectedKeys expected number of CBS keys, to size the filter
+     */
+    Consumer<Object[]> bloom(KeySource cbs, Function<Object[], String> keyString, long expectedKeys, double fpp) {
+        BloomFilter filter = new BloomFilter(expectedKeys, fpp);
+        Object[] key;
+        while ((key = cbs.next()) != null) {
+            filter.put(keyString.apply(key));
+        }
+        return mirrorKey -> {
+            if (!filter.mightContain(keyString.apply(mirrorKey))) {
+                addMissing(mirrorKey);
+            }
+        };
+    }
+
+    private void addMissing(Object[] key) {
+        if (missing.size() >= maxMissing) {
+            throw new TooManyMissingException(maxMissing);
+        }
+        missing.add(key);
+    }
+
+    /**
+     * Bit-array Bloom filter with k hash functions derived from two 64-bit hashes (Kirsch–Mitzenmacher).
+     */
+    static final class BloomFilter {
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final long seed = System.nanoTime();
+
+        BloomFilter(long expectedKeys, double fpp) {
+            long n = Math.max(1, expectedKeys);
+            long m = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, m);
+            this.bits = new long[(int) ((bitCount + 63) / 64)];
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        }
+
+        void put(String key) {
+            long h1 = hash(key, seed);
+            long h2 = hash(key, ~seed);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                bits[(int) (bit >>> 6)] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(String key) {
+            long h1 = hash(key, seed);
+            long h2 = hash(key, ~seed);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) return false;
+            }
+            return true;
+        }
+
+        /**
+         * 64-bit FNV-1a over the UTF-8 bytes, seeded, with a final avalanche mix.
+         */
+        private static long hash(String key, long seed) {
+            long h = 0xcbf29ce484222325L ^ seed;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                h ^= b;
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.adakalgroup.bdqm.service;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable Aho-Corasick automaton over a list of keywords, to find which of them a text contains
+ * in one pass over the text, whatever the number of keywords (forbidden patterns of rules, FATCA
+ * birth place markers). Keywords and texts are compared after {@link #normalize(String)}: case and
+ * accents are ignored.
+ */
+final class KeywordMatcher {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    /** Per node: transition characters, sorted, and their target nodes. */
+    private final char[][] labels;
+    private final int[][] targets;
+    private final int[] fail;
+    /** Per node: smallest index of a keyword ending here or at a suffix of this node, -1 if none. */
+    private final int[] output;
+
+    private KeywordMatcher(char[][] labels, int[][] targets, int[] fail, int[] output) {
+        this.labels = labels;
+        this.targets = targets;
+        this.fail = fail;
+        this.output = output;
+    }
+
+    /**
+     * Case and accent folding: "&Eacute;vry" and "EVRY" both give "evry".
+     */
+    static String normalize(String value) {
+        String text = value;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > 0x7F) {
+                text = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        return text.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+    }
+
+    static KeywordMatcher of(List<String> keywords) {
+        List<StringBuilder> nodeLabels = new ArrayList<>();
+        List<List<Integer>> nodeTargets = new ArrayList<>();
+        List<Integer> nodeOutput = new ArrayList<>();
+        nodeLabels.add(new StringBuilder());
+        nodeTargets.add(new ArrayList<>());
+        nodeOutput.add(-1);
+
+        for (int k = 0; k < keywords.size(); k++) {
+            String keyword = normalize(keywords.get(k));
+            int node = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                int at = nodeLabels.get(node).indexOf(String.valueOf(c));
+                if (at >= 0) {
+                    node = nodeTargets.get(node).get(at);
+                } else {
+                    int child = nodeLabels.size();
+                    nodeLabels.add(new StringBuilder());
+                    nodeTargets.add(new ArrayList<>());
+                    nodeOutput.add(-1);
+                    nodeLabels.get(node).append(c);
+                    nodeTargets.get(node).add(child);
+                    node = child;
+                }
+            }
+            if (nodeOutput.get(node) < 0) nodeOutput.set(node, k);
+        }
+
+        int size = nodeLabels.size();
+        char[][] labels = new char[size][];
+        int[][] targets = new int[size][];
+        for (int n = 0; n < size; n++) {
+            char[] chars = nodeLabels.get(n).toString().toCharArray();
+            List<Integer> children = nodeTargets.get(n);
+            Integer[] order = new Integer[chars.length];
+            for (int i = 0; i < order.length; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Character.compare(chars[a], chars[b]));
+            labels[n] = new char[chars.length];
+            targets[n] = new int[chars.length];
+            for (int i = 0; i < order.length; i++) {
+                labels[n][i] = chars[order[i]];
+                targets[n][i] = children.get(order[i]);
+            }
+        }
+
+        // Failure links, breadth first: the longest proper suffix of a node that is also a node
+        int[] fail = new int[size];
+        int[] output = nodeOutput.stream().mapToInt(Integer::intValue).toArray();
+        KeywordMatcher matcher = new KeywordMatcher(labels, targets, fail, output);
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) queue.add(child);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < labels[node].length; i++) {
+                int child = targets[node][i];
+                fail[child] = node == 0 ? 0 : matcher.next(fail[node], labels[node][i]);
+                if (output[fail[child]] >= 0 && (output[child] < 0 || output[fail[child]] < output[child])) {
+                    output[child] = output[fail[child]];
+                }
+                queue.add(child);
+            }
+        }
+        return matcher;
+    }
+
+    /**
+     * Index, in the list given to {@link #of(List)}, of the first keyword the text contains, -1 if none.
+     */
+    int firstMatch(String text) {
+        return scan(text, false);
+    }
+
+    boolean matches(String text) {
+        return scan(text, true) >= 0;
+    }
+
+    private int scan(String text, boolean any) {
+        int best = output[0];
+        if (best == 0 || (best > 0 && any)) return best;
+        String normalized = normalize(text);
+        int node = 0;
+        for (int i = 0; i < normalized.length(); i++) {
+            node = next(node, normalized.charAt(i));
+            int found = output[node];
+            if (found >= 0 && (best < 0 || found < best)) {
+                if (any || found == 0) return found;
+                best = found;
+            }
+        }
+        return best;
+    }
+
+    private int next(int node, char c) {
+        while (true) {
+            int at = Arrays.binarySearch(labels[node], c);
+            if (at >= 0) return targets[node][at];
+            if (node == 0) return 0;
+            node = fail[node];
+        }
+    }
+}
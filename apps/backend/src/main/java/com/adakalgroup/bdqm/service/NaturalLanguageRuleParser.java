@@ -7,8 +7,15 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiPredicate;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
 
 /**
  * Service for validating field values against natural language rule conditions.
@@ -18,14 +25,63 @@ import java.util.regex.Pattern;
 @Slf4j
 public class NaturalLanguageRuleParser {
 
+    private final SafeRegex safeRegex;
+
+    // Default failure messages, also used by SqlRuleTranslator
+    static final String MSG_REQUIRED = "Ce champ est obligatoire";
+    static final String MSG_MIN_LENGTH = "Doit contenir au moins %d caracteres";
+    static final String MSG_MAX_LENGTH = "Doit contenir au maximum %d caracteres";
+    static final String MSG_EXACT_LENGTH = "Doit contenir exactement %d caracteres";
+    static final String MSG_ALPHANUMERIC = "Doit contenir uniquement des lettres et chiffres";
+    static final String MSG_ALPHA_ONLY = "Doit contenir uniquement des lettres";
+    static final String MSG_NUMERIC_ONLY = "Doit contenir uniquement des chiffres";
+    static final String MSG_UPPERCASE = "Doit etre en majuscules";
+    static final String MSG_EMAIL = "Format email invalide";
+    static final String MSG_PHONE = "Format telephone invalide";
+    static final String MSG_PLACEHOLDER = "Ne peut pas etre compose uniquement de X";
+    static final String MSG_FORBIDDEN_PATTERN = "Ne peut pas contenir '%s'";
+    static final String MSG_FORBIDDEN_VALUE = "La valeur '%s' n'est pas autorisee";
+    static final String MSG_DATE_NOT_FUTURE = "La date ne peut pas etre dans le futur";
+    static final String MSG_DATE_NOT_EXPIRED = "La date est expiree";
+    static final String MSG_DATE_AFTER = "La date doit etre apres le %s";
+    static final String MSG_DATE_BEFORE = "La date doit etre avant le %s";
+    static final String MSG_STARTS_WITH = "Doit commencer par '%s'";
+    static final String MSG_ENDS_WITH = "Doit se terminer par '%s'";
+    static final String MSG_CONTAINS = "Doit contenir '%s'";
+    static final String MSG_IN_LIST = "Doit etre l'une des valeurs: %s";
+    static final String MSG_NOT_IN_LIST = "Cette valeur n'est pas autorisee";
+    static final String MSG_MIN_VALUE = "La valeur doit etre >= %s";
+    static final String MSG_MAX_VALUE = "La valeur doit etre <= %s";
+    static final String MSG_VALUE_RANGE = "La valeur doit etre entre %s et %s";
+    static final String MSG_CUSTOM_REGEX = "Format invalide";
+
     // Predefined patterns
-    private static final Pattern ALPHANUMERIC_PATTERN = Pattern.compile("^[A-Za-z0-9]+$");
-    private static final Pattern ALPHA_ONLY_PATTERN = Pattern.compile("^[A-Za-z\\s]+$");
-    private static final Pattern NUMERIC_ONLY_PATTERN = Pattern.compile("^[0-9]+$");
-    private static final Pattern UPPERCASE_PATTERN = Pattern.compile("^[A-Z0-9\\s]+$");
-    private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
-    private static final Pattern PHONE_PATTERN = Pattern.compile("^[+]?[0-9\\s\\-()]{8,20}$");
-    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("^[Xx]+$");
+    static final Pattern ALPHANUMERIC_PATTERN = Pattern.compile("^[A-Za-z0-9]+$");
+    static final Pattern ALPHA_ONLY_PATTERN = Pattern.compile("^[A-Za-z\\s]+$");
+    static final Pattern NUMERIC_ONLY_PATTERN = Pattern.compile("^[0-9]+$");
+    static final Pattern UPPERCASE_PATTERN = Pattern.compile("^[A-Z0-9\\s]+$");
+    static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
+    static final Pattern PHONE_PATTERN = Pattern.compile("^[+]?[0-9\\s\\-()]{8,20}$");
+    static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("^[Xx]+$");
+
+    public NaturalLanguageRuleParser(SafeRegex safeRegex) {
+        this.safeRegex = safeRegex;
+    }
+
+    /**
+     * Check the parameters of conditions before their rule is saved.
+     * Only custom regexes are checked (syntax and backtracking risk, see {@link SafeRegex#check(String)}):
+     * other invalid parameters are ignored at validation time.
+     *
+     * @throws IllegalArgumentException if a condition is refused
+     */
+    public void checkConditions(List<RuleCondition> conditions) {
+        for (RuleCondition condition : conditions) {
+            if (NaturalRuleType.CUSTOM_REGEX.getCode().equalsIgnoreCase(condition.getType())) {
+                safeRegex.check(condition.getStringValue());
+            }
+        }
+    }
 
     /**
      * Validate a field value against a single rule condition.
@@ -35,494 +91,376 @@ public class NaturalLanguageRuleParser {
      * @return ValidationResult with pass/fail status and message
      */
     public ValidationResult validate(Object value, RuleCondition condition) {
-        String strValue = normalizeString(value);
-        NaturalRuleType ruleType;
+        return compile(List.of(condition)).validate(value);
+    }
 
+    /**
+     * Validate a field value against all conditions in a list.
+     * Returns first failure or pass if all conditions pass.
+     * Parses the conditions on every call: use {@link #compile(List)} to validate many values.
+     */
+    public ValidationResult validateAll(Object value, List<RuleCondition> conditions) {
+        return compile(conditions).validate(value);
+    }
+
+    /**
+     * Compile conditions into checks with their parameters resolved once: thresholds and dates
+     * parsed, value lists turned into sets, regexes compiled and default messages formatted.
+     * A condition that can never fail (unknown type, missing or invalid parameter) is left out,
+     * with a warning here rather than on every value.
+     */
+    public CompiledConditions compile(List<RuleCondition> conditions) {
+        List<Check> checks = new ArrayList<>(conditions.size());
+        for (RuleCondition condition : conditions) {
+            Check check = compile(condition);
+            if (check == null) continue;
+            checks.add(condition.isOptional()
+                    ? (value, str) -> isBlank(str) ? null : check.test(value, str)
+                    : check);
+        }
+        return new CompiledConditions(List.copyOf(conditions), List.copyOf(checks));
+    }
+
+    /**
+     * Check of one condition: returns the failure message, or null if the value passes.
+     */
+    @FunctionalInterface
+    private interface Check {
+        String test(Object value, String str);
+    }
+
+    /**
+     * Immutable, thread-safe compiled form of a list of conditions (see {@link #compile(List)}).
+     */
+    public static final class CompiledConditions {
+        private final List<RuleCondition> conditions;
+        private final List<Check> checks;
+
+        private CompiledConditions(List<RuleCondition> conditions, List<Check> checks) {
+            this.conditions = conditions;
+            this.checks = checks;
+        }
+
+        /**
+         * Source conditions, in definition order.
+         */
+        public List<RuleCondition> conditions() {
+            return conditions;
+        }
+
+        /**
+         * First failure, or pass if every condition passes.
+         */
+        public ValidationResult validate(Object value) {
+            String str = normalizeString(value);
+            for (Check check : checks) {
+                String failure = check.test(value, str);
+                if (failure != null) {
+                    return ValidationResult.fail(failure);
+                }
+            }
+            return ValidationResult.pass();
+        }
+    }
+
+    private Check compile(RuleCondition condition) {
+        NaturalRuleType ruleType;
         try {
             ruleType = condition.getRuleType();
         } catch (IllegalArgumentException e) {
-            log.warn("Unknown rule type: {}", condition.getType());
-            return ValidationResult.pass();
+            ruleType = null;
         }
-
-        // Handle optional conditions - if value is empty and rule is optional, pass
-        if (condition.isOptional() && isBlank(strValue)) {
-            return ValidationResult.pass();
+        if (ruleType == null) {
+            log.warn("Unknown rule type: {}", condition.getType());
+            return null;
         }
+        String message = condition.getMessage();
 
         return switch (ruleType) {
             // Presence rules
-            case REQUIRED -> validateRequired(strValue, condition);
-            case OPTIONAL -> ValidationResult.pass();
+            case REQUIRED -> (value, str) -> isBlank(str) ? orDefault(message, MSG_REQUIRED) : null;
+            case OPTIONAL -> null;
 
             // Length rules
-            case MIN_LENGTH -> validateMinLength(strValue, condition);
-            case MAX_LENGTH -> validateMaxLength(strValue, condition);
-            case EXACT_LENGTH -> validateExactLength(strValue, condition);
+            case MIN_LENGTH -> lengthCheck(condition.getIntValue(), (len, min) -> len < min, message,
+                    MSG_MIN_LENGTH);
+            case MAX_LENGTH -> lengthCheck(condition.getIntValue(), (len, max) -> len > max, message,
+                    MSG_MAX_LENGTH);
+            case EXACT_LENGTH -> lengthCheck(condition.getIntValue(), (len, exact) -> len != exact, message,
+                    MSG_EXACT_LENGTH);
 
             // Pattern rules
-            case ALPHANUMERIC -> validatePattern(strValue, ALPHANUMERIC_PATTERN, condition,
-                    "Doit contenir uniquement des lettres et chiffres");
-            case ALPHA_ONLY -> validatePattern(strValue, ALPHA_ONLY_PATTERN, condition,
-                    "Doit contenir uniquement des lettres");
-            case NUMERIC_ONLY -> validatePattern(strValue, NUMERIC_ONLY_PATTERN, condition,
-                    "Doit contenir uniquement des chiffres");
-            case UPPERCASE -> validatePattern(strValue, UPPERCASE_PATTERN, condition,
-                    "Doit etre en majuscules");
-            case EMAIL -> validatePattern(strValue, EMAIL_PATTERN, condition,
-                    "Format email invalide");
-            case PHONE -> validatePattern(strValue, PHONE_PATTERN, condition,
-                    "Format telephone invalide");
+            case ALPHANUMERIC -> patternCheck(ALPHANUMERIC_PATTERN, message,
+                    MSG_ALPHANUMERIC);
+            case ALPHA_ONLY -> patternCheck(ALPHA_ONLY_PATTERN, message,
+                    MSG_ALPHA_ONLY);
+            case NUMERIC_ONLY -> patternCheck(NUMERIC_ONLY_PATTERN, message,
+                    MSG_NUMERIC_ONLY);
+            case UPPERCASE -> patternCheck(UPPERCASE_PATTERN, message,
+                    MSG_UPPERCASE);
+            case EMAIL -> patternCheck(EMAIL_PATTERN, message,
+                    MSG_EMAIL);
+            case PHONE -> patternCheck(PHONE_PATTERN, message,
+                    MSG_PHONE);
 
             // Forbidden values rules
-            case FORBIDDEN_PATTERNS -> validateForbiddenPatterns(strValue, condition);
-            case FORBIDDEN_VALUES -> validateForbiddenValues(strValue, condition);
-            case NOT_PLACEHOLDER -> validateNotPlaceholder(strValue, condition);
+            case FORBIDDEN_PATTERNS -> forbiddenPatternsCheck(condition.getValues(), message);
+            case FORBIDDEN_VALUES -> forbiddenValuesCheck(condition.getValues(), message);
+            case NOT_PLACEHOLDER -> patternCheck(PLACEHOLDER_PATTERN, message,
+                    MSG_PLACEHOLDER, false);
 
             // Date rules
-            case DATE_NOT_FUTURE -> validateDateNotFuture(value, condition);
-            case DATE_AFTER -> validateDateAfter(value, condition);
-            case DATE_BEFORE -> validateDateBefore(value, condition);
-            case DATE_RANGE -> validateDateRange(value, condition);
-            case DATE_NOT_EXPIRED -> validateDateNotExpired(value, condition);
+            case DATE_NOT_FUTURE -> dateCheck((date, today) -> date.isAfter(today), message,
+                    MSG_DATE_NOT_FUTURE);
+            case DATE_AFTER -> dateBoundCheck(condition.getStringValue(), true, message);
+            case DATE_BEFORE -> dateBoundCheck(condition.getStringValue(), false, message);
+            case DATE_RANGE -> dateRangeCheck(condition.getMinString(), condition.getMaxString(), message);
+            case DATE_NOT_EXPIRED -> dateCheck((date, today) -> date.isBefore(today), message,
+                    MSG_DATE_NOT_EXPIRED);
 
             // Prefix/Suffix rules
-            case STARTS_WITH -> validateStartsWith(strValue, condition);
-            case ENDS_WITH -> validateEndsWith(strValue, condition);
-            case CONTAINS -> validateContains(strValue, condition);
+            case STARTS_WITH -> textCheck(condition.getStringValue(), String::startsWith, message,
+                    MSG_STARTS_WITH);
+            case ENDS_WITH -> textCheck(condition.getStringValue(), String::endsWith, message,
+                    MSG_ENDS_WITH);
+            case CONTAINS -> textCheck(condition.getStringValue(), String::contains, message,
+                    MSG_CONTAINS);
 
             // List rules
-            case IN_LIST -> validateInList(strValue, condition);
-            case NOT_IN_LIST -> validateNotInList(strValue, condition);
+            case IN_LIST -> listCheck(condition.getValues(), true, message);
+            case NOT_IN_LIST -> listCheck(condition.getValues(), false, message);
 
             // Numeric rules
-            case MIN_VALUE -> validateMinValue(strValue, condition);
-            case MAX_VALUE -> validateMaxValue(strValue, condition);
-            case VALUE_RANGE -> validateValueRange(strValue, condition);
+            case MIN_VALUE -> numberCheck(condition.getIntValue(), true, message);
+            case MAX_VALUE -> numberCheck(condition.getIntValue(), false, message);
+            case VALUE_RANGE -> valueRangeCheck(condition.getMinInt(), condition.getMaxInt(), message);
 
             // Custom regex
-            case CUSTOM_REGEX -> validateCustomRegex(strValue, condition);
+            case CUSTOM_REGEX -> customRegexCheck(condition.getStringValue(), message);
         };
     }
 
-    /**
-     * Validate a field value against all conditions in a list.
-     * Returns first failure or pass if all conditions pass.
-     */
-    public ValidationResult validateAll(Object value, List<RuleCondition> conditions) {
-        for (RuleCondition condition : conditions) {
-            ValidationResult result = validate(value, condition);
-            if (!result.isValid()) {
-                return result;
-            }
-        }
-        return ValidationResult.pass();
-    }
-
-    // ===== PRESENCE VALIDATIONS =====
-
-    private ValidationResult validateRequired(String value, RuleCondition condition) {
-        if (isBlank(value)) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() : "Ce champ est obligatoire"
-            );
-        }
-        return ValidationResult.pass();
-    }
-
     // ===== LENGTH VALIDATIONS =====
 
-    private ValidationResult validateMinLength(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        Integer minLen = condition.getIntValue();
-        if (minLen == null) return ValidationResult.pass();
-
-        if (value.length() < minLen) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() :
-                            String.format("Doit contenir au moins %d caracteres", minLen)
-            );
-        }
-        return ValidationResult.pass();
-    }
-
-    private ValidationResult validateMaxLength(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        Integer maxLen = condition.getIntValue();
-        if (maxLen == null) return ValidationResult.pass();
-
-        if (value.length() > maxLen) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() :
-                            String.format("Doit contenir au maximum %d caracteres", maxLen)
-            );
-        }
-        return ValidationResult.pass();
-    }
-
-    private ValidationResult validateExactLength(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        Integer exactLen = condition.getIntValue();
-        if (exactLen == null) return ValidationResult.pass();
-
-        if (value.length() != exactLen) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() :
-                            String.format("Doit contenir exactement %d caracteres", exactLen)
-            );
-        }
-        return ValidationResult.pass();
+    private Check lengthCheck(Integer limit, BiPredicate<Integer, Integer> fails, String message, String format) {
+        if (limit == null) return null;
+        String failure = orDefault(message, String.format(format, limit));
+        return (value, str) -> !isBlank(str) && fails.test(str.length(), limit) ? failure : null;
     }
 
     // ===== PATTERN VALIDATIONS =====
 
-    private ValidationResult validatePattern(String value, Pattern pattern, RuleCondition condition, String defaultMessage) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        if (!pattern.matcher(value).matches()) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() : defaultMessage
-            );
-        }
-        return ValidationResult.pass();
+    private Check patternCheck(Pattern pattern, String message, String defaultMessage) {
+        return patternCheck(pattern, message, defaultMessage, true);
     }
 
-    private ValidationResult validateCustomRegex(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        String pattern = condition.getStringValue();
-        if (pattern == null) return ValidationResult.pass();
+    /**
+     * @param mustMatch true if the value must match the pattern, false if it must not
+     */
+    private Check patternCheck(Pattern pattern, String message, String defaultMessage, boolean mustMatch) {
+        String failure = orDefault(message, defaultMessage);
+        return (value, str) -> !isBlank(str) && pattern.matcher(str).matches() != mustMatch ? failure : null;
+    }
 
+    /**
+     * Custom regexes come from users: compiled through the shared cache and matched within a step
+     * budget. A value whose evaluation exceeds the budget fails the rule rather than blocking the batch.
+     */
+    private Check customRegexCheck(String regex, String message) {
+        if (regex == null) return null;
+        Pattern pattern;
         try {
-            if (!Pattern.matches(pattern, value)) {
-                return ValidationResult.fail(
-                        condition.getMessage() != null ? condition.getMessage() : "Format invalide"
-                );
-            }
-        } catch (Exception e) {
-            log.warn("Invalid regex pattern: {}", pattern);
+            pattern = safeRegex.compile(regex);
+        } catch (PatternSyntaxException e) {
+            log.warn("Invalid regex pattern: {}", regex);
+            return null;
         }
-        return ValidationResult.pass();
+        String failure = orDefault(message, MSG_CUSTOM_REGEX);
+        return (value, str) -> {
+            if (isBlank(str)) return null;
+            try {
+                return safeRegex.matches(pattern, str) ? null : failure;
+            } catch (SafeRegex.BudgetExceededException e) {
+                log.warn("{} on a value of {} characters, value rejected", e.getMessage(), str.length());
+                return failure;
+            }
+        };
     }
 
     // ===== FORBIDDEN VALUES VALIDATIONS =====
 
-    private ValidationResult validateForbiddenPatterns(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        List<String> patterns = condition.getValues();
-        if (patterns == null || patterns.isEmpty()) return ValidationResult.pass();
-
-        String upperValue = value.toUpperCase();
-        for (String pattern : patterns) {
-            if (upperValue.contains(pattern.toUpperCase())) {
-                return ValidationResult.fail(
-                        condition.getMessage() != null ? condition.getMessage() :
-                                String.format("Ne peut pas contenir '%s'", pattern)
-                );
-            }
-        }
-        return ValidationResult.pass();
+    private Check forbiddenPatternsCheck(List<String> patterns, String message) {
+        if (patterns == null || patterns.isEmpty()) return null;
+        KeywordMatcher matcher = KeywordMatcher.of(patterns);
+        String[] failures = patterns.stream()
+                .map(p -> orDefault(message, String.format(MSG_FORBIDDEN_PATTERN, p)))
+                .toArray(String[]::new);
+        return (value, str) -> {
+            if (isBlank(str)) return null;
+            int found = matcher.firstMatch(str);
+            return found < 0 ? null : failures[found];
+        };
     }
 
-    private ValidationResult validateForbiddenValues(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        List<String> forbiddenValues = condition.getValues();
-        if (forbiddenValues == null || forbiddenValues.isEmpty()) return ValidationResult.pass();
-
+    private Check forbiddenValuesCheck(List<String> forbiddenValues, String message) {
+        if (forbiddenValues == null || forbiddenValues.isEmpty()) return null;
+        // Folded value -> failure message of the first matching entry
+        Map<String, String> failures = new HashMap<>();
         for (String forbidden : forbiddenValues) {
-            if (value.equalsIgnoreCase(forbidden)) {
-                return ValidationResult.fail(
-                        condition.getMessage() != null ? condition.getMessage() :
-                                String.format("La valeur '%s' n'est pas autorisee", forbidden)
-                );
-            }
+            failures.putIfAbsent(fold(forbidden),
+                    orDefault(message, String.format(MSG_FORBIDDEN_VALUE, forbidden)));
         }
-        return ValidationResult.pass();
-    }
-
-    private ValidationResult validateNotPlaceholder(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        if (PLACEHOLDER_PATTERN.matcher(value).matches()) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() :
-                            "Ne peut pas etre compose uniquement de X"
-            );
-        }
-        return ValidationResult.pass();
+        return (value, str) -> isBlank(str) ? null : failures.get(fold(str));
     }
 
     // ===== DATE VALIDATIONS =====
 
-    private ValidationResult validateDateNotFuture(Object value, RuleCondition condition) {
-        LocalDate date = toLocalDate(value);
-        if (date == null) return ValidationResult.pass();
-
-        if (date.isAfter(LocalDate.now())) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() :
-                            "La date ne peut pas etre dans le futur"
-            );
-        }
-        return ValidationResult.pass();
+    private Check dateCheck(BiPredicate<LocalDate, LocalDate> fails, String message, String defaultMessage) {
+        String failure = orDefault(message, defaultMessage);
+        return (value, str) -> {
+            LocalDate date = toLocalDate(value);
+            return date != null && fails.test(date, LocalDate.now()) ? failure : null;
+        };
     }
 
-    private ValidationResult validateDateAfter(Object value, RuleCondition condition) {
-        LocalDate date = toLocalDate(value);
-        if (date == null) return ValidationResult.pass();
-
-        String minDateStr = condition.getStringValue();
-        if (minDateStr == null) return ValidationResult.pass();
-
-        try {
-            LocalDate minDate = LocalDate.parse(minDateStr);
-            if (date.isBefore(minDate)) {
-                return ValidationResult.fail(
-                        condition.getMessage() != null ? condition.getMessage() :
-                                String.format("La date doit etre apres le %s", minDateStr)
-                );
-            }
-        } catch (DateTimeParseException e) {
-            log.warn("Invalid date format in rule: {}", minDateStr);
-        }
-        return ValidationResult.pass();
+    /**
+     * @param after true for dateAfter (date must not be before the bound), false for dateBefore
+     */
+    private Check dateBoundCheck(String boundStr, boolean after, String message) {
+        LocalDate bound = parseRuleDate(boundStr);
+        if (bound == null) return null;
+        String failure = orDefault(message, String.format(after
+                ? MSG_DATE_AFTER : MSG_DATE_BEFORE, boundStr));
+        return (value, str) -> {
+            LocalDate date = toLocalDate(value);
+            if (date == null) return null;
+            return (after ? date.isBefore(bound) : date.isAfter(bound)) ? failure : null;
+        };
     }
 
-    private ValidationResult validateDateBefore(Object value, RuleCondition condition) {
-        LocalDate date = toLocalDate(value);
-        if (date == null) return ValidationResult.pass();
-
-        String maxDateStr = condition.getStringValue();
-        if (maxDateStr == null) return ValidationResult.pass();
-
+    private Check dateRangeCheck(String minDateStr, String maxDateStr, String message) {
+        LocalDate minDate = null;
+        LocalDate maxDate = null;
         try {
-            LocalDate maxDate = LocalDate.parse(maxDateStr);
-            if (date.isAfter(maxDate)) {
-                return ValidationResult.fail(
-                        condition.getMessage() != null ? condition.getMessage() :
-                                String.format("La date doit etre avant le %s", maxDateStr)
-                );
-            }
+            if (minDateStr != null) minDate = LocalDate.parse(minDateStr);
+            if (maxDateStr != null) maxDate = LocalDate.parse(maxDateStr);
         } catch (DateTimeParseException e) {
-            log.warn("Invalid date format in rule: {}", maxDateStr);
+            // A bound that cannot be parsed disables the bounds after it
+            log.warn("Invalid date format in rule: min={}, max={}", minDateStr, maxDateStr);
         }
-        return ValidationResult.pass();
+        if (minDate == null && maxDate == null) return null;
+        LocalDate min = minDate;
+        LocalDate max = maxDate;
+        String minFailure = orDefault(message, String.format(MSG_DATE_AFTER, minDateStr));
+        String maxFailure = orDefault(message, String.format(MSG_DATE_BEFORE, maxDateStr));
+        return (value, str) -> {
+            LocalDate date = toLocalDate(value);
+            if (date == null) return null;
+            if (min != null && date.isBefore(min)) return minFailure;
+            if (max != null && date.isAfter(max)) return maxFailure;
+            return null;
+        };
     }
 
-    private ValidationResult validateDateRange(Object value, RuleCondition condition) {
-        LocalDate date = toLocalDate(value);
-        if (date == null) return ValidationResult.pass();
-
-        String minDateStr = condition.getMinString();
-        String maxDateStr = condition.getMaxString();
-
+    private LocalDate parseRuleDate(String dateStr) {
+        if (dateStr == null) return null;
         try {
-            if (minDateStr != null) {
-                LocalDate minDate = LocalDate.parse(minDateStr);
-                if (date.isBefore(minDate)) {
-                    return ValidationResult.fail(
-                            condition.getMessage() != null ? condition.getMessage() :
-                                    String.format("La date doit etre apres le %s", minDateStr)
-                    );
-                }
-            }
-            if (maxDateStr != null) {
-                LocalDate maxDate = LocalDate.parse(maxDateStr);
-                if (date.isAfter(maxDate)) {
-                    return ValidationResult.fail(
-                            condition.getMessage() != null ? condition.getMessage() :
-                                    String.format("La date doit etre avant le %s", maxDateStr)
-                    );
-                }
-            }
+            return LocalDate.parse(dateStr);
         } catch (DateTimeParseException e) {
-            log.warn("Invalid date format in rule: min={}, max={}", minDateStr, maxDateStr);
-        }
-        return ValidationResult.pass();
-    }
-
-    private ValidationResult validateDateNotExpired(Object value, RuleCondition condition) {
-        LocalDate date = toLocalDate(value);
-        if (date == null) return ValidationResult.pass(); // No date = no expiry
-
-        if (date.isBefore(LocalDate.now())) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() :
-                            "La date est expiree"
-            );
+            log.warn("Invalid date format in rule: {}", dateStr);
+            return null;
         }
-        return ValidationResult.pass();
     }
 
     // ===== PREFIX/SUFFIX VALIDATIONS =====
 
-    private ValidationResult validateStartsWith(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        String prefix = condition.getStringValue();
-        if (prefix == null) return ValidationResult.pass();
-
-        if (!value.toUpperCase().startsWith(prefix.toUpperCase())) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() :
-                            String.format("Doit commencer par '%s'", prefix)
-            );
-        }
-        return ValidationResult.pass();
-    }
-
-    private ValidationResult validateEndsWith(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        String suffix = condition.getStringValue();
-        if (suffix == null) return ValidationResult.pass();
-
-        if (!value.toUpperCase().endsWith(suffix.toUpperCase())) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() :
-                            String.format("Doit se terminer par '%s'", suffix)
-            );
-        }
-        return ValidationResult.pass();
-    }
-
-    private ValidationResult validateContains(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        String substring = condition.getStringValue();
-        if (substring == null) return ValidationResult.pass();
-
-        if (!value.toUpperCase().contains(substring.toUpperCase())) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() :
-                            String.format("Doit contenir '%s'", substring)
-            );
-        }
-        return ValidationResult.pass();
+    private Check textCheck(String expected, BiPredicate<String, String> matches, String message, String format) {
+        if (expected == null) return null;
+        String foldedExpected = fold(expected);
+        String failure = orDefault(message, String.format(format, expected));
+        return (value, str) -> !isBlank(str) && !matches.test(fold(str), foldedExpected) ? failure : null;
     }
 
     // ===== LIST VALIDATIONS =====
 
-    private ValidationResult validateInList(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        List<String> allowedValues = condition.getValues();
-        if (allowedValues == null || allowedValues.isEmpty()) return ValidationResult.pass();
-
-        boolean found = allowedValues.stream()
-                .anyMatch(allowed -> allowed.equalsIgnoreCase(value));
-
-        if (!found) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() :
-                            String.format("Doit etre l'une des valeurs: %s", String.join(", ", allowedValues))
-            );
-        }
-        return ValidationResult.pass();
-    }
-
-    private ValidationResult validateNotInList(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        List<String> forbiddenValues = condition.getValues();
-        if (forbiddenValues == null || forbiddenValues.isEmpty()) return ValidationResult.pass();
-
-        boolean found = forbiddenValues.stream()
-                .anyMatch(forbidden -> forbidden.equalsIgnoreCase(value));
-
-        if (found) {
-            return ValidationResult.fail(
-                    condition.getMessage() != null ? condition.getMessage() :
-                            "Cette valeur n'est pas autorisee"
-            );
-        }
-        return ValidationResult.pass();
+    /**
+     * @param allowed true for inList (value must be in the list), false for notInList
+     */
+    private Check listCheck(List<String> values, boolean allowed, String message) {
+        if (values == null || values.isEmpty()) return null;
+        Set<String> folded = values.stream().map(NaturalLanguageRuleParser::fold).collect(Collectors.toUnmodifiableSet());
+        String failure = orDefault(message, allowed
+                ? String.format(MSG_IN_LIST, String.join(", ", values))
+                : MSG_NOT_IN_LIST);
+        return (value, str) -> !isBlank(str) && folded.contains(fold(str)) != allowed ? failure : null;
     }
 
     // ===== NUMERIC VALIDATIONS =====
 
-    private ValidationResult validateMinValue(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
-
-        try {
-            double numValue = Double.parseDouble(value);
-            Double minValue = condition.getIntValue() != null ? condition.getIntValue().doubleValue() : null;
-
-            if (minValue != null && numValue < minValue) {
-                return ValidationResult.fail(
-                        condition.getMessage() != null ? condition.getMessage() :
-                                String.format("La valeur doit etre >= %s", minValue)
-                );
-            }
-        } catch (NumberFormatException e) {
-            // Not a number, skip validation
-        }
-        return ValidationResult.pass();
+    /**
+     * @param min true for minValue (value must be &gt;= threshold), false for maxValue
+     */
+    private Check numberCheck(Integer threshold, boolean min, String message) {
+        if (threshold == null) return null;
+        double limit = threshold.doubleValue();
+        String failure = orDefault(message, String.format(min
+                ? MSG_MIN_VALUE : MSG_MAX_VALUE, limit));
+        return (value, str) -> {
+            Double number = parseNumber(str);
+            if (number == null) return null;
+            return (min ? number < limit : number > limit) ? failure : null;
+        };
     }
 
-    private ValidationResult validateMaxValue(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
+    private Check valueRangeCheck(Integer minValue, Integer maxValue, String message) {
+        if (minValue == null && maxValue == null) return null;
+        String failure = orDefault(message,
+                String.format(MSG_VALUE_RANGE, minValue, maxValue));
+        return (value, str) -> {
+            Double number = parseNumber(str);
+            if (number == null) return null;
+            if (minValue != null && number < minValue) return failure;
+            if (maxValue != null && number > maxValue) return failure;
+            return null;
+        };
+    }
 
+    /**
+     * Numeric value of a field, null if blank or not a number (numeric rules then pass).
+     */
+    private static Double parseNumber(String str) {
+        if (isBlank(str)) return null;
         try {
-            double numValue = Double.parseDouble(value);
-            Double maxValue = condition.getIntValue() != null ? condition.getIntValue().doubleValue() : null;
-
-            if (maxValue != null && numValue > maxValue) {
-                return ValidationResult.fail(
-                        condition.getMessage() != null ? condition.getMessage() :
-                                String.format("La valeur doit etre <= %s", maxValue)
-                );
-            }
+            return Double.parseDouble(str);
         } catch (NumberFormatException e) {
-            // Not a number, skip validation
+            return null;
         }
-        return ValidationResult.pass();
     }
 
-    private ValidationResult validateValueRange(String value, RuleCondition condition) {
-        if (isBlank(value)) return ValidationResult.pass();
+    // ===== HELPER METHODS =====
 
-        try {
-            double numValue = Double.parseDouble(value);
-            Integer minValue = condition.getMinInt();
-            Integer maxValue = condition.getMaxInt();
-
-            if (minValue != null && numValue < minValue) {
-                return ValidationResult.fail(
-                        condition.getMessage() != null ? condition.getMessage() :
-                                String.format("La valeur doit etre entre %s et %s", minValue, maxValue)
-                );
-            }
-            if (maxValue != null && numValue > maxValue) {
-                return ValidationResult.fail(
-                        condition.getMessage() != null ? condition.getMessage() :
-                                String.format("La valeur doit etre entre %s et %s", minValue, maxValue)
-                );
-            }
-        } catch (NumberFormatException e) {
-            // Not a number, skip validation
-        }
-        return ValidationResult.pass();
+    private static String orDefault(String message, String defaultMessage) {
+        return message != null ? message : defaultMessage;
     }
 
-    // ===== HELPER METHODS =====
+    /**
+     * Case and accent folding, for set lookups and text comparisons (see KeywordMatcher#normalize).
+     */
+    private static String fold(String value) {
+        return KeywordMatcher.normalize(value);
+    }
 
-    private String normalizeString(Object value) {
+    private static String normalizeString(Object value) {
         if (value == null) return null;
         String str = value.toString().trim();
         return str.isEmpty() ? null : str;
     }
 
-    private boolean isBlank(String value) {
+    private static boolean isBlank(String value) {
         return value == null || value.isBlank();
     }
 
-    private LocalDate toLocalDate(Object value) {
+    private static LocalDate toLocalDate(Object value) {
         if (value == null) return null;
         if (value instanceof LocalDate localDate) return localDate;
         if (value instanceof java.sql.Date sqlDate) return sqlDate.toLocalDate();
@@ -25,14 +25,17 @@ import java.util.Optional;
 public class NomenclatureSyncService {
 
     private final JdbcTemplate informixJdbcTemplate;
+    private final CbsLoadThrottle cbsLoadThrottle;
     private final NomenclatureTypeRepository nomenclatureTypeRepository;
     private final NomenclatureEntryRepository nomenclatureEntryRepository;
 
     public NomenclatureSyncService(
             @Qualifier("informixJdbcTemplate") JdbcTemplate informixJdbcTemplate,
+            CbsLoadThrottle cbsLoadThrottle,
             NomenclatureTypeRepository nomenclatureTypeRepository,
             NomenclatureEntryRepository nomenclatureEntryRepository) {
         this.informixJdbcTemplate = informixJdbcTemplate;
+        this.cbsLoadThrottle = cbsLoadThrottle;
         this.nomenclatureTypeRepository = nomenclatureTypeRepository;
         this.nomenclatureEntryRepository = nomenclatureEntryRepository;
     }
@@ -78,7 +81,8 @@ public class NomenclatureSyncService {
         String sql = "SELECT ctab, cacc, age, lib1, lib2, lib3, lib4, lib5, " +
                      "mnt1, mnt2, mnt3, mnt4, mnt5, mnt6, mnt7, mnt8, " +
                      "tau1, tau2, tau3, tau4, tau5 FROM bknom WHERE ctab = ?";
-        List<Map<String, Object>> rows = informixJdbcTemplate.queryForList(sql, ctab);
+        List<Map<String, Object>> rows = cbsLoadThrottle.call(() -> informixJdbcTemplate.queryForList(sql, ctab));
+        cbsLoadThrottle.acquireRows(rows.size());
 
         for (Map<String, Object> row : rows) {
             try {
@@ -154,7 +158,9 @@ public class NomenclatureSyncService {
     public List<Map<String, Object>> discoverNomenclatureTypes() {
         String sql = "SELECT DISTINCT ctab, FIRST 1 lib1 as sample_label, COUNT(*) as entry_count " +
                      "FROM bknom GROUP BY ctab ORDER BY ctab";
-        return informixJdbcTemplate.queryForList(sql);
+        List<Map<String, Object>> rows = cbsLoadThrottle.call(() -> informixJdbcTemplate.queryForList(sql));
+        cbsLoadThrottle.acquireRows(rows.size());
+        return rows;
     }
 
     private String getStringValue(Map<String, Object> row, String key) {
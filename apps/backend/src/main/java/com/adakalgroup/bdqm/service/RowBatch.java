@@ -0,0 +1,429 @@
+package com.adakalgroup.bdqm.service;
+
+import java.util.*;
+
+/**
+ * Column-oriented batch of CBS rows.
+ * <p>
+ * Values are stored per column: INTEGER / SMALLINT in an int array (a SMALLINT fetched as Short reads
+ * back as Integer), CHAR / VARCHAR dictionary-encoded
+ * (repeated codes, branch ids, types... are kept once per batch), everything else as objects.
+ * The column index is resolved once per table ({@link Schema}), so a row costs no map, entry or
+ * key string. A column whose values do not fit its typed storage (unexpected JDBC type, too many
+ * distinct strings) falls back to plain object storage.
+ * <p>
+ * {@link #rows()} exposes the batch as read-only Map views for code written against
+ * {@code Map<String, Object>} records; hot paths read by column index instead.
+ */
+public final class RowBatch {
+
+    enum Kind { INT, STRING, OBJECT }
+
+    /**
+     * Column names (lower-case) and storage kinds of a table, shared by all its batches.
+     */
+    public static final class Schema {
+        private final List<String> columns;
+        private final Map<String, Integer> index;
+        private final Kind[] kinds;
+
+        Schema(List<String> columns, List<Kind> kinds) {
+            this.columns = List.copyOf(columns);
+            this.kinds = kinds.toArray(new Kind[0]);
+            Map<String, Integer> idx = new HashMap<>();
+            for (int i = 0; i < this.columns.size(); i++) {
+                idx.putIfAbsent(this.columns.get(i), i);
+            }
+            this.index = Map.copyOf(idx);
+        }
+
+        /**
+         * Schema without type hints, every column stored as objects.
+         */
+        static Schema untyped(List<String> columns) {
+            return new Schema(columns, Collections.nCopies(columns.size(), Kind.OBJECT));
+        }
+
+        public List<String> columns() {
+            return columns;
+        }
+
+        public int size() {
+            return columns.size();
+        }
+
+        /**
+         * Index of a lower-case column name, -1 if absent.
+         */
+        public int indexOf(String column) {
+            Integer i = index.get(column);
+            return i != null ? i : -1;
+        }
+
+        boolean matches(List<String> names) {
+            if (names.size() != columns.size()) return false;
+            for (int i = 0; i < names.size(); i++) {
+                if (!names.get(i).equalsIgnoreCase(columns.get(i))) return false;
+            }
+            return true;
+        }
+    }
+
+    private final Schema schema;
+    private final Column[] columns;
+    private int size;
+    private int capacity;
+    private Row[] views;
+
+    public RowBatch(Schema schema, int expectedRows) {
+        this.schema = schema;
+        this.capacity = Math.max(16, expectedRows);
+        this.columns = new Column[schema.size()];
+        for (int c = 0; c < columns.length; c++) {
+            columns[c] = switch (schema.kinds[c]) {
+                case INT -> new IntColumn(capacity);
+                case STRING -> new StringColumn(capacity);
+                case OBJECT -> new ObjectColumn(capacity);
+            };
+        }
+    }
+
+    /**
+     * Batch of the given records: their own batch when they are all its rows in order (the records of a
+     * cursor batch), a copy by column index when they are rows sharing a schema (part of a batch),
+     * a copy under an untyped schema of their keys otherwise.
+     */
+    public static RowBatch of(List<? extends Map<String, Object>> records) {
+        if (records instanceof RowBatch.RowList list) {
+            return list.batch();
+        }
+        Schema shared = !records.isEmpty() && records.get(0) instanceof Row first ? first.schema() : null;
+        for (Map<String, Object> record : records) {
+            if (!(record instanceof Row row) || row.schema() != shared) {
+                shared = null;
+                break;
+            }
+        }
+        if (shared != null) {
+            RowBatch batch = new RowBatch(shared, records.size());
+            for (Map<String, Object> record : records) {
+                Row source = (Row) record;
+                int row = batch.addRow();
+                for (int c = 0; c < shared.size(); c++) {
+                    batch.set(row, c, source.get(c));
+                }
+            }
+            return batch;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        records.forEach(record -> names.addAll(record.keySet()));
+        RowBatch batch = new RowBatch(Schema.untyped(List.copyOf(names)), records.size());
+        for (Map<String, Object> record : records) {
+            int row = batch.addRow();
+            int c = 0;
+            for (String name : names) {
+                batch.set(row, c++, record.get(name));
+            }
+        }
+        return batch;
+    }
+
+    public Schema schema() {
+        return schema;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Append an empty row (all nulls) and return its index.
+     */
+    public int addRow() {
+        if (size == capacity) {
+            capacity *= 2;
+            for (Column column : columns) column.grow(capacity);
+        }
+        return size++;
+    }
+
+    public void set(int row, int column, Object value) {
+        if (!columns[column].set(row, value)) {
+            columns[column] = columns[column].toObjects(capacity, size);
+            columns[column].set(row, value);
+        }
+    }
+
+    public Object value(int row, int column) {
+        return columns[column].get(row);
+    }
+
+    /**
+     * Storage currently used by a column: its schema kind, or OBJECT after a fallback.
+     */
+    Kind storage(int column) {
+        return columns[column].kind();
+    }
+
+    /**
+     * Read-only Map view of every row, in order. Views are created on first access and reused.
+     */
+    public List<Map<String, Object>> rows() {
+        return new RowList();
+    }
+
+    /**
+     * Read-only Map view of one row, see {@link #rows()}.
+     */
+    public Row row(int index) {
+        Objects.checkIndex(index, size);
+        return view(index);
+    }
+
+    private Row view(int row) {
+        if (views == null || views.length < size) views = views == null ? new Row[size] : Arrays.copyOf(views, size);
+        Row view = views[row];
+        if (view == null) {
+            view = new Row(this, row);
+            views[row] = view;
+        }
+        return view;
+    }
+
+    private final class RowList extends AbstractList<Map<String, Object>> implements RandomAccess {
+        @Override
+        public Map<String, Object> get(int index) {
+            return row(index);
+        }
+
+        RowBatch batch() {
+            return RowBatch.this;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * One row of a batch, seen as an immutable map keyed by lower-case column name.
+     */
+    public static final class Row extends AbstractMap<String, Object> {
+        private final RowBatch batch;
+        private final int row;
+
+        private Row(RowBatch batch, int row) {
+            this.batch = batch;
+            this.row = row;
+        }
+
+        public Schema schema() {
+            return batch.schema;
+        }
+
+        /**
+         * Value by column index, see {@link Schema#indexOf(String)}.
+         */
+        public Object get(int column) {
+            return batch.value(row, column);
+        }
+
+        @Override
+        public Object get(Object key) {
+            int column = key instanceof String s ? batch.schema.indexOf(s) : -1;
+            return column >= 0 ? batch.value(row, column) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String s && batch.schema.indexOf(s) >= 0;
+        }
+
+        @Override
+        public int size() {
+            return batch.schema.size();
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new Iterator<>() {
+                        private int column;
+
+                        @Override
+                        public boolean hasNext() {
+                            return column < batch.schema.size();
+                        }
+
+                        @Override
+                        public Entry<String, Object> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            int c = column++;
+                            return new SimpleImmutableEntry<>(batch.schema.columns.get(c), batch.value(row, c));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return batch.schema.size();
+                }
+            };
+        }
+    }
+
+    // ===== Column storage =====
+
+    private abstract static class Column {
+        /**
+         * Store a value; false if this storage cannot hold it.
+         */
+        abstract boolean set(int row, Object value);
+
+        abstract Object get(int row);
+
+        abstract void grow(int capacity);
+
+        abstract Kind kind();
+
+        Column toObjects(int capacity, int rows) {
+            ObjectColumn objects = new ObjectColumn(capacity);
+            for (int r = 0; r < rows; r++) {
+                objects.values[r] = get(r);
+            }
+            return objects;
+        }
+    }
+
+    private static final class ObjectColumn extends Column {
+        private Object[] values;
+
+        ObjectColumn(int capacity) {
+            this.values = new Object[capacity];
+        }
+
+        @Override
+        boolean set(int row, Object value) {
+            values[row] = value;
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        Kind kind() {
+            return Kind.OBJECT;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static final class IntColumn extends Column {
+        private int[] values;
+        private final BitSet present = new BitSet();
+
+        IntColumn(int capacity) {
+            this.values = new int[capacity];
+        }
+
+        @Override
+        boolean set(int row, Object value) {
+            if (value == null) {
+                present.clear(row);
+                return true;
+            }
+            if (value instanceof Integer i) {
+                values[row] = i;
+            } else if (value instanceof Short || value instanceof Byte) {
+                values[row] = ((Number) value).intValue();
+            } else {
+                return false;
+            }
+            present.set(row);
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            return present.get(row) ? Integer.valueOf(values[row]) : null;
+        }
+
+        @Override
+        Kind kind() {
+            return Kind.INT;
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    /**
+     * Dictionary-encoded strings. Gives up (falls back to objects) once more than half of the rows
+     * hold distinct values, where the dictionary would only add overhead.
+     */
+    private static final class StringColumn extends Column {
+        private static final int MIN_ROWS_BEFORE_FALLBACK = 64;
+
+        private int[] codes;
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> lookup = new HashMap<>();
+        private int rows;
+
+        StringColumn(int capacity) {
+            this.codes = new int[capacity];
+            Arrays.fill(codes, -1);
+        }
+
+        @Override
+        boolean set(int row, Object value) {
+            if (value != null && !(value instanceof String)) return false;
+            if (value == null) {
+                codes[row] = -1;
+            } else {
+                Integer code = lookup.get(value);
+                if (code == null) {
+                    if (rows >= MIN_ROWS_BEFORE_FALLBACK && dictionary.size() * 2 > rows) return false;
+                    code = dictionary.size();
+                    dictionary.add((String) value);
+                    lookup.put((String) value, code);
+                }
+                codes[row] = code;
+            }
+            rows = Math.max(rows, row + 1);
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            int code = codes[row];
+            return code < 0 ? null : dictionary.get(code);
+        }
+
+        @Override
+        Kind kind() {
+            return Kind.STRING;
+        }
+
+        @Override
+        void grow(int capacity) {
+            int previous = codes.length;
+            codes = Arrays.copyOf(codes, capacity);
+            Arrays.fill(codes, previous, capacity, -1);
+        }
+    }
+}
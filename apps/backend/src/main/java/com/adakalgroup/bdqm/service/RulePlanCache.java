@@ -0,0 +1,134 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.model.ValidationRule;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled conditions of each validation rule (see NaturalLanguageRuleParser#compile), so the JSON
+ * rule definition is parsed once per rule version instead of once per validated value.
+ * Plans are keyed by rule id and checked against the rule's updated_at and definition on every
+ * lookup: a rule changed on another replica, or not yet flushed, is compiled again. Rules without
+ * an id (not saved yet) are compiled without caching.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class RulePlanCache {
+
+    private final NaturalLanguageRuleParser ruleParser;
+
+    private final Map<Long, RulePlan> plans = new ConcurrentHashMap<>();
+
+    /**
+     * Compiled form of one version of a rule.
+     */
+    public static final class RulePlan {
+        private final Long ruleId;
+        private final LocalDateTime version;
+        private final String definition;
+        private final String fieldKey;
+        private final NaturalLanguageRuleParser.CompiledConditions conditions;
+        /** Column of the field in the last row schema seen, see {@link #columnIndex}. */
+        private volatile FieldColumn column;
+
+        private record FieldColumn(RowBatch.Schema schema, int index) {}
+
+        /**
+         * @param fieldKey   lower-case field name, as the key of CBS records
+         * @param conditions compiled conditions, empty if the definition is missing or invalid
+         */
+        RulePlan(Long ruleId, LocalDateTime version, String definition, String fieldKey,
+                 NaturalLanguageRuleParser.CompiledConditions conditions) {
+            this.ruleId = ruleId;
+            this.version = version;
+            this.definition = definition;
+            this.fieldKey = fieldKey;
+            this.conditions = conditions;
+        }
+
+        public Long ruleId() {
+            return ruleId;
+        }
+
+        public LocalDateTime version() {
+            return version;
+        }
+
+        public String definition() {
+            return definition;
+        }
+
+        public String fieldKey() {
+            return fieldKey;
+        }
+
+        public NaturalLanguageRuleParser.CompiledConditions conditions() {
+            return conditions;
+        }
+
+        public boolean isEmpty() {
+            return conditions.conditions().isEmpty();
+        }
+
+        public NaturalLanguageRuleParser.ValidationResult validate(Object value) {
+            return conditions.validate(value);
+        }
+
+        /**
+         * Index of the rule's field in a row schema, -1 if the rows do not have it. Resolved once per
+         * schema: a table's batches share one schema until its dictionary changes.
+         */
+        public int columnIndex(RowBatch.Schema schema) {
+            FieldColumn resolved = column;
+            if (resolved == null || resolved.schema() != schema) {
+                resolved = new FieldColumn(schema, schema.indexOf(fieldKey));
+                column = resolved;
+            }
+            return resolved.index();
+        }
+
+        boolean isCurrent(ValidationRule rule) {
+            return Objects.equals(version, rule.getUpdatedAt())
+                    && Objects.equals(definition, rule.getRuleDefinition())
+                    && fieldKey.equals(fieldKeyOf(rule));
+        }
+    }
+
+    public RulePlan get(ValidationRule rule) {
+        if (rule.getId() == null) {
+            return compile(rule);
+        }
+        RulePlan plan = plans.get(rule.getId());
+        if (plan == null || !plan.isCurrent(rule)) {
+            plan = compile(rule);
+            plans.put(rule.getId(), plan);
+        }
+        return plan;
+    }
+
+    /**
+     * Drop the plan of an updated or deleted rule.
+     */
+    public void evict(Long ruleId) {
+        if (ruleId != null) {
+            plans.remove(ruleId);
+        }
+    }
+
+    private RulePlan compile(ValidationRule rule) {
+        log.debug("Compiling rule {} '{}' (version {})", rule.getId(), rule.getRuleName(), rule.getUpdatedAt());
+        return new RulePlan(rule.getId(), rule.getUpdatedAt(), rule.getRuleDefinition(), fieldKeyOf(rule),
+                ruleParser.compile(rule.parseRuleConditions()));
+    }
+
+    private static String fieldKeyOf(ValidationRule rule) {
+        return rule.getFieldName() != null ? rule.getFieldName().toLowerCase() : "";
+    }
+}
@@ -0,0 +1,393 @@
+package com.adakalgroup.bdqm.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Regular expressions entered by users (customRegex rule conditions).
+ * <ul>
+ *   <li>patterns are compiled once and shared, in a cache bounded to cache-size entries,</li>
+ *   <li>{@link #check(String)} rejects, when a rule is saved, patterns prone to exponential
+ *   backtracking: a repeated group that itself contains a repetition, as in {@code (a+)+} or
+ *   {@code (\w*\s?)*} (unless a mandatory literal delimits it, as the dot of {@code ([a-z]+\.)+}),
+ *   or a repeated alternation whose branches overlap, as in {@code (a|ab)*},</li>
+ *   <li>{@link #matches(Pattern, String)} gives every evaluation a budget of max-steps character
+ *   reads, so a pattern that slipped through (or was saved before this check) fails one value
+ *   instead of pinning a sync thread.</li>
+ * </ul>
+ */
+@Component
+public class SafeRegex {
+
+    private final Cache<String, Pattern> patterns;
+    private final int maxLength;
+    private final long maxSteps;
+
+    public SafeRegex(@Value("${app.validation.regex.cache-size:500}") int cacheSize,
+                     @Value("${app.validation.regex.max-length:500}") int maxLength,
+                     @Value("${app.validation.regex.max-steps:100000}") long maxSteps) {
+        this.patterns = Caffeine.newBuilder().maximumSize(cacheSize).build();
+        this.maxLength = maxLength;
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Thrown by {@link #matches(Pattern, String)} when an evaluation runs out of budget.
+     */
+    public static class BudgetExceededException extends RuntimeException {
+        BudgetExceededException(String pattern, long steps) {
+            super("Regex " + pattern + " exceeded its budget of " + steps + " steps");
+        }
+    }
+
+    /**
+     * Compiled pattern, from the cache when possible.
+     *
+     * @throws PatternSyntaxException if the pattern is invalid
+     */
+    public Pattern compile(String regex) {
+        return patterns.get(regex, Pattern::compile);
+    }
+
+    /**
+     * Check a pattern before it is saved: length, syntax and backtracking risk.
+     *
+     * @throws IllegalArgumentException with the reason if the pattern is refused
+     */
+    public void check(String regex) {
+        if (regex == null || regex.isEmpty()) {
+            throw new IllegalArgumentException("Regular expression is empty");
+        }
+        if (regex.length() > maxLength) {
+            throw new IllegalArgumentException("Regular expression is longer than " + maxLength + " characters");
+        }
+        try {
+            compile(regex);
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("Invalid regular expression: " + e.getDescription(), e);
+        }
+        String risk = backtrackingRisk(regex);
+        if (risk != null) {
+            throw new IllegalArgumentException("Regular expression '" + regex + "' may take exponential time (" + risk
+                    + "); use an atomic group (?>...) or a possessive quantifier (*+, ++) instead");
+        }
+    }
+
+    /**
+     * Whole-value match within the step budget.
+     *
+     * @throws BudgetExceededException if the match reads more than max-steps characters
+     */
+    public boolean matches(Pattern pattern, String input) {
+        return pattern.matcher(new BudgetedSequence(input, maxSteps, pattern.pattern())).matches();
+    }
+
+    /**
+     * Input that counts the characters the matcher reads. Backtracking re-reads the same characters,
+     * so the count bounds the work of one evaluation.
+     */
+    private static final class BudgetedSequence implements CharSequence {
+        private final String text;
+        private final int offset;
+        private final int length;
+        private final long[] steps;
+        private final long maxSteps;
+        private final String pattern;
+
+        BudgetedSequence(String text, long maxSteps, String pattern) {
+            this(text, 0, text.length(), new long[1], maxSteps, pattern);
+        }
+
+        private BudgetedSequence(String text, int offset, int length, long[] steps, long maxSteps, String pattern) {
+            this.text = text;
+            this.offset = offset;
+            this.length = length;
+            this.steps = steps;
+            this.maxSteps = maxSteps;
+            this.pattern = pattern;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (++steps[0] > maxSteps) {
+                throw new BudgetExceededException(pattern, maxSteps);
+            }
+            return text.charAt(offset + index);
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new BudgetedSequence(text, offset + start, end - start, steps, maxSteps, pattern);
+        }
+
+        @Override
+        public String toString() {
+            return text.substring(offset, offset + length);
+        }
+    }
+
+    // ===== Backtracking analysis =====
+
+    /**
+     * One open group while scanning a pattern.
+     */
+    private static final class Group {
+        /** Atomic or lookaround group: no backtracking into it from outside. */
+        private final boolean atomic;
+        /** Index of the opening parenthesis. */
+        private final int open;
+        private final List<Integer> branchStarts = new ArrayList<>();
+        /** Source of the atoms repeated a variable number of times inside the group, null for a sub-group. */
+        private final List<String> repeatedAtoms = new ArrayList<>();
+        /** Literal characters every match of the group contains. */
+        private final List<Character> separators = new ArrayList<>();
+
+        Group(boolean atomic, int open, int start) {
+            this.atomic = atomic;
+            this.open = open;
+            this.branchStarts.add(start);
+        }
+
+        /**
+         * True if an iteration of the group can be split in several ways, i.e. no mandatory literal
+         * (such as the dot of ([a-z]+\.)+) delimits the repeated atoms.
+         */
+        boolean ambiguous() {
+            if (repeatedAtoms.isEmpty()) return false;
+            if (branchStarts.size() > 1 || repeatedAtoms.contains(null)) return true;
+            for (char separator : separators) {
+                String text = String.valueOf(separator);
+                if (repeatedAtoms.stream().noneMatch(atom -> canMatch(atom, text))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean canMatch(String atom, String text) {
+            try {
+                return Pattern.compile(atom).matcher(text).matches();
+            } catch (PatternSyntaxException e) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reason the pattern risks exponential backtracking, null if none was found. A heuristic: it finds the
+     * usual shapes (nested repetition, overlapping repeated alternation), the step budget covers the rest.
+     */
+    static String backtrackingRisk(String regex) {
+        Deque<Group> groups = new ArrayDeque<>();
+        groups.push(new Group(false, 0, 0));
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            if (c == '(') {
+                boolean atomic = regex.startsWith("(?>", i) || regex.startsWith("(?=", i)
+                        || regex.startsWith("(?!", i) || regex.startsWith("(?<=", i) || regex.startsWith("(?<!", i);
+                int bodyStart = i + 1;
+                if (regex.startsWith("(?", i)) {
+                    // Skip the group construct: (?:, (?>, (?<name>, (?i) ...
+                    int colon = regex.indexOf(':', i);
+                    int close = regex.indexOf(')', i);
+                    if (regex.startsWith("(?<", i) && !regex.startsWith("(?<=", i) && !regex.startsWith("(?<!", i)) {
+                        bodyStart = regex.indexOf('>', i) + 1;
+                    } else if (atomic) {
+                        bodyStart = i + (regex.startsWith("(?<", i) ? 4 : 3);
+                    } else if (colon >= 0 && (close < 0 || colon < close)) {
+                        bodyStart = colon + 1;
+                    } else {
+                        // Inline flags (?i): not a group
+                        i = close < 0 ? regex.length() : close + 1;
+                        continue;
+                    }
+                }
+                groups.push(new Group(atomic, i, bodyStart));
+                i = bodyStart;
+            } else if (c == ')') {
+                Group group = groups.size() > 1 ? groups.pop() : new Group(false, i, i);
+                int next = i + 1;
+                Quantifier q = Quantifier.at(regex, next);
+                boolean backtracks = q != null && !q.possessive() && !group.atomic;
+                if (backtracks && q.repeats()) {
+                    if (group.ambiguous()) {
+                        return "nested repetition in " + regex.substring(group.open, next + q.length());
+                    }
+                    String overlap = overlappingBranches(regex, group, i);
+                    if (overlap != null) {
+                        return "repeated alternation with overlapping branches " + overlap;
+                    }
+                }
+                Group parent = groups.peek();
+                if (backtracks && q.variable()) {
+                    parent.repeatedAtoms.add(null);
+                } else if (!group.atomic) {
+                    parent.repeatedAtoms.addAll(group.repeatedAtoms);
+                }
+                i = next + (q != null ? q.length() : 0);
+            } else if (c == '|') {
+                groups.peek().branchStarts.add(i + 1);
+                i++;
+            } else {
+                int end = c == '\\' ? skipEscape(regex, i) : c == '[' ? skipClass(regex, i) : i + 1;
+                Character literal = literalAt(regex, i, end);
+                i = afterAtom(regex, regex.substring(i, end), literal, end, groups.peek());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Record an atom on the enclosing group, with its quantifier if any.
+     *
+     * @param literal the character the atom stands for, null if it is a class, a wildcard or an anchor
+     * @return index after the quantifier
+     */
+    private static int afterAtom(String regex, String atom, Character literal, int i, Group group) {
+        Quantifier q = Quantifier.at(regex, i);
+        if (q == null || q.min() >= 1) {
+            if (literal != null) group.separators.add(literal);
+        }
+        if (q == null) return i;
+        if (q.variable() && !q.possessive()) group.repeatedAtoms.add(atom);
+        return i + q.length();
+    }
+
+    private static Character literalAt(String regex, int start, int end) {
+        char c = regex.charAt(start);
+        if (c == '\\') {
+            return end == start + 2 && !Character.isLetterOrDigit(regex.charAt(start + 1)) ? regex.charAt(start + 1) : null;
+        }
+        return end == start + 1 && ".^$".indexOf(c) < 0 ? c : null;
+    }
+
+    /**
+     * Two literal branches of a repeated alternation where one is a prefix of the other, e.g. (a|ab)*.
+     */
+    private static String overlappingBranches(String regex, Group group, int end) {
+        if (group.branchStarts.size() < 2) return null;
+        List<String> branches = new ArrayList<>();
+        for (int b = 0; b < group.branchStarts.size(); b++) {
+            int from = group.branchStarts.get(b);
+            int to = b + 1 < group.branchStarts.size() ? group.branchStarts.get(b + 1) - 1 : end;
+            branches.add(regex.substring(from, to));
+        }
+        for (int a = 0; a < branches.size(); a++) {
+            for (int b = a + 1; b < branches.size(); b++) {
+                String x = branches.get(a);
+                String y = branches.get(b);
+                if (isLiteral(x) && isLiteral(y) && (x.startsWith(y) || y.startsWith(x))) {
+                    return "'" + x + "' and '" + y + "'";
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean isLiteral(String branch) {
+        for (int i = 0; i < branch.length(); i++) {
+            if ("\\[]().*+?{}|^$".indexOf(branch.charAt(i)) >= 0) return false;
+        }
+        return true;
+    }
+
+    private static int skipEscape(String regex, int i) {
+        if (i + 1 >= regex.length()) return regex.length();
+        if (regex.charAt(i + 1) == 'Q') {
+            int end = regex.indexOf("\\E", i + 2);
+            return end < 0 ? regex.length() : end + 2;
+        }
+        return i + 2;
+    }
+
+    private static int skipClass(String regex, int i) {
+        int depth = 0;
+        int j = i;
+        while (j < regex.length()) {
+            char c = regex.charAt(j);
+            if (c == '\\') {
+                j += 2;
+                continue;
+            }
+            if (c == '[' && !(j == i + 1 && regex.charAt(i + 1) == '[')) depth++;
+            // A ']' right after the opening bracket (or after ^) is a literal
+            if (c == ']' && j > i + 1 && !(j == i + 2 && regex.charAt(i + 1) == '^')) {
+                depth--;
+                if (depth == 0) return j + 1;
+            }
+            j++;
+        }
+        return regex.length();
+    }
+
+    /**
+     * A quantifier: ?, *, +, {n}, {n,}, {n,m}, with its greedy / lazy / possessive suffix.
+     *
+     * @param max upper bound, -1 if unbounded
+     */
+    private record Quantifier(int length, int min, int max, boolean possessive) {
+
+        /** Matches more than once: the quantified atom can be tried in several ways. */
+        boolean repeats() {
+            return max < 0 || max > 1;
+        }
+
+        /** Matches a variable number of times. */
+        boolean variable() {
+            return max < 0 || max != min;
+        }
+
+        static Quantifier at(String regex, int i) {
+            if (i >= regex.length()) return null;
+            char c = regex.charAt(i);
+            int length;
+            int min;
+            int max;
+            if (c == '?' || c == '*' || c == '+') {
+                length = 1;
+                min = c == '+' ? 1 : 0;
+                max = c == '?' ? 1 : -1;
+            } else if (c == '{') {
+                int close = regex.indexOf('}', i);
+                if (close < 0) return null;
+                String[] bounds = regex.substring(i + 1, close).split(",", -1);
+                try {
+                    min = Integer.parseInt(bounds[0].trim());
+                    max = bounds.length == 1 ? min
+                            : bounds[1].isBlank() ? -1 : Integer.parseInt(bounds[1].trim());
+                } catch (NumberFormatException e) {
+                    return null;
+                }
+                length = close - i + 1;
+            } else {
+                return null;
+            }
+            boolean possessive = false;
+            if (i + length < regex.length()) {
+                char suffix = regex.charAt(i + length);
+                if (suffix == '+') {
+                    possessive = true;
+                    length++;
+                } else if (suffix == '?') {
+                    length++;
+                }
+            }
+            return new Quantifier(length, min, max, possessive);
+        }
+    }
+}
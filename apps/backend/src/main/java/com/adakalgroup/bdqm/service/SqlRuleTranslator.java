@@ -0,0 +1,365 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.model.RuleCondition;
+import com.adakalgroup.bdqm.model.enums.CbsDataType;
+import com.adakalgroup.bdqm.model.enums.NaturalRuleType;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static com.adakalgroup.bdqm.service.NaturalLanguageRuleParser.*;
+
+/**
+ * PostgreSQL form of rule conditions, for rules validated in SQL over the mirror tables
+ * (see SqlValidationService). Each condition becomes a predicate that is true when the value fails
+ * it, with the failure message the Java engine (NaturalLanguageRuleParser#compile) would give.
+ * <ul>
+ *   <li>text conditions compare the trimmed text of the column, empty as NULL, like the Java engine;
+ *   they are only translated for columns whose text form is the same in Java and PostgreSQL,</li>
+ *   <li>case and accent insensitive comparisons use public.bdqm_fold, the SQL twin of KeywordMatcher#normalize,</li>
+ *   <li>date and numeric conditions are only translated for DATE/DATETIME and numeric columns,</li>
+ *   <li>custom regexes are only translated when they use the syntax Java and PostgreSQL share.</li>
+ * </ul>
+ * A list of conditions with one condition that cannot be translated is not translated at all.
+ */
+final class SqlRuleTranslator {
+
+    /**
+     * Escapes and constructs whose meaning differs between java.util.regex and PostgreSQL regexes:
+     * backslash followed by a letter or digit other than d, D, s and S.
+     */
+    private static final Pattern NON_PORTABLE_ESCAPE = Pattern.compile("\\\\[A-Za-z0-9&&[^dDsS]]");
+
+    private SqlRuleTranslator() {
+    }
+
+    /**
+     * The value a rule checks, as SQL expressions over the validated row.
+     *
+     * @param text   trimmed text of the column, NULL if blank
+     * @param column the column itself
+     * @param type   dictionary type of the column, null if unknown
+     */
+    record Operand(String text, String column, CbsDataType type) {
+
+        /** The text form of the column is the same in Java (toString) and PostgreSQL (CAST AS text). */
+        boolean textual() {
+            return type == null || type == CbsDataType.CHAR || type == CbsDataType.VARCHAR
+                    || type == CbsDataType.INTEGER || type == CbsDataType.SMALLINT || type == CbsDataType.DATE;
+        }
+
+        boolean dated() {
+            return type == CbsDataType.DATE || type == CbsDataType.DATETIME;
+        }
+
+        boolean numeric() {
+            return type == CbsDataType.INTEGER || type == CbsDataType.SMALLINT || type == CbsDataType.DECIMAL;
+        }
+    }
+
+    /**
+     * One condition in SQL.
+     *
+     * @param predicate true when the value fails the condition (false or NULL when it passes), with ? placeholders
+     * @param message   SQL expression of the failure message
+     */
+    record SqlCheck(String predicate, List<?> binds, String message, List<?> messageBinds) {
+
+        static SqlCheck of(String predicate, List<?> binds, String message) {
+            return new SqlCheck(predicate, binds, "?", List.of(message));
+        }
+
+        SqlCheck onlyIf(String condition) {
+            return new SqlCheck("(" + condition + " AND " + predicate + ")", binds, message, messageBinds);
+        }
+    }
+
+    /**
+     * SQL checks of the conditions, in order, or empty if one of them cannot be translated.
+     * Conditions the Java engine leaves out (unknown type, missing or invalid parameter) are left out too.
+     */
+    static Optional<List<SqlCheck>> translate(List<RuleCondition> conditions, Operand value) {
+        List<SqlCheck> checks = new ArrayList<>();
+        for (RuleCondition condition : conditions) {
+            List<SqlCheck> translated = translate(condition, value);
+            if (translated == null) return Optional.empty();
+            for (SqlCheck check : translated) {
+                checks.add(condition.isOptional() ? check.onlyIf(value.text() + " IS NOT NULL") : check);
+            }
+        }
+        return Optional.of(checks);
+    }
+
+    /**
+     * @return the checks of the condition (none if the Java engine ignores it), null if it cannot be translated
+     */
+    private static List<SqlCheck> translate(RuleCondition condition, Operand value) {
+        NaturalRuleType ruleType;
+        try {
+            ruleType = condition.getRuleType();
+        } catch (IllegalArgumentException e) {
+            ruleType = null;
+        }
+        if (ruleType == null) return List.of();
+        String message = condition.getMessage();
+        String v = value.text();
+
+        return switch (ruleType) {
+            case REQUIRED -> List.of(SqlCheck.of(v + " IS NULL", List.of(), orDefault(message, MSG_REQUIRED)));
+            case OPTIONAL -> List.of();
+
+            case MIN_LENGTH -> length(condition.getIntValue(), "<", message, MSG_MIN_LENGTH, value);
+            case MAX_LENGTH -> length(condition.getIntValue(), ">", message, MSG_MAX_LENGTH, value);
+            case EXACT_LENGTH -> length(condition.getIntValue(), "<>", message, MSG_EXACT_LENGTH, value);
+
+            case ALPHANUMERIC -> pattern(ALPHANUMERIC_PATTERN.pattern(), true, message, MSG_ALPHANUMERIC, value);
+            case ALPHA_ONLY -> pattern(ALPHA_ONLY_PATTERN.pattern(), true, message, MSG_ALPHA_ONLY, value);
+            case NUMERIC_ONLY -> pattern(NUMERIC_ONLY_PATTERN.pattern(), true, message, MSG_NUMERIC_ONLY, value);
+            case UPPERCASE -> pattern(UPPERCASE_PATTERN.pattern(), true, message, MSG_UPPERCASE, value);
+            case EMAIL -> pattern(EMAIL_PATTERN.pattern(), true, message, MSG_EMAIL, value);
+            case PHONE -> pattern(PHONE_PATTERN.pattern(), true, message, MSG_PHONE, value);
+            case NOT_PLACEHOLDER -> pattern(PLACEHOLDER_PATTERN.pattern(), false, message, MSG_PLACEHOLDER, value);
+            case CUSTOM_REGEX -> customRegex(condition.getStringValue(), message, value);
+
+            case FORBIDDEN_PATTERNS -> forbiddenPatterns(condition.getValues(), message, value);
+            case FORBIDDEN_VALUES -> forbiddenValues(condition.getValues(), message, value);
+
+            case DATE_NOT_FUTURE -> today(">", message, MSG_DATE_NOT_FUTURE, value);
+            case DATE_NOT_EXPIRED -> today("<", message, MSG_DATE_NOT_EXPIRED, value);
+            case DATE_AFTER -> dateBound(condition.getStringValue(), true, message, value);
+            case DATE_BEFORE -> dateBound(condition.getStringValue(), false, message, value);
+            case DATE_RANGE -> dateRange(condition.getMinString(), condition.getMaxString(), message, value);
+
+            case STARTS_WITH -> text(condition.getStringValue(), "", "%", message, MSG_STARTS_WITH, value);
+            case ENDS_WITH -> text(condition.getStringValue(), "%", "", message, MSG_ENDS_WITH, value);
+            case CONTAINS -> text(condition.getStringValue(), "%", "%", message, MSG_CONTAINS, value);
+
+            case IN_LIST -> list(condition.getValues(), true, message, value);
+            case NOT_IN_LIST -> list(condition.getValues(), false, message, value);
+
+            case MIN_VALUE -> number(condition.getIntValue(), true, message, value);
+            case MAX_VALUE -> number(condition.getIntValue(), false, message, value);
+            case VALUE_RANGE -> valueRange(condition.getMinInt(), condition.getMaxInt(), message, value);
+        };
+    }
+
+    private static List<SqlCheck> length(Integer limit, String operator, String message, String format, Operand value) {
+        if (limit == null) return List.of();
+        if (!value.textual()) return null;
+        return List.of(SqlCheck.of("char_length(" + value.text() + ") " + operator + " ?", List.of(limit),
+                orDefault(message, String.format(format, limit))));
+    }
+
+    /**
+     * @param mustMatch true if the value must match the pattern, false if it must not
+     */
+    private static List<SqlCheck> pattern(String regex, boolean mustMatch, String message, String defaultMessage,
+                                          Operand value) {
+        if (!value.textual()) return null;
+        return List.of(SqlCheck.of(value.text() + (mustMatch ? " !~ ?" : " ~ ?"), List.of(regex),
+                orDefault(message, defaultMessage)));
+    }
+
+    private static List<SqlCheck> customRegex(String regex, String message, Operand value) {
+        if (regex == null) return List.of();
+        try {
+            Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            return List.of();
+        }
+        if (!isPortable(regex)) return null;
+        // Java matches the whole value
+        return pattern("^(?:" + regex + ")$", true, message, MSG_CUSTOM_REGEX, value);
+    }
+
+    /**
+     * True if the regex only uses syntax with the same meaning in Java and PostgreSQL: literals, ., ^, $,
+     * groups (plain or (?:), alternation, greedy and lazy quantifiers, simple bracket classes, \d \s \D \S
+     * (only \d and \s inside brackets) and escaped punctuation. Lookarounds, possessive quantifiers, back-references, \w, \b, \p{..},
+     * inline flags and nested or intersected classes are left to the Java engine.
+     */
+    static boolean isPortable(String regex) {
+        if (NON_PORTABLE_ESCAPE.matcher(regex).find()) return false;
+        if (regex.contains("&&")) return false;
+        boolean inClass = false;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                // PostgreSQL only allows the class shorthands \d and \s inside brackets, not \D or \S
+                if (inClass && i + 1 < regex.length()) {
+                    char escaped = regex.charAt(i + 1);
+                    if (Character.isLetterOrDigit(escaped) && escaped != 'd' && escaped != 's') return false;
+                }
+                i++;
+                continue;
+            }
+            if (inClass) {
+                if (c == '[') return false;
+                if (c == ']' && regex.charAt(i - 1) != '[' && !regex.startsWith("[^]", i - 2)) inClass = false;
+                continue;
+            }
+            if (c == '[') {
+                inClass = true;
+            } else if (c == '(' && i + 1 < regex.length() && regex.charAt(i + 1) == '?' && !regex.startsWith("(?:", i)) {
+                return false;
+            } else if ((c == '*' || c == '+' || c == '?' || c == '}') && i + 1 < regex.length()
+                    && regex.charAt(i + 1) == '+') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static List<SqlCheck> forbiddenPatterns(List<String> patterns, String message, Operand value) {
+        if (patterns == null || patterns.isEmpty()) return List.of();
+        if (!value.textual()) return null;
+        String[] folded = patterns.stream().map(KeywordMatcher::normalize).toArray(String[]::new);
+        String contains = "strpos(public.bdqm_fold(" + value.text() + "), p.f) > 0";
+        String predicate = "EXISTS (SELECT 1 FROM unnest(CAST(? AS text[])) AS p(f) WHERE " + contains + ")";
+        if (message != null) {
+            return List.of(SqlCheck.of(predicate, List.of((Object) folded), message));
+        }
+        // The first listed pattern found gives the message
+        String[] failures = patterns.stream().map(p -> String.format(MSG_FORBIDDEN_PATTERN, p)).toArray(String[]::new);
+        return List.of(new SqlCheck(predicate, List.of((Object) folded),
+                "(SELECT p.m FROM unnest(CAST(? AS text[]), CAST(? AS text[])) WITH ORDINALITY AS p(f, m, n) WHERE "
+                        + contains + " ORDER BY p.n LIMIT 1)",
+                List.of(folded, failures)));
+    }
+
+    private static List<SqlCheck> forbiddenValues(List<String> forbiddenValues, String message, Operand value) {
+        if (forbiddenValues == null || forbiddenValues.isEmpty()) return List.of();
+        if (!value.textual()) return null;
+        // Folded value -> failure message of the first matching entry
+        Map<String, String> failures = new LinkedHashMap<>();
+        for (String forbidden : forbiddenValues) {
+            failures.putIfAbsent(KeywordMatcher.normalize(forbidden),
+                    orDefault(message, String.format(MSG_FORBIDDEN_VALUE, forbidden)));
+        }
+        String[] folded = failures.keySet().toArray(String[]::new);
+        String foldedValue = "public.bdqm_fold(" + value.text() + ")";
+        return List.of(new SqlCheck(foldedValue + " = ANY(CAST(? AS text[]))", List.of((Object) folded),
+                "(CAST(? AS text[]))[array_position(CAST(? AS text[]), " + foldedValue + ")]",
+                List.of(failures.values().toArray(String[]::new), folded)));
+    }
+
+    private static List<SqlCheck> today(String operator, String message, String defaultMessage, Operand value) {
+        if (!value.dated()) return null;
+        return List.of(SqlCheck.of("CAST(" + value.column() + " AS date) " + operator + " CURRENT_DATE", List.of(),
+                orDefault(message, defaultMessage)));
+    }
+
+    /**
+     * @param after true for dateAfter (date must not be before the bound), false for dateBefore
+     */
+    private static List<SqlCheck> dateBound(String boundStr, boolean after, String message, Operand value) {
+        LocalDate bound = parseDate(boundStr);
+        if (bound == null) return List.of();
+        if (!value.dated()) return null;
+        return List.of(dateCheck(after ? "<" : ">", bound,
+                orDefault(message, String.format(after ? MSG_DATE_AFTER : MSG_DATE_BEFORE, boundStr)), value));
+    }
+
+    private static List<SqlCheck> dateRange(String minDateStr, String maxDateStr, String message, Operand value) {
+        LocalDate minDate = null;
+        LocalDate maxDate = null;
+        try {
+            if (minDateStr != null) minDate = LocalDate.parse(minDateStr);
+            if (maxDateStr != null) maxDate = LocalDate.parse(maxDateStr);
+        } catch (DateTimeParseException e) {
+            // A bound that cannot be parsed disables the bounds after it, as in the Java engine
+        }
+        if (minDate == null && maxDate == null) return List.of();
+        if (!value.dated()) return null;
+        List<SqlCheck> checks = new ArrayList<>(2);
+        if (minDate != null) {
+            checks.add(dateCheck("<", minDate, orDefault(message, String.format(MSG_DATE_AFTER, minDateStr)), value));
+        }
+        if (maxDate != null) {
+            checks.add(dateCheck(">", maxDate, orDefault(message, String.format(MSG_DATE_BEFORE, maxDateStr)), value));
+        }
+        return checks;
+    }
+
+    private static SqlCheck dateCheck(String operator, LocalDate bound, String failure, Operand value) {
+        return SqlCheck.of("CAST(" + value.column() + " AS date) " + operator + " CAST(? AS date)",
+                List.of(bound), failure);
+    }
+
+    private static List<SqlCheck> text(String expected, String prefix, String suffix, String message, String format,
+                                       Operand value) {
+        if (expected == null) return List.of();
+        if (!value.textual()) return null;
+        // Backslash is the default LIKE escape character
+        String like = prefix + escapeLike(KeywordMatcher.normalize(expected)) + suffix;
+        return List.of(SqlCheck.of("NOT (public.bdqm_fold(" + value.text() + ") LIKE ?)", List.of(like),
+                orDefault(message, String.format(format, expected))));
+    }
+
+    /**
+     * @param allowed true for inList (value must be in the list), false for notInList
+     */
+    private static List<SqlCheck> list(List<String> values, boolean allowed, String message, Operand value) {
+        if (values == null || values.isEmpty()) return List.of();
+        if (!value.textual()) return null;
+        String[] folded = values.stream().map(KeywordMatcher::normalize).distinct().toArray(String[]::new);
+        String failure = orDefault(message, allowed
+                ? String.format(MSG_IN_LIST, String.join(", ", values))
+                : MSG_NOT_IN_LIST);
+        return List.of(SqlCheck.of("public.bdqm_fold(" + value.text() + ")"
+                + (allowed ? " <> ALL(CAST(? AS text[]))" : " = ANY(CAST(? AS text[]))"), List.of((Object) folded), failure));
+    }
+
+    /**
+     * @param min true for minValue (value must be &gt;= threshold), false for maxValue
+     */
+    private static List<SqlCheck> number(Integer threshold, boolean min, String message, Operand value) {
+        if (threshold == null) return List.of();
+        if (!value.numeric()) return null;
+        double limit = threshold.doubleValue();
+        return List.of(SqlCheck.of("CAST(" + value.column() + " AS double precision) " + (min ? "<" : ">") + " ?",
+                List.of(limit), orDefault(message, String.format(min ? MSG_MIN_VALUE : MSG_MAX_VALUE, limit))));
+    }
+
+    private static List<SqlCheck> valueRange(Integer minValue, Integer maxValue, String message, Operand value) {
+        if (minValue == null && maxValue == null) return List.of();
+        if (!value.numeric()) return null;
+        String number = "CAST(" + value.column() + " AS double precision)";
+        List<String> bounds = new ArrayList<>(2);
+        List<Object> binds = new ArrayList<>(2);
+        if (minValue != null) {
+            bounds.add(number + " < ?");
+            binds.add(minValue.doubleValue());
+        }
+        if (maxValue != null) {
+            bounds.add(number + " > ?");
+            binds.add(maxValue.doubleValue());
+        }
+        return List.of(SqlCheck.of("(" + String.join(" OR ", bounds) + ")", binds,
+                orDefault(message, String.format(MSG_VALUE_RANGE, minValue, maxValue))));
+    }
+
+    private static LocalDate parseDate(String dateStr) {
+        if (dateStr == null) return null;
+        try {
+            return LocalDate.parse(dateStr);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String orDefault(String message, String defaultMessage) {
+        return message != null ? message : defaultMessage;
+    }
+}
@@ -0,0 +1,369 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.config.metrics.BusinessMetricsConfig;
+import com.adakalgroup.bdqm.dto.CbsFieldDto;
+import com.adakalgroup.bdqm.dto.CbsTableDto;
+import com.adakalgroup.bdqm.model.ValidationRule;
+import com.adakalgroup.bdqm.model.enums.ClientType;
+import com.adakalgroup.bdqm.repository.ValidationRuleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Set-based validation of a whole mirror table, for the syncs that re-validate every row (first sync,
+ * rules changed since the last sync) and the manual trigger.
+ * <ul>
+ *   <li>the rules of a field whose conditions all translate to SQL (see SqlRuleTranslator) run in
+ *   PostgreSQL: one INSERT ... SELECT per rule creates the missing anomalies, one UPDATE per field
+ *   auto-resolves the open anomalies of rows that now pass,</li>
+ *   <li>the other fields are validated by CbsValidationService over the mirror rows, read back in batches,</li>
+ *   <li>open anomalies of fields without any rule are auto-resolved in SQL, as the Java engine does.</li>
+ * </ul>
+ * Statements run one by one (autocommit): an interrupted run leaves no duplicate and is completed
+ * by the next one. Anomalies not re-created because an open one exists are not counted.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "app.features.informix-integration", havingValue = "true", matchIfMissing = false)
+public class SqlValidationService {
+
+    private static final String OPEN = "a.status NOT IN ('CLOSED', 'VALIDATED')";
+
+    /** Leaves alone the anomalies already auto-resolved, as the Java engine (no dirty field, no write) does. */
+    private static final String NOT_RESOLVED = "(a.status <> 'CORRECTED' OR a.data_source IS DISTINCT FROM 'CBS_AUTO_RESOLVED')";
+
+    private static final String RESOLVE = "UPDATE public.anomalies a SET status = 'CORRECTED', " +
+            "data_source = 'CBS_AUTO_RESOLVED', updated_at = LOCALTIMESTAMP WHERE " + OPEN + " AND " + NOT_RESOLVED;
+
+    private static final String INSERT = "INSERT INTO public.anomalies (client_number, client_name, client_type, " +
+            "structure_code, structure_name, field_name, field_label, current_value, expected_value, error_type, " +
+            "error_message, severity, status, data_source, created_at, updated_at) ";
+
+    private final DSLContext primaryDsl;
+    private final CbsDataDictionaryService dataDictionaryService;
+    private final ValidationRuleRepository validationRuleRepository;
+    private final RulePlanCache rulePlanCache;
+    private final CbsValidationService cbsValidationService;
+    private final DynamicCbsQueryService dynamicCbsQueryService;
+    private final BusinessMetricsConfig metricsConfig;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${app.validation.push-down.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.validation.push-down.fallback-batch-size:1000}")
+    private int fallbackBatchSize;
+
+    public SqlValidationService(@Qualifier("primaryDsl") DSLContext primaryDsl,
+                                CbsDataDictionaryService dataDictionaryService,
+                                ValidationRuleRepository validationRuleRepository,
+                                RulePlanCache rulePlanCache,
+                                CbsValidationService cbsValidationService,
+                                DynamicCbsQueryService dynamicCbsQueryService,
+                                BusinessMetricsConfig metricsConfig,
+                                TransactionTemplate transactionTemplate) {
+        this.primaryDsl = primaryDsl;
+        this.dataDictionaryService = dataDictionaryService;
+        this.validationRuleRepository = validationRuleRepository;
+        this.rulePlanCache = rulePlanCache;
+        this.cbsValidationService = cbsValidationService;
+        this.dynamicCbsQueryService = dynamicCbsQueryService;
+        this.metricsConfig = metricsConfig;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * True if syncs that re-validate a whole table should call {@link #validateTable(String)} instead
+     * of validating every batch.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * An active rule with its compiled conditions and, if they translate, their SQL checks.
+     */
+    private record PlannedRule(ValidationRule rule, RulePlanCache.RulePlan plan,
+                               Optional<List<SqlRuleTranslator.SqlCheck>> checks) {}
+
+    /**
+     * Validate every live row of the table's mirror. With push-down disabled, every field is validated
+     * by the Java engine.
+     */
+    public CbsValidationService.ValidationResult validateTable(String tableName) {
+        long start = System.currentTimeMillis();
+        CbsTableDto tableConfig = transactionTemplate.execute(status -> dataDictionaryService.getTableByName(tableName));
+        Map<String, CbsFieldDto> fields = transactionTemplate.execute(status ->
+                dataDictionaryService.getFieldsByTableName(tableName).stream()
+                        .collect(Collectors.toMap(f -> f.getColumnName().toLowerCase(), f -> f, (a, b) -> a)));
+
+        CbsFieldDto pkField = fieldOf(fields, tableConfig.getPkField());
+        if (pkField == null) {
+            log.warn("Table '{}' has no pkField in its dictionary, skipping validation", tableName);
+            return new CbsValidationService.ValidationResult(0, 0, 0, 0, 0);
+        }
+        if (!enabled) {
+            CbsValidationService.ValidationResult java = validateInJava(tableName, null);
+            return record(tableName, java.recordsValidated(), java.anomaliesCreated(), java.autoResolved(),
+                    java.duplicatesSkipped(), java.errors(), start, 0, 0);
+        }
+
+        // Rules grouped by field; a field is validated in SQL only if all its rules translate
+        Map<String, List<PlannedRule>> rulesByField = transactionTemplate.execute(status ->
+                validationRuleRepository.findByActiveAndTableNameOrderByPriorityDesc(true, tableName).stream()
+                        .filter(ValidationRule::hasValidRuleDefinition)
+                        .map(r -> Map.entry(r, rulePlanCache.get(r)))
+                        .filter(e -> !e.getValue().isEmpty())
+                        .map(e -> {
+                            CbsFieldDto field = fields.get(e.getValue().fieldKey());
+                            return new PlannedRule(e.getKey(), e.getValue(), field != null
+                                    ? SqlRuleTranslator.translate(e.getValue().conditions().conditions(), operand(field))
+                                    : Optional.empty());
+                        })
+                        .collect(Collectors.groupingBy(r -> r.plan().fieldKey(), LinkedHashMap::new, Collectors.toList())));
+        Set<String> sqlFields = new LinkedHashSet<>();
+        Set<String> javaFields = new LinkedHashSet<>();
+        rulesByField.forEach((field, rules) ->
+                (rules.stream().allMatch(r -> r.checks().isPresent()) ? sqlFields : javaFields).add(field));
+        log.info("Table '{}': validating {} fields in SQL, {} in Java", tableName, sqlFields.size(), javaFields.size());
+
+        String source = source(tableName, tableConfig, fields, pkField);
+        Record counts = primaryDsl.fetchOne("SELECT COUNT(*), COUNT(*) FILTER (WHERE r.bdqm_pk IS NOT NULL " +
+                "AND r.bdqm_ct IS NULL) FROM " + source);
+        int records = counts.get(0, Integer.class);
+        int untyped = counts.get(1, Integer.class);
+        if (untyped > 0) {
+            log.warn("Table '{}': {} rows without a known client type, no anomaly created for them in SQL",
+                    tableName, untyped);
+        }
+
+        StructureNames structures = structureNames(tableName, tableConfig, fields);
+        Map<String, String> fieldLabels = cbsValidationService.loadFieldLabels(tableName);
+        int created = 0;
+        int resolved = 0;
+        for (String field : sqlFields) {
+            List<PlannedRule> rules = rulesByField.get(field);
+            String value = operand(fields.get(field)).column();
+            for (PlannedRule rule : rules) {
+                created += insertAnomalies(source, rule, value, structures, fieldLabels);
+            }
+            resolved += resolveField(source, field, rules);
+        }
+        resolved += primaryDsl.execute(RESOLVE + " AND lower(a.field_name) <> ALL(CAST(? AS text[])) " +
+                        "AND EXISTS (SELECT 1 FROM " + source + " WHERE r.bdqm_pk = a.client_number)",
+                (Object) rulesByField.keySet().toArray(String[]::new));
+        metricsConfig.getAnomaliesCreatedCounter().increment(created);
+        metricsConfig.getAnomaliesResolvedCounter().increment(resolved);
+
+        int skipped = 0;
+        int errors = 0;
+        if (!javaFields.isEmpty()) {
+            CbsValidationService.ValidationResult java = validateInJava(tableName, javaFields);
+            created += java.anomaliesCreated();
+            resolved += java.autoResolved();
+            skipped = java.duplicatesSkipped();
+            errors = java.errors();
+        }
+        return record(tableName, records, created, resolved, skipped, errors, start, sqlFields.size(), javaFields.size());
+    }
+
+    private CbsValidationService.ValidationResult record(String tableName, int records, int created, int resolved,
+                                                         int skipped, int errors, long start, int sqlFields,
+                                                         int javaFields) {
+        long duration = System.currentTimeMillis() - start;
+        metricsConfig.recordValidationBatch(tableName, created, resolved, duration);
+        log.info("Table '{}': validated {} rows ({} fields in SQL, {} in Java) — anomalies={}, autoResolved={}, " +
+                "errors={}, duration={}ms", tableName, records, sqlFields, javaFields, created, resolved, errors, duration);
+        return new CbsValidationService.ValidationResult(records, created, resolved, skipped, errors);
+    }
+
+    /**
+     * Validate the mirror rows with the Java engine, restricted to some fields (null for all).
+     */
+    private CbsValidationService.ValidationResult validateInJava(String tableName, Set<String> fields) {
+        int[] totals = new int[5];
+        dynamicCbsQueryService.scanMirrorRows(tableName, fallbackBatchSize, rows -> {
+            CbsValidationService.ValidationResult vr = cbsValidationService.validateRecords(tableName, rows, fields);
+            totals[0] += vr.recordsValidated();
+            totals[1] += vr.anomaliesCreated();
+            totals[2] += vr.autoResolved();
+            totals[3] += vr.duplicatesSkipped();
+            totals[4] += vr.errors();
+        });
+        return new CbsValidationService.ValidationResult(totals[0], totals[1], totals[2], totals[3], totals[4]);
+    }
+
+    // ===== SQL =====
+
+    /**
+     * Live mirror rows, aliased r, with the record fields the Java engine derives from table metadata:
+     * bdqm_pk (trimmed primary key, NULL if blank), bdqm_ct (client type name, NULL if unknown),
+     * bdqm_sc (trimmed structure code) and bdqm_label (display label, see CbsValidationService#buildRecordLabel).
+     */
+    private String source(String tableName, CbsTableDto tableConfig, Map<String, CbsFieldDto> fields,
+                          CbsFieldDto pkField) {
+        String pk = text(pkField);
+        CbsFieldDto typeField = fieldOf(fields, tableConfig.getTypeField());
+        String clientType = "CAST(NULL AS text)";
+        if (typeField != null) {
+            StringBuilder cases = new StringBuilder("CASE " + text(typeField));
+            for (ClientType type : ClientType.values()) {
+                cases.append(" WHEN '").append(type.getCode()).append("' THEN '").append(type.name()).append("'");
+            }
+            clientType = cases.append(" END").toString();
+        }
+        CbsFieldDto structureField = fieldOf(fields, tableConfig.getStructureField());
+        String structure = structureField != null ? text(structureField) : "CAST(NULL AS text)";
+
+        List<String> label = new ArrayList<>();
+        CbsFieldDto corporateField = fieldOf(fields, tableConfig.getLabelFieldCorporate());
+        if (corporateField != null) {
+            label.add("CASE WHEN " + clientType + " IN ('" + ClientType.CORPORATE.name() + "', '"
+                    + ClientType.INSTITUTIONAL.name() + "') THEN " + text(corporateField) + " END");
+        }
+        if (tableConfig.getLabelField() != null) {
+            String parts = Arrays.stream(tableConfig.getLabelField().split(","))
+                    .map(f -> fieldOf(fields, f))
+                    .filter(Objects::nonNull)
+                    .map(SqlValidationService::text)
+                    .collect(Collectors.joining(", "));
+            if (!parts.isEmpty()) label.add("NULLIF(concat_ws(' ', " + parts + "), '')");
+        }
+        label.add(pk);
+
+        return "(SELECT t.*, " + pk + " AS bdqm_pk, " + clientType + " AS bdqm_ct, " + structure + " AS bdqm_sc, " +
+                "COALESCE(" + String.join(", ", label) + ") AS bdqm_label FROM " +
+                dynamicCbsQueryService.mirrorTableRaw(tableName) + " t WHERE t." +
+                DynamicCbsQueryService.DELETED_AT_COLUMN + " IS NULL) r";
+    }
+
+    /**
+     * Create the anomalies of the rows failing a rule that have no open anomaly on its field.
+     */
+    private int insertAnomalies(String source, PlannedRule planned, String value, StructureNames structures,
+                                Map<String, String> fieldLabels) {
+        ValidationRule rule = planned.rule();
+        List<SqlRuleTranslator.SqlCheck> checks = planned.checks().orElseThrow();
+        if (checks.isEmpty()) return 0;
+
+        List<Object> binds = new ArrayList<>();
+        binds.add(structures.names());
+        binds.add(structures.codes());
+        binds.add(rule.getFieldName());
+        binds.add(rule.getFieldLabel() != null ? rule.getFieldLabel()
+                : fieldLabels.getOrDefault(rule.getFieldName(), rule.getFieldName()));
+        binds.add(cbsValidationService.buildExpectedValueDescription(planned.plan().conditions().conditions()));
+        binds.add(rule.getRuleType() != null ? rule.getRuleType().name() : "VALIDATION");
+        // First failing condition gives the message
+        StringBuilder message = new StringBuilder("CASE");
+        for (SqlRuleTranslator.SqlCheck check : checks) {
+            message.append(" WHEN ").append(check.predicate()).append(" THEN ").append(check.message());
+            binds.addAll(check.binds());
+            binds.addAll(check.messageBinds());
+        }
+        message.append(" END");
+        binds.add(rule.getSeverity() != null ? rule.getSeverity() : "MEDIUM");
+
+        String clientTypeFilter = "";
+        if (rule.getClientType() != null) {
+            clientTypeFilter = " AND r.bdqm_ct = ?";
+            binds.add(rule.getClientType().name());
+        }
+        String failing = checks.stream().map(SqlRuleTranslator.SqlCheck::predicate).collect(Collectors.joining(" OR "));
+        checks.forEach(c -> binds.addAll(c.binds()));
+        binds.add(rule.getFieldName());
+
+        String sql = INSERT + "SELECT r.bdqm_pk, r.bdqm_label, r.bdqm_ct, COALESCE(r.bdqm_sc, '00000'), " +
+                "COALESCE((CAST(? AS text[]))[array_position(CAST(? AS text[]), r.bdqm_sc)], 'Unknown'), ?, ?, " +
+                "btrim(CAST(" + value + " AS text)), ?, ?, " + message + ", ?, 'PENDING', 'CBS_SYNC', " +
+                "LOCALTIMESTAMP, LOCALTIMESTAMP FROM " + source +
+                " WHERE r.bdqm_pk IS NOT NULL AND r.bdqm_ct IS NOT NULL" + clientTypeFilter + " AND (" + failing + ")" +
+                " AND NOT EXISTS (SELECT 1 FROM public.anomalies a WHERE a.client_number = r.bdqm_pk" +
+                " AND a.field_name = ? AND " + OPEN + ")";
+        int created = primaryDsl.execute(sql, binds.toArray());
+        log.debug("Rule '{}': {} anomalies created in SQL", rule.getRuleName(), created);
+        return created;
+    }
+
+    /**
+     * Auto-resolve the open anomalies of a field whose row now passes all the field's rules.
+     */
+    private int resolveField(String source, String field, List<PlannedRule> rules) {
+        List<Object> binds = new ArrayList<>();
+        binds.add(field);
+        List<String> failing = new ArrayList<>();
+        for (PlannedRule rule : rules) {
+            List<SqlRuleTranslator.SqlCheck> checks = rule.checks().orElseThrow();
+            if (checks.isEmpty()) continue;
+            String clientTypeFilter = "";
+            if (rule.rule().getClientType() != null) {
+                clientTypeFilter = "(r.bdqm_ct IS NULL OR r.bdqm_ct = ?) AND ";
+                binds.add(rule.rule().getClientType().name());
+            }
+            failing.add("COALESCE(" + clientTypeFilter + "(" + checks.stream()
+                    .map(SqlRuleTranslator.SqlCheck::predicate).collect(Collectors.joining(" OR ")) + "), false)");
+            checks.forEach(c -> binds.addAll(c.binds()));
+        }
+        String passing = failing.isEmpty() ? "" : " AND NOT (" + String.join(" OR ", failing) + ")";
+        return primaryDsl.execute(RESOLVE + " AND lower(a.field_name) = ? AND EXISTS (SELECT 1 FROM " + source +
+                " WHERE r.bdqm_pk = a.client_number" + passing + ")", binds.toArray());
+    }
+
+    // ===== Helpers =====
+
+    /**
+     * Structure codes of the live rows and their names, resolved once per code (see
+     * CbsValidationService#getStructureName).
+     */
+    private record StructureNames(String[] codes, String[] names) {}
+
+    private StructureNames structureNames(String tableName, CbsTableDto tableConfig, Map<String, CbsFieldDto> fields) {
+        CbsFieldDto structureField = fieldOf(fields, tableConfig.getStructureField());
+        if (structureField == null) return new StructureNames(new String[0], new String[0]);
+        List<String> codes = primaryDsl.fetch("SELECT DISTINCT " + text(structureField) + " FROM " +
+                        dynamicCbsQueryService.mirrorTableRaw(tableName) + " t WHERE t." +
+                        DynamicCbsQueryService.DELETED_AT_COLUMN + " IS NULL")
+                .getValues(0, String.class).stream()
+                .filter(Objects::nonNull)
+                .toList();
+        Map<String, String> cache = new HashMap<>();
+        String[] names = codes.stream().map(code -> cbsValidationService.getStructureName(code, cache))
+                .toArray(String[]::new);
+        return new StructureNames(codes.toArray(String[]::new), names);
+    }
+
+    private static CbsFieldDto fieldOf(Map<String, CbsFieldDto> fields, String name) {
+        return name != null && !name.isBlank() ? fields.get(name.trim().toLowerCase()) : null;
+    }
+
+    /**
+     * Trimmed text of a column of the mirror row t, NULL if blank.
+     */
+    private static String text(CbsFieldDto field) {
+        return "NULLIF(btrim(CAST(t.\"" + field.getColumnName() + "\" AS text)), '')";
+    }
+
+    private static SqlRuleTranslator.Operand operand(CbsFieldDto field) {
+        String column = "r.\"" + field.getColumnName() + "\"";
+        return new SqlRuleTranslator.Operand("NULLIF(btrim(CAST(" + column + " AS text)), '')", column,
+                field.getDataType());
+    }
+}
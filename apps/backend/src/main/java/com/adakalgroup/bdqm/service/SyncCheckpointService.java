@@ -0,0 +1,236 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.dto.SyncCheckpointDto;
+import com.adakalgroup.bdqm.dto.SyncRunDto;
+import com.adakalgroup.bdqm.model.SyncCheckpoint;
+import com.adakalgroup.bdqm.model.SyncRun;
+import com.adakalgroup.bdqm.model.enums.LoadStatus;
+import com.adakalgroup.bdqm.repository.SyncCheckpointRepository;
+import com.adakalgroup.bdqm.repository.SyncRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sync run history and per-partition checkpoints.
+ * A table sync runs as a sync_runs row with one checkpoint per key range. Each completed batch
+ * advances its checkpoint (last key or next offset) and the run counters in its own transaction,
+ * so a sync interrupted by a restart or an Informix failure resumes where it stopped instead of
+ * starting over.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SyncCheckpointService {
+
+    private final SyncRunRepository syncRunRepository;
+    private final SyncCheckpointRepository syncCheckpointRepository;
+
+    /** Runs executing in this instance, so an in-flight run is never resumed a second time. */
+    private final Set<Long> activeRuns = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.sync.resume-max-age-hours:24}")
+    private int resumeMaxAgeHours;
+
+    /**
+     * @param resumed    true if the run continues an interrupted one
+     * @param checkpoints checkpoints of a resumed run, ordered by partition; empty for a new run
+     */
+    public record RunStart(SyncRun run, boolean resumed, List<SyncCheckpoint> checkpoints) {}
+
+    /**
+     * Resume the table's last run if it was interrupted (IN_PROGRESS after a crash, or FAILED),
+     * is recent enough and covers the same CDC window; otherwise start a new run.
+     *
+     * @param cdcSince     CDC lower bound, null for a full sync
+     * @param cdcWatermark highest CDC value at the start of the run, committed when it completes
+     * @param resumable false when the interrupted run's state cannot be reused (e.g. lost COPY staging table)
+     */
+    public synchronized RunStart startOrResume(String tableName, LocalDateTime cdcSince, LocalDateTime cdcWatermark,
+                                               long totalCount, boolean resumable) {
+        SyncRun last = syncRunRepository.findFirstByTableNameOrderByIdDesc(tableName).orElse(null);
+        if (last != null && activeRuns.contains(last.getId())) {
+            throw new IllegalStateException("Table " + tableName + " is already being synced (run " + last.getId() + ")");
+        }
+
+        if (last != null && (last.getStatus() == LoadStatus.IN_PROGRESS || last.getStatus() == LoadStatus.FAILED)) {
+            boolean sameWindow = Objects.equals(last.getCdcSince(), cdcSince);
+            boolean recent = last.getStartedAt() != null
+                    && last.getStartedAt().isAfter(LocalDateTime.now().minusHours(resumeMaxAgeHours));
+            List<SyncCheckpoint> checkpoints = syncCheckpointRepository.findBySyncRunIdOrderByPartitionNoAsc(last.getId());
+            if (resumable && sameWindow && recent && !checkpoints.isEmpty()) {
+                last.setStatus(LoadStatus.IN_PROGRESS);
+                last.setResumeCount(last.getResumeCount() + 1);
+                last.setErrorMessage(null);
+                last.setFinishedAt(null);
+                last.setTotalCount(totalCount);
+                SyncRun run = syncRunRepository.save(last);
+                activeRuns.add(run.getId());
+                log.info("Table '{}': resuming sync run {} (resume #{}, {} records already fetched)",
+                        tableName, run.getId(), run.getResumeCount(), run.getRecordsFetched());
+                return new RunStart(run, true, checkpoints);
+            }
+            if (last.getStatus() == LoadStatus.IN_PROGRESS) {
+                last.setStatus(LoadStatus.FAILED);
+                last.setErrorMessage("Interrupted, superseded by a new run");
+                last.setFinishedAt(LocalDateTime.now());
+                syncRunRepository.save(last);
+            }
+            log.info("Table '{}': not resuming run {} (resumable={}, sameWindow={}, recent={})",
+                    tableName, last.getId(), resumable, sameWindow, recent);
+        }
+
+        SyncRun run = syncRunRepository.save(SyncRun.builder()
+                .tableName(tableName)
+                .cdc(cdcSince != null)
+                .cdcSince(cdcSince)
+                .cdcWatermark(cdcWatermark)
+                .totalCount(totalCount)
+                .build());
+        activeRuns.add(run.getId());
+        return new RunStart(run, false, List.of());
+    }
+
+    /**
+     * Create the checkpoints of a new run: one per key range, or a single one (no range) for an unpartitioned sync.
+     */
+    @Transactional
+    public List<SyncCheckpoint> createCheckpoints(Long runId, List<DynamicCbsQueryService.KeyRange> ranges) {
+        List<SyncCheckpoint> checkpoints = new ArrayList<>();
+        if (ranges.isEmpty()) {
+            checkpoints.add(SyncCheckpoint.builder().syncRunId(runId).partitionNo(0).build());
+        }
+        for (int i = 0; i < ranges.size(); i++) {
+            DynamicCbsQueryService.KeyRange range = ranges.get(i);
+            checkpoints.add(SyncCheckpoint.builder()
+                    .syncRunId(runId)
+                    .partitionNo(i)
+                    .rangeColumn(range.column())
+                    .rangeLower(TypedValueCodec.writeValue(range.lowerInclusive()))
+                    .rangeUpper(TypedValueCodec.writeValue(range.upperExclusive()))
+                    .build());
+        }
+        return syncCheckpointRepository.saveAll(checkpoints);
+    }
+
+    /**
+     * Record a completed batch: add the batch counters to the run and advance the checkpoint. Fenced by
+     * the table's lease: the counter update only applies while the lease is the current one, and keeps
+     * its lock row locked until the checkpoint is written too.
+     *
+     * @param lastKey null to leave the checkpoint's key unchanged
+     * @throws IllegalStateException if the lease was lost, nothing is written
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordBatch(Long checkpointId, Long runId, ClusterLockService.Lease lease, Map<String, Object> lastKey,
+                            long nextOffset, int fetched, int upserted, int validated, int anomalies, int errors) {
+        lease.checkFenced(syncRunRepository.addCountersFenced(runId, fetched, upserted, validated, anomalies, errors,
+                lease.name(), lease.owner(), lease.token()));
+        syncCheckpointRepository.findById(checkpointId).ifPresent(checkpoint -> {
+            if (lastKey != null) checkpoint.setLastKey(TypedValueCodec.writeRow(lastKey));
+            checkpoint.setNextOffset(nextOffset);
+            syncCheckpointRepository.save(checkpoint);
+        });
+    }
+
+    /**
+     * Mark a partition done, fenced by the table's lease like {@link #recordBatch}.
+     *
+     * @throws IllegalStateException if the lease was lost
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void completeCheckpoint(Long checkpointId, ClusterLockService.Lease lease) {
+        lease.checkFenced(syncCheckpointRepository.completeFenced(checkpointId, lease.name(), lease.owner(),
+                lease.token()));
+    }
+
+    /**
+     * End a run. A FAILED run keeps its checkpoints and is resumed by the next sync of the table.
+     */
+    public void finishRun(Long runId, LoadStatus status, String errorMessage) {
+        activeRuns.remove(runId);
+        syncRunRepository.findById(runId).ifPresent(run -> {
+            run.setStatus(status);
+            run.setErrorMessage(errorMessage);
+            run.setFinishedAt(LocalDateTime.now());
+            syncRunRepository.save(run);
+        });
+    }
+
+    public DynamicCbsQueryService.KeyRange rangeOf(SyncCheckpoint checkpoint) {
+        if (checkpoint.getRangeColumn() == null) return null;
+        return new DynamicCbsQueryService.KeyRange(checkpoint.getRangeColumn(),
+                TypedValueCodec.readValue(checkpoint.getRangeLower()),
+                TypedValueCodec.readValue(checkpoint.getRangeUpper()));
+    }
+
+    public Map<String, Object> lastKeyOf(SyncCheckpoint checkpoint) {
+        return TypedValueCodec.readRow(checkpoint.getLastKey());
+    }
+
+    public List<SyncRunDto> getRecentRuns(String tableName, int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, limit));
+        List<SyncRun> runs = tableName != null && !tableName.isBlank()
+                ? syncRunRepository.findByTableNameOrderByStartedAtDesc(tableName, page)
+                : syncRunRepository.findAllByOrderByStartedAtDesc(page);
+        return runs.stream().map(run -> mapRunToDto(run, null)).toList();
+    }
+
+    public Optional<SyncRunDto> getRun(Long id) {
+        return syncRunRepository.findById(id).map(run -> mapRunToDto(run,
+                syncCheckpointRepository.findBySyncRunIdOrderByPartitionNoAsc(id).stream()
+                        .map(this::mapCheckpointToDto)
+                        .toList()));
+    }
+
+    // ===== Mapping =====
+
+    private SyncRunDto mapRunToDto(SyncRun run, List<SyncCheckpointDto> checkpoints) {
+        return SyncRunDto.builder()
+                .id(run.getId())
+                .tableName(run.getTableName())
+                .status(run.getStatus())
+                .cdc(run.getCdc())
+                .cdcSince(run.getCdcSince())
+                .cdcWatermark(run.getCdcWatermark())
+                .totalCount(run.getTotalCount())
+                .recordsFetched(run.getRecordsFetched())
+                .recordsUpserted(run.getRecordsUpserted())
+                .recordsValidated(run.getRecordsValidated())
+                .anomaliesCreated(run.getAnomaliesCreated())
+                .errors(run.getErrors())
+                .resumeCount(run.getResumeCount())
+                .errorMessage(run.getErrorMessage())
+                .startedAt(run.getStartedAt())
+                .finishedAt(run.getFinishedAt())
+                .checkpoints(checkpoints)
+                .build();
+    }
+
+    private SyncCheckpointDto mapCheckpointToDto(SyncCheckpoint checkpoint) {
+        return SyncCheckpointDto.builder()
+                .id(checkpoint.getId())
+                .partitionNo(checkpoint.getPartitionNo())
+                .rangeColumn(checkpoint.getRangeColumn())
+                .rangeLower(checkpoint.getRangeLower())
+                .rangeUpper(checkpoint.getRangeUpper())
+                .lastKey(checkpoint.getLastKey())
+                .nextOffset(checkpoint.getNextOffset())
+                .completed(checkpoint.getCompleted())
+                .updatedAt(checkpoint.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,122 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.model.CbsTable;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+
+/**
+ * Dependency graph of the tables in one sync run, built from cbs_tables.depends_on.
+ * A table is ready once all of its dependencies have been synced. Among ready tables, the one
+ * with the longest critical path (its own last sync duration plus the longest chain of tables
+ * waiting on it) goes first, then sync_order, so the slowest chains start as early as possible.
+ */
+@Slf4j
+class SyncDag {
+
+    private final Map<String, CbsTable> tables = new LinkedHashMap<>();
+    private final Map<String, Set<String>> dependencies = new HashMap<>();
+    private final Map<String, List<String>> dependents = new HashMap<>();
+    private final Map<String, Long> criticalPath = new HashMap<>();
+    private final List<CbsTable> topologicalOrder;
+
+    /**
+     * @param tables tables of the run, ordered by sync_order. Dependencies on tables outside
+     *               the run (disabled, inactive, unknown) are ignored.
+     */
+    SyncDag(List<CbsTable> tables) {
+        for (CbsTable table : tables) {
+            this.tables.put(table.getTableName(), table);
+            dependencies.put(table.getTableName(), new LinkedHashSet<>());
+            dependents.put(table.getTableName(), new ArrayList<>());
+        }
+        for (CbsTable table : tables) {
+            for (String dependency : parseDependsOn(table.getDependsOn())) {
+                if (!this.tables.containsKey(dependency)) {
+                    log.warn("Table '{}' depends on '{}' which is not part of this sync, ignoring",
+                            table.getTableName(), dependency);
+                } else if (!dependency.equals(table.getTableName())) {
+                    dependencies.get(table.getTableName()).add(dependency);
+                    dependents.get(dependency).add(table.getTableName());
+                }
+            }
+        }
+        this.topologicalOrder = computeTopologicalOrder();
+        if (topologicalOrder != null) {
+            for (int i = topologicalOrder.size() - 1; i >= 0; i--) {
+                String name = topologicalOrder.get(i).getTableName();
+                long longestDependent = dependents.get(name).stream().mapToLong(criticalPath::get).max().orElse(0);
+                criticalPath.put(name, duration(topologicalOrder.get(i)) + longestDependent);
+            }
+        }
+    }
+
+    boolean hasCycle() {
+        return topologicalOrder == null;
+    }
+
+    /**
+     * All tables, each after its dependencies; null if depends_on contains a cycle.
+     */
+    List<CbsTable> topologicalOrder() {
+        return topologicalOrder;
+    }
+
+    Set<String> dependenciesOf(String tableName) {
+        return dependencies.get(tableName);
+    }
+
+    List<String> dependentsOf(String tableName) {
+        return dependents.get(tableName);
+    }
+
+    CbsTable table(String tableName) {
+        return tables.get(tableName);
+    }
+
+    /**
+     * Longest critical path first, then sync_order.
+     */
+    Comparator<CbsTable> priority() {
+        return Comparator.<CbsTable>comparingLong(t -> criticalPath.getOrDefault(t.getTableName(), 0L)).reversed()
+                .thenComparing(t -> t.getSyncOrder() != null ? t.getSyncOrder() : Integer.MAX_VALUE);
+    }
+
+    /**
+     * Kahn's algorithm, ready tables taken in sync_order.
+     */
+    private List<CbsTable> computeTopologicalOrder() {
+        Map<String, Integer> pending = new HashMap<>();
+        PriorityQueue<CbsTable> ready = new PriorityQueue<>(
+                Comparator.comparing(t -> t.getSyncOrder() != null ? t.getSyncOrder() : Integer.MAX_VALUE));
+        for (CbsTable table : tables.values()) {
+            int count = dependencies.get(table.getTableName()).size();
+            pending.put(table.getTableName(), count);
+            if (count == 0) ready.add(table);
+        }
+
+        List<CbsTable> order = new ArrayList<>(tables.size());
+        while (!ready.isEmpty()) {
+            CbsTable table = ready.poll();
+            order.add(table);
+            for (String dependent : dependents.get(table.getTableName())) {
+                if (pending.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(tables.get(dependent));
+                }
+            }
+        }
+        return order.size() == tables.size() ? order : null;
+    }
+
+    private static long duration(CbsTable table) {
+        return table.getLastSyncDurationMs() != null ? table.getLastSyncDurationMs() : 0L;
+    }
+
+    private static List<String> parseDependsOn(String dependsOn) {
+        if (dependsOn == null || dependsOn.isBlank()) return List.of();
+        return Arrays.stream(dependsOn.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .toList();
+    }
+}
@@ -0,0 +1,171 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.dto.SyncDeadLetterDto;
+import com.adakalgroup.bdqm.model.SyncDeadLetter;
+import com.adakalgroup.bdqm.model.enums.DeadLetterStatus;
+import com.adakalgroup.bdqm.repository.SyncDeadLetterRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Dead-letter queue of the sync: CBS rows isolated from failed batches (see SyncPipeline), kept with
+ * their raw values and error. A row is replayed through the same upsert and validation as a sync once
+ * its cause is fixed, or discarded.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "app.features.informix-integration", havingValue = "true", matchIfMissing = false)
+public class SyncDeadLetterService {
+
+    private final SyncDeadLetterRepository syncDeadLetterRepository;
+    private final DynamicCbsQueryService dynamicCbsQueryService;
+    private final CbsDataDictionaryService dataDictionaryService;
+    private final CbsValidationService cbsValidationService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Store a rejected row. Runs in its own transaction so it is kept whatever happens to the batch.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void record(String tableName, Long syncRunId, String stage, Map<String, Object> record, String error) {
+        syncDeadLetterRepository.save(SyncDeadLetter.builder()
+                .tableName(tableName)
+                .syncRunId(syncRunId)
+                .stage(stage)
+                .pkValue(truncate(dynamicCbsQueryService.describeKey(tableName, record), 500))
+                .recordData(TypedValueCodec.writeRow(record))
+                .errorMessage(error)
+                .build());
+    }
+
+    public List<SyncDeadLetterDto> getDeadLetters(String tableName, DeadLetterStatus status, int limit) {
+        PageRequest page = PageRequest.of(0, Math.max(1, limit));
+        boolean byTable = tableName != null && !tableName.isBlank();
+        List<SyncDeadLetter> deadLetters;
+        if (byTable && status != null) {
+            deadLetters = syncDeadLetterRepository.findByTableNameAndStatusOrderByIdDesc(tableName, status, page);
+        } else if (byTable) {
+            deadLetters = syncDeadLetterRepository.findByTableNameOrderByIdDesc(tableName, page);
+        } else if (status != null) {
+            deadLetters = syncDeadLetterRepository.findByStatusOrderByIdDesc(status, page);
+        } else {
+            deadLetters = syncDeadLetterRepository.findAllByOrderByIdDesc(page);
+        }
+        return deadLetters.stream().map(this::mapToDto).toList();
+    }
+
+    public Optional<SyncDeadLetterDto> getDeadLetter(Long id) {
+        return syncDeadLetterRepository.findById(id).map(this::mapToDto);
+    }
+
+    /**
+     * Upsert the row into the mirror again and, if the table is validated, validate it.
+     * Success marks it REPLAYED; a new failure keeps it PENDING with the new error and one more attempt.
+     */
+    public SyncDeadLetterDto replay(Long id) {
+        SyncDeadLetter deadLetter = syncDeadLetterRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Dead letter not found: " + id));
+        if (deadLetter.getStatus() != DeadLetterStatus.PENDING) {
+            throw new IllegalStateException("Dead letter " + id + " is " + deadLetter.getStatus());
+        }
+
+        String tableName = deadLetter.getTableName();
+        Map<String, Object> record = TypedValueCodec.readRow(deadLetter.getRecordData());
+        String error = null;
+        try {
+            List<String> rejections = new ArrayList<>();
+            int upserted = dynamicCbsQueryService.upsertToMirror(tableName, List.of(record),
+                    (r, message) -> rejections.add(message));
+            if (upserted == 0) {
+                error = rejections.isEmpty() ? "Row was not written to the mirror" : rejections.get(0);
+            } else if (isValidationEnabled(tableName)) {
+                try {
+                    cbsValidationService.validateRecords(tableName, RowBatch.of(List.of(record)));
+                } catch (RuntimeException e) {
+                    transactionTemplate.executeWithoutResult(status ->
+                            dynamicCbsQueryService.invalidateRowHashes(tableName, List.of(record)));
+                    throw e;
+                }
+            }
+        } catch (RuntimeException e) {
+            error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        }
+
+        if (error == null) {
+            deadLetter.setStatus(DeadLetterStatus.REPLAYED);
+            deadLetter.setReplayedAt(LocalDateTime.now());
+            log.info("Dead letter {} ({} {}) replayed", id, tableName, deadLetter.getPkValue());
+        } else {
+            deadLetter.setAttempts(deadLetter.getAttempts() + 1);
+            deadLetter.setErrorMessage(error);
+            log.warn("Dead letter {} ({} {}) failed again: {}", id, tableName, deadLetter.getPkValue(), error);
+        }
+        return mapToDto(syncDeadLetterRepository.save(deadLetter));
+    }
+
+    /**
+     * Replay the oldest pending rows of a table, up to limit.
+     */
+    public ReplaySummary replayTable(String tableName, int limit) {
+        List<SyncDeadLetter> pending = syncDeadLetterRepository.findByTableNameAndStatusOrderById(
+                tableName, DeadLetterStatus.PENDING, PageRequest.of(0, Math.max(1, limit)));
+        int replayed = 0;
+        for (SyncDeadLetter deadLetter : pending) {
+            if (replay(deadLetter.getId()).getStatus() == DeadLetterStatus.REPLAYED) replayed++;
+        }
+        return new ReplaySummary(pending.size(), replayed, pending.size() - replayed,
+                syncDeadLetterRepository.countByTableNameAndStatus(tableName, DeadLetterStatus.PENDING));
+    }
+
+    @Transactional
+    public SyncDeadLetterDto discard(Long id) {
+        SyncDeadLetter deadLetter = syncDeadLetterRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Dead letter not found: " + id));
+        deadLetter.setStatus(DeadLetterStatus.DISCARDED);
+        return mapToDto(syncDeadLetterRepository.save(deadLetter));
+    }
+
+    /**
+     * @param remaining rows of the table still pending after the replay
+     */
+    public record ReplaySummary(int attempted, int replayed, int failed, long remaining) {}
+
+    private boolean isValidationEnabled(String tableName) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                dataDictionaryService.getTableByName(tableName).getValidationEnabled()));
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private SyncDeadLetterDto mapToDto(SyncDeadLetter deadLetter) {
+        return SyncDeadLetterDto.builder()
+                .id(deadLetter.getId())
+                .tableName(deadLetter.getTableName())
+                .syncRunId(deadLetter.getSyncRunId())
+                .stage(deadLetter.getStage())
+                .pkValue(deadLetter.getPkValue())
+                .record(TypedValueCodec.readRow(deadLetter.getRecordData()))
+                .errorMessage(deadLetter.getErrorMessage())
+                .status(deadLetter.getStatus())
+                .attempts(deadLetter.getAttempts())
+                .createdAt(deadLetter.getCreatedAt())
+                .updatedAt(deadLetter.getUpdatedAt())
+                .replayedAt(deadLetter.getReplayedAt())
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.adakalgroup.bdqm.service;
+
+/**
+ * Identity and cancellation flag of the sync job a DataSyncService call runs for.
+ * Cancellation is cooperative: no new table starts, and running tables stop at their next batch,
+ * keeping their checkpoints so the next sync resumes them.
+ */
+public final class SyncJobContext {
+
+    /** Direct calls outside of a job: no job id, never cancelled. */
+    public static final SyncJobContext NONE = new SyncJobContext(null);
+
+    private final String jobId;
+    private volatile boolean cancelled;
+
+    public SyncJobContext(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String jobId() {
+        return jobId;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    void cancel() {
+        if (this != NONE) cancelled = true;
+    }
+}
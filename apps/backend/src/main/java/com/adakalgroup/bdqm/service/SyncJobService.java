@@ -0,0 +1,291 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.dto.SyncJobDto;
+import com.adakalgroup.bdqm.model.enums.SyncJobStatus;
+import com.adakalgroup.bdqm.model.enums.SyncJobType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Asynchronous sync jobs. A submitted sync (all tables or one table), delete reconciliation or table
+ * validation gets a job id at once and is queued; jobs run one at a time on a single worker, so manual and scheduled
+ * syncs never overlap. A submission already covered by a queued or running job (same type and table,
+ * or a sync of all tables for a table sync) returns that job instead of queuing a new one. Finished
+ * jobs are kept in memory, most recent history-size only.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "app.features.informix-integration", havingValue = "true", matchIfMissing = false)
+public class SyncJobService {
+
+    private final DataSyncService dataSyncService;
+    private final SyncProgressService syncProgressService;
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(r -> new Thread(r, "sync-job-worker"));
+
+    /** Jobs by id, in submission order. Guarded by itself. */
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    @Value("${app.sync.jobs.history-size:100}")
+    private int historySize;
+
+    public SyncJobService(DataSyncService dataSyncService, SyncProgressService syncProgressService) {
+        this.dataSyncService = dataSyncService;
+        this.syncProgressService = syncProgressService;
+    }
+
+    /**
+     * @param deduplicated true if an existing queued or running job already covers the request
+     */
+    public record Submission(SyncJobDto job, boolean deduplicated) {}
+
+    private static final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final SyncJobType type;
+        private final String tableName;
+        private final String submittedBy;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private final SyncJobContext context = new SyncJobContext(id);
+        private volatile SyncJobStatus status = SyncJobStatus.QUEUED;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile String error;
+        private volatile List<DataSyncService.SyncResult> results = List.of();
+        /** Result of a job that is not a sync (DeleteResult, ValidationResult), null until it has finished. */
+        private volatile Object outcome;
+
+        Job(SyncJobType type, String tableName, String submittedBy) {
+            this.type = type;
+            this.tableName = tableName;
+            this.submittedBy = submittedBy;
+        }
+
+        boolean isActive() {
+            return status == SyncJobStatus.QUEUED || status == SyncJobStatus.RUNNING;
+        }
+
+        boolean covers(SyncJobType otherType, String otherTable) {
+            if (type == SyncJobType.ALL) return otherType == SyncJobType.ALL || otherType == SyncJobType.TABLE;
+            return type == otherType && tableName.equals(otherTable);
+        }
+
+        boolean isSync() {
+            return type == SyncJobType.ALL || type == SyncJobType.TABLE;
+        }
+    }
+
+    public Submission submitAll(String submittedBy) {
+        return submit(SyncJobType.ALL, null, submittedBy);
+    }
+
+    public Submission submitTable(String tableName, String submittedBy) {
+        return submit(SyncJobType.TABLE, tableName, submittedBy);
+    }
+
+    /**
+     * Delete reconciliation of one table (see DataSyncService#reconcileDeletes). It cannot be cancelled
+     * once running.
+     */
+    public Submission submitReconcileDeletes(String tableName, String submittedBy) {
+        return submit(SyncJobType.RECONCILE_DELETES, tableName, submittedBy);
+    }
+
+    /**
+     * Validation of every live mirror row of one table (see DataSyncService#validateTable). It cannot be
+     * cancelled once running.
+     */
+    public Submission submitValidate(String tableName, String submittedBy) {
+        return submit(SyncJobType.VALIDATE, tableName, submittedBy);
+    }
+
+    private Submission submit(SyncJobType type, String tableName, String submittedBy) {
+        Job job;
+        synchronized (jobs) {
+            for (Job existing : jobs.values()) {
+                if (existing.isActive() && !existing.context.isCancelled() && existing.covers(type, tableName)) {
+                    log.info("Sync job {} {} requested by '{}' already covered by job {} ({})", type,
+                            tableName != null ? tableName : "", submittedBy, existing.id, existing.status);
+                    return new Submission(toDto(existing), true);
+                }
+            }
+            job = new Job(type, tableName, submittedBy);
+            jobs.put(job.id, job);
+            evictFinished();
+        }
+        log.info("Sync job {} queued: {} {} (requested by '{}')", job.id, type,
+                tableName != null ? tableName : "", submittedBy);
+        emit(job);
+        worker.submit(() -> run(job));
+        return new Submission(toDto(job), false);
+    }
+
+    private void run(Job job) {
+        synchronized (jobs) {
+            if (job.status != SyncJobStatus.QUEUED) return;
+            job.status = SyncJobStatus.RUNNING;
+            job.startedAt = LocalDateTime.now();
+        }
+        emit(job);
+        try {
+            switch (job.type) {
+                case ALL -> job.results = dataSyncService.syncAll(job.context);
+                case TABLE -> job.results = List.of(dataSyncService.syncTable(job.tableName, job.context));
+                case RECONCILE_DELETES -> job.outcome = dataSyncService.reconcileDeletes(job.tableName);
+                case VALIDATE -> job.outcome = dataSyncService.validateTable(job.tableName);
+            }
+            job.status = job.context.isCancelled() ? SyncJobStatus.CANCELLED : SyncJobStatus.COMPLETED;
+            for (DataSyncService.SyncResult r : job.results) {
+                log.info("  Table '{}': upserted={}, unchanged={}, validated={}, anomalies={}, errors={}, duration={}s",
+                        r.entity(), r.upserted(), r.unchanged(), r.validated(), r.anomaliesCreated(), r.errors(),
+                        r.durationSeconds());
+            }
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            job.status = job.context.isCancelled() ? SyncJobStatus.CANCELLED : SyncJobStatus.FAILED;
+            if (job.status == SyncJobStatus.FAILED) {
+                log.error("Sync job {} failed: {}", job.id, e.getMessage(), e);
+            }
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+        if (job.isSync()) {
+            log.info("Sync job {} {}: {} tables processed", job.id, job.status, job.results.size());
+        } else {
+            log.info("Sync job {} {}: {} {}", job.id, job.status, job.type, job.tableName);
+        }
+        emit(job);
+    }
+
+    /**
+     * Cancel a job: a queued job is dropped, a running sync stops at its next batch boundary.
+     */
+    public SyncJobDto cancel(String jobId) {
+        Job job;
+        synchronized (jobs) {
+            job = jobs.get(jobId);
+            if (job == null) {
+                throw new IllegalArgumentException("Sync job not found: " + jobId);
+            }
+            if (!job.isActive()) {
+                throw new IllegalStateException("Sync job " + jobId + " is already " + job.status);
+            }
+            if (!job.isSync() && job.status == SyncJobStatus.RUNNING) {
+                throw new IllegalStateException("Sync job " + jobId + " (" + job.type + ") cannot be cancelled once running");
+            }
+            job.context.cancel();
+            if (job.status == SyncJobStatus.QUEUED) {
+                job.status = SyncJobStatus.CANCELLED;
+                job.finishedAt = LocalDateTime.now();
+            }
+        }
+        log.info("Sync job {} cancellation requested ({})", jobId, job.status);
+        emit(job);
+        return toDto(job);
+    }
+
+    public Optional<SyncJobDto> getJob(String jobId) {
+        synchronized (jobs) {
+            return Optional.ofNullable(jobs.get(jobId)).map(this::toDto);
+        }
+    }
+
+    /**
+     * Per-table results of a job, empty until it has finished.
+     */
+    public Optional<List<DataSyncService.SyncResult>> getResults(String jobId) {
+        synchronized (jobs) {
+            Job job = jobs.get(jobId);
+            if (job == null) {
+                throw new IllegalArgumentException("Sync job not found: " + jobId);
+            }
+            return job.isActive() ? Optional.empty() : Optional.of(job.results);
+        }
+    }
+
+    /**
+     * Result of a finished job that is not a sync: the DeleteResult of a delete reconciliation, the
+     * ValidationResult of a table validation; empty until it has finished or if it failed.
+     */
+    public <T> Optional<T> getOutcome(String jobId, Class<T> type) {
+        synchronized (jobs) {
+            Job job = jobs.get(jobId);
+            if (job == null) {
+                throw new IllegalArgumentException("Sync job not found: " + jobId);
+            }
+            return type.isInstance(job.outcome) ? Optional.of(type.cast(job.outcome)) : Optional.empty();
+        }
+    }
+
+    /**
+     * Most recent jobs first.
+     */
+    public List<SyncJobDto> getJobs(int limit) {
+        synchronized (jobs) {
+            List<SyncJobDto> result = new ArrayList<>();
+            for (Job job : jobs.values()) {
+                result.add(0, toDto(job));
+            }
+            return result.subList(0, Math.min(Math.max(1, limit), result.size()));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (jobs) {
+            jobs.values().stream().filter(Job::isActive).forEach(job -> job.context.cancel());
+        }
+        worker.shutdownNow();
+    }
+
+    private void evictFinished() {
+        int finished = (int) jobs.values().stream().filter(j -> !j.isActive()).count();
+        Iterator<Job> it = jobs.values().iterator();
+        while (finished > historySize && it.hasNext()) {
+            if (!it.next().isActive()) {
+                it.remove();
+                finished--;
+            }
+        }
+    }
+
+    private void emit(Job job) {
+        syncProgressService.emitJobStatus(job.id, job.type.name(), job.tableName, job.status.name(), job.error);
+    }
+
+    private SyncJobDto toDto(Job job) {
+        List<DataSyncService.SyncResult> results = job.results;
+        // Sync totals only: other jobs report through getOutcome
+        boolean finished = !job.isActive() && job.isSync();
+        return SyncJobDto.builder()
+                .id(job.id)
+                .type(job.type)
+                .tableName(job.tableName)
+                .status(job.status)
+                .submittedBy(job.submittedBy)
+                .submittedAt(job.submittedAt)
+                .startedAt(job.startedAt)
+                .finishedAt(job.finishedAt)
+                .cancelRequested(job.context.isCancelled())
+                .error(job.error)
+                .tablesProcessed(finished ? results.size() : null)
+                .upserted(finished ? results.stream().mapToLong(DataSyncService.SyncResult::upserted).sum() : null)
+                .validated(finished ? results.stream().mapToLong(DataSyncService.SyncResult::validated).sum() : null)
+                .anomaliesCreated(finished
+                        ? results.stream().mapToLong(DataSyncService.SyncResult::anomaliesCreated).sum() : null)
+                .errors(finished ? results.stream().mapToLong(DataSyncService.SyncResult::errors).sum() : null)
+                .build();
+    }
+}
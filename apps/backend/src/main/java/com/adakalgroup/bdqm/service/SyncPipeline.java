@@ -0,0 +1,460 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.config.metrics.BusinessMetricsConfig;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Extract → load → validate pipeline for one table sync.
+ * The extractor runs on the calling thread, load and validate each run on their own thread,
+ * connected by bounded queues: batch N+1 is fetched from Informix while batch N is written
+ * to the mirror and validated. A full queue blocks the upstream stage (backpressure), so at
+ * most queueCapacity batches wait between two stages.
+ * <p>
+ * Each stage call is retried. A batch that still fails is bisected: its halves are processed
+ * again, recursively, until the failing records are isolated. Those go to the dead-letter sink
+ * and count as errors; the rest of the batch is loaded and validated normally. Without a sink,
+ * or past maxDeadLettersPerBatch isolated records, the remaining failing records are only counted
+ * as errors.
+ */
+@Slf4j
+class SyncPipeline {
+
+    /**
+     * Produces the next batch, or null when the source is exhausted.
+     * Responsible for its own retries: an exception here stops the extraction.
+     * Closed by the pipeline once extraction ends.
+     */
+    interface Extractor extends AutoCloseable {
+        Batch next() throws Exception;
+
+        /**
+         * True if the scan stopped early on a fetch failure, leaving the rest of the source unread.
+         */
+        default boolean aborted() {
+            return false;
+        }
+
+        @Override
+        default void close() {
+        }
+    }
+
+    /**
+     * Processes one batch, filling in its counters.
+     */
+    interface Stage {
+        void process(Batch batch) throws Exception;
+    }
+
+    /**
+     * Receives a record isolated from a failed batch, with the stage and error that rejected it.
+     */
+    interface DeadLetterSink {
+        void accept(String stage, Map<String, Object> record, Exception error);
+    }
+
+    @Getter
+    @Setter
+    static final class Batch {
+        private final int offset;
+        private final int fetched;
+        /** Fetched records, less those rejected by a stage (see bisect). */
+        private List<Map<String, Object>> records;
+        private final long createdAt = System.currentTimeMillis();
+        /** Time spent in each stage that processed the batch (extract, load, validate). */
+        private final Map<String, Long> stageMillis = new HashMap<>();
+        private List<Map<String, Object>> changedRecords;
+        /** Key of the last record of the batch (keyset mode), recorded in the sync checkpoint. */
+        private Map<String, Object> lastKey;
+        private int inserted;
+        private int updated;
+        private int unchanged;
+        private int upserted;
+        private int validated;
+        private int anomalies;
+        private int errors;
+        private boolean failed;
+
+        Batch(int offset, List<Map<String, Object>> records) {
+            this.offset = offset;
+            this.fetched = records.size();
+            this.records = records;
+            this.changedRecords = records;
+        }
+
+        private Batch(int offset, int fetched) {
+            this.offset = offset;
+            this.fetched = fetched;
+            this.records = List.of();
+            this.changedRecords = List.of();
+        }
+
+        /**
+         * Placeholder for a batch that could not be fetched: its expected size is counted as errors.
+         */
+        static Batch failed(int offset, int expectedSize) {
+            Batch batch = new Batch(offset, expectedSize);
+            batch.markFailed();
+            return batch;
+        }
+
+        long getStageMillis(String stage) {
+            return stageMillis.getOrDefault(stage, 0L);
+        }
+
+        void setStageMillis(String stage, long millis) {
+            stageMillis.put(stage, millis);
+        }
+
+        /**
+         * Unprocessed batch over records [from, to), keeping only the changed records of that slice.
+         *
+         * @param changed this batch's changed records, or null when all of its records are changed
+         */
+        Batch slice(int from, int to, Set<Map<String, Object>> changed) {
+            Batch slice = new Batch(offset, records.subList(from, to));
+            if (changed != null) {
+                slice.changedRecords = slice.records.stream().filter(changed::contains).toList();
+            }
+            return slice;
+        }
+
+        void markFailed() {
+            this.failed = true;
+            this.errors = fetched;
+        }
+    }
+
+    record Result(int fetched, int inserted, int updated, int unchanged,
+                  int upserted, int validated, int anomalies, int errors) {
+
+        static final Result EMPTY = new Result(0, 0, 0, 0, 0, 0, 0, 0);
+
+        Result plus(Result o) {
+            return new Result(fetched + o.fetched, inserted + o.inserted, updated + o.updated,
+                    unchanged + o.unchanged, upserted + o.upserted, validated + o.validated,
+                    anomalies + o.anomalies, errors + o.errors);
+        }
+    }
+
+    private static final class Totals {
+        private int fetched;
+        private int inserted;
+        private int updated;
+        private int unchanged;
+        private int upserted;
+        private int validated;
+        private int anomalies;
+        private int errors;
+
+        void add(Batch batch) {
+            fetched += batch.getFetched();
+            inserted += batch.getInserted();
+            updated += batch.getUpdated();
+            unchanged += batch.getUnchanged();
+            upserted += batch.getUpserted();
+            validated += batch.getValidated();
+            anomalies += batch.getAnomalies();
+            errors += batch.getErrors();
+        }
+
+        Result toResult() {
+            return new Result(fetched, inserted, updated, unchanged, upserted, validated, anomalies, errors);
+        }
+    }
+
+    /**
+     * Stage counters of a batch, to undo a failed attempt and to sum bisected slices.
+     */
+    private record Counters(List<Map<String, Object>> changedRecords, int inserted, int updated, int unchanged,
+                            int upserted, int validated, int anomalies, int errors) {
+
+        static Counters of(Batch b) {
+            return new Counters(b.changedRecords, b.inserted, b.updated, b.unchanged, b.upserted, b.validated,
+                    b.anomalies, b.errors);
+        }
+
+        void restore(Batch b) {
+            b.changedRecords = changedRecords;
+            b.inserted = inserted;
+            b.updated = updated;
+            b.unchanged = unchanged;
+            b.upserted = upserted;
+            b.validated = validated;
+            b.anomalies = anomalies;
+            b.errors = errors;
+        }
+    }
+
+    private static final Batch END = new Batch(-1, 0);
+
+    private final String tableName;
+    private final int queueCapacity;
+    private final int retries;
+    private final BusinessMetricsConfig metricsConfig;
+    private final DeadLetterSink deadLetters;
+    private final int maxDeadLettersPerBatch;
+
+    SyncPipeline(String tableName, int queueCapacity, int retries, BusinessMetricsConfig metricsConfig) {
+        this(tableName, queueCapacity, retries, metricsConfig, null, 0);
+    }
+
+    /**
+     * @param deadLetters            receives records isolated from failed batches, null to only count them as errors
+     * @param maxDeadLettersPerBatch records isolated per batch and stage before the bisect gives up, so a
+     *                               failure that affects every record (mirror down) does not dead-letter a whole batch
+     */
+    SyncPipeline(String tableName, int queueCapacity, int retries, BusinessMetricsConfig metricsConfig,
+                 DeadLetterSink deadLetters, int maxDeadLettersPerBatch) {
+        this.tableName = tableName;
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.retries = Math.max(1, retries);
+        this.metricsConfig = metricsConfig;
+        this.deadLetters = deadLetters;
+        this.maxDeadLettersPerBatch = Math.max(0, maxDeadLettersPerBatch);
+    }
+
+    /**
+     * Run the pipeline until the extractor is exhausted and every batch has gone through all stages.
+     *
+     * @param validate   optional, null to skip validation
+     * @param onComplete called on the validate thread for every batch, in extraction order
+     */
+    Result run(Extractor extractor, Stage load, Stage validate, Consumer<Batch> onComplete) {
+        BlockingQueue<Batch> loadQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Batch> validateQueue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService executor = Executors.newFixedThreadPool(2, r -> new Thread(r, "sync-" + tableName));
+        Totals totals = new Totals();
+
+        try {
+            Future<?> validator = executor.submit(() -> {
+                consume(validateQueue, "validate", validate, null, null, batch -> {
+                    totals.add(batch);
+                    onComplete.accept(batch);
+                });
+                return null;
+            });
+            Future<?> loader = executor.submit(() -> {
+                consume(loadQueue, "load", load, validateQueue, validator, null);
+                return null;
+            });
+
+            Exception extractFailure = null;
+            try (extractor) {
+                Batch batch;
+                while ((batch = extract(extractor)) != null) {
+                    put(loadQueue, batch, "extract", loader);
+                }
+            } catch (Exception e) {
+                extractFailure = e;
+            }
+            if (!loader.isDone()) {
+                put(loadQueue, END, "extract", loader);
+            }
+
+            loader.get();
+            validator.get();
+            if (extractFailure != null) {
+                throw new IllegalStateException("Extraction failed for table " + tableName, extractFailure);
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Sync pipeline failed for table " + tableName, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Sync pipeline interrupted for table " + tableName, e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return totals.toResult();
+    }
+
+    private Batch extract(Extractor extractor) throws Exception {
+        long start = System.currentTimeMillis();
+        Batch batch = extractor.next();
+        if (batch != null && !batch.isFailed()) {
+            long duration = System.currentTimeMillis() - start;
+            batch.setStageMillis("extract", duration);
+            metricsConfig.recordSyncStage(tableName, "extract", batch.getFetched(), duration);
+        }
+        return batch;
+    }
+
+    private void consume(BlockingQueue<Batch> queue, String stageName, Stage stage,
+                         BlockingQueue<Batch> downstream, Future<?> downstreamConsumer,
+                         Consumer<Batch> sink) throws InterruptedException {
+        while (true) {
+            Batch batch = queue.take();
+            if (batch == END) {
+                if (downstream != null) put(downstream, END, stageName, downstreamConsumer);
+                return;
+            }
+            if (stage != null && !batch.isFailed()) {
+                process(stageName, stage, batch);
+            }
+            if (downstream != null) {
+                put(downstream, batch, stageName, downstreamConsumer);
+            } else {
+                sink.accept(batch);
+            }
+        }
+    }
+
+    private void process(String stageName, Stage stage, Batch batch) {
+        Counters before = Counters.of(batch);
+        long start = System.currentTimeMillis();
+        for (int attempt = 1; attempt <= retries; attempt++) {
+            try {
+                stage.process(batch);
+                recordStage(stageName, batch, start);
+                return;
+            } catch (Exception e) {
+                log.warn("Table '{}': {} failed for batch offset={} (attempt {}/{}): {}",
+                        tableName, stageName, batch.getOffset(), attempt, retries, e.getMessage());
+                before.restore(batch);
+            }
+        }
+        if (deadLetters == null || maxDeadLettersPerBatch == 0 || batch.getRecords().isEmpty()) {
+            log.error("Table '{}': {} failed for batch offset={} after {} retries, skipping", tableName, stageName,
+                    batch.getOffset(), retries);
+            batch.markFailed();
+            return;
+        }
+        log.warn("Table '{}': {} failed for batch offset={} after {} retries, bisecting {} records",
+                tableName, stageName, batch.getOffset(), retries, batch.getRecords().size());
+        new Bisect(stageName, stage, batch).run();
+        recordStage(stageName, batch, start);
+    }
+
+    private void recordStage(String stageName, Batch batch, long start) {
+        long duration = System.currentTimeMillis() - start;
+        batch.setStageMillis(stageName, duration);
+        metricsConfig.recordSyncStage(tableName, stageName, batch.getFetched(), duration);
+    }
+
+    /**
+     * Bisect of a batch that failed every retry. Each slice is processed once; a failing slice is split
+     * in two until single failing records remain, which are dead-lettered and dropped from the batch.
+     * The batch counters become the sum of its successful slices.
+     */
+    private final class Bisect {
+        private final String stageName;
+        private final Stage stage;
+        private final Batch batch;
+        private final Set<Map<String, Object>> changed;
+        private final Set<Map<String, Object>> rejected = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final List<Map<String, Object>> changedRecords = new ArrayList<>();
+        private final Batch total;
+        private int deadLettered;
+        private int skipped;
+
+        Bisect(String stageName, Stage stage, Batch batch) {
+            this.stageName = stageName;
+            this.stage = stage;
+            this.batch = batch;
+            if (batch.getChangedRecords() == batch.getRecords()) {
+                this.changed = null;
+            } else {
+                this.changed = Collections.newSetFromMap(new IdentityHashMap<>());
+                this.changed.addAll(batch.getChangedRecords());
+            }
+            this.total = new Batch(batch.getOffset(), List.of());
+            Counters.of(batch).restore(total);
+        }
+
+        void run() {
+            split(0, batch.getRecords().size());
+
+            List<Map<String, Object>> records = batch.getRecords();
+            if (!rejected.isEmpty()) {
+                batch.setRecords(records.stream().filter(r -> !rejected.contains(r)).toList());
+            }
+            Counters.of(total).restore(batch);
+            batch.setChangedRecords(changedRecords);
+            batch.setErrors(batch.getErrors() + rejected.size());
+            if (skipped > 0) {
+                log.error("Table '{}': {} of batch offset={} stopped after {} dead-lettered records, {} records skipped",
+                        tableName, stageName, batch.getOffset(), deadLettered, skipped);
+            } else {
+                log.warn("Table '{}': {} of batch offset={} completed with {} dead-lettered records",
+                        tableName, stageName, batch.getOffset(), deadLettered);
+            }
+        }
+
+        private void split(int from, int to) {
+            List<Map<String, Object>> records = batch.getRecords();
+            if (deadLettered >= maxDeadLettersPerBatch) {
+                rejected.addAll(records.subList(from, to));
+                skipped += to - from;
+                return;
+            }
+            Batch slice = batch.slice(from, to, changed);
+            try {
+                stage.process(slice);
+                add(slice);
+                return;
+            } catch (Exception e) {
+                if (to - from == 1) {
+                    deadLetter(records.get(from), e);
+                    return;
+                }
+                log.debug("Table '{}': {} failed for records [{}, {}) of batch offset={}: {}",
+                        tableName, stageName, from, to, batch.getOffset(), e.getMessage());
+            }
+            int mid = (from + to) >>> 1;
+            split(from, mid);
+            split(mid, to);
+        }
+
+        private void add(Batch slice) {
+            changedRecords.addAll(slice.getChangedRecords());
+            total.inserted += slice.inserted;
+            total.updated += slice.updated;
+            total.unchanged += slice.unchanged;
+            total.upserted += slice.upserted;
+            total.validated += slice.validated;
+            total.anomalies += slice.anomalies;
+            total.errors += slice.errors;
+        }
+
+        private void deadLetter(Map<String, Object> record, Exception error) {
+            rejected.add(record);
+            deadLettered++;
+            try {
+                deadLetters.accept(stageName, record, error);
+            } catch (RuntimeException e) {
+                log.error("Table '{}': cannot dead-letter record of batch offset={}: {}",
+                        tableName, batch.getOffset(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Blocking put that gives up if the consumer of the queue has died, instead of waiting forever.
+     */
+    private void put(BlockingQueue<Batch> queue, Batch batch, String stageName, Future<?> consumer)
+            throws InterruptedException {
+        long start = System.currentTimeMillis();
+        while (!queue.offer(batch, 1, TimeUnit.SECONDS)) {
+            if (consumer.isDone()) {
+                throw new IllegalStateException("Downstream of " + stageName + " stopped for table " + tableName);
+            }
+        }
+        long blocked = System.currentTimeMillis() - start;
+        if (blocked > 0 && batch != END) {
+            metricsConfig.recordSyncStageBlocked(tableName, stageName, blocked);
+        }
+    }
+}
@@ -5,77 +5,127 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Manages SSE connections for real-time sync progress tracking.
- * Clients subscribe via GET /api/sync/progress and receive batch-level updates.
+ * Clients subscribe via GET /api/sync/progress and receive batch-level updates, either for every
+ * sync or for one sync job (GET /api/sync/jobs/{id}/progress). Events of a job carry its jobId.
  */
 @Service
 @Slf4j
 public class SyncProgressService {
 
-    private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    /**
+     * @param jobId only events of this job are sent, null for all events
+     */
+    private record Subscriber(SseEmitter emitter, String jobId) {}
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
 
     public SseEmitter subscribe() {
+        return subscribe(null);
+    }
+
+    public SseEmitter subscribe(String jobId) {
         SseEmitter emitter = new SseEmitter(600_000L); // 10 min timeout
-        emitters.add(emitter);
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitter.onError(e -> emitters.remove(emitter));
-        log.info("SSE client subscribed for sync progress ({} active)", emitters.size());
+        Subscriber subscriber = new Subscriber(emitter, jobId);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        log.info("SSE client subscribed for sync progress{} ({} active)",
+                jobId != null ? " of job " + jobId : "", subscribers.size());
         return emitter;
     }
 
-    public void emitBatchProgress(String tableName, int offset, int batchSize, long totalCount,
-                                   int upserted, int anomalies, long batchDurationMs) {
+    public void emitBatchProgress(String jobId, String tableName, int offset, int batchSize, long totalCount,
+                                   int upserted, int anomalies, long batchDurationMs,
+                                   int inserted, int changed, int unchanged) {
         double progress = totalCount > 0 ? Math.min(100.0, ((offset + batchSize) * 100.0) / totalCount) : 100.0;
 
-        Map<String, Object> event = Map.of(
-                "type", "BATCH",
-                "table", tableName,
-                "offset", offset,
-                "batchSize", batchSize,
-                "totalCount", totalCount,
-                "upserted", upserted,
-                "anomalies", anomalies,
-                "batchDurationMs", batchDurationMs,
-                "progress", Math.round(progress * 10.0) / 10.0
+        Map<String, Object> event = Map.ofEntries(
+                Map.entry("type", "BATCH"),
+                Map.entry("table", tableName),
+                Map.entry("offset", offset),
+                Map.entry("batchSize", batchSize),
+                Map.entry("totalCount", totalCount),
+                Map.entry("upserted", upserted),
+                Map.entry("anomalies", anomalies),
+                Map.entry("inserted", inserted),
+                Map.entry("changed", changed),
+                Map.entry("unchanged", unchanged),
+                Map.entry("batchDurationMs", batchDurationMs),
+                Map.entry("progress", Math.round(progress * 10.0) / 10.0)
         );
-        broadcast(event);
+        broadcast(jobId, event);
     }
 
-    public void emitTableComplete(String tableName, int totalUpserted, int totalAnomalies,
-                                   int errors, long durationMs, boolean cdc) {
+    public void emitTableComplete(String jobId, String tableName, int totalUpserted, int totalAnomalies,
+                                   int errors, long durationMs, boolean cdc,
+                                   int inserted, int changed, int unchanged) {
         Map<String, Object> event = Map.of(
                 "type", "TABLE_COMPLETE",
                 "table", tableName,
                 "upserted", totalUpserted,
                 "anomalies", totalAnomalies,
                 "errors", errors,
+                "inserted", inserted,
+                "changed", changed,
+                "unchanged", unchanged,
                 "durationMs", durationMs,
                 "cdc", cdc
         );
-        broadcast(event);
+        broadcast(jobId, event);
     }
 
-    public void emitSyncComplete(int tablesProcessed, long totalDurationMs) {
+    public void emitSyncComplete(String jobId, int tablesProcessed, long totalDurationMs) {
         Map<String, Object> event = Map.of(
                 "type", "SYNC_COMPLETE",
                 "tablesProcessed", tablesProcessed,
                 "durationMs", totalDurationMs
         );
-        broadcast(event);
+        broadcast(jobId, event);
     }
 
-    private void broadcast(Map<String, Object> data) {
-        for (SseEmitter emitter : emitters) {
+    /**
+     * Job lifecycle: queued, running, then completed, failed or cancelled. A job's own subscribers
+     * are completed once it has finished.
+     */
+    public void emitJobStatus(String jobId, String type, String tableName, String status, String error) {
+        Map<String, Object> event = new LinkedHashMap<>();
+        event.put("type", "JOB");
+        event.put("jobType", type);
+        if (tableName != null) event.put("table", tableName);
+        event.put("status", status);
+        if (error != null) event.put("error", error);
+        broadcast(jobId, event);
+
+        if (!"QUEUED".equals(status) && !"RUNNING".equals(status)) {
+            for (Subscriber subscriber : subscribers) {
+                if (jobId.equals(subscriber.jobId())) {
+                    subscriber.emitter().complete();
+                    subscribers.remove(subscriber);
+                }
+            }
+        }
+    }
+
+    private void broadcast(String jobId, Map<String, Object> data) {
+        Map<String, Object> event = data;
+        if (jobId != null) {
+            event = new LinkedHashMap<>(data);
+            event.put("jobId", jobId);
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.jobId() != null && !subscriber.jobId().equals(jobId)) continue;
             try {
-                emitter.send(SseEmitter.event().data(data));
+                subscriber.emitter().send(SseEmitter.event().data(event));
             } catch (IOException e) {
-                emitters.remove(emitter);
+                subscribers.remove(subscriber);
             }
         }
     }
@@ -0,0 +1,98 @@
+package com.adakalgroup.bdqm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JSON form of CBS values that keeps their Java type.
+ * Each value is stored as [type, text], so it is bound to Informix or PostgreSQL with its original
+ * JDBC type when read back (checkpoint keys, dead-letter rows).
+ */
+final class TypedValueCodec {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private TypedValueCodec() {
+    }
+
+    static String writeRow(Map<String, Object> row) {
+        Map<String, List<String>> encoded = new LinkedHashMap<>();
+        row.forEach((column, value) -> encoded.put(column, encode(value)));
+        try {
+            return objectMapper.writeValueAsString(encoded);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize row " + row, e);
+        }
+    }
+
+    static Map<String, Object> readRow(String json) {
+        if (json == null) return null;
+        try {
+            Map<String, List<String>> encoded = objectMapper.readValue(json,
+                    new TypeReference<LinkedHashMap<String, List<String>>>() {});
+            Map<String, Object> row = new LinkedHashMap<>();
+            encoded.forEach((column, value) -> row.put(column, decode(value)));
+            return row;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid row: " + json, e);
+        }
+    }
+
+    static String writeValue(Object value) {
+        if (value == null) return null;
+        try {
+            return objectMapper.writeValueAsString(encode(value));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize value " + value, e);
+        }
+    }
+
+    static Object readValue(String json) {
+        if (json == null) return null;
+        try {
+            return decode(objectMapper.readValue(json, new TypeReference<List<String>>() {}));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Invalid value: " + json, e);
+        }
+    }
+
+    private static List<String> encode(Object value) {
+        if (value == null) return Arrays.asList("null", null);
+        if (value instanceof java.sql.Timestamp ts) return List.of("timestamp", ts.toLocalDateTime().toString());
+        if (value instanceof java.sql.Date d) return List.of("date", d.toLocalDate().toString());
+        if (value instanceof LocalDateTime ldt) return List.of("localdatetime", ldt.toString());
+        if (value instanceof LocalDate ld) return List.of("localdate", ld.toString());
+        if (value instanceof Integer || value instanceof Short) return List.of("int", value.toString());
+        if (value instanceof Long) return List.of("long", value.toString());
+        if (value instanceof BigDecimal bd) return List.of("decimal", bd.toPlainString());
+        if (value instanceof Number) return List.of("double", value.toString());
+        if (value instanceof Boolean) return List.of("boolean", value.toString());
+        return List.of("string", String.valueOf(value));
+    }
+
+    private static Object decode(List<String> encoded) {
+        String text = encoded.get(1);
+        return switch (encoded.get(0)) {
+            case "null" -> null;
+            case "timestamp" -> java.sql.Timestamp.valueOf(LocalDateTime.parse(text));
+            case "date" -> java.sql.Date.valueOf(LocalDate.parse(text));
+            case "localdatetime" -> LocalDateTime.parse(text);
+            case "localdate" -> LocalDate.parse(text);
+            case "int" -> Integer.valueOf(text);
+            case "long" -> Long.valueOf(text);
+            case "decimal" -> new BigDecimal(text);
+            case "double" -> Double.valueOf(text);
+            case "boolean" -> Boolean.valueOf(text);
+            default -> text;
+        };
+    }
+}
@@ -0,0 +1,375 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.config.metrics.BusinessMetricsConfig;
+import com.adakalgroup.bdqm.dto.ValidationQueueStatsDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.jooq.DSLContext;
+import org.jooq.Record;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable queue of mirror rows awaiting validation (public.validation_queue), so that a sync only
+ * loads the mirror and validation catches up on its own.
+ * <ul>
+ *   <li>the sync load stage records the primary key of every written row; a row already waiting is
+ *   queued once,</li>
+ *   <li>a pool of workers on every replica claims batches with FOR UPDATE SKIP LOCKED, reads the rows
+ *   back from the mirror and validates them through CbsValidationService,</li>
+ *   <li>a failing batch is bisected; a row that still fails is retried with exponential backoff, then
+ *   marked FAILED after max-attempts and its row hash cleared so the next sync queues it again,</li>
+ *   <li>rows claimed by a worker that died are claimed again after lock-timeout-seconds.</li>
+ * </ul>
+ * Rows of a COPY load are queued HELD and only released once the staging table is merged into the mirror.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "app.features.informix-integration", havingValue = "true", matchIfMissing = false)
+public class ValidationQueueService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO public.validation_queue (table_name, key_data, sync_run_id, status) VALUES (?, ?, ?, ?) " +
+            "ON CONFLICT (table_name, key_data) WHERE status = 'PENDING' DO NOTHING";
+
+    private final DSLContext primaryDsl;
+    private final DynamicCbsQueryService dynamicCbsQueryService;
+    private final CbsValidationService cbsValidationService;
+    private final BusinessMetricsConfig metricsConfig;
+    private final String nodeId;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private ScheduledExecutorService pool;
+
+    @Value("${app.validation-queue.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.validation-queue.workers:2}")
+    private int workers;
+
+    @Value("${app.validation-queue.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.validation-queue.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    @Value("${app.validation-queue.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.validation-queue.retry-backoff-seconds:30}")
+    private int retryBackoffSeconds;
+
+    @Value("${app.validation-queue.lock-timeout-seconds:600}")
+    private int lockTimeoutSeconds;
+
+    public ValidationQueueService(@Qualifier("primaryDsl") DSLContext primaryDsl,
+                                  DynamicCbsQueryService dynamicCbsQueryService,
+                                  CbsValidationService cbsValidationService,
+                                  BusinessMetricsConfig metricsConfig,
+                                  ClusterLockService clusterLockService) {
+        this.primaryDsl = primaryDsl;
+        this.dynamicCbsQueryService = dynamicCbsQueryService;
+        this.cbsValidationService = cbsValidationService;
+        this.metricsConfig = metricsConfig;
+        this.nodeId = clusterLockService.nodeId();
+    }
+
+    private record Entry(long id, String tableName, String keyData, int attempts) {}
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            log.info("Validation queue disabled: syncs validate rows inline");
+            return;
+        }
+        metricsConfig.registerValidationQueue(depth::get, lagSeconds::get, failed::get);
+        AtomicInteger threads = new AtomicInteger();
+        pool = Executors.newScheduledThreadPool(workers + 1, r -> {
+            Thread thread = new Thread(r, "validation-worker-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            pool.scheduleWithFixedDelay(this::drain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        pool.scheduleWithFixedDelay(this::refreshGauges, 0, 15, TimeUnit.SECONDS);
+        log.info("Validation queue started: {} workers, batch size {}", workers, batchSize);
+    }
+
+    /**
+     * False when syncs validate inline (app.validation-queue.enabled=false).
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queue mirror rows for validation. With held, the rows wait for {@link #release(Long)}.
+     *
+     * @return number of rows queued (a row already waiting is not queued again)
+     */
+    public int enqueue(String tableName, Long runId, List<Map<String, Object>> records, boolean held) {
+        if (records.isEmpty()) return 0;
+        Set<String> keys = keyData(tableName, records);
+        String status = held ? "HELD" : "PENDING";
+        Object[][] bindings = keys.stream()
+                .map(key -> new Object[]{tableName, key, runId, status})
+                .toArray(Object[][]::new);
+        int queued = 0;
+        for (int count : primaryDsl.batch(INSERT_SQL, bindings).execute()) {
+            queued += Math.max(count, 0);
+        }
+        return queued;
+    }
+
+    /**
+     * Queue mirror rows on the connection of the transaction writing them, so that the rows and their
+     * queue entries commit or roll back together (see DynamicCbsQueryService.WriteListener).
+     */
+    public void enqueue(Connection connection, String tableName, Long runId, List<Map<String, Object>> records)
+            throws SQLException {
+        if (records.isEmpty()) return;
+        try (PreparedStatement ps = connection.prepareStatement(INSERT_SQL)) {
+            for (String key : keyData(tableName, records)) {
+                ps.setString(1, tableName);
+                ps.setString(2, key);
+                if (runId != null) ps.setLong(3, runId); else ps.setNull(3, Types.BIGINT);
+                ps.setString(4, "PENDING");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private Set<String> keyData(String tableName, List<Map<String, Object>> records) {
+        Set<String> keys = new LinkedHashSet<>();
+        for (Map<String, Object> key : dynamicCbsQueryService.mirrorKeys(tableName, records)) {
+            keys.add(TypedValueCodec.writeRow(key));
+        }
+        return keys;
+    }
+
+    /**
+     * Make the held rows of a sync run available to the workers.
+     */
+    public int release(Long runId) {
+        // A row already waiting will read the merged mirror too: keep one entry
+        primaryDsl.execute(
+                "DELETE FROM public.validation_queue h WHERE h.sync_run_id = ? AND h.status = 'HELD' AND EXISTS (" +
+                "SELECT 1 FROM public.validation_queue p WHERE p.status = 'PENDING' " +
+                "AND p.table_name = h.table_name AND p.key_data = h.key_data)", runId);
+        int released = primaryDsl.execute(
+                "UPDATE public.validation_queue SET status = 'PENDING', available_at = LOCALTIMESTAMP " +
+                "WHERE sync_run_id = ? AND status = 'HELD'", runId);
+        log.info("Validation queue: {} rows of sync run {} released", released, runId);
+        return released;
+    }
+
+    /**
+     * Drop the held rows of a table left by earlier COPY runs, whose staging table is being recreated.
+     */
+    public int discardHeld(String tableName) {
+        return primaryDsl.execute(
+                "DELETE FROM public.validation_queue WHERE table_name = ? AND status = 'HELD'", tableName);
+    }
+
+    /**
+     * Queue FAILED rows again (all tables when tableName is null), with fresh attempts.
+     *
+     * @return number of rows queued again
+     */
+    public int retryFailed(String tableName) {
+        String tableFilter = tableName != null ? " AND f.table_name = ?" : "";
+        Object[] params = tableName != null ? new Object[]{tableName} : new Object[0];
+        primaryDsl.execute(
+                "DELETE FROM public.validation_queue f WHERE f.status = 'FAILED'" + tableFilter + " AND EXISTS (" +
+                "SELECT 1 FROM public.validation_queue p WHERE p.status = 'PENDING' " +
+                "AND p.table_name = f.table_name AND p.key_data = f.key_data)", params);
+        return primaryDsl.execute(
+                "UPDATE public.validation_queue f SET status = 'PENDING', attempts = 0, available_at = LOCALTIMESTAMP, " +
+                "last_error = NULL WHERE f.status = 'FAILED'" + tableFilter, params);
+    }
+
+    /**
+     * Queue content per table.
+     */
+    public List<ValidationQueueStatsDto> getStats() {
+        return primaryDsl.fetch(
+                        "SELECT table_name, " +
+                        "COUNT(*) FILTER (WHERE status = 'PENDING'), " +
+                        "COUNT(*) FILTER (WHERE status = 'HELD'), " +
+                        "COUNT(*) FILTER (WHERE status = 'PROCESSING'), " +
+                        "COUNT(*) FILTER (WHERE status = 'FAILED'), " +
+                        "MIN(created_at) FILTER (WHERE status IN ('PENDING', 'PROCESSING')) " +
+                        "FROM public.validation_queue GROUP BY table_name ORDER BY table_name")
+                .map(r -> ValidationQueueStatsDto.builder()
+                        .tableName(r.get(0, String.class))
+                        .pending(r.get(1, Long.class))
+                        .held(r.get(2, Long.class))
+                        .processing(r.get(3, Long.class))
+                        .failed(r.get(4, Long.class))
+                        .oldestPendingAt(r.get(5, LocalDateTime.class))
+                        .build());
+    }
+
+    /**
+     * Claim and validate batches until the queue is empty (one worker).
+     */
+    void drain() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Entry> entries = claim();
+                if (entries.isEmpty()) return;
+                Map<String, List<Entry>> byTable = new LinkedHashMap<>();
+                for (Entry entry : entries) {
+                    byTable.computeIfAbsent(entry.tableName(), t -> new ArrayList<>()).add(entry);
+                }
+                byTable.forEach(this::process);
+                if (entries.size() < batchSize) return;
+            }
+        } catch (Exception e) {
+            log.error("Validation queue worker failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<Entry> claim() {
+        return primaryDsl.fetch(
+                        "UPDATE public.validation_queue SET status = 'PROCESSING', locked_by = ?, " +
+                        "locked_at = LOCALTIMESTAMP, attempts = attempts + 1 " +
+                        "WHERE id IN (SELECT id FROM public.validation_queue " +
+                        "WHERE (status = 'PENDING' AND available_at <= LOCALTIMESTAMP) " +
+                        "OR (status = 'PROCESSING' AND locked_at < LOCALTIMESTAMP - CAST(? AS integer) * INTERVAL '1 second') " +
+                        "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                        "RETURNING id, table_name, key_data, attempts",
+                        nodeId + "/" + Thread.currentThread().getName(), lockTimeoutSeconds, batchSize)
+                .map(r -> new Entry(r.get(0, Long.class), r.get(1, String.class), r.get(2, String.class),
+                        r.get(3, Integer.class)));
+    }
+
+    /**
+     * Validate the rows of one table. A failing batch is split in two until the failing rows are isolated.
+     */
+    private void process(String tableName, List<Entry> entries) {
+        long start = System.currentTimeMillis();
+        try {
+            List<Map<String, Object>> keys = entries.stream()
+                    .map(e -> TypedValueCodec.readRow(e.keyData()))
+                    .toList();
+            RowBatch rows = dynamicCbsQueryService.fetchMirrorRows(tableName, keys);
+            if (!rows.isEmpty()) {
+                CbsValidationService.ValidationResult vr = cbsValidationService.validateRecords(tableName, rows);
+                metricsConfig.recordValidationBatch(tableName, vr.anomaliesCreated(), vr.autoResolved(),
+                        System.currentTimeMillis() - start);
+                log.debug("Table '{}': {} queued rows validated — anomalies={}, autoResolved={}",
+                        tableName, rows.size(), vr.anomaliesCreated(), vr.autoResolved());
+            }
+            primaryDsl.execute("DELETE FROM public.validation_queue WHERE id IN (" + placeholders(entries.size()) + ")",
+                    ids(entries));
+            metricsConfig.recordValidationQueueBatch(tableName, "validated", entries.size(),
+                    System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            if (entries.size() > 1) {
+                int mid = entries.size() >>> 1;
+                process(tableName, entries.subList(0, mid));
+                process(tableName, entries.subList(mid, entries.size()));
+            } else {
+                retryOrFail(tableName, entries.get(0), e, System.currentTimeMillis() - start);
+            }
+        }
+    }
+
+    private void retryOrFail(String tableName, Entry entry, Exception error, long durationMs) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        try {
+            if (entry.attempts() >= maxAttempts) {
+                log.warn("Table '{}': validation of {} failed {} times, giving up: {}",
+                        tableName, entry.keyData(), entry.attempts(), message);
+                primaryDsl.execute("UPDATE public.validation_queue SET status = 'FAILED', locked_by = NULL, " +
+                        "locked_at = NULL, last_error = ? WHERE id = ?", message, entry.id());
+                dynamicCbsQueryService.invalidateRowHashes(tableName,
+                        List.of(TypedValueCodec.readRow(entry.keyData())));
+                metricsConfig.recordValidationQueueBatch(tableName, "failed", 1, durationMs);
+                return;
+            }
+            log.info("Table '{}': validation of {} failed (attempt {}), retrying later: {}",
+                    tableName, entry.keyData(), entry.attempts(), message);
+            // Changed again meanwhile: the waiting entry covers it
+            int superseded = primaryDsl.execute(
+                    "DELETE FROM public.validation_queue q WHERE q.id = ? AND EXISTS (" +
+                    "SELECT 1 FROM public.validation_queue p WHERE p.status = 'PENDING' " +
+                    "AND p.table_name = q.table_name AND p.key_data = q.key_data)", entry.id());
+            if (superseded == 0) {
+                primaryDsl.execute("UPDATE public.validation_queue SET status = 'PENDING', locked_by = NULL, " +
+                                "locked_at = NULL, last_error = ?, available_at = LOCALTIMESTAMP + " +
+                                "LEAST(3600, CAST(? AS integer) * POWER(2, attempts - 1)) * INTERVAL '1 second' " +
+                                "WHERE id = ?",
+                        message, retryBackoffSeconds, entry.id());
+            }
+            metricsConfig.recordValidationQueueBatch(tableName, "retried", 1, durationMs);
+        } catch (Exception e) {
+            // Left PROCESSING: claimed again once lock-timeout-seconds have passed
+            log.error("Table '{}': cannot reschedule validation of {}: {}", tableName, entry.keyData(), e.getMessage());
+        }
+    }
+
+    private void refreshGauges() {
+        try {
+            Record r = primaryDsl.fetchOne(
+                    "SELECT COUNT(*) FILTER (WHERE status IN ('PENDING', 'PROCESSING')), " +
+                    "COUNT(*) FILTER (WHERE status = 'FAILED'), " +
+                    "COALESCE(EXTRACT(EPOCH FROM LOCALTIMESTAMP - " +
+                    "MIN(created_at) FILTER (WHERE status IN ('PENDING', 'PROCESSING'))), 0) " +
+                    "FROM public.validation_queue");
+            depth.set(r.get(0, Long.class));
+            failed.set(r.get(1, Long.class));
+            lagSeconds.set(r.get(2, Double.class).longValue());
+        } catch (Exception e) {
+            log.warn("Validation queue: cannot refresh gauges: {}", e.getMessage());
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Object[] ids(List<Entry> entries) {
+        return entries.stream().map(Entry::id).toArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (pool == null) return;
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,7 +2,6 @@ package com.adakalgroup.bdqm.service;
 
 import com.adakalgroup.bdqm.dto.ValidationRuleDto;
 import com.adakalgroup.bdqm.model.Anomaly;
-import com.adakalgroup.bdqm.model.RuleCondition;
 import com.adakalgroup.bdqm.model.ValidationRule;
 import com.adakalgroup.bdqm.model.enums.AnomalyStatus;
 import com.adakalgroup.bdqm.model.enums.ClientType;
@@ -24,6 +23,7 @@ public class ValidationService {
 
     private final ValidationRuleRepository validationRuleRepository;
     private final AnomalyRepository anomalyRepository;
+    private final RulePlanCache rulePlanCache;
     private final NaturalLanguageRuleParser ruleParser;
 
     public List<ValidationRuleDto> getAllRules() {
@@ -57,6 +57,7 @@ public class ValidationService {
     @Transactional
     public ValidationRuleDto createRule(ValidationRuleDto dto) {
         ValidationRule rule = mapToEntity(dto);
+        ruleParser.checkConditions(rule.parseRuleConditions());
         ValidationRule saved = validationRuleRepository.save(rule);
         log.info("Created validation rule with ID: {}", saved.getId());
         return mapToDto(saved);
@@ -87,8 +88,10 @@ public class ValidationService {
         rule.setSeverity(dto.getSeverity());
         rule.setActive(dto.getActive());
         rule.setPriority(dto.getPriority());
+        ruleParser.checkConditions(rule.parseRuleConditions());
 
         ValidationRule updated = validationRuleRepository.save(rule);
+        rulePlanCache.evict(id);
         log.info("Updated validation rule with ID: {}", updated.getId());
 
         // Re-evaluate open anomalies based on what changed
@@ -104,6 +107,7 @@ public class ValidationService {
             String fieldName = rule.getFieldName();
             String errorType = rule.getRuleType() != null ? rule.getRuleType().name() : null;
             validationRuleRepository.delete(rule);
+            rulePlanCache.evict(id);
             log.info("Deleted validation rule with ID: {}", id);
             closeAnomaliesForRemovedRule(fieldName, errorType);
         }
@@ -147,6 +151,7 @@ public class ValidationService {
             closeAnomaliesForRemovedRule(rule.getFieldName(), errorType);
         });
         validationRuleRepository.deleteAllById(ids);
+        ids.forEach(rulePlanCache::evict);
         log.info("Bulk deleted {} validation rules", ids.size());
     }
 
@@ -267,13 +272,13 @@ public class ValidationService {
         List<Anomaly> openAnomalies = anomalyRepository.findOpenAnomaliesByFieldAndErrorType(fieldName, errorType);
         if (openAnomalies.isEmpty()) return;
 
-        List<RuleCondition> conditions = updatedRule.parseRuleConditions();
-        if (conditions.isEmpty()) return;
+        RulePlanCache.RulePlan plan = rulePlanCache.get(updatedRule);
+        if (plan.isEmpty()) return;
 
         LocalDateTime now = LocalDateTime.now();
         int closedCount = 0;
         for (Anomaly anomaly : openAnomalies) {
-            NaturalLanguageRuleParser.ValidationResult result = ruleParser.validateAll(anomaly.getCurrentValue(), conditions);
+            NaturalLanguageRuleParser.ValidationResult result = plan.validate(anomaly.getCurrentValue());
             if (result.isValid()) {
                 anomaly.setStatus(AnomalyStatus.CLOSED);
                 anomaly.setDataSource("RULE_CHANGE_RESOLVED");
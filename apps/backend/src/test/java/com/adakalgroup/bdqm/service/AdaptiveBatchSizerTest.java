@@ -0,0 +1,137 @@
+package com.adakalgroup.bdqm.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveBatchSizerTest {
+
+    private static final long TARGET_MILLIS = 1000;
+
+    /**
+     * Completed batch of the given number of narrow rows, with its slowest stage time.
+     */
+    private static SyncPipeline.Batch batch(int rows, long extractMillis, long loadMillis) {
+        return batch(rows, "x", extractMillis, loadMillis);
+    }
+
+    private static SyncPipeline.Batch batch(int rows, String value, long extractMillis, long loadMillis) {
+        List<Map<String, Object>> records = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            records.add(Map.of("value", value));
+        }
+        SyncPipeline.Batch batch = new SyncPipeline.Batch(0, records);
+        batch.setStageMillis("extract", extractMillis);
+        batch.setStageMillis("load", loadMillis);
+        return batch;
+    }
+
+    private static AdaptiveBatchSizer sizer(int initial, int min, int max) {
+        return new AdaptiveBatchSizer("bkcli", initial, min, max, TARGET_MILLIS, Long.MAX_VALUE);
+    }
+
+    @Test
+    void fastBatchesAtMostDoubleTheSize() {
+        AdaptiveBatchSizer sizer = sizer(100, 10, 100_000);
+
+        // 100 rows in 1 ms would allow 100 000 rows in the target time
+        sizer.onBatch(batch(100, 1, 1));
+        assertThat(sizer.current()).isEqualTo(200);
+
+        sizer.onBatch(batch(200, 1, 1));
+        assertThat(sizer.current()).isEqualTo(400);
+    }
+
+    @Test
+    void sizeMovesTowardsTheRowsThatFitInTheTargetTime() {
+        AdaptiveBatchSizer sizer = sizer(1000, 10, 100_000);
+
+        // 1000 rows in 800 ms: 1250 fit in 1000 ms
+        sizer.onBatch(batch(1000, 200, 800));
+
+        assertThat(sizer.current()).isEqualTo(1250);
+    }
+
+    @Test
+    void slowBatchesAtMostHalveTheSize() {
+        AdaptiveBatchSizer sizer = sizer(1000, 10, 100_000);
+
+        // The slower of extract and load counts: one row would fit in the target time
+        sizer.onBatch(batch(1000, 1_000_000, 5));
+
+        assertThat(sizer.current()).isEqualTo(500);
+    }
+
+    @Test
+    void failedBatchHalvesTheSize() {
+        AdaptiveBatchSizer sizer = sizer(1000, 10, 100_000);
+
+        sizer.onBatch(SyncPipeline.Batch.failed(0, 1000));
+        assertThat(sizer.current()).isEqualTo(500);
+
+        sizer.onFailure();
+        assertThat(sizer.current()).isEqualTo(250);
+    }
+
+    @Test
+    void wideRowsCapTheSizeToTheMemoryBudget() {
+        String wide = "x".repeat(1000);
+        long rowBytes = AdaptiveBatchSizer.estimateRowBytes(List.of(Map.of("value", wide)));
+        AdaptiveBatchSizer sizer = new AdaptiveBatchSizer("bkcli", 80, 10, 100_000, TARGET_MILLIS, 100 * rowBytes);
+
+        // Fast enough to double to 160, but only 100 such rows fit in the budget
+        sizer.onBatch(batch(80, wide, 1, 1));
+
+        assertThat(sizer.current()).isEqualTo(100);
+    }
+
+    @Test
+    void sizeStaysWithinMinAndMax() {
+        AdaptiveBatchSizer sizer = sizer(100, 40, 150);
+
+        sizer.onBatch(batch(100, 1, 1));
+        assertThat(sizer.current()).isEqualTo(150);
+
+        sizer.onFailure();
+        sizer.onFailure();
+        sizer.onFailure();
+        assertThat(sizer.current()).isEqualTo(40);
+
+        assertThat(sizer(5, 40, 150).current()).isEqualTo(40);
+        assertThat(sizer(500, 40, 150).current()).isEqualTo(150);
+    }
+
+    @Test
+    void smallTrailingBatchDoesNotChangeTheSize() {
+        AdaptiveBatchSizer sizer = sizer(1000, 10, 100_000);
+
+        // End of a range: dominated by fixed costs
+        sizer.onBatch(batch(100, 1_000_000, 1_000_000));
+        sizer.onBatch(batch(0, 1, 1));
+
+        assertThat(sizer.current()).isEqualTo(1000);
+    }
+
+    @Test
+    void fixedSizerNeverResizes() {
+        AdaptiveBatchSizer sizer = AdaptiveBatchSizer.fixed("bkcli", 500);
+
+        sizer.onBatch(batch(500, 1, 1));
+        sizer.onFailure();
+
+        assertThat(sizer.current()).isEqualTo(500);
+    }
+
+    @Test
+    void rowWidthGrowsWithTextLength() {
+        long narrow = AdaptiveBatchSizer.estimateRowBytes(List.of(Map.of("value", "x")));
+        long wide = AdaptiveBatchSizer.estimateRowBytes(List.of(Map.of("value", "x".repeat(1000))));
+
+        assertThat(wide - narrow).isEqualTo(999);
+        assertThat(AdaptiveBatchSizer.estimateRowBytes(List.of())).isZero();
+    }
+}
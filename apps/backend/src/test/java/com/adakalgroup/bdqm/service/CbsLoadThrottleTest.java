@@ -0,0 +1,289 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.config.CbsThrottleExecuteListener;
+import com.adakalgroup.bdqm.config.CbsThrottleProperties;
+import com.adakalgroup.bdqm.config.metrics.BusinessMetricsConfig;
+import org.jooq.ExecuteContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CbsLoadThrottleTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final CbsThrottleProperties properties = new CbsThrottleProperties();
+    private final BusinessMetricsConfig metrics = mock(BusinessMetricsConfig.class);
+    private final MutableClock clock = new MutableClock(LocalDateTime.of(2026, 10, 14, 12, 0));
+    private final AtomicLong nanos = new AtomicLong();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void setUp() {
+        properties.setMaxConcurrent(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private CbsLoadThrottle throttle() {
+        return new CbsLoadThrottle(properties, metrics, clock, nanos::get);
+    }
+
+    @Test
+    void queryTokensRefillOverTime() throws Exception {
+        properties.setQueriesPerSecond(5);
+        CbsLoadThrottle throttle = throttle();
+        nanos.addAndGet(SECOND);
+
+        for (int i = 0; i < 5; i++) {
+            throttle.acquireQuery().close();
+        }
+        Future<CbsLoadThrottle.Permit> sixth = executor.submit(throttle::acquireQuery);
+        assertBlocked(sixth);
+
+        nanos.addAndGet(SECOND / 5);
+        sixth.get(2, TimeUnit.SECONDS).close();
+        verify(metrics, atLeastOnce()).recordCbsThrottleWait(eq("query"), anyLong());
+    }
+
+    @Test
+    void rowsOverBudgetSleep() {
+        properties.setRowsPerSecond(1000);
+        CbsLoadThrottle throttle = throttle();
+        nanos.addAndGet(SECOND);
+
+        throttle.acquireRows(1000);
+        verify(metrics, never()).recordCbsThrottleWait(eq("rows"), anyLong());
+
+        long start = System.currentTimeMillis();
+        throttle.acquireRows(50);
+        assertThat(System.currentTimeMillis() - start).isGreaterThanOrEqualTo(40);
+        verify(metrics).recordCbsThrottleWait(eq("rows"), anyLong());
+    }
+
+    @Test
+    void profileIsReadAgainAfterOneSecond() {
+        CbsThrottleProperties.Profile night = new CbsThrottleProperties.Profile();
+        night.setName("night");
+        night.setStart(LocalTime.of(22, 0));
+        night.setEnd(LocalTime.of(6, 0));
+        night.setMaxConcurrent(2);
+        CbsThrottleProperties.Profile weekend = new CbsThrottleProperties.Profile();
+        weekend.setName("weekend");
+        weekend.setDays(Set.of(DayOfWeek.SUNDAY));
+        weekend.setMaxConcurrent(8);
+        properties.setProfiles(List.of(night, weekend));
+        CbsLoadThrottle throttle = throttle();
+
+        assertThat(throttle.limits().profile()).isEqualTo("default");
+        assertThat(throttle.limits().maxConcurrent()).isEqualTo(4);
+
+        clock.set(LocalDateTime.of(2026, 10, 14, 23, 30));
+        assertThat(throttle.limits().profile()).isEqualTo("default");
+
+        nanos.addAndGet(SECOND);
+        assertThat(throttle.limits().profile()).isEqualTo("night");
+        assertThat(throttle.limits().maxConcurrent()).isEqualTo(2);
+
+        // Window spanning midnight, then a day-only profile
+        clock.set(LocalDateTime.of(2026, 10, 15, 5, 59));
+        nanos.addAndGet(SECOND);
+        assertThat(throttle.limits().profile()).isEqualTo("night");
+        clock.set(LocalDateTime.of(2026, 10, 18, 12, 0));
+        nanos.addAndGet(SECOND);
+        assertThat(throttle.limits().profile()).isEqualTo("weekend");
+    }
+
+    @Test
+    void lockErrorsRaiseBackoff() {
+        properties.setMaxBackoff(4);
+        properties.setRowsPerSecond(1000);
+        CbsLoadThrottle throttle = throttle();
+
+        throttle.onQueryFailed(new SQLException("could not obtain lock", "IX000", -100));
+        throttle.onQueryFailed(new RuntimeException("lock timeout"));
+        assertThat(throttle.backoff()).isEqualTo(1.0);
+
+        throttle.onQueryFailed(new SQLException("record locked", "IX000", -244));
+        assertThat(throttle.backoff()).isEqualTo(2.0);
+        assertThat(throttle.limits().maxConcurrent()).isEqualTo(2);
+        assertThat(throttle.limits().rowsPerSecond()).isEqualTo(500);
+
+        // ISAM code reported as the chained exception of a wrapped error
+        SQLException read = new SQLException("could not do a physical-order read", "IX000", -243);
+        read.setNextException(new SQLException("ISAM error: key value locked", "IX000", -154));
+        throttle.onQueryFailed(new IllegalStateException("sync failed", read));
+        assertThat(throttle.backoff()).isEqualTo(4.0);
+        assertThat(throttle.limits().maxConcurrent()).isEqualTo(1);
+
+        throttle.onQueryFailed(new SQLException("deadlock", "IX000", -143));
+        assertThat(throttle.backoff()).isEqualTo(4.0);
+    }
+
+    @Test
+    void fastQueriesLetBackoffDecay() {
+        properties.setLatencyThresholdMs(1000);
+        CbsLoadThrottle throttle = throttle();
+
+        throttle.onQueryExecuted(1500);
+        assertThat(throttle.backoff()).isEqualTo(1.5);
+        for (int i = 0; i < 20; i++) {
+            throttle.onQueryExecuted(10);
+        }
+        assertThat(throttle.backoff()).isEqualTo(1.0);
+    }
+
+    @Test
+    void openCursorHoldsOneSlotUntilClosed() throws Exception {
+        properties.setMaxConcurrent(1);
+        CbsLoadThrottle throttle = throttle();
+        CbsThrottleExecuteListener listener = new CbsThrottleExecuteListener(throttle);
+        ExecuteContext cursor = context();
+
+        listener.start(cursor);
+        listener.executeStart(cursor);
+        listener.executeEnd(cursor);
+        for (int batch = 0; batch < 3; batch++) {
+            listener.resultStart(cursor);
+            for (int i = 0; i < 150; i++) {
+                listener.recordStart(cursor);
+                listener.recordEnd(cursor);
+            }
+            listener.resultEnd(cursor);
+            assertThat(throttle.running()).isEqualTo(1);
+        }
+
+        Future<CbsLoadThrottle.Permit> other = executor.submit(throttle::acquireQuery);
+        assertBlocked(other);
+
+        listener.end(cursor);
+        other.get(2, TimeUnit.SECONDS).close();
+        assertThat(throttle.running()).isZero();
+    }
+
+    @Test
+    void failedQueryReleasesItsSlotOnce() {
+        CbsLoadThrottle throttle = throttle();
+        CbsThrottleExecuteListener listener = new CbsThrottleExecuteListener(throttle);
+        ExecuteContext query = context();
+        when(query.exception()).thenReturn(null);
+
+        listener.start(query);
+        listener.exception(query);
+        listener.end(query);
+
+        assertThat(throttle.running()).isZero();
+    }
+
+    @Test
+    void cursorLendsItsSlotWhileWaitingForRowBudget() throws Exception {
+        properties.setMaxConcurrent(1);
+        properties.setRowsPerSecond(100);
+        CbsLoadThrottle throttle = throttle();
+        nanos.addAndGet(SECOND);
+        CbsLoadThrottle.Permit cursor = throttle.acquireQuery();
+
+        Future<?> reading = executor.submit(() -> throttle.acquireRows(200, cursor));
+        CbsLoadThrottle.Permit other = executor.submit(throttle::acquireQuery).get(2, TimeUnit.SECONDS);
+        assertThat(reading.isDone()).isFalse();
+        assertThat(throttle.running()).isEqualTo(1);
+
+        // The cursor only resumes once the slot is free again
+        Thread.sleep(1200);
+        assertThat(reading.isDone()).isFalse();
+        other.close();
+        reading.get(2, TimeUnit.SECONDS);
+        assertThat(throttle.running()).isEqualTo(1);
+
+        cursor.close();
+        cursor.close();
+        assertThat(throttle.running()).isZero();
+    }
+
+    @Test
+    void disabledThrottleDoesNotCount() {
+        properties.setEnabled(false);
+        properties.setMaxConcurrent(1);
+        CbsLoadThrottle throttle = throttle();
+
+        CbsLoadThrottle.Permit first = throttle.acquireQuery();
+        CbsLoadThrottle.Permit second = throttle.acquireQuery();
+
+        assertThat(throttle.running()).isZero();
+        first.close();
+        second.close();
+        assertThat(throttle.running()).isZero();
+    }
+
+    private static void assertBlocked(Future<?> future) {
+        assertThatThrownBy(() -> future.get(300, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+    }
+
+    private static ExecuteContext context() {
+        Map<Object, Object> data = new HashMap<>();
+        ExecuteContext ctx = mock(ExecuteContext.class);
+        when(ctx.data(any())).thenAnswer(inv -> data.get(inv.getArgument(0)));
+        when(ctx.data(any(), any())).thenAnswer(inv -> data.put(inv.getArgument(0), inv.getArgument(1)));
+        return ctx;
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant instant;
+
+        MutableClock(LocalDateTime time) {
+            set(time);
+        }
+
+        void set(LocalDateTime time) {
+            instant = time.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.adakalgroup.bdqm.service;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Against H2 in PostgreSQL mode, with the cluster_locks table of changelog 035.
+ */
+class ClusterLockServiceTest {
+
+    private static final Duration TTL = Duration.ofMinutes(1);
+
+    private DSLContext dsl;
+    private ClusterLockService nodeA;
+    private ClusterLockService nodeB;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:locks-" + UUID.randomUUID()
+                + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+        dsl = DSL.using(dataSource, SQLDialect.H2);
+        dsl.execute("CREATE TABLE public.cluster_locks (name VARCHAR(100) PRIMARY KEY, owner VARCHAR(200), " +
+                "token BIGINT DEFAULT 0 NOT NULL, acquired_at TIMESTAMP, heartbeat_at TIMESTAMP, " +
+                "expires_at TIMESTAMP NOT NULL)");
+        dsl.execute("CREATE TABLE public.fenced_rows (id BIGINT PRIMARY KEY, writes INT NOT NULL)");
+        dsl.execute("INSERT INTO public.fenced_rows VALUES (1, 0)");
+        nodeA = node("node-a");
+        nodeB = node("node-b");
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.shutdown();
+        nodeB.shutdown();
+        dsl.execute("DROP ALL OBJECTS");
+    }
+
+    private ClusterLockService node(String nodeId) {
+        ClusterLockService service = new ClusterLockService(dsl, nodeId);
+        ReflectionTestUtils.setField(service, "defaultTtlSeconds", TTL.toSeconds());
+        ReflectionTestUtils.setField(service, "schedulerMinHoldSeconds", 0L);
+        return service;
+    }
+
+    @Test
+    void leaseIsExclusive() {
+        ClusterLockService.Lease lease = nodeA.tryAcquire("sync.bkcli").orElseThrow();
+
+        assertThat(lease.token()).isEqualTo(1);
+        assertThat(lease.owner()).isEqualTo("node-a");
+        assertThat(lease.isHeld()).isTrue();
+        assertThat(nodeB.holder("sync.bkcli")).contains("node-a");
+        assertThat(nodeB.tryAcquire("sync.bkcli")).isEmpty();
+        assertThat(nodeA.tryAcquire("sync.bkcli")).isEmpty();
+        assertThat(nodeB.tryAcquire("sync.bkcom")).isPresent();
+    }
+
+    @Test
+    void releasedLeaseIsTakenWithNextToken() {
+        ClusterLockService.Lease first = nodeA.tryAcquire("sync.bkcli").orElseThrow();
+        first.close();
+
+        assertThat(first.isHeld()).isFalse();
+        assertThat(nodeB.holder("sync.bkcli")).isEmpty();
+        ClusterLockService.Lease second = nodeB.tryAcquire("sync.bkcli").orElseThrow();
+        assertThat(second.token()).isEqualTo(2);
+        assertThat(nodeA.holder("sync.bkcli")).contains("node-b");
+    }
+
+    @Test
+    void expiredLeaseIsTakenOverAndFenced() {
+        ClusterLockService.Lease stale = nodeA.tryAcquire("sync.bkcli").orElseThrow();
+        assertThat(fencedWrite(stale)).isEqualTo(1);
+
+        // node-a stops heartbeating (long GC pause) and its lease expires
+        expire("sync.bkcli");
+        ClusterLockService.Lease current = nodeB.tryAcquire("sync.bkcli").orElseThrow();
+        assertThat(current.token()).isEqualTo(2);
+
+        int rejected = fencedWrite(stale);
+        assertThat(rejected).isZero();
+        assertThatThrownBy(() -> stale.checkFenced(rejected))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("token 1");
+        assertThat(stale.isHeld()).isFalse();
+
+        int accepted = fencedWrite(current);
+        current.checkFenced(accepted);
+        assertThat(accepted).isEqualTo(1);
+        assertThat(dsl.fetchValue("SELECT writes FROM public.fenced_rows WHERE id = 1", Integer.class)).isEqualTo(2);
+
+        // The stale holder's release leaves the new lease alone
+        stale.close();
+        assertThat(nodeA.holder("sync.bkcli")).contains("node-b");
+    }
+
+    @Test
+    void tokenIncrementsOnEveryAcquisition() {
+        for (int i = 1; i <= 3; i++) {
+            ClusterLockService node = i % 2 == 0 ? nodeB : nodeA;
+            try (ClusterLockService.Lease lease = node.tryAcquire("sync.bkcli").orElseThrow()) {
+                assertThat(lease.token()).isEqualTo(i);
+            }
+        }
+    }
+
+    @Test
+    void minHoldKeepsReleasedLease() {
+        nodeA.tryAcquire("scheduler.cbs-sync", TTL, Duration.ofHours(1)).orElseThrow().close();
+
+        assertThat(nodeB.tryAcquire("scheduler.cbs-sync")).isEmpty();
+        assertThat(nodeB.holder("scheduler.cbs-sync")).isEmpty();
+    }
+
+    @Test
+    void heartbeatExtendsLease() throws Exception {
+        try (ClusterLockService.Lease lease = nodeA.tryAcquire("sync.bkcli", Duration.ofMillis(300), Duration.ZERO)
+                .orElseThrow()) {
+            Thread.sleep(700);
+
+            assertThat(lease.isHeld()).isTrue();
+            assertThat(nodeB.tryAcquire("sync.bkcli")).isEmpty();
+        }
+    }
+
+    @Test
+    void callExclusiveSkipsJobHeldElsewhere() {
+        try (ClusterLockService.Lease ignored = nodeB.tryAcquire("scheduler.fatca").orElseThrow()) {
+            assertThat(nodeA.callExclusive("scheduler.fatca", () -> "ran")).isEmpty();
+        }
+        assertThat(nodeA.callExclusive("scheduler.fatca", () -> "ran")).isEqualTo(Optional.of("ran"));
+        assertThat(nodeA.holder("scheduler.fatca")).isEmpty();
+    }
+
+    private int fencedWrite(ClusterLockService.Lease lease) {
+        String guard = ClusterLockService.FENCE_CONDITION
+                .replace(":lockName", "?")
+                .replace(":lockOwner", "?")
+                .replace(":lockToken", "?");
+        return dsl.execute("UPDATE public.fenced_rows SET writes = writes + 1 WHERE id = 1 AND " + guard,
+                lease.name(), lease.owner(), lease.token());
+    }
+
+    private void expire(String name) {
+        dsl.execute("UPDATE public.cluster_locks SET expires_at = LOCALTIMESTAMP - INTERVAL '1' SECOND WHERE name = ?",
+                name);
+    }
+}
@@ -0,0 +1,278 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.config.metrics.BusinessMetricsConfig;
+import com.adakalgroup.bdqm.dto.CbsFieldDto;
+import com.adakalgroup.bdqm.dto.CbsTableDto;
+import com.adakalgroup.bdqm.model.enums.CbsDataType;
+import org.h2.jdbcx.JdbcDataSource;
+import org.jooq.ConnectionCallable;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.impl.CallbackExecuteListener;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DynamicCbsQueryServiceTest {
+
+    private static final String TABLE = "bkcli";
+
+    private final CbsDataDictionaryService dictionaryService = mock(CbsDataDictionaryService.class);
+    private final BusinessMetricsConfig metrics = mock(BusinessMetricsConfig.class);
+    private final FakeMirror mirror = new FakeMirror();
+    private DynamicCbsQueryService service;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(dictionaryService.getTableByName(TABLE)).thenReturn(CbsTableDto.builder()
+                .tableName(TABLE).primaryKeyColumns("cli, seq").build());
+        when(dictionaryService.getFieldsByTableName(TABLE)).thenReturn(List.of(field("cli", CbsDataType.VARCHAR),
+                field("seq", CbsDataType.INTEGER), field("nom", CbsDataType.VARCHAR)));
+        service = new DynamicCbsQueryService(mock(DSLContext.class), mirror.dsl(), dictionaryService,
+                mock(CbsFilterService.class), metrics);
+    }
+
+    private static CbsFieldDto field(String column, CbsDataType type) {
+        return CbsFieldDto.builder().tableName(TABLE).columnName(column).dataType(type).maxLength(20).build();
+    }
+
+    private static Map<String, Object> record(String cli, int seq, String nom) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("cli", cli);
+        record.put("seq", seq);
+        record.put("nom", nom);
+        return record;
+    }
+
+    private static List<Map<String, Object>> records(int count, int... bad) {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            boolean rejected = Arrays.stream(bad).anyMatch(b -> b == index);
+            records.add(record((rejected ? "BAD" : "C") + i, i, "  NOM " + i + "  "));
+        }
+        return records;
+    }
+
+    @Test
+    void cleanBatchIsOneRoundTrip() throws SQLException {
+        List<Map<String, Object>> records = records(8);
+        List<List<Map<String, Object>>> written = new ArrayList<>();
+
+        int upserted = service.upsertToMirror(TABLE, records, (r, e) -> { throw new AssertionError(e); },
+                (connection, rows) -> written.add(List.copyOf(rows)));
+
+        assertThat(upserted).isEqualTo(8);
+        assertThat(mirror.executions).isEqualTo(1);
+        assertThat(mirror.committed).hasSize(8).startsWith("C0", "C1");
+        assertThat(written).containsExactly(records);
+        assertThat(mirror.rows.get(0)).startsWith("C0", 0, "NOM 0");
+        assertThat(mirror.rows.get(0)).hasSize(5);
+        verify(mirror.connection).setAutoCommit(true);
+    }
+
+    @Test
+    void failingBatchIsBisectedDownToTheBadRows() {
+        List<Map<String, Object>> records = records(8, 2, 7);
+        Map<Map<String, Object>, String> rejected = new LinkedHashMap<>();
+        List<Map<String, Object>> written = new ArrayList<>();
+
+        int upserted = service.upsertToMirror(TABLE, records, rejected::put,
+                (connection, rows) -> written.addAll(rows));
+
+        assertThat(upserted).isEqualTo(6);
+        assertThat(rejected.keySet()).containsExactly(records.get(2), records.get(7));
+        // The batch error's chained exception carries the row's own message
+        assertThat(rejected.values()).containsOnly("value too long for the BAD row");
+        assertThat(mirror.committed).containsExactlyInAnyOrder("C0", "C1", "C3", "C4", "C5", "C6");
+        assertThat(written).hasSize(6).doesNotContain(records.get(2), records.get(7));
+        // 8 -> 4+4 -> 2+2 per failed half -> 1+1 per failed pair
+        assertThat(mirror.executions).isEqualTo(1 + 2 + 4 + 4);
+        assertThat(mirror.rollbacks).isEqualTo(1 + 2 + 2 + 2);
+    }
+
+    @Test
+    void listenerFailureRollsBackItsRows() {
+        List<Map<String, Object>> records = records(4);
+        List<Map<String, Object>> rejected = new ArrayList<>();
+
+        int upserted = service.upsertToMirror(TABLE, records, (r, e) -> rejected.add(r), (connection, rows) -> {
+            if (rows.contains(records.get(1))) throw new SQLException("queue insert failed");
+        });
+
+        assertThat(upserted).isEqualTo(3);
+        assertThat(rejected).containsExactly(records.get(1));
+        assertThat(mirror.committed).containsExactlyInAnyOrder("C0", "C2", "C3");
+    }
+
+    @Test
+    void emptyBatchDoesNotTouchTheMirror() {
+        assertThat(service.upsertToMirror(TABLE, List.of())).isZero();
+        assertThat(mirror.executions).isZero();
+    }
+
+    @Test
+    void changesAreDetectedInKeyChunks() {
+        List<Map<String, Object>> records = records(1200);
+        H2Mirror h2 = new H2Mirror();
+        h2.store(records.subList(0, 1100));
+        records.get(5).put("nom", "RENAMED");
+        records.get(600).put("nom", null);
+
+        DynamicCbsQueryService.ChangeSet changes = h2.service().detectChanges(TABLE, records);
+
+        assertThat(changes.inserted()).isEqualTo(100);
+        assertThat(changes.updated()).isEqualTo(2);
+        assertThat(changes.unchanged()).isEqualTo(1098);
+        assertThat(changes.changed()).hasSize(102)
+                .startsWith(records.get(5), records.get(600), records.get(1100))
+                .endsWith(records.get(1199));
+        // 500 keys per lookup
+        assertThat(h2.statements).hasSize(3).allMatch(sql -> sql.startsWith("SELECT cli, seq, row_hash"));
+        verify(metrics, never()).recordRowHashLookupFailure(TABLE);
+    }
+
+    @Test
+    void failedLookupTreatsEveryRowAsChanged() {
+        List<Map<String, Object>> records = records(3);
+        H2Mirror h2 = new H2Mirror();
+        h2.store(records);
+        h2.dsl.execute("DROP TABLE cbs.bkcli");
+
+        DynamicCbsQueryService.ChangeSet changes = h2.service().detectChanges(TABLE, records);
+
+        assertThat(changes.changed()).isSameAs(records);
+        assertThat(changes.updated()).isEqualTo(3);
+        verify(metrics).recordRowHashLookupFailure(TABLE);
+    }
+
+    @Test
+    void rowHashesAreInvalidatedInKeyChunks() {
+        List<Map<String, Object>> records = records(1200);
+        H2Mirror h2 = new H2Mirror();
+        h2.store(records);
+
+        h2.service().invalidateRowHashes(TABLE, records.subList(100, 1200));
+
+        assertThat(h2.statements).hasSize(3).allMatch(sql -> sql.startsWith("UPDATE cbs.bkcli SET row_hash = NULL"));
+        assertThat(h2.dsl.fetchCount(DSL.table("cbs.bkcli"), DSL.field("row_hash").isNull())).isEqualTo(1100);
+        assertThat(h2.service().detectChanges(TABLE, records).unchanged()).isEqualTo(100);
+    }
+
+    /**
+     * Mirror table in H2 for the row hash lookups, holding rows as written by the upsert (row hash
+     * included), and recording the statements run against it once filled.
+     */
+    private final class H2Mirror {
+        final List<String> statements = new ArrayList<>();
+        final DSLContext dsl;
+
+        H2Mirror() {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:mirror-" + UUID.randomUUID()
+                    + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+            dsl = DSL.using(new DefaultConfiguration().set(dataSource).set(SQLDialect.H2));
+            dsl.execute("CREATE SCHEMA cbs");
+            dsl.execute("CREATE TABLE cbs.bkcli (cli VARCHAR(20), seq INT, nom VARCHAR(20), row_hash VARCHAR(32), " +
+                    "updated_at TIMESTAMP, PRIMARY KEY (cli, seq))");
+        }
+
+        void store(List<Map<String, Object>> records) {
+            service.upsertToMirror(TABLE, records);
+            for (Object[] row : mirror.rows) {
+                dsl.execute("INSERT INTO cbs.bkcli VALUES (?, ?, ?, ?, ?)", row);
+            }
+            dsl.configuration().set(new CallbackExecuteListener().onExecuteStart(ctx -> statements.add(ctx.sql())));
+        }
+
+        DynamicCbsQueryService service() {
+            return new DynamicCbsQueryService(mock(DSLContext.class), dsl, dictionaryService,
+                    mock(CbsFilterService.class), metrics);
+        }
+    }
+
+    /**
+     * Mirror connection recording what each JDBC batch writes; a batch with a row keyed "BAD..." fails
+     * as a whole, like a PostgreSQL batch aborted by one row.
+     */
+    private static final class FakeMirror {
+        final Connection connection = mock(Connection.class);
+        final PreparedStatement statement = mock(PreparedStatement.class);
+        final List<Object[]> rows = new ArrayList<>();
+        final List<String> committed = new ArrayList<>();
+        private final List<Object[]> batch = new ArrayList<>();
+        private final List<Object[]> executed = new ArrayList<>();
+        private Object[] current;
+        int executions;
+        int rollbacks;
+
+        DSLContext dsl() throws SQLException {
+            DSLContext dsl = mock(DSLContext.class);
+            when(dsl.connectionResult(any())).thenAnswer(inv ->
+                    inv.<ConnectionCallable<?>>getArgument(0).run(connection));
+            when(connection.getAutoCommit()).thenReturn(true);
+            when(connection.prepareStatement(anyString())).thenReturn(statement);
+            doAnswer(inv -> {
+                int index = inv.getArgument(0);
+                if (current == null) current = new Object[5];
+                current[index - 1] = inv.getArgument(1);
+                return null;
+            }).when(statement).setObject(anyInt(), any());
+            doAnswer(inv -> {
+                batch.add(current);
+                current = null;
+                return null;
+            }).when(statement).addBatch();
+            doAnswer(inv -> {
+                batch.clear();
+                return null;
+            }).when(statement).clearBatch();
+            when(statement.executeBatch()).thenAnswer(inv -> {
+                executions++;
+                if (batch.stream().anyMatch(row -> row[0].toString().startsWith("BAD"))) {
+                    BatchUpdateException e = new BatchUpdateException("Batch entry 0 was aborted", new int[0]);
+                    e.setNextException(new SQLException("value too long for the BAD row"));
+                    throw e;
+                }
+                executed.addAll(batch);
+                int[] counts = new int[batch.size()];
+                batch.clear();
+                return counts;
+            });
+            doAnswer(inv -> {
+                executed.forEach(row -> committed.add((String) row[0]));
+                rows.addAll(executed);
+                executed.clear();
+                return null;
+            }).when(connection).commit();
+            doAnswer(inv -> {
+                rollbacks++;
+                executed.clear();
+                return null;
+            }).when(connection).rollback();
+            return dsl;
+        }
+    }
+}
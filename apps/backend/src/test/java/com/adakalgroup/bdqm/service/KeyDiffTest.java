@@ -0,0 +1,141 @@
+package com.adakalgroup.bdqm.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.mock;
+
+class KeyDiffTest {
+
+    /** Only the stateless key helpers are called. */
+    private final DynamicCbsQueryService queryService = mock(DynamicCbsQueryService.class, CALLS_REAL_METHODS);
+
+    private final KeyDiff.KeyOrder order = (a, b) -> queryService.compareKeys(a, b, 2);
+
+    private static Object[] key(Object... values) {
+        return values;
+    }
+
+    private static KeyDiff.KeySource source(List<Object[]> keys) {
+        Iterator<Object[]> it = keys.iterator();
+        return () -> it.hasNext() ? it.next() : null;
+    }
+
+    private List<Object[]> sorted(List<Object[]> keys) {
+        List<Object[]> copy = new ArrayList<>(keys);
+        copy.sort(order::compare);
+        return copy;
+    }
+
+    /** Composite (agency, account) keys whose text part mixes cases, as CHAR columns of the CBS do. */
+    private static final List<Object[]> CBS = List.of(
+        key("00001", 10), key("00001", 11), key("00002", 5),
+        key("AB", 1), key("Ab", 1), key("aB", 2), key("ab", 1), key("b", 1));
+
+    @Test
+    void compareKeysSortsTextByCodeUnitLikeCollateC() {
+        // COLLATE "C" puts every upper case letter before every lower case one
+        assertThat(queryService.compareKeys(key("Z", 1), key("a", 1), 2)).isNegative();
+        assertThat(queryService.compareKeys(key("AB", 1), key("Ab", 1), 2)).isNegative();
+        assertThat(queryService.compareKeys(key("ab", 2), key("ab", 10), 2)).isNegative();
+        // Informix INTEGER against a PostgreSQL numeric
+        assertThat(queryService.compareKeys(key("ab", 10), key("ab", new BigDecimal("10.00")), 2)).isZero();
+    }
+
+    @Test
+    void mergeFindsExactlyTheMissingCompositeKeys() {
+        List<Object[]> mirror = new ArrayList<>(CBS);
+        mirror.add(key("00001", new BigDecimal("12")));
+        mirror.add(key("aA", 1));
+        mirror.add(key("B", 7));
+
+        KeyDiff diff = new KeyDiff(10);
+        Consumer<Object[]> mirrorKeys = diff.merge(source(sorted(CBS)), order);
+        sorted(mirror).forEach(mirrorKeys);
+
+        assertThat(diff.missing()).extracting(Arrays::asList).containsExactly(
+            List.of("00001", new BigDecimal("12")), List.of("B", 7), List.of("aA", 1));
+    }
+
+    @Test
+    void numericKeysOfEitherTypeMatch() {
+        List<Object[]> cbs = List.of(key("00001", 10), key("00001", 11));
+        List<Object[]> mirror = List.of(key("00001", new BigDecimal("10")), key("00001", new BigDecimal("11.0")));
+
+        KeyDiff diff = new KeyDiff(10);
+        mirror.forEach(diff.merge(source(cbs), order));
+
+        assertThat(diff.missing()).isEmpty();
+    }
+
+    @Test
+    void caseInsensitiveOrderIsRejectedInsteadOfRemovingLiveRows() {
+        // A mirror scan without COLLATE "C" would return these keys in this order
+        Comparator<Object[]> ignoreCase = Comparator.comparing((Object[] k) -> ((String) k[0]).toLowerCase())
+            .thenComparing(k -> (Integer) k[1]);
+        List<Object[]> mirror = new ArrayList<>(CBS);
+        mirror.sort(ignoreCase);
+
+        KeyDiff diff = new KeyDiff(10);
+        Consumer<Object[]> mirrorKeys = diff.merge(source(sorted(CBS)), order);
+
+        assertThatThrownBy(() -> mirror.forEach(mirrorKeys))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("out of order");
+    }
+
+    @Test
+    void unsortedCbsKeysAreRejected() {
+        List<Object[]> cbs = List.of(key("ab", 1), key("AB", 1));
+
+        KeyDiff diff = new KeyDiff(10);
+        Consumer<Object[]> mirrorKeys = diff.merge(source(cbs), order);
+
+        assertThatThrownBy(() -> mirrorKeys.accept(key("b", 1)))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("CBS keys out of order");
+    }
+
+    @Test
+    void tooManyMissingKeysStopTheDiff() {
+        KeyDiff diff = new KeyDiff(1);
+        Consumer<Object[]> mirrorKeys = diff.merge(source(List.of()), order);
+        mirrorKeys.accept(key("a", 1));
+
+        assertThatThrownBy(() -> mirrorKeys.accept(key("b", 1))).isInstanceOf(KeyDiff.TooManyMissingException.class);
+    }
+
+    @Test
+    void bloomNeverReportsALiveKeyAndIgnoresOrder() {
+        List<Object[]> cbs = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            cbs.add(key(i % 2 == 0 ? "Ag" + i : "aG" + i, i));
+        }
+        List<Object[]> mirror = new ArrayList<>(cbs);
+        mirror.add(key("AG1", 1));
+        mirror.add(key("ag0", 0));
+        mirror.add(key("Ag0", new BigDecimal("1")));
+
+        KeyDiff diff = new KeyDiff(10);
+        Consumer<Object[]> mirrorKeys = diff.bloom(source(cbs), k -> queryService.keyOf(k, 2), cbs.size(), 0.001);
+        for (int i = mirror.size() - 1; i >= 0; i--) {
+            mirrorKeys.accept(mirror.get(i));
+        }
+
+        // A false positive may hide a deleted key, never remove a live one
+        assertThat(diff.missing()).extracting(Arrays::asList)
+            .isSubsetOf(List.of("AG1", 1), List.of("ag0", 0), List.of("Ag0", new BigDecimal("1")));
+        // Informix INTEGER and PostgreSQL numeric of the same value give the same Bloom key
+        assertThat(queryService.keyOf(key("Ag0", 0), 2)).isEqualTo(queryService.keyOf(key("Ag0", new BigDecimal("0.00")), 2));
+    }
+}
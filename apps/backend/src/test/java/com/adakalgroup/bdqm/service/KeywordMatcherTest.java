@@ -0,0 +1,118 @@
+package com.adakalgroup.bdqm.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordMatcherTest {
+
+    @Test
+    void normalizeFoldsCaseAndAccents() {
+        assertThat(KeywordMatcher.normalize("Évry")).isEqualTo("evry");
+        assertThat(KeywordMatcher.normalize("EVRY")).isEqualTo("evry");
+        assertThat(KeywordMatcher.normalize("États-Unis")).isEqualTo("etats-unis");
+    }
+
+    @Test
+    void matchesIgnoringCaseAndAccents() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("EVRY"));
+
+        assertThat(matcher.matches("Ne à Évry")).isTrue();
+        assertThat(KeywordMatcher.of(List.of("Évry")).matches("EVRY COURCOURONNES")).isTrue();
+        assertThat(matcher.matches("Paris")).isFalse();
+    }
+
+    @Test
+    void findsOverlappingKeywords() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("abcd", "bc", "cde"));
+
+        assertThat(matcher.firstMatch("xabcdex")).isEqualTo(0);
+        assertThat(matcher.firstMatch("xbcdex")).isEqualTo(1);
+        assertThat(matcher.firstMatch("xcdex")).isEqualTo(2);
+        assertThat(matcher.firstMatch("abdce")).isEqualTo(-1);
+    }
+
+    @Test
+    void findsKeywordThatIsSuffixOfAnother() {
+        // "test" is only reached through the failure link of "xtest"
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("xtesty", "test"));
+
+        assertThat(matcher.firstMatch("xtestz")).isEqualTo(1);
+        assertThat(matcher.firstMatch("xtesty")).isEqualTo(0);
+        assertThat(matcher.matches("contest")).isTrue();
+    }
+
+    @Test
+    void emptyKeywordMatchesEveryText() {
+        assertThat(KeywordMatcher.of(List.of("")).firstMatch("anything")).isEqualTo(0);
+        assertThat(KeywordMatcher.of(List.of("")).firstMatch("")).isEqualTo(0);
+        assertThat(KeywordMatcher.of(List.of("zzz", "")).firstMatch("abc")).isEqualTo(1);
+        assertThat(KeywordMatcher.of(List.of("zzz", "")).matches("abc")).isTrue();
+        assertThat(KeywordMatcher.of(List.of("abc", "")).firstMatch("xabcx")).isEqualTo(0);
+    }
+
+    @Test
+    void noKeywordMatchesNothing() {
+        assertThat(KeywordMatcher.of(List.of()).firstMatch("abc")).isEqualTo(-1);
+        assertThat(KeywordMatcher.of(List.of()).matches("abc")).isFalse();
+    }
+
+    @Test
+    void firstMatchFollowsListOrderNotTextOrder() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("test", "xxx", "dummy"));
+
+        // "dummy" comes first in the text, "test" first in the list
+        assertThat(matcher.firstMatch("dummy then test")).isEqualTo(0);
+        assertThat(matcher.firstMatch("dummy then xxx")).isEqualTo(1);
+    }
+
+    @Test
+    void duplicateKeywordsGiveTheFirstIndex() {
+        KeywordMatcher matcher = KeywordMatcher.of(List.of("ab", "AB", "b"));
+
+        assertThat(matcher.firstMatch("zab")).isEqualTo(0);
+    }
+
+    /**
+     * Same result as the loop it replaced: the first keyword, in list order, the folded text contains.
+     */
+    @Test
+    void agreesWithNaiveContainsLoop() {
+        Random random = new Random(42);
+        String alphabet = "abcABé";
+        for (int round = 0; round < 5000; round++) {
+            List<String> keywords = new ArrayList<>();
+            int count = 1 + random.nextInt(6);
+            for (int k = 0; k < count; k++) {
+                keywords.add(randomText(random, alphabet, random.nextInt(4)));
+            }
+            String text = randomText(random, alphabet, random.nextInt(12));
+
+            KeywordMatcher matcher = KeywordMatcher.of(keywords);
+            int expected = naiveFirstMatch(keywords, text);
+
+            assertThat(matcher.firstMatch(text)).as("keywords %s in '%s'", keywords, text).isEqualTo(expected);
+            assertThat(matcher.matches(text)).isEqualTo(expected >= 0);
+        }
+    }
+
+    private static int naiveFirstMatch(List<String> keywords, String text) {
+        String folded = KeywordMatcher.normalize(text);
+        for (int k = 0; k < keywords.size(); k++) {
+            if (folded.contains(KeywordMatcher.normalize(keywords.get(k)))) return k;
+        }
+        return -1;
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,208 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.model.enums.CbsDataType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RowBatchTest {
+
+    private static final List<String> COLUMNS = List.of("cli", "age", "nat", "solde", "dou");
+
+    private static RowBatch.Schema schema() {
+        return new RowBatch.Schema(COLUMNS, List.of(CbsDataType.INTEGER, CbsDataType.SMALLINT, CbsDataType.CHAR,
+                        CbsDataType.DECIMAL, CbsDataType.DATE).stream()
+                .map(DynamicCbsQueryService::storageKind)
+                .toList());
+    }
+
+    @Test
+    void storageFollowsDictionaryType() {
+        assertThat(DynamicCbsQueryService.storageKind(CbsDataType.INTEGER)).isEqualTo(RowBatch.Kind.INT);
+        assertThat(DynamicCbsQueryService.storageKind(CbsDataType.SMALLINT)).isEqualTo(RowBatch.Kind.INT);
+        assertThat(DynamicCbsQueryService.storageKind(CbsDataType.CHAR)).isEqualTo(RowBatch.Kind.STRING);
+        assertThat(DynamicCbsQueryService.storageKind(CbsDataType.VARCHAR)).isEqualTo(RowBatch.Kind.STRING);
+        for (CbsDataType type : List.of(CbsDataType.DECIMAL, CbsDataType.DATE, CbsDataType.DATETIME,
+                CbsDataType.BOOLEAN)) {
+            assertThat(DynamicCbsQueryService.storageKind(type)).as(type.name()).isEqualTo(RowBatch.Kind.OBJECT);
+        }
+        assertThat(DynamicCbsQueryService.storageKind(null)).isEqualTo(RowBatch.Kind.OBJECT);
+    }
+
+    @Test
+    void typedValuesKeepTheirStorage() {
+        RowBatch batch = new RowBatch(schema(), 4);
+        for (int i = 0; i < 40; i++) {
+            int row = batch.addRow();
+            batch.set(row, 0, 1000 + i);
+            batch.set(row, 1, (short) (20 + i));
+            batch.set(row, 2, i % 2 == 0 ? "SN" : "ML");
+            batch.set(row, 3, BigDecimal.valueOf(i, 2));
+            batch.set(row, 4, i % 5 == 0 ? null : LocalDate.of(2026, 1, 1).plusDays(i));
+        }
+
+        assertThat(batch.size()).isEqualTo(40);
+        assertThat(batch.storage(0)).isEqualTo(RowBatch.Kind.INT);
+        assertThat(batch.storage(1)).isEqualTo(RowBatch.Kind.INT);
+        assertThat(batch.storage(2)).isEqualTo(RowBatch.Kind.STRING);
+        assertThat(batch.storage(3)).isEqualTo(RowBatch.Kind.OBJECT);
+        assertThat(batch.storage(4)).isEqualTo(RowBatch.Kind.OBJECT);
+
+        assertThat(batch.value(39, 0)).isEqualTo(1039);
+        assertThat(batch.value(39, 1)).isEqualTo(59);
+        assertThat(batch.value(38, 2)).isEqualTo("SN");
+        assertThat(batch.value(39, 3)).isEqualTo(new BigDecimal("0.39"));
+        assertThat(batch.value(35, 4)).isNull();
+    }
+
+    @Test
+    void nullsInTypedColumns() {
+        RowBatch batch = new RowBatch(schema(), 2);
+        batch.addRow();
+        int row = batch.addRow();
+        batch.set(row, 0, 7);
+        batch.set(row, 0, null);
+        batch.set(row, 2, "A");
+        batch.set(row, 2, null);
+
+        assertThat(batch.value(0, 0)).isNull();
+        assertThat(batch.value(1, 0)).isNull();
+        assertThat(batch.value(1, 2)).isNull();
+        assertThat(batch.storage(0)).isEqualTo(RowBatch.Kind.INT);
+        assertThat(batch.storage(2)).isEqualTo(RowBatch.Kind.STRING);
+    }
+
+    @Test
+    void unexpectedTypeFallsBackToObjects() {
+        RowBatch batch = new RowBatch(schema(), 4);
+        batch.set(batch.addRow(), 0, 1);
+        batch.set(batch.addRow(), 0, 3_000_000_000L);
+        batch.set(batch.addRow(), 2, "X");
+        batch.set(batch.addRow(), 2, 42);
+
+        assertThat(batch.storage(0)).isEqualTo(RowBatch.Kind.OBJECT);
+        assertThat(batch.storage(2)).isEqualTo(RowBatch.Kind.OBJECT);
+        assertThat(batch.value(0, 0)).isEqualTo(1);
+        assertThat(batch.value(1, 0)).isEqualTo(3_000_000_000L);
+        assertThat(batch.value(2, 2)).isEqualTo("X");
+        assertThat(batch.value(3, 2)).isEqualTo(42);
+    }
+
+    @Test
+    void dictionaryGivesUpOnDistinctStrings() {
+        RowBatch batch = new RowBatch(schema(), 16);
+        for (int i = 0; i < 200; i++) {
+            batch.set(batch.addRow(), 2, "name-" + i);
+        }
+
+        assertThat(batch.storage(2)).isEqualTo(RowBatch.Kind.OBJECT);
+        for (int i = 0; i < 200; i++) {
+            assertThat(batch.value(i, 2)).isEqualTo("name-" + i);
+        }
+    }
+
+    @Test
+    void dictionaryKeptForRepeatedCodes() {
+        RowBatch batch = new RowBatch(schema(), 16);
+        for (int i = 0; i < 200; i++) {
+            batch.set(batch.addRow(), 2, "BR" + (i % 10));
+        }
+
+        assertThat(batch.storage(2)).isEqualTo(RowBatch.Kind.STRING);
+        assertThat(batch.value(199, 2)).isEqualTo("BR9");
+    }
+
+    @Test
+    void rowViewsBehaveAsMaps() {
+        RowBatch batch = new RowBatch(schema(), 2);
+        int row = batch.addRow();
+        batch.set(row, 0, 12);
+        batch.set(row, 1, (short) 3);
+        batch.set(row, 2, "SN");
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("cli", 12);
+        expected.put("age", 3);
+        expected.put("nat", "SN");
+        expected.put("solde", null);
+        expected.put("dou", null);
+
+        List<Map<String, Object>> rows = batch.rows();
+        Map<String, Object> view = rows.get(0);
+        assertThat(view).isEqualTo(expected);
+        assertThat(new HashMap<>(expected)).isEqualTo(view);
+        assertThat(view.hashCode()).isEqualTo(expected.hashCode());
+        assertThat(view).containsKey("solde").doesNotContainKey("CLI");
+        assertThat(view.get("missing")).isNull();
+        assertThat(((RowBatch.Row) view).get(batch.schema().indexOf("nat"))).isEqualTo("SN");
+        assertThat(batch.rows().get(0)).isSameAs(view);
+        assertThatThrownBy(() -> view.put("cli", 1)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> rows.get(1)).isInstanceOf(IndexOutOfBoundsException.class);
+    }
+
+    @Test
+    void ofReusesAWholeBatch() {
+        RowBatch batch = new RowBatch(schema(), 2);
+        batch.set(batch.addRow(), 0, 1);
+        batch.set(batch.addRow(), 0, 2);
+
+        assertThat(RowBatch.of(batch.rows())).isSameAs(batch);
+    }
+
+    @Test
+    void ofCopiesPartOfABatchByIndex() {
+        RowBatch batch = new RowBatch(schema(), 3);
+        for (int i = 0; i < 3; i++) {
+            int row = batch.addRow();
+            batch.set(row, 0, i);
+            batch.set(row, 2, "N" + i);
+        }
+
+        RowBatch part = RowBatch.of(List.of(batch.row(2), batch.row(0)));
+
+        assertThat(part).isNotSameAs(batch);
+        assertThat(part.schema()).isSameAs(batch.schema());
+        assertThat(part.size()).isEqualTo(2);
+        assertThat(part.value(0, 0)).isEqualTo(2);
+        assertThat(part.value(1, 2)).isEqualTo("N0");
+        assertThat(part.storage(0)).isEqualTo(RowBatch.Kind.INT);
+    }
+
+    @Test
+    void ofMapsUsesTheirKeys() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("cli", "001");
+        first.put("nat", "SN");
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("cli", "002");
+        second.put("age", 3);
+
+        RowBatch batch = RowBatch.of(List.of(first, second));
+
+        assertThat(batch.schema().columns()).containsExactly("cli", "nat", "age");
+        assertThat(batch.rows().get(0)).containsEntry("cli", "001").containsEntry("nat", "SN")
+                .containsEntry("age", null);
+        assertThat(batch.rows().get(1)).containsEntry("cli", "002").containsEntry("nat", null)
+                .containsEntry("age", 3);
+        assertThat(RowBatch.of(List.of()).isEmpty()).isTrue();
+    }
+
+    @Test
+    void schemaLookups() {
+        RowBatch.Schema schema = schema();
+
+        assertThat(schema.indexOf("nat")).isEqualTo(2);
+        assertThat(schema.indexOf("NAT")).isEqualTo(-1);
+        assertThat(schema.matches(List.of("CLI", "AGE", "NAT", "SOLDE", "DOU"))).isTrue();
+        assertThat(schema.matches(List.of("cli", "age"))).isFalse();
+        assertThat(RowBatch.Schema.untyped(COLUMNS).size()).isEqualTo(5);
+    }
+}
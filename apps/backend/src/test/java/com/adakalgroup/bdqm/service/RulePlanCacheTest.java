@@ -0,0 +1,123 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.model.RuleCondition;
+import com.adakalgroup.bdqm.model.ValidationRule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class RulePlanCacheTest {
+
+    private static final LocalDateTime V1 = LocalDateTime.of(2026, 10, 1, 9, 0);
+
+    private final NaturalLanguageRuleParser parser = spy(new NaturalLanguageRuleParser(new SafeRegex(500, 500, 100_000)));
+    private final RulePlanCache cache = new RulePlanCache(parser);
+
+    private static ValidationRule rule(Long id, String fieldName, RuleCondition... conditions) {
+        ValidationRule rule = ValidationRule.builder().id(id).ruleName("rule-" + id).fieldName(fieldName)
+                .updatedAt(V1).build();
+        rule.setRuleConditions(List.of(conditions));
+        return rule;
+    }
+
+    private static RuleCondition required() {
+        return RuleCondition.builder().type("required").build();
+    }
+
+    private static RuleCondition minLength(int length) {
+        return RuleCondition.builder().type("minLength").value(length).build();
+    }
+
+    @Test
+    void planIsCompiledOncePerVersion() {
+        ValidationRule rule = rule(1L, "NOM", required());
+
+        RulePlanCache.RulePlan plan = cache.get(rule);
+
+        assertThat(cache.get(rule)).isSameAs(plan);
+        assertThat(plan.ruleId()).isEqualTo(1L);
+        assertThat(plan.fieldKey()).isEqualTo("nom");
+        assertThat(plan.validate("").isValid()).isFalse();
+        assertThat(plan.validate("DIOP").isValid()).isTrue();
+        verify(parser, times(1)).compile(any());
+    }
+
+    @Test
+    void changedRuleIsCompiledAgain() {
+        ValidationRule rule = rule(1L, "nom", required());
+        RulePlanCache.RulePlan first = cache.get(rule);
+
+        // Same version, definition changed (not yet flushed)
+        rule.setRuleConditions(List.of(minLength(3)));
+        assertThat(first.isCurrent(rule)).isFalse();
+        RulePlanCache.RulePlan second = cache.get(rule);
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.validate("AB").isValid()).isFalse();
+
+        // Updated on another replica
+        rule.setUpdatedAt(V1.plusMinutes(1));
+        RulePlanCache.RulePlan third = cache.get(rule);
+        assertThat(third).isNotSameAs(second);
+        assertThat(third.version()).isEqualTo(V1.plusMinutes(1));
+
+        // Field renamed
+        rule.setFieldName("prenom");
+        assertThat(third.isCurrent(rule)).isFalse();
+        assertThat(cache.get(rule).fieldKey()).isEqualTo("prenom");
+        verify(parser, times(4)).compile(any());
+    }
+
+    @Test
+    void evictedRuleIsCompiledAgain() {
+        ValidationRule rule = rule(1L, "nom", required());
+        ValidationRule other = rule(2L, "nom", required());
+        RulePlanCache.RulePlan plan = cache.get(rule);
+        RulePlanCache.RulePlan otherPlan = cache.get(other);
+
+        cache.evict(1L);
+        cache.evict(null);
+
+        assertThat(cache.get(rule)).isNotSameAs(plan);
+        assertThat(cache.get(other)).isSameAs(otherPlan);
+        verify(parser, times(3)).compile(any());
+    }
+
+    @Test
+    void unsavedRuleIsNotCached() {
+        ValidationRule rule = rule(null, "nom", required());
+
+        assertThat(cache.get(rule)).isNotSameAs(cache.get(rule));
+        verify(parser, times(2)).compile(any());
+    }
+
+    @Test
+    void invalidDefinitionGivesEmptyPlan() {
+        ValidationRule rule = rule(1L, null);
+        rule.setRuleDefinition("not json");
+
+        RulePlanCache.RulePlan plan = cache.get(rule);
+
+        assertThat(plan.isEmpty()).isTrue();
+        assertThat(plan.fieldKey()).isEmpty();
+        assertThat(plan.validate(null).isValid()).isTrue();
+    }
+
+    @Test
+    void columnIndexFollowsTheSchema() {
+        RulePlanCache.RulePlan plan = cache.get(rule(1L, "NAT", required()));
+        RowBatch.Schema schema = RowBatch.Schema.untyped(List.of("cli", "nat"));
+        RowBatch.Schema other = RowBatch.Schema.untyped(List.of("nat", "cli", "age"));
+
+        assertThat(plan.columnIndex(schema)).isEqualTo(1);
+        assertThat(plan.columnIndex(other)).isZero();
+        assertThat(plan.columnIndex(RowBatch.Schema.untyped(List.of("cli")))).isEqualTo(-1);
+        assertThat(plan.columnIndex(schema)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,83 @@
+package com.adakalgroup.bdqm.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SafeRegexTest {
+
+    private final SafeRegex safeRegex = new SafeRegex(500, 500, 100_000);
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "(a+)+",
+        "(\\w*\\s?)*",
+        "(a|ab)*",
+        "(a|a)*b",
+        "(.*a){12}b"
+    })
+    void rejectsPatternsProneToExponentialBacktracking(String regex) {
+        assertThat(SafeRegex.backtrackingRisk(regex)).isNotNull();
+        assertThatThrownBy(() -> safeRegex.check(regex))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("exponential time");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "([a-z]+\\.)+",
+        "(?>a+)+",
+        "a++",
+        "[(]+",
+        "\\Q(a+)+\\E"
+    })
+    void acceptsDelimitedAtomicPossessiveOrLiteralPatterns(String regex) {
+        assertThat(SafeRegex.backtrackingRisk(regex)).isNull();
+        assertThatCode(() -> safeRegex.check(regex)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void rejectsInvalidEmptyAndOversizedPatterns() {
+        assertThatThrownBy(() -> safeRegex.check("(a")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> safeRegex.check("")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> safeRegex.check("a".repeat(501))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void stepBudgetStopsCatastrophicBacktracking() {
+        // Never saved through check(), as a pattern stored before it existed. The JDK memoizes simple
+        // repeated groups such as (a|a)*b, a counted repetition of .* still backtracks exponentially.
+        Pattern pattern = safeRegex.compile("(.*a){12}b");
+        String input = "a".repeat(40);
+
+        assertThatThrownBy(() -> safeRegex.matches(pattern, input))
+            .isInstanceOf(SafeRegex.BudgetExceededException.class)
+            .hasMessageContaining("100000");
+    }
+
+    @Test
+    void repeatedOverlappingAlternationStaysWithinBudget() {
+        Pattern pattern = safeRegex.compile("(a|a)*b");
+
+        assertThat(safeRegex.matches(pattern, "a".repeat(200))).isFalse();
+    }
+
+    @Test
+    void matchesWithinBudget() {
+        Pattern pattern = safeRegex.compile("([a-z]+\\.)+");
+
+        assertThat(safeRegex.matches(pattern, "www.example.")).isTrue();
+        assertThat(safeRegex.matches(pattern, "www.example")).isFalse();
+    }
+
+    @Test
+    void compileReturnsTheCachedPattern() {
+        assertThat(safeRegex.compile("[0-9]{4}")).isSameAs(safeRegex.compile("[0-9]{4}"));
+    }
+}
@@ -0,0 +1,296 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.model.RuleCondition;
+import com.adakalgroup.bdqm.model.enums.CbsDataType;
+import com.adakalgroup.bdqm.service.NaturalLanguageRuleParser.ValidationResult;
+import com.adakalgroup.bdqm.service.SqlRuleTranslator.Operand;
+import com.adakalgroup.bdqm.service.SqlRuleTranslator.SqlCheck;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlRuleTranslatorTest {
+
+    private static final String V = "v";
+    private static final Operand TEXT = new Operand(V, "c", CbsDataType.VARCHAR);
+    private static final Operand DATE = new Operand(V, "c", CbsDataType.DATE);
+    private static final Operand DECIMAL = new Operand(V, "c", CbsDataType.DECIMAL);
+
+    private static RuleCondition condition(String type, Object value) {
+        return RuleCondition.builder().type(type).value(value).build();
+    }
+
+    private static RuleCondition listCondition(String type, String... values) {
+        return RuleCondition.builder().type(type).values(List.of(values)).build();
+    }
+
+    private static SqlCheck single(RuleCondition condition, Operand operand) {
+        Optional<List<SqlCheck>> checks = SqlRuleTranslator.translate(List.of(condition), operand);
+        assertThat(checks).isPresent();
+        assertThat(checks.get()).hasSize(1);
+        return checks.get().get(0);
+    }
+
+    private static List<Object> binds(SqlCheck check) {
+        return List.copyOf(check.binds());
+    }
+
+    private static List<Object> messageBinds(SqlCheck check) {
+        return List.copyOf(check.messageBinds());
+    }
+
+    // ===== Predicates and binds =====
+
+    @Test
+    void translatesPresenceAndLengthRules() {
+        SqlCheck required = single(condition("required", null), TEXT);
+        assertThat(required.predicate()).isEqualTo("v IS NULL");
+        assertThat(binds(required)).isEmpty();
+        assertThat(messageBinds(required)).containsExactly(NaturalLanguageRuleParser.MSG_REQUIRED);
+
+        assertThat(SqlRuleTranslator.translate(List.of(condition("optional", null)), TEXT)).contains(List.of());
+
+        SqlCheck min = single(condition("minLength", 3), TEXT);
+        assertThat(min.predicate()).isEqualTo("char_length(v) < ?");
+        assertThat(binds(min)).containsExactly(3);
+        assertThat(messageBinds(min)).containsExactly("Doit contenir au moins 3 caracteres");
+
+        assertThat(single(condition("maxLength", "8"), TEXT).predicate()).isEqualTo("char_length(v) > ?");
+        assertThat(single(condition("exactLength", 5), TEXT).predicate()).isEqualTo("char_length(v) <> ?");
+    }
+
+    @Test
+    void translatesPatternRules() {
+        assertPattern("alphanumeric", NaturalLanguageRuleParser.ALPHANUMERIC_PATTERN, "v !~ ?");
+        assertPattern("alphaOnly", NaturalLanguageRuleParser.ALPHA_ONLY_PATTERN, "v !~ ?");
+        assertPattern("numericOnly", NaturalLanguageRuleParser.NUMERIC_ONLY_PATTERN, "v !~ ?");
+        assertPattern("uppercase", NaturalLanguageRuleParser.UPPERCASE_PATTERN, "v !~ ?");
+        assertPattern("email", NaturalLanguageRuleParser.EMAIL_PATTERN, "v !~ ?");
+        assertPattern("phone", NaturalLanguageRuleParser.PHONE_PATTERN, "v !~ ?");
+        assertPattern("notPlaceholder", NaturalLanguageRuleParser.PLACEHOLDER_PATTERN, "v ~ ?");
+
+        SqlCheck custom = single(condition("customRegex", "[A-Z]{2}\\d+"), TEXT);
+        assertThat(custom.predicate()).isEqualTo("v !~ ?");
+        assertThat(binds(custom)).containsExactly("^(?:[A-Z]{2}\\d+)$");
+        assertThat(messageBinds(custom)).containsExactly(NaturalLanguageRuleParser.MSG_CUSTOM_REGEX);
+    }
+
+    private static void assertPattern(String type, Pattern pattern, String predicate) {
+        SqlCheck check = single(condition(type, null), TEXT);
+        assertThat(check.predicate()).as(type).isEqualTo(predicate);
+        assertThat(binds(check)).as(type).containsExactly(pattern.pattern());
+    }
+
+    @Test
+    void translatesForbiddenRulesWithFoldedValues() {
+        SqlCheck patterns = single(listCondition("forbiddenPatterns", "XXX", "Évry"), TEXT);
+        assertThat(patterns.predicate())
+            .isEqualTo("EXISTS (SELECT 1 FROM unnest(CAST(? AS text[])) AS p(f) WHERE strpos(public.bdqm_fold(v), p.f) > 0)");
+        assertThat((String[]) patterns.binds().get(0)).containsExactly("xxx", "evry");
+        // Default messages come from the first listed pattern found
+        assertThat(patterns.message()).contains("ORDER BY p.n LIMIT 1");
+        assertThat((String[]) patterns.messageBinds().get(1)).containsExactly("Ne peut pas contenir 'XXX'",
+            "Ne peut pas contenir 'Évry'");
+
+        RuleCondition withMessage = listCondition("forbiddenPatterns", "XXX");
+        withMessage.setMessage("Nom fictif");
+        assertThat(messageBinds(single(withMessage, TEXT))).containsExactly("Nom fictif");
+
+        SqlCheck values = single(listCondition("forbiddenValues", "N/A", "n/a", "Néant"), TEXT);
+        assertThat(values.predicate()).isEqualTo("public.bdqm_fold(v) = ANY(CAST(? AS text[]))");
+        assertThat((String[]) values.binds().get(0)).containsExactly("n/a", "neant");
+        assertThat((String[]) values.messageBinds().get(0)).containsExactly("La valeur 'N/A' n'est pas autorisee",
+            "La valeur 'Néant' n'est pas autorisee");
+    }
+
+    @Test
+    void translatesDateRules() {
+        assertThat(single(condition("dateNotFuture", null), DATE).predicate())
+            .isEqualTo("CAST(c AS date) > CURRENT_DATE");
+        assertThat(single(condition("dateNotExpired", null), DATE).predicate())
+            .isEqualTo("CAST(c AS date) < CURRENT_DATE");
+
+        SqlCheck after = single(condition("dateAfter", "1915-01-01"), DATE);
+        assertThat(after.predicate()).isEqualTo("CAST(c AS date) < CAST(? AS date)");
+        assertThat(binds(after)).containsExactly(LocalDate.of(1915, 1, 1));
+        assertThat(messageBinds(after)).containsExactly("La date doit etre apres le 1915-01-01");
+
+        assertThat(single(condition("dateBefore", "2100-12-31"), DATE).predicate())
+            .isEqualTo("CAST(c AS date) > CAST(? AS date)");
+
+        RuleCondition range = RuleCondition.builder().type("dateRange").min("1900-01-01").max("2100-01-01").build();
+        List<SqlCheck> checks = SqlRuleTranslator.translate(List.of(range), DATE).orElseThrow();
+        assertThat(checks).extracting(SqlCheck::predicate)
+            .containsExactly("CAST(c AS date) < CAST(? AS date)", "CAST(c AS date) > CAST(? AS date)");
+    }
+
+    @Test
+    void translatesTextRulesToFoldedLike() {
+        SqlCheck starts = single(condition("startsWith", "Ab_1%"), TEXT);
+        assertThat(starts.predicate()).isEqualTo("NOT (public.bdqm_fold(v) LIKE ?)");
+        assertThat(binds(starts)).containsExactly("ab\\_1\\%%");
+        assertThat(messageBinds(starts)).containsExactly("Doit commencer par 'Ab_1%'");
+
+        assertThat(binds(single(condition("endsWith", "É"), TEXT))).containsExactly("%e");
+        assertThat(binds(single(condition("contains", "x\\y"), TEXT))).containsExactly("%x\\\\y%");
+    }
+
+    @Test
+    void translatesListRules() {
+        SqlCheck in = single(listCondition("inList", "M", "F", "m"), TEXT);
+        assertThat(in.predicate()).isEqualTo("public.bdqm_fold(v) <> ALL(CAST(? AS text[]))");
+        assertThat((String[]) in.binds().get(0)).containsExactly("m", "f");
+        assertThat(messageBinds(in)).containsExactly("Doit etre l'une des valeurs: M, F, m");
+
+        SqlCheck notIn = single(listCondition("notInList", "X"), TEXT);
+        assertThat(notIn.predicate()).isEqualTo("public.bdqm_fold(v) = ANY(CAST(? AS text[]))");
+        assertThat(messageBinds(notIn)).containsExactly(NaturalLanguageRuleParser.MSG_NOT_IN_LIST);
+    }
+
+    @Test
+    void translatesNumericRules() {
+        SqlCheck min = single(condition("minValue", 10), DECIMAL);
+        assertThat(min.predicate()).isEqualTo("CAST(c AS double precision) < ?");
+        assertThat(binds(min)).containsExactly(10.0);
+        assertThat(messageBinds(min)).containsExactly("La valeur doit etre >= 10.0");
+
+        assertThat(single(condition("maxValue", 99), DECIMAL).predicate()).isEqualTo("CAST(c AS double precision) > ?");
+
+        SqlCheck range = single(RuleCondition.builder().type("valueRange").min(1).max(5).build(), DECIMAL);
+        assertThat(range.predicate())
+            .isEqualTo("(CAST(c AS double precision) < ? OR CAST(c AS double precision) > ?)");
+        assertThat(binds(range)).containsExactly(1.0, 5.0);
+        assertThat(messageBinds(range)).containsExactly("La valeur doit etre entre 1 et 5");
+    }
+
+    // ===== Optional conditions, ignored and untranslatable ones =====
+
+    @Test
+    void optionalConditionOnlyAppliesToPresentValues() {
+        RuleCondition condition = condition("minLength", 3);
+        condition.setOptional(true);
+
+        assertThat(single(condition, TEXT).predicate()).isEqualTo("(v IS NOT NULL AND char_length(v) < ?)");
+    }
+
+    @Test
+    void leavesOutConditionsTheJavaEngineIgnores() {
+        List<RuleCondition> ignored = List.of(
+            condition("noSuchRule", null),
+            condition("minLength", null),
+            condition("customRegex", "(unclosed"),
+            condition("dateAfter", "not-a-date"),
+            listCondition("inList"));
+
+        assertThat(SqlRuleTranslator.translate(ignored, TEXT)).contains(List.of());
+    }
+
+    @Test
+    void untranslatableConditionDisablesTheWholeList() {
+        RuleCondition required = condition("required", null);
+
+        // Date and numeric rules on a text column
+        assertThat(SqlRuleTranslator.translate(List.of(required, condition("dateNotFuture", null)), TEXT)).isEmpty();
+        assertThat(SqlRuleTranslator.translate(List.of(required, condition("minValue", 1)), TEXT)).isEmpty();
+        // Text rules on a column whose text form differs between Java and PostgreSQL
+        assertThat(SqlRuleTranslator.translate(List.of(required, condition("maxLength", 10)), DECIMAL)).isEmpty();
+        // A regex PostgreSQL reads differently
+        assertThat(SqlRuleTranslator.translate(List.of(required, condition("customRegex", "\\w+")), TEXT)).isEmpty();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"[A-Z]{2}[0-9]+", "\\d{3}-\\d{4}", "^(?:ab|cd)*?$", "[\\d\\s.]+", "[]a]", "[^]a]+",
+        "\\S+@\\D+", "a\\.b\\(c\\)"})
+    void portableRegexes(String regex) {
+        assertThat(SqlRuleTranslator.isPortable(regex)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"\\w+", "\\bword", "\\p{L}+", "(?i)abc", "(?=a)b", "a++", "(a)\\1", "[a-z&&[^e]]",
+        "[[a-z]]", "[\\S]", "[\\D-]+", "[\\w]", "[a\\n]"})
+    void nonPortableRegexes(String regex) {
+        assertThat(SqlRuleTranslator.isPortable(regex)).isFalse();
+    }
+
+    // ===== Parity with the Java engine =====
+
+    /**
+     * The same values through NaturalLanguageRuleParser and through the translated predicates, read with
+     * PostgreSQL semantics: the operand is the trimmed text, NULL if blank, a NULL comparison is not true,
+     * ~ searches the value. The first failing check gives the message, as in the Java engine.
+     */
+    @Test
+    void sqlPredicatesAgreeWithTheJavaEngine() {
+        NaturalLanguageRuleParser parser = new NaturalLanguageRuleParser(new SafeRegex(500, 500, 100_000));
+        RuleCondition optionalMax = condition("maxLength", 8);
+        optionalMax.setOptional(true);
+        List<List<RuleCondition>> rules = List.of(
+            List.of(condition("required", null), condition("minLength", 3), optionalMax),
+            List.of(condition("alphanumeric", null), condition("exactLength", 6)),
+            List.of(condition("uppercase", null)),
+            List.of(condition("alphaOnly", null)),
+            List.of(condition("numericOnly", null)),
+            List.of(condition("email", null)),
+            List.of(condition("phone", null)),
+            List.of(condition("notPlaceholder", null)),
+            List.of(condition("customRegex", "[A-Z]{2}\\d+|\\d{3}-\\d{4}")),
+            List.of(condition("customRegex", "a|ab")));
+        List<String> values = Arrays.asList(null, "", "   ", "ab", "ABC123", " abc123 ", "AB12", "ab-12",
+            "555-1234", "x555-1234", "ab", "ABCDEFGHIJ", "XXXX", "xX", "john.doe@bank.com", "john@",
+            "+33 6 12 34 56", "12345678", "Jean Pierre");
+
+        for (List<RuleCondition> conditions : rules) {
+            List<SqlCheck> checks = SqlRuleTranslator.translate(conditions, TEXT).orElseThrow();
+            NaturalLanguageRuleParser.CompiledConditions compiled = parser.compile(conditions);
+            for (String value : values) {
+                ValidationResult java = compiled.validate(value);
+                String sqlFailure = firstFailure(checks, value);
+
+                assertThat(sqlFailure).as("%s on '%s'", conditions, value)
+                    .isEqualTo(java.isValid() ? null : java.message());
+            }
+        }
+    }
+
+    private static String firstFailure(List<SqlCheck> checks, String value) {
+        String text = value == null || value.trim().isEmpty() ? null : value.trim();
+        for (SqlCheck check : checks) {
+            if (fails(check.predicate(), check.binds(), text)) {
+                return (String) check.messageBinds().get(0);
+            }
+        }
+        return null;
+    }
+
+    private static final Pattern LENGTH = Pattern.compile("char_length\\(v\\) (<|>|<>) \\?");
+
+    private static boolean fails(String predicate, List<?> binds, String text) {
+        String guard = "(v IS NOT NULL AND ";
+        if (predicate.startsWith(guard)) {
+            return text != null && fails(predicate.substring(guard.length(), predicate.length() - 1), binds, text);
+        }
+        if (predicate.equals("v IS NULL")) return text == null;
+        if (text == null) return false;
+        if (predicate.equals("v !~ ?")) return !Pattern.compile((String) binds.get(0)).matcher(text).find();
+        if (predicate.equals("v ~ ?")) return Pattern.compile((String) binds.get(0)).matcher(text).find();
+        Matcher length = LENGTH.matcher(predicate);
+        if (length.matches()) {
+            int limit = (Integer) binds.get(0);
+            return switch (length.group(1)) {
+                case "<" -> text.length() < limit;
+                case ">" -> text.length() > limit;
+                default -> text.length() != limit;
+            };
+        }
+        throw new IllegalArgumentException("Predicate not interpreted by the test: " + predicate);
+    }
+}
@@ -0,0 +1,156 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.dto.SyncJobDto;
+import com.adakalgroup.bdqm.model.enums.SyncJobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncJobServiceTest {
+
+    private final DataSyncService dataSyncService = mock(DataSyncService.class);
+    private final SyncProgressService syncProgressService = mock(SyncProgressService.class);
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private SyncJobService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SyncJobService(dataSyncService, syncProgressService);
+        ReflectionTestUtils.setField(service, "historySize", 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        service.shutdown();
+    }
+
+    @Test
+    void submissionCoveredByActiveJobIsDeduplicated() throws Exception {
+        blockSyncAll();
+        SyncJobService.Submission all = service.submitAll("alice");
+        started.await(2, TimeUnit.SECONDS);
+
+        SyncJobService.Submission again = service.submitAll("bob");
+        SyncJobService.Submission table = service.submitTable("bkcli", "bob");
+        SyncJobService.Submission deletes = service.submitReconcileDeletes("bkcli", "bob");
+
+        assertThat(all.deduplicated()).isFalse();
+        assertThat(again.deduplicated()).isTrue();
+        assertThat(again.job().getId()).isEqualTo(all.job().getId());
+        assertThat(again.job().getStatus()).isEqualTo(SyncJobStatus.RUNNING);
+        assertThat(table.deduplicated()).isTrue();
+        assertThat(table.job().getId()).isEqualTo(all.job().getId());
+        assertThat(deletes.deduplicated()).isFalse();
+        assertThat(service.submitReconcileDeletes("bkcli", "carol").job().getId())
+                .isEqualTo(deletes.job().getId());
+        assertThat(service.submitReconcileDeletes("bkcom", "carol").deduplicated()).isFalse();
+    }
+
+    @Test
+    void cancelledQueuedJobNeverRuns() throws Exception {
+        blockSyncAll();
+        SyncJobService.Submission all = service.submitAll("alice");
+        started.await(2, TimeUnit.SECONDS);
+        SyncJobService.Submission validate = service.submitValidate("bkcli", "alice");
+
+        SyncJobDto cancelled = service.cancel(validate.job().getId());
+
+        assertThat(cancelled.getStatus()).isEqualTo(SyncJobStatus.CANCELLED);
+        assertThat(cancelled.getCancelRequested()).isTrue();
+        assertThat(cancelled.getFinishedAt()).isNotNull();
+        assertThat(service.submitValidate("bkcli", "bob").deduplicated()).isFalse();
+        assertThatThrownBy(() -> service.cancel(validate.job().getId()))
+                .isInstanceOf(IllegalStateException.class);
+
+        release.countDown();
+        assertThat(awaitFinished(all.job().getId()).getStatus()).isEqualTo(SyncJobStatus.COMPLETED);
+        assertThat(service.getJob(validate.job().getId()).orElseThrow().getStatus())
+                .isEqualTo(SyncJobStatus.CANCELLED);
+        // Only the resubmitted validation ran
+        verify(dataSyncService, timeout(2000)).validateTable("bkcli");
+    }
+
+    @Test
+    void runningSyncStopsAtCancellation() throws Exception {
+        blockSyncAll();
+        SyncJobService.Submission all = service.submitAll("alice");
+        started.await(2, TimeUnit.SECONDS);
+
+        SyncJobDto requested = service.cancel(all.job().getId());
+        assertThat(requested.getStatus()).isEqualTo(SyncJobStatus.RUNNING);
+        assertThat(requested.getCancelRequested()).isTrue();
+        // A cancelled job no longer covers new submissions
+        assertThat(service.submitTable("bkcli", "bob").deduplicated()).isFalse();
+
+        release.countDown();
+        assertThat(awaitFinished(all.job().getId()).getStatus()).isEqualTo(SyncJobStatus.CANCELLED);
+    }
+
+    @Test
+    void runningValidationCannotBeCancelled() throws Exception {
+        when(dataSyncService.validateTable("bkcli")).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        });
+        SyncJobService.Submission validate = service.submitValidate("bkcli", "alice");
+        started.await(2, TimeUnit.SECONDS);
+
+        assertThatThrownBy(() -> service.cancel(validate.job().getId()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("cannot be cancelled once running");
+        assertThatThrownBy(() -> service.cancel("unknown")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void finishedJobsBeyondHistorySizeAreEvicted() throws Exception {
+        ReflectionTestUtils.setField(service, "historySize", 2);
+        List<String> tables = List.of("bkcli", "bkcom", "bkadcli", "bkemacli");
+        String[] ids = new String[tables.size()];
+        for (int i = 0; i < tables.size(); i++) {
+            ids[i] = service.submitReconcileDeletes(tables.get(i), "alice").job().getId();
+            awaitFinished(ids[i]);
+        }
+
+        assertThat(service.getJob(ids[0])).isEmpty();
+        assertThat(service.getJobs(10)).extracting(SyncJobDto::getId).containsExactly(ids[3], ids[2], ids[1]);
+        assertThat(service.getJobs(1)).extracting(SyncJobDto::getId).containsExactly(ids[3]);
+        verify(dataSyncService, never()).syncAll(any());
+        verify(dataSyncService, never()).syncTable(anyString(), any());
+    }
+
+    private void blockSyncAll() {
+        when(dataSyncService.syncAll(any(SyncJobContext.class))).thenAnswer(inv -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of();
+        });
+    }
+
+    private SyncJobDto awaitFinished(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2000;
+        while (System.currentTimeMillis() < deadline) {
+            SyncJobDto job = service.getJob(jobId).orElseThrow();
+            if (job.getFinishedAt() != null) return job;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Sync job " + jobId + " did not finish");
+    }
+}
@@ -0,0 +1,118 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.config.metrics.BusinessMetricsConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class SyncPipelineTest {
+
+    private static final int POISONED = 13;
+
+    @Mock
+    private BusinessMetricsConfig metricsConfig;
+
+    @Mock
+    private SyncPipeline.DeadLetterSink deadLetters;
+
+    private final Set<Object> loaded = ConcurrentHashMap.newKeySet();
+    private final Set<Object> validated = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Load stage that rejects any batch holding the poisoned record, as a constraint violation would.
+     */
+    private final SyncPipeline.Stage load = batch -> {
+        for (Map<String, Object> record : batch.getRecords()) {
+            if (record.get("id").equals(POISONED)) {
+                throw new IllegalStateException("value too long for column nom");
+            }
+        }
+        batch.getRecords().forEach(record -> loaded.add(record.get("id")));
+        batch.setInserted(batch.getRecords().size());
+        batch.setUpserted(batch.getRecords().size());
+    };
+
+    private final SyncPipeline.Stage validate = batch -> {
+        batch.getChangedRecords().forEach(record -> validated.add(record.get("id")));
+        batch.setValidated(batch.getChangedRecords().size());
+    };
+
+    private static SyncPipeline.Extractor batches(int count, int size) {
+        List<SyncPipeline.Batch> batches = new ArrayList<>();
+        for (int b = 0; b < count; b++) {
+            List<Map<String, Object>> records = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                records.add(Map.of("id", b * size + i));
+            }
+            batches.add(new SyncPipeline.Batch(b * size, records));
+        }
+        Iterator<SyncPipeline.Batch> it = batches.iterator();
+        return () -> it.hasNext() ? it.next() : null;
+    }
+
+    @Test
+    void poisonedRecordIsDeadLetteredAndTheRestIsLoaded() {
+        SyncPipeline pipeline = new SyncPipeline("bkcli", 2, 2, metricsConfig, deadLetters, 10);
+        List<SyncPipeline.Batch> completed = new ArrayList<>();
+
+        SyncPipeline.Result result = pipeline.run(batches(3, 10), load, validate, completed::add);
+
+        ArgumentCaptor<Map<String, Object>> record = ArgumentCaptor.captor();
+        verify(deadLetters, times(1)).accept(eq("load"), record.capture(), any(IllegalStateException.class));
+        assertThat(record.getValue()).containsEntry("id", POISONED);
+
+        assertThat(loaded).hasSize(29).doesNotContain(POISONED);
+        assertThat(validated).isEqualTo(loaded);
+        assertThat(result).isEqualTo(new SyncPipeline.Result(30, 29, 0, 0, 29, 29, 0, 1));
+
+        // The poisoned batch completes without its rejected record, in extraction order
+        assertThat(completed).extracting(SyncPipeline.Batch::getOffset).containsExactly(0, 10, 20);
+        SyncPipeline.Batch poisoned = completed.get(1);
+        assertThat(poisoned.isFailed()).isFalse();
+        assertThat(poisoned.getErrors()).isEqualTo(1);
+        assertThat(poisoned.getRecords()).hasSize(9);
+    }
+
+    @Test
+    void failureOfEveryRecordStopsAtTheDeadLetterLimit() {
+        SyncPipeline pipeline = new SyncPipeline("bkcli", 2, 1, metricsConfig, deadLetters, 2);
+        SyncPipeline.Stage down = batch -> {
+            throw new IllegalStateException("connection refused");
+        };
+
+        SyncPipeline.Result result = pipeline.run(batches(1, 10), down, null, batch -> { });
+
+        verify(deadLetters, times(2)).accept(anyString(), any(), any());
+        assertThat(result.errors()).isEqualTo(10);
+        assertThat(result.upserted()).isZero();
+    }
+
+    @Test
+    void withoutSinkTheFailedBatchCountsAsErrors() {
+        SyncPipeline pipeline = new SyncPipeline("bkcli", 2, 2, metricsConfig);
+
+        SyncPipeline.Result result = pipeline.run(batches(3, 10), load, validate, batch -> { });
+
+        verify(deadLetters, never()).accept(anyString(), any(), any());
+        assertThat(loaded).hasSize(20).doesNotContain(POISONED);
+        assertThat(result).isEqualTo(new SyncPipeline.Result(30, 20, 0, 0, 20, 20, 0, 10));
+    }
+}
@@ -0,0 +1,164 @@
+package com.adakalgroup.bdqm.service;
+
+import com.adakalgroup.bdqm.config.metrics.BusinessMetricsConfig;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.Record4;
+import org.jooq.Result;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ValidationQueueServiceTest {
+
+    private static final String CLAIM = "UPDATE public.validation_queue SET status = 'PROCESSING'";
+    private static final String SUPERSEDED = "DELETE FROM public.validation_queue q";
+    private static final Field<Long> ID = DSL.field("id", Long.class);
+    private static final Field<String> TABLE_NAME = DSL.field("table_name", String.class);
+    private static final Field<String> KEY_DATA = DSL.field("key_data", String.class);
+    private static final Field<Integer> ATTEMPTS = DSL.field("attempts", Integer.class);
+
+    private final DSLContext dsl = mock(DSLContext.class);
+    private final DynamicCbsQueryService queryService = mock(DynamicCbsQueryService.class);
+    private final CbsValidationService validationService = mock(CbsValidationService.class);
+    private final BusinessMetricsConfig metrics = mock(BusinessMetricsConfig.class);
+    private final List<Statement> statements = new ArrayList<>();
+    private final List<Statement> claimStatements = new ArrayList<>();
+    private ValidationQueueService service;
+
+    private record Statement(String sql, List<Object> bindings) {}
+
+    @BeforeEach
+    void setUp() {
+        ClusterLockService locks = mock(ClusterLockService.class);
+        when(locks.nodeId()).thenReturn("node-a");
+        service = new ValidationQueueService(dsl, queryService, validationService, metrics, locks);
+        ReflectionTestUtils.setField(service, "batchSize", 500);
+        ReflectionTestUtils.setField(service, "maxAttempts", 5);
+        ReflectionTestUtils.setField(service, "retryBackoffSeconds", 30);
+        ReflectionTestUtils.setField(service, "lockTimeoutSeconds", 600);
+
+        when(dsl.execute(anyString(), any(Object[].class))).thenAnswer(inv -> {
+            statements.add(statement(inv.getArguments()));
+            return 0;
+        });
+        when(queryService.fetchMirrorRows(anyString(), any())).thenAnswer(inv -> RowBatch.of(inv.getArgument(1)));
+        when(validationService.validateRecords(anyString(), any(RowBatch.class))).thenAnswer(inv -> {
+            RowBatch rows = inv.getArgument(1);
+            for (Map<String, Object> row : rows.rows()) {
+                if (row.get("cli").toString().startsWith("BAD")) throw new IllegalStateException("rule failed");
+            }
+            return new CbsValidationService.ValidationResult(rows.size(), 0, 0, 0, 0);
+        });
+    }
+
+    private static Record4<Long, String, String, Integer> entry(long id, String table, String cli, int attempts) {
+        return DSL.using(SQLDialect.POSTGRES).newRecord(ID, TABLE_NAME, KEY_DATA, ATTEMPTS)
+                .values(id, table, TypedValueCodec.writeRow(Map.of("cli", cli)), attempts);
+    }
+
+    @SafeVarargs
+    private void claims(Record4<Long, String, String, Integer>... entries) {
+        Result<Record4<Long, String, String, Integer>> claimed = DSL.using(SQLDialect.POSTGRES)
+                .newResult(ID, TABLE_NAME, KEY_DATA, ATTEMPTS);
+        claimed.addAll(List.of(entries));
+        Result<Record4<Long, String, String, Integer>> empty = DSL.using(SQLDialect.POSTGRES)
+                .newResult(ID, TABLE_NAME, KEY_DATA, ATTEMPTS);
+        when(dsl.fetch(startsWith(CLAIM), any(Object[].class))).thenAnswer(inv -> {
+            claimStatements.add(statement(inv.getArguments()));
+            return claimStatements.size() == 1 ? claimed : empty;
+        });
+    }
+
+    private static Statement statement(Object[] args) {
+        return new Statement((String) args[0], Arrays.asList(args).subList(1, args.length));
+    }
+
+    private List<Statement> statements(String prefix) {
+        return statements.stream().filter(s -> s.sql().startsWith(prefix)).toList();
+    }
+
+    @Test
+    void claimedBatchIsValidatedPerTableAndDeleted() {
+        claims(entry(1, "bkcli", "C1", 1), entry(2, "bkcom", "C2", 1), entry(3, "bkcli", "C3", 1));
+
+        service.drain();
+
+        assertThat(claimStatements).hasSize(1);
+        assertThat(claimStatements.get(0).sql()).contains("FOR UPDATE SKIP LOCKED");
+        assertThat(claimStatements.get(0).bindings())
+                .containsExactly("node-a/" + Thread.currentThread().getName(), 600, 500);
+        verify(validationService).validateRecords(eq("bkcli"), argThat((RowBatch rows) -> rows.size() == 2));
+        verify(validationService).validateRecords(eq("bkcom"), argThat((RowBatch rows) -> rows.size() == 1));
+        assertThat(statements("DELETE FROM public.validation_queue WHERE id IN"))
+                .extracting(Statement::bindings)
+                .containsExactly(List.of(1L, 3L), List.of(2L));
+        verify(metrics).recordValidationQueueBatch(eq("bkcli"), eq("validated"), eq(2), anyLong());
+    }
+
+    @Test
+    void failingBatchIsBisectedAndTheBadRowRetriedWithBackoff() {
+        claims(entry(1, "bkcli", "C1", 1), entry(2, "bkcli", "C2", 1), entry(3, "bkcli", "BAD3", 2),
+                entry(4, "bkcli", "C4", 1));
+
+        service.drain();
+
+        // [1..4] fails, [1, 2] passes, [3, 4] fails, [3] fails, [4] passes
+        verify(validationService, times(5)).validateRecords(eq("bkcli"), any(RowBatch.class));
+        assertThat(statements("DELETE FROM public.validation_queue WHERE id IN"))
+                .extracting(Statement::bindings)
+                .containsExactly(List.of(1L, 2L), List.of(4L));
+        assertThat(statements(SUPERSEDED)).extracting(Statement::bindings).containsExactly(List.of(3L));
+        List<Statement> retries = statements("UPDATE public.validation_queue SET status = 'PENDING'");
+        assertThat(retries).hasSize(1);
+        assertThat(retries.get(0).sql()).contains("POWER(2, attempts - 1)");
+        assertThat(retries.get(0).bindings()).containsExactly("rule failed", 30, 3L);
+        verify(metrics).recordValidationQueueBatch(eq("bkcli"), eq("retried"), eq(1), anyLong());
+        verify(queryService, never()).invalidateRowHashes(anyString(), any());
+    }
+
+    @Test
+    void retryIsDroppedWhenTheRowIsQueuedAgain() {
+        claims(entry(7, "bkcli", "BAD7", 1));
+        when(dsl.execute(startsWith(SUPERSEDED), any(Object[].class))).thenReturn(1);
+
+        service.drain();
+
+        assertThat(statements("UPDATE public.validation_queue")).isEmpty();
+        verify(metrics).recordValidationQueueBatch(eq("bkcli"), eq("retried"), eq(1), anyLong());
+    }
+
+    @Test
+    void rowFailingMaxAttemptsIsMarkedFailedAndRehashed() {
+        claims(entry(9, "bkcli", "BAD9", 5));
+
+        service.drain();
+
+        List<Statement> failed = statements("UPDATE public.validation_queue SET status = 'FAILED'");
+        assertThat(failed).hasSize(1);
+        assertThat(failed.get(0).bindings()).containsExactly("rule failed", 9L);
+        assertThat(statements(SUPERSEDED)).isEmpty();
+        verify(queryService).invalidateRowHashes("bkcli", List.of(Map.of("cli", "BAD9")));
+        verify(metrics).recordValidationQueueBatch(eq("bkcli"), eq("failed"), eq(1), anyLong());
+    }
+}
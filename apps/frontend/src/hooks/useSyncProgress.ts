@@ -2,6 +2,7 @@ import { useState, useEffect, useCallback, useRef } from 'react';
 
 export interface SyncBatchEvent {
   type: 'BATCH';
+  jobId?: string;
   table: string;
   offset: number;
   batchSize: number;
@@ -14,6 +15,7 @@ export interface SyncBatchEvent {
 
 export interface SyncTableCompleteEvent {
   type: 'TABLE_COMPLETE';
+  jobId?: string;
   table: string;
   upserted: number;
   anomalies: number;
@@ -24,11 +26,21 @@ export interface SyncTableCompleteEvent {
 
 export interface SyncCompleteEvent {
   type: 'SYNC_COMPLETE';
+  jobId?: string;
   tablesProcessed: number;
   durationMs: number;
 }
 
-export type SyncEvent = SyncBatchEvent | SyncTableCompleteEvent | SyncCompleteEvent;
+export interface SyncJobEvent {
+  type: 'JOB';
+  jobId: string;
+  jobType: 'ALL' | 'TABLE' | 'RECONCILE_DELETES' | 'VALIDATE';
+  table?: string;
+  status: 'QUEUED' | 'RUNNING' | 'COMPLETED' | 'FAILED' | 'CANCELLED';
+  error?: string;
+}
+
+export type SyncEvent = SyncBatchEvent | SyncTableCompleteEvent | SyncCompleteEvent | SyncJobEvent;
 
 export interface SyncProgress {
   connected: boolean;
@@ -93,6 +105,14 @@ export function useSyncProgress() {
               progress: 100,
               lastComplete: event,
             };
+          case 'JOB':
+            if (event.status === 'RUNNING') {
+              return { ...newState, running: true };
+            }
+            if (event.status !== 'QUEUED') {
+              return { ...newState, running: false, currentTable: null };
+            }
+            return newState;
           default:
             return newState;
         }